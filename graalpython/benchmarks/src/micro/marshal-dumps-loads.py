@@ -0,0 +1,49 @@
+# marshal.dumps/loads throughput compared to pickle on numeric payloads
+import marshal
+import pickle
+import time
+
+
+def make_payload(size):
+    return {
+        "ids": list(range(size)),
+        "values": [i * 0.5 for i in range(size)],
+        "labels": ["label-%d" % (i % 16) for i in range(size // 10)],
+        "meta": ("worker", 42, 2**70, None),
+    }
+
+
+def roundtrip(module, payload, iterations):
+    total = 0
+    for i in range(iterations):
+        data = module.dumps(payload)
+        result = module.loads(data)
+        total += len(data) + len(result["ids"])
+    return total
+
+
+def timed_roundtrip(module, payload, iterations):
+    start = time.time()
+    total = roundtrip(module, payload, iterations)
+    return total, time.time() - start
+
+
+def measure(iterations):
+    payload = make_payload(100000)
+    print("Start timing...")
+    total, duration = timed_roundtrip(marshal, payload, iterations)
+    print("marshal bytes %d" % total)
+    # the same roundtrip through pickle, for comparison only
+    pickle_total, pickle_duration = timed_roundtrip(pickle, payload, iterations)
+    print("pickle bytes %d in %.3f s" % (pickle_total, pickle_duration))
+    print("marshal-dumps-loads: %.3f" % duration)
+
+
+# warm up
+print('warming up ...')
+small = make_payload(100)
+for run in range(2000):
+    roundtrip(marshal, small, 1)
+    roundtrip(pickle, small, 1)
+
+measure(50)
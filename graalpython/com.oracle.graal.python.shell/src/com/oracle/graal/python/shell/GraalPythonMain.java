@@ -111,8 +111,15 @@ public class GraalPythonMain extends AbstractLanguageLauncher {
                 case "-i":
                     inspectFlag = true;
                     break;
+                case "--flamegraph":
+                    polyglotOptions.put("python-sampler", "true");
+                    break;
                 default:
-                    if (!arg.startsWith("-")) {
+                    if (arg.startsWith("--flamegraph=")) {
+                        polyglotOptions.put("python-sampler", "true");
+                        polyglotOptions.put("python-sampler.Output", arg.substring("--flamegraph=".length()));
+                        break;
+                    } else if (!arg.startsWith("-")) {
                         inputFile = arg;
                         programArgs.add(inputFile);
                         break;
@@ -453,6 +460,8 @@ public class GraalPythonMain extends AbstractLanguageLauncher {
                         "                 All following arguments are passed to the compiler.\n" +
                         "-LD            : run the linker used for generating GraalPython C extensions.\n" +
                         "                 All following arguments are passed to the linker.\n" +
+                        "--flamegraph[=file] : sample the Python call stacks and write them in the\n" +
+                        "                 collapsed form read by flamegraph.pl to file (or stderr).\n" +
                         "\n" +
                         "Other environment variables:\n" +
                         "PYTHONSTARTUP: file executed on interactive startup (no default)\n" +
@@ -482,6 +491,7 @@ public class GraalPythonMain extends AbstractLanguageLauncher {
         options.add("-V");
         options.add("--version");
         options.add("--show-version");
+        options.add("--flamegraph");
     }
 
     public ConsoleHandler createConsoleHandler(InputStream inStream, OutputStream outStream) {
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.grammar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.parser.ImportPrefetcher;
+import com.oracle.graal.python.parser.antlr.Builder;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+
+public class ImportPrefetcherTests {
+    private static final String MAIN = "import first\nfrom second import name\n";
+    private static final String FIRST = "x = 1\n";
+    private static final String SECOND = "name = 2\n";
+
+    private Env env;
+    private Path directory;
+    private List<String> searchPath;
+    private ImportPrefetcher prefetcher;
+
+    @Before
+    public void setUp() throws IOException {
+        env = PythonTests.getContext().getEnv();
+        directory = Files.createTempDirectory("import-prefetcher");
+        write("main.py", MAIN);
+        write("first.py", FIRST);
+        write("second.py", SECOND);
+        searchPath = Collections.singletonList(directory.toString());
+        prefetcher = new ImportPrefetcher();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (String name : new String[]{"main.py", "first.py", "second.py"}) {
+            Files.deleteIfExists(directory.resolve(name));
+        }
+        Files.delete(directory);
+    }
+
+    private void write(String name, String code) throws IOException {
+        Files.write(directory.resolve(name), code.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String path(String name) {
+        return directory.resolve(name).toString();
+    }
+
+    private void prefetch(Env prefetchEnv, Set<String> importedModules) {
+        ParserRuleContext tree = new Builder.Parser(MAIN).build().file_input();
+        prefetcher.prefetchImports(prefetchEnv, tree, path("main.py"), searchPath, new HashSet<>(), importedModules);
+        assertTrue(ImportPrefetcher.awaitQuiescence(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void treeIsOnlyUsedForMatchingSource() {
+        prefetch(env, new HashSet<>());
+        assertNull(prefetcher.take(env, path("first.py"), "x = 2\n"));
+        // dropped by the mismatch, even for the right source
+        assertNull(prefetcher.take(env, path("first.py"), FIRST));
+
+        assertNotNull(prefetcher.take(env, path("second.py"), SECOND));
+        // each tree is only handed out once
+        assertNull(prefetcher.take(env, path("second.py"), SECOND));
+    }
+
+    @Test
+    public void importedModulesAreSkipped() {
+        Set<String> importedModules = new HashSet<>();
+        importedModules.add("first");
+        prefetch(env, importedModules);
+        assertNull(prefetcher.take(env, path("first.py"), FIRST));
+        assertNotNull(prefetcher.take(env, path("second.py"), SECOND));
+    }
+
+    @Test
+    public void nothingIsPrefetchedWithoutIO() {
+        Context context = Context.newBuilder("python").allowIO(false).option("python.PrefetchImports", "true").build();
+        try {
+            context.initialize("python");
+            context.enter();
+            try {
+                assertFalse(PythonLanguage.getContext().isIOAllowed());
+                Env deniedEnv = PythonLanguage.getContext().getEnv();
+                prefetch(deniedEnv, new HashSet<>());
+                assertNull(prefetcher.take(deniedEnv, path("first.py"), FIRST));
+            } finally {
+                context.leave();
+            }
+            // the parser does not prefetch for this context at all
+            assertEquals(1, context.eval("python", "import sys\n1").asInt());
+        } finally {
+            context.close();
+        }
+        assertTrue(PythonTests.getContext().isIOAllowed());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.grammar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.graalvm.polyglot.Context;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.parser.ParseTreeCache;
+import com.oracle.graal.python.parser.antlr.Builder;
+import com.oracle.graal.python.parser.antlr.Python3Parser;
+import com.oracle.graal.python.test.PythonTests;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+
+public class ParseTreeCacheTests {
+    private static final String KEY = "/some/module.py";
+    private static final String CODE = "import sys\n" + //
+                    "def foo(a, b=3):\n" + //
+                    "    return [x * b for x in a if x]\n" + //
+                    "print(foo((1, 2)), 'str', 1.5)\n";
+
+    private Env env;
+    private Path directory;
+    private ParseTreeCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        env = PythonTests.getContext().getEnv();
+        directory = Files.createTempDirectory("parse-tree-cache");
+        cache = ParseTreeCache.create(env, directory.toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static ParserRuleContext parse(String code) {
+        return new Builder.Parser(code).build().file_input();
+    }
+
+    private static String toTree(ParserRuleContext tree) {
+        return tree.toStringTree(Arrays.asList(Python3Parser.ruleNames));
+    }
+
+    private List<Path> cacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void hit() {
+        ParserRuleContext tree = parse(CODE);
+        cache.store(KEY, CODE, tree);
+        ParserRuleContext loaded = cache.load(KEY, CODE);
+        assertNotNull(loaded);
+        assertEquals(toTree(tree), toTree(loaded));
+        assertEquals(tree.getStop().getStopIndex(), loaded.getStop().getStopIndex());
+    }
+
+    @Test
+    public void miss() {
+        assertNull(cache.load(KEY, CODE));
+        cache.store(KEY, CODE, parse(CODE));
+        assertNull(cache.load("/other/module.py", CODE));
+    }
+
+    @Test
+    public void changedSourceInvalidates() {
+        cache.store(KEY, CODE, parse(CODE));
+        String changed = CODE.replace("b=3", "b=4");
+        assertNull(cache.load(KEY, changed));
+
+        cache.store(KEY, changed, parse(changed));
+        assertEquals(toTree(parse(changed)), toTree(cache.load(KEY, changed)));
+        assertNull(cache.load(KEY, CODE));
+    }
+
+    @Test
+    public void corruptFileIsIgnored() throws IOException {
+        cache.store(KEY, CODE, parse(CODE));
+        List<Path> files = cacheFiles();
+        assertEquals(1, files.size());
+        Path file = files.get(0);
+        byte[] data = Files.readAllBytes(file);
+
+        // truncated in the middle of the tree
+        Files.write(file, Arrays.copyOf(data, data.length / 2));
+        assertNull(cache.load(KEY, CODE));
+
+        // garbage in the tree after a valid header
+        byte[] garbage = data.clone();
+        for (int i = data.length / 2; i < garbage.length; i++) {
+            garbage[i] = (byte) 0xA5;
+        }
+        Files.write(file, garbage);
+        assertNull(cache.load(KEY, CODE));
+
+        // not a cache file at all
+        Files.write(file, new byte[]{1, 2, 3});
+        assertNull(cache.load(KEY, CODE));
+
+        // an entry that cannot be read as a file
+        Files.delete(file);
+        Files.createDirectory(file);
+        assertNull(cache.load(KEY, CODE));
+        Files.delete(file);
+
+        // the next store replaces a broken entry
+        Files.write(file, new byte[]{1, 2, 3});
+        cache.store(KEY, CODE, parse(CODE));
+        assertNotNull(cache.load(KEY, CODE));
+    }
+
+    @Test
+    public void unusableDirectoryDisablesCache() throws IOException {
+        Path file = Files.createTempFile(directory, "not-a-directory", "");
+        assertNull(ParseTreeCache.create(env, file.toString()));
+        assertNull(ParseTreeCache.create(env, ""));
+    }
+
+    @Test
+    public void noCacheWithoutIO() throws IOException {
+        Context context = Context.newBuilder("python").allowIO(false).build();
+        try {
+            context.initialize("python");
+            context.enter();
+            try {
+                assertNull(ParseTreeCache.create(PythonLanguage.getContext().getEnv(), directory.resolve("denied").toString()));
+            } finally {
+                context.leave();
+            }
+        } finally {
+            context.close();
+        }
+        assertEquals(0, cacheFiles().size());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+
+/**
+ * Measures how long it takes to create and initialize Python contexts on a single engine, with and
+ * without {@code python.SharedCore}. Run with {@code mx python-startup-bench [contexts]}.
+ */
+public final class ContextStartupBenchmark {
+
+    private ContextStartupBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int contexts = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        run("default", false, contexts);
+        run("shared core", true, contexts);
+    }
+
+    private static void run(String name, boolean sharedCore, int contexts) {
+        try (Engine engine = Engine.newBuilder().option("python.SharedCore", Boolean.toString(sharedCore)).build()) {
+            long[] times = new long[contexts];
+            for (int i = 0; i < contexts; i++) {
+                long start = System.nanoTime();
+                try (Context context = Context.newBuilder("python").engine(engine).build()) {
+                    context.initialize("python");
+                    times[i] = System.nanoTime() - start;
+                }
+            }
+            long rest = 0;
+            for (int i = 1; i < contexts; i++) {
+                rest += times[i];
+            }
+            System.out.printf("%-12s first context: %8.2f ms, further contexts: %8.2f ms avg%n", name, times[0] / 1e6,
+                            contexts > 1 ? rest / 1e6 / (contexts - 1) : 0.0);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+
+import com.oracle.graal.python.runtime.profiler.PythonAllocationProfiler;
+import com.oracle.graal.python.runtime.profiler.PythonAllocationProfilerInstrument;
+
+public class PythonAllocationProfilerTests {
+
+    @Test
+    public void attributesAllocationsToLines() {
+        try (Engine engine = Engine.create(); Context context = Context.newBuilder("python").engine(engine).build()) {
+            PythonAllocationProfiler profiler = engine.getInstruments().get(PythonAllocationProfilerInstrument.ID).lookup(PythonAllocationProfiler.class);
+            context.initialize("python");
+            profiler.setCollecting(true);
+            context.eval("python", "def f():\n" +
+                            "    result = []\n" +
+                            "    for i in range(100):\n" +
+                            "        result.append([i, i + 1])\n" +
+                            "        result.append([i, 'x'])\n" +
+                            "    return result\n" +
+                            "f()\n");
+            profiler.setCollecting(false);
+            String json = profiler.toJSON();
+            assertTrue(json, json.contains("{\"class\": \"list\", \"count\": "));
+            assertTrue(json, json.contains("\"line\": 4"));
+            assertTrue(json, json.contains("\"IntSequenceStorage\": "));
+        }
+    }
+
+    @Test
+    public void countsGeneralizedStorages() {
+        try (Engine engine = Engine.create(); Context context = Context.newBuilder("python").engine(engine).build()) {
+            PythonAllocationProfiler profiler = engine.getInstruments().get(PythonAllocationProfilerInstrument.ID).lookup(PythonAllocationProfiler.class);
+            context.initialize("python");
+            profiler.setCollecting(true);
+            context.eval("python", "def f():\n" +
+                            "    for i in range(100):\n" +
+                            "        ints = [i, i + 1]\n" +
+                            "        ints.append('x')\n" +
+                            "f()\n");
+            profiler.setCollecting(false);
+            String json = profiler.toJSON();
+            Matcher matcher = Pattern.compile("\"generalizedToObject\": (\\d+)").matcher(json);
+            assertTrue(json, matcher.find());
+            assertTrue(json, Long.parseLong(matcher.group(1)) >= 100);
+            assertTrue(json, json.contains("\"line\": 4, \"generalizations\": 100"));
+        }
+    }
+
+    @Test
+    public void powersThatFitInALongAllocateNoInts() {
+        try (Engine engine = Engine.create(); Context context = Context.newBuilder("python").engine(engine).build()) {
+            PythonAllocationProfiler profiler = engine.getInstruments().get(PythonAllocationProfilerInstrument.ID).lookup(PythonAllocationProfiler.class);
+            context.initialize("python");
+            profiler.setCollecting(true);
+            context.eval("python", "def f(two, three, ten):\n" +
+                            "    for i in range(100):\n" +
+                            "        a = two ** 32\n" +
+                            "        b = three ** 39\n" +
+                            "        c = ten ** 16\n" +
+                            "        d = two ** 64\n" +
+                            "f(2, 3, 10)\n");
+            profiler.setCollecting(false);
+            String json = profiler.toJSON();
+            // only the result that does not fit into a long is boxed
+            assertFalse(json, json.contains("\"line\": 3,"));
+            assertFalse(json, json.contains("\"line\": 4,"));
+            assertFalse(json, json.contains("\"line\": 5,"));
+            assertTrue(json, json.contains("\"line\": 6,"));
+        }
+    }
+}
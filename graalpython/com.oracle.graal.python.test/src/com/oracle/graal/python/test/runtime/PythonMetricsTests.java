@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+
+public class PythonMetricsTests {
+
+    @Test
+    public void countsStorageTransitions() {
+        try (Context context = Context.newBuilder("python").option("python.Metrics", "true").build()) {
+            context.eval("python", "import __graalpython__\n" +
+                            "__graalpython__.reset_metrics()\n" +
+                            "l = [1, 2, 3]\n" +
+                            "l.append('x')\n" +
+                            "d = {'a': 1}\n" +
+                            "d[1] = 2\n" +
+                            "def call(f):\n" +
+                            "    return f()\n" +
+                            "for f in [(lambda i=i: i) for i in range(20)]:\n" +
+                            "    call(f)\n");
+            String events = context.eval("python", "' '.join(sorted(set(m[0] for m in __graalpython__.metrics())))").asString();
+            assertTrue(events, events.contains("sequence-storage-generalized"));
+            assertTrue(events, events.contains("unboxed-storage-hit"));
+            assertTrue(events, events.contains("dict-storage-switched"));
+            assertTrue(events, events.contains("inline-cache-overflow"));
+            assertTrue(context.eval("python", "__graalpython__.metrics_enabled()").asBoolean());
+        }
+    }
+
+    @Test
+    public void onlyEnabledContextsRecord() {
+        try (Engine engine = Engine.create();
+                        Context enabled = Context.newBuilder("python").engine(engine).option("python.Metrics", "true").build();
+                        Context disabled = Context.newBuilder("python").engine(engine).build()) {
+            enabled.eval("python", "import __graalpython__\n__graalpython__.reset_metrics()");
+            assertFalse(disabled.eval("python", "import __graalpython__\n__graalpython__.metrics_enabled()").asBoolean());
+            // the counters are shared, so the disabled context must not add to them
+            disabled.eval("python", "l = [1.5]\nl.append('x')\n");
+            assertFalse(enabled.eval("python", "any(m[1] == 'DoubleSequenceStorage' for m in __graalpython__.metrics())").asBoolean());
+            assertTrue(enabled.eval("python", "__graalpython__.metrics_enabled()").asBoolean());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+
+import com.oracle.graal.python.runtime.profiler.PythonSampler;
+import com.oracle.graal.python.runtime.profiler.PythonSamplerInstrument;
+
+public class PythonSamplerTests {
+
+    @Test
+    public void samplesPythonFunctions() {
+        try (Engine engine = Engine.create(); Context context = Context.newBuilder("python").engine(engine).build()) {
+            PythonSampler sampler = engine.getInstruments().get(PythonSamplerInstrument.ID).lookup(PythonSampler.class);
+            assertFalse(sampler.isCollecting());
+            sampler.setCollecting(true);
+            context.eval("python", "import time\n" +
+                            "def busy(n):\n" +
+                            "    x = 0\n" +
+                            "    for i in range(n):\n" +
+                            "        x += i\n" +
+                            "    return x\n" +
+                            "def spin():\n" +
+                            "    end = time.time() + 0.5\n" +
+                            "    while time.time() < end:\n" +
+                            "        busy(1000)\n" +
+                            "spin()\n");
+            sampler.setCollecting(false);
+            assertTrue(sampler.getSampleCount() > 0);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            sampler.writeCollapsedStacks(new PrintStream(out));
+            String stacks = out.toString();
+            assertTrue(stacks, stacks.contains("spin ("));
+            assertTrue(stacks, stacks.contains(";busy ("));
+        }
+    }
+
+    @Test
+    public void finishedThreadsAreNotSampled() throws InterruptedException {
+        try (Engine engine = Engine.create(); Context context = Context.newBuilder("python").engine(engine).allowAllAccess(true).build()) {
+            PythonSampler sampler = engine.getInstruments().get(PythonSamplerInstrument.ID).lookup(PythonSampler.class);
+            sampler.setCollecting(true);
+            context.eval("python", "import _thread\n" +
+                            "locks = []\n" +
+                            "def work(lock):\n" +
+                            "    sum(range(1000))\n" +
+                            "    lock.release()\n" +
+                            "for i in range(8):\n" +
+                            "    lock = _thread.allocate_lock()\n" +
+                            "    lock.acquire()\n" +
+                            "    locks.append(lock)\n" +
+                            "    _thread.start_new_thread(work, (lock,))\n" +
+                            "for lock in locks:\n" +
+                            "    lock.acquire()\n");
+            // the threads may still be on their way out of work
+            long deadline = System.currentTimeMillis() + 10000;
+            while (sampler.getActiveThreadCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, sampler.getActiveThreadCount());
+            sampler.setCollecting(false);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedCoreTests {
+    private Engine engine;
+
+    @Before
+    public void setUpEngine() {
+        engine = Engine.newBuilder().option("python.SharedCore", "true").build();
+    }
+
+    @After
+    public void tearDownEngine() {
+        engine.close();
+    }
+
+    private Context newContext() {
+        return Context.newBuilder("python").engine(engine).allowAllAccess(true).build();
+    }
+
+    @Test
+    public void firstContextHasCoreLibrary() {
+        try (Context context = newContext()) {
+            // defined in lib-graalpython/builtins.py and _io.py, not by the Java builtins
+            assertTrue(context.eval("python", "import builtins\nhasattr(builtins, 'input')").asBoolean());
+            assertTrue(context.eval("python", "import _io\nhasattr(_io, 'FileIO')").asBoolean());
+        }
+    }
+
+    @Test
+    public void modulesAreNotShared() {
+        try (Context first = newContext(); Context second = newContext()) {
+            first.eval("python", "import sys, builtins\nsys.marker = 42\nbuiltins.marker = 43\ndef len(x): return -1\nbuiltins.len = len");
+            assertEquals(42, first.eval("python", "sys.marker").asInt());
+            assertEquals(-1, first.eval("python", "len([1, 2])").asInt());
+            assertFalse(second.eval("python", "import sys\nhasattr(sys, 'marker')").asBoolean());
+            assertFalse(second.eval("python", "import builtins\nhasattr(builtins, 'marker')").asBoolean());
+            assertEquals(2, second.eval("python", "len([1, 2])").asInt());
+        }
+        try (Context third = newContext()) {
+            assertFalse(third.eval("python", "import sys\nhasattr(sys, 'marker')").asBoolean());
+        }
+    }
+
+    @Test
+    public void importsAreNotShared() {
+        try (Context first = newContext(); Context second = newContext()) {
+            first.eval("python", "import sys\nsys.modules['shared_core_test'] = sys");
+            assertTrue(first.eval("python", "import sys\n'shared_core_test' in sys.modules").asBoolean());
+            assertFalse(second.eval("python", "import sys\n'shared_core_test' in sys.modules").asBoolean());
+        }
+    }
+
+    @Test
+    public void coreLibraryClassesAreNotShared() {
+        try (Context first = newContext(); Context second = newContext()) {
+            // both classes are defined by the core library, lib-graalpython/exceptions.py and _io.py
+            first.eval("python", "ValueError.marker = 42\nimport _io\n_io.FileIO.marker = 43");
+            assertEquals(42, first.eval("python", "ValueError.marker").asInt());
+            assertFalse(second.eval("python", "hasattr(ValueError, 'marker')").asBoolean());
+            assertFalse(second.eval("python", "import _io\nhasattr(_io.FileIO, 'marker')").asBoolean());
+        }
+    }
+
+    @Test
+    public void exceptionsRaisedByBuiltinsUseContextClasses() {
+        try (Context first = newContext(); Context second = newContext()) {
+            assertTrue(first.eval("python", "try:\n    int('x')\nexcept ValueError as e:\n    r = type(e) is ValueError\nr").asBoolean());
+            assertTrue(second.eval("python", "try:\n    [][1]\nexcept IndexError as e:\n    r = type(e) is IndexError\nr").asBoolean());
+        }
+    }
+
+    @Test
+    public void builtinsRaiseContextCoreLibraryExceptions() {
+        // io.UnsupportedOperation is defined in _io.py but raised by the Java text wrapper
+        String source = "import io\n" +
+                        "f = io.TextIOWrapper(io.BytesIO(b'abc'))\n" +
+                        "try:\n" +
+                        "    f.seek(1, 1)\n" +
+                        "except io.UnsupportedOperation as e:\n" +
+                        "    r = isinstance(e, OSError) and isinstance(e, ValueError)\n" +
+                        "r";
+        try (Context first = newContext(); Context second = newContext()) {
+            assertTrue(first.eval("python", source).asBoolean());
+            assertTrue(second.eval("python", source).asBoolean());
+        }
+    }
+}
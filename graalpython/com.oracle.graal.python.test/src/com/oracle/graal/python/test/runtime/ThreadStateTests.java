@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
+import org.junit.Test;
+
+import com.oracle.graal.python.PythonLanguage;
+
+public class ThreadStateTests {
+
+    @Test
+    public void threadInOtherContextKeepsCaughtException() {
+        try (Engine engine = Engine.create();
+                        Context first = Context.newBuilder("python").engine(engine).allowAllAccess(true).build();
+                        Context second = Context.newBuilder("python").engine(engine).allowAllAccess(true).build()) {
+            ProxyExecutable startThread = (args) -> first.eval("python", "import _thread\n_thread.start_new_thread(lambda: None, ())");
+            second.getPolyglotBindings().putMember("start_thread", startThread);
+            String source = "import sys, polyglot\n" +
+                            "start_thread = polyglot.import_value('start_thread')\n" +
+                            "try:\n" +
+                            "    raise ValueError\n" +
+                            "except ValueError:\n" +
+                            "    start_thread()\n" +
+                            "    result = sys.exc_info()[0] is ValueError\n" +
+                            "result\n";
+            assertTrue(second.eval("python", source).asBoolean());
+        }
+    }
+
+    @Test
+    public void nestedEvalKeepsOuterGilHold() {
+        try (Context context = Context.newBuilder("python").allowAllAccess(true).build()) {
+            ProxyExecutable nested = (args) -> {
+                context.eval("python", "1 + 1");
+                return PythonLanguage.getContext().getGilHoldCount();
+            };
+            context.getPolyglotBindings().putMember("nested", nested);
+            String source = "import _thread, polyglot\n" +
+                            "_thread.start_new_thread(lambda: None, ())\n" +
+                            "polyglot.import_value('nested')()\n";
+            assertEquals(1, context.eval("python", source).asInt());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import array
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def test_typecodes():
+    assert array.typecodes == "bBuhHiIlLqQfd"
+    sizes = {"b": 1, "B": 1, "u": 2, "h": 2, "H": 2, "i": 4, "I": 4, "q": 8, "Q": 8, "f": 4, "d": 8}
+    for code, size in sizes.items():
+        a = array.array(code)
+        assert a.typecode == code
+        assert a.itemsize >= size
+        assert len(a) == 0
+    assert_raises(ValueError, array.array, "x")
+    assert_raises(TypeError, array.array, 1)
+
+
+def test_append_extend():
+    a = array.array("i", [1, 2, 3])
+    a.append(4)
+    a.extend([5, 6])
+    a.extend(array.array("i", [7]))
+    a.extend(x for x in range(8, 10))
+    assert a.tolist() == list(range(1, 10))
+    assert_raises(TypeError, a.extend, array.array("d", [1.0]))
+    a.insert(0, 0)
+    a.insert(-1, 42)
+    a.insert(100, 99)
+    assert a[0] == 0 and a[-2] == 9 and a[-3] == 42 and a[-1] == 99
+    assert a.pop() == 99
+    assert a.pop(0) == 0
+    a.remove(42)
+    assert a.tolist() == list(range(1, 10))
+    assert a.index(5) == 4
+    assert a.count(5) == 1
+    assert 5 in a and 42 not in a
+    assert_raises(ValueError, a.remove, 42)
+    assert_raises(IndexError, array.array("i").pop)
+
+
+def test_slicing():
+    a = array.array("d", [float(i) for i in range(10)])
+    assert a[2:5].tolist() == [2.0, 3.0, 4.0]
+    assert a[::3].tolist() == [0.0, 3.0, 6.0, 9.0]
+    a[1:3] = array.array("d", [10.0, 11.0, 12.0])
+    assert a.tolist()[:5] == [0.0, 10.0, 11.0, 12.0, 3.0]
+    del a[1:4]
+    assert a.tolist() == [0.0] + [float(i) for i in range(3, 10)]
+    a[1:1] = array.array("d", [1.0, 2.0])
+    assert a.tolist() == [float(i) for i in range(10)]
+    del a[::2]
+    assert a.tolist() == [1.0, 3.0, 5.0, 7.0, 9.0]
+    del a[0]
+    assert a.tolist() == [3.0, 5.0, 7.0, 9.0]
+    assert_raises(TypeError, a.__setitem__, slice(0, 1), [1.0])
+    assert_raises(TypeError, a.__setitem__, slice(0, 1), array.array("f", [1.0]))
+    assert_raises(IndexError, a.__getitem__, 10)
+    a[::2] = a[1::2]
+    assert a.tolist() == [5.0, 5.0, 9.0, 9.0]
+
+
+def test_operators():
+    a = array.array("h", [1, 2])
+    b = a + array.array("h", [3])
+    assert b.tolist() == [1, 2, 3]
+    assert (a * 2).tolist() == [1, 2, 1, 2]
+    assert (2 * a).tolist() == [1, 2, 1, 2]
+    a += b
+    a *= 2
+    assert len(a) == 10
+    assert_raises(TypeError, lambda: a + [1])
+    assert array.array("i", [1, 2]) == array.array("i", [1, 2])
+    assert array.array("i", [1, 2]) == array.array("d", [1.0, 2.0])
+    assert array.array("i", [1, 2]) != array.array("i", [1, 3])
+    assert array.array("i", [1, 2]) < array.array("i", [1, 3])
+    assert array.array("i", [1, 2]) < array.array("i", [1, 2, 0])
+    assert array.array("B", [255]) > array.array("B", [1])
+    assert_raises(TypeError, hash, a)
+
+
+def test_unsigned_and_ranges():
+    assert array.array("B", [255])[0] == 255
+    assert array.array("H", [65535])[0] == 65535
+    assert array.array("I", [4294967295])[0] == 4294967295
+    assert array.array("Q", [18446744073709551615])[0] == 18446744073709551615
+    assert_raises(OverflowError, array.array, "b", [128])
+    assert_raises(OverflowError, array.array, "B", [-1])
+    assert_raises(OverflowError, array.array, "h", [32768])
+    assert_raises(OverflowError, array.array, "I", [-1])
+    assert_raises(OverflowError, array.array, "Q", [-1])
+    assert_raises(TypeError, array.array, "i", [1.0])
+    a = array.array("b", [1, 2, 3])
+    assert_raises(OverflowError, a.append, 1000)
+    assert a.tolist() == [1, 2, 3]
+    assert_raises(TypeError, a.fromlist, [4, "x"])
+    assert a.tolist() == [1, 2, 3]
+
+
+def test_bytes_roundtrip():
+    for code, values in (("b", [-1, 2]), ("H", [1, 65535]), ("i", [-5, 7]), ("q", [-(2 ** 40), 3]), ("f", [0.5, -2.0]), ("d", [1.25, 3.0])):
+        a = array.array(code, values)
+        data = a.tobytes()
+        assert len(data) == len(values) * a.itemsize
+        b = array.array(code)
+        b.frombytes(data)
+        assert a == b
+        assert array.array(code, data) == a
+        b.byteswap()
+        b.byteswap()
+        assert a == b
+    a = array.array("H", [1])
+    a.byteswap()
+    assert a[0] == 256
+    assert_raises(ValueError, array.array("i").frombytes, b"abc")
+    m = memoryview(array.array("i", [1, 2, 3]))
+    assert m.format == "i" and m.tolist() == [1, 2, 3]
+
+
+def test_unicode():
+    a = array.array("u", "hello")
+    assert a.tounicode() == "hello"
+    a.fromunicode(" world")
+    assert a[0] == "h"
+    assert a.tounicode() == "hello world"
+    assert repr(array.array("u", "ab")) == "array('u', 'ab')"
+    assert_raises(TypeError, array.array, "i", "abc")
+    assert_raises(ValueError, array.array("i").tounicode)
+
+
+def test_repr():
+    assert repr(array.array("i")) == "array('i')"
+    assert repr(array.array("i", [1, 2])) == "array('i', [1, 2])"
+    assert repr(array.array("d", [1.5])) == "array('d', [1.5])"
+
+
+def test_file():
+    import tempfile
+    a = array.array("d", [float(i) for i in range(20000)])
+    with tempfile.TemporaryFile() as f:
+        a.tofile(f)
+        f.seek(0)
+        b = array.array("d")
+        b.fromfile(f, 20000)
+        assert a == b
+        f.seek(0)
+        c = array.array("d")
+        assert_raises(EOFError, c.fromfile, f, 20001)
+        assert len(c) == 20000
+
+
+def test_mixed_item_comparison():
+    assert array.array("d", [1.0, 2.0]).index(2) == 1
+    assert array.array("i", [1, 2]).index(2.0) == 1
+    assert array.array("i", [1, 2]) < array.array("i", [1, 3])
+    assert array.array("i", [1, 2]) < array.array("i", [1, 2, 0])
+    assert array.array("d", [1.5]) < array.array("i", [2])
+    assert not array.array("d", [float("nan")]) < array.array("d", [1.0])
+    assert array.array("q", [2 ** 62]) < array.array("d", [2.0 ** 63])
@@ -180,6 +180,18 @@ def test_setitem():
         pass
 
 
+def test_setitem_loop():
+    b = bytearray(5)
+    for i in range(len(b)):
+        b[i] = i * 2
+    assert b == bytearray([0, 2, 4, 6, 8])
+    try:
+        b[2 ** 64] = 0
+        assert False, "Didn't raise IndexError"
+    except IndexError:
+        pass
+
+
 def test_delitem():
     b = bytearray(range(10))
     del b[0]
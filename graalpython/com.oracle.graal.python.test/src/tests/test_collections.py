@@ -49,4 +49,98 @@ def test_import():
     from collections import namedtuple, Counter, OrderedDict, _count_elements
     from collections import UserDict, UserString, UserList
     from collections import ChainMap
-    # from collections import deque
+    from collections import deque
+
+
+def test_deque_ends():
+    from collections import deque
+    d = deque()
+    for i in range(10):
+        d.append(i)
+        d.appendleft(-i)
+    assert len(d) == 20
+    assert d.pop() == 9
+    assert d.popleft() == -9
+    d.append("x")
+    d.appendleft(1.5)
+    assert d[0] == 1.5 and d[-1] == "x"
+    assert list(d) == [1.5] + [-i for i in range(8, -1, -1)] + list(range(9)) + ["x"]
+    d.clear()
+    assert not d
+    assert_raises(IndexError, d.pop)
+    assert_raises(IndexError, d.popleft)
+
+
+def test_deque_maxlen():
+    from collections import deque
+    d = deque(range(10), maxlen=3)
+    assert list(d) == [7, 8, 9]
+    assert d.maxlen == 3
+    d.appendleft(6)
+    assert list(d) == [6, 7, 8]
+    d.extend("ab")
+    assert list(d) == [8, "a", "b"]
+    assert_raises(IndexError, d.insert, 0, 1)
+    assert repr(d) == "deque([8, 'a', 'b'], maxlen=3)"
+    assert deque().maxlen is None
+    assert list(deque([1, 2], 0)) == []
+    assert_raises(ValueError, deque, [], -1)
+
+
+def test_deque_rotate():
+    from collections import deque
+    for n in (5, 8, 13):
+        items = list(range(n))
+        d = deque(items)
+        for k in range(-2 * n, 2 * n):
+            d.rotate(k)
+            expected = items[-(k % n):] + items[:-(k % n)] if k % n else items
+            assert list(d) == expected, (n, k)
+            d.rotate(-k)
+            assert list(d) == items
+    d = deque("abc")
+    d.rotate()
+    assert list(d) == ["c", "a", "b"]
+
+
+def test_deque_sequence():
+    from collections import deque
+    d = deque(range(6))
+    d[1] = "one"
+    del d[0]
+    del d[-1]
+    d.insert(2, 9)
+    d.insert(-100, 0)
+    assert list(d) == [0, "one", 2, 9, 3, 4]
+    assert d.index(9) == 3
+    assert_raises(ValueError, d.index, 9, 4)
+    assert 3 in d and 7 not in d
+    d.remove("one")
+    assert_raises(ValueError, d.remove, "one")
+    assert d.count(2) == 1
+    d.reverse()
+    assert list(d) == [4, 3, 9, 2, 0]
+    assert list(reversed(d)) == [0, 2, 9, 3, 4]
+    assert_raises(IndexError, d.__getitem__, 5)
+    assert d == deque([4, 3, 9, 2, 0]) and d != deque([4])
+    assert deque([1, 2]) < deque([1, 3]) and deque([1]) <= deque([1, 0])
+    assert list(d + deque([1])) == [4, 3, 9, 2, 0, 1]
+    assert list(deque([1, 2]) * 2) == [1, 2, 1, 2]
+    e = d.copy()
+    e += [7]
+    assert len(e) == len(d) + 1
+    d.extendleft([5, 6])
+    assert list(d)[:2] == [6, 5]
+    assert_raises(TypeError, hash, d)
+
+
+def test_deque_mutation_during_iteration():
+    from collections import deque
+    d = deque([1, 2, 3])
+    raised = False
+    try:
+        for x in d:
+            d.append(x)
+    except RuntimeError:
+        raised = True
+    assert raised
@@ -278,3 +278,143 @@ def test_in_dict_keys():
     d = {'a': 1, 'b': 2, 'c': 3}
     keys = d.keys()
     assert 'a' in keys
+
+
+def test_int_keys():
+    d = {}
+    for i in range(1000):
+        d[i * 7] = i
+    assert len(d) == 1000
+    assert d[7 * 500] == 500
+    assert 3 not in d
+    assert d.get(1 << 40) is None
+    d[1 << 40] = "big"
+    assert d[1 << 40] == "big"
+    assert d[0.0] == 0
+    assert d.get(7.5) is None
+    for i in range(0, 1000, 2):
+        del d[i * 7]
+    assert len(d) == 501
+    assert list(d.keys())[:3] == [7, 21, 35]
+    assert list(d.values())[-1] == "big"
+
+
+def test_int_keys_differing_in_high_bits():
+    d = {}
+    for i in range(2000):
+        d[i << 32] = i
+    assert len(d) == 2000
+    assert d[1999 << 32] == 1999
+    assert (1 << 31) not in d
+
+    class Equal:
+        def __init__(self, value):
+            self.value = value
+
+        def __hash__(self):
+            return hash(self.value)
+
+        def __eq__(self, other):
+            return other == self.value
+
+    assert d[Equal(1234 << 32)] == 1234
+    assert Equal((1234 << 32) + 1) not in d
+
+
+def test_int_keys_preserve_order_after_delete():
+    d = dict((i, str(i)) for i in range(20))
+    del d[5]
+    d[5] = "again"
+    keys = list(d)
+    assert keys[-1] == 5
+    assert keys[:5] == [0, 1, 2, 3, 4]
+    assert d == dict((k, d[k]) for k in keys)
+
+
+def test_bool_key_updates_int_key():
+    d = {1: "a", 2: "b"}
+    d[True] = "c"
+    assert len(d) == 2
+    assert d[1] == "c"
+    assert type(list(d.keys())[0]) == int
+
+
+def test_str_keys_beyond_threshold():
+    d = {}
+    for i in range(500):
+        d["k" + str(i)] = i
+    assert len(d) == 500
+    assert d["k499"] == 499
+    assert "k500" not in d
+    assert 1 not in d
+    del d["k0"]
+    assert list(d)[0] == "k1"
+    d2 = d.copy()
+    d2["x"] = 1
+    assert "x" not in d
+
+
+def test_mixed_keys_generalize():
+    d = {}
+    for i in range(10):
+        d[i] = i
+    d["ten"] = 10
+    d[(1, 2)] = 12
+    assert list(d.keys()) == list(range(10)) + ["ten", (1, 2)]
+    assert d[9] == 9 and d["ten"] == 10 and d[(1, 2)] == 12
+
+    d = {}
+    for i in range(200):
+        d[str(i)] = i
+    d[3] = "three"
+    assert d[3] == "three"
+    assert d["199"] == 199
+    assert len(d) == 201
+
+
+def test_dict_concat_mixed_keys():
+    a = {1: 1, 2: 2}
+    b = {"x": 3}
+    c = {**a, **b}
+    assert c == {1: 1, 2: 2, "x": 3}
+
+
+def test_int_and_str_sets():
+    s = set()
+    for i in range(300):
+        s.add(i)
+    assert len(s) == 300
+    assert 299 in s and 300 not in s
+    s.discard(0)
+    s.remove(1)
+    assert 0 not in s and 1 not in s
+    s.add("a")
+    assert "a" in s and 2 in s
+    assert len(s) == 299
+
+    t = {"a", "b", "c"}
+    assert "b" in t and 1 not in t
+    t.add(1)
+    assert len(t) == 4
+    assert frozenset(range(5)) == frozenset([0, 1, 2, 3, 4])
+    assert frozenset("abc") == frozenset(["a", "b", "c"])
+
+
+def test_values_contains():
+    int_keyed = {i: i * 10 for i in range(20)}
+    assert 5 not in int_keyed.values()
+    assert 50 in int_keyed.values()
+    assert 190 in int_keyed.values()
+    assert "x" not in int_keyed.values()
+
+    str_keyed = {"k%d" % i: "v%d" % i for i in range(20)}
+    assert "k3" not in str_keyed.values()
+    assert "v3" in str_keyed.values()
+
+    mixed = {1: "a", "b": 2}
+    assert "b" not in mixed.values()
+    assert 2 in mixed.values()
+
+    nan = float("nan")
+    assert nan in {"n": nan}.values()
+    assert 1 not in {}.values()
@@ -0,0 +1,80 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import functools
+
+
+def test_reduce():
+    assert functools.reduce(lambda x, y: x + y, [1, 2, 3, 4]) == 10
+    assert functools.reduce(lambda x, y: x + y, [1, 2], 10) == 13
+    assert functools.reduce(lambda x, y: x + y, [], 5) == 5
+    assert functools.reduce(lambda x, y: x + y, [7]) == 7
+    assert functools.reduce(lambda x, y: x + [y], "ab", []) == ["a", "b"]
+    try:
+        functools.reduce(lambda x, y: x + y, [])
+    except TypeError:
+        pass
+    else:
+        assert False, "TypeError expected"
+
+
+def test_partial():
+    def f(*args, **kwargs):
+        return args, kwargs
+
+    p = functools.partial(f, 1, a=2)
+    assert p(3) == ((1, 3), {"a": 2})
+    assert p(a=4, b=5) == ((1,), {"a": 4, "b": 5})
+    assert p.func is f
+    assert p.args == (1,)
+    assert p.keywords == {"a": 2}
+
+
+def test_partial_nested():
+    def f(*args, **kwargs):
+        return args, kwargs
+
+    p = functools.partial(functools.partial(f, 1, a=1), 2, b=2)
+    assert p.func is f
+    assert p.args == (1, 2)
+    assert p(3) == ((1, 2, 3), {"a": 1, "b": 2})
+
+
+def test_partial_builtin():
+    base2 = functools.partial(int, base=2)
+    assert base2("101") == 5
+    assert list(map(functools.partial(pow, 2), range(4))) == [1, 2, 4, 8]
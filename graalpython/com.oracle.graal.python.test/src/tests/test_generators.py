@@ -126,6 +126,21 @@ class ExceptionTest(unittest.TestCase):
         with self.assertRaises(StopIteration):
             next(gen())
 
+    def test_exhausted_stopiteration_object(self):
+        def gen():
+            yield 1
+
+        g = gen()
+        self.assertEqual(list(g), [1])
+        for it in (g, iter([]), zip([], [])):
+            try:
+                next(it)
+            except StopIteration as e:
+                self.assertIs(type(e), StopIteration)
+                self.assertEqual(e.args, ())
+            else:
+                self.fail("expected StopIteration")
+
     def test_tutorial_stopiteration(self):
         # Raise StopIteration" stops the generator too:
 
@@ -89,3 +89,14 @@ def test_import_error():
 def test_import_some_star():
     import posix
     assert stat == posix.stat
+
+
+def test_import_lazy_builtin_module():
+    import itertools
+    import _collections
+    assert sys.modules["itertools"] is itertools
+    assert itertools.__spec__.origin == "built-in"
+    assert "itertools" in sys.builtin_module_names
+    # defined by the core file, which only runs on import
+    assert list(itertools.chain.from_iterable([[1], [2, 3]])) == [1, 2, 3]
+    assert _collections.deque is not None
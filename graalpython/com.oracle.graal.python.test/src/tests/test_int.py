@@ -97,3 +97,71 @@ def test_int_bit_length():
     assert (int(-2432902008176640000)).bit_length() == 62
     assert (int(9999992432902008176640000999999)).bit_length() == 103
     assert (int(-9999992432902008176640000999999)).bit_length() == 103
+
+
+def test_int_64bit_boundary():
+    max_long = 0x7fffffffffffffff
+    min_long = -0x8000000000000000
+    assert max_long + 1 == 0x8000000000000000
+    assert min_long + -1 == -0x8000000000000001
+    assert min_long - 1 == -0x8000000000000001
+    assert max_long - -1 == 0x8000000000000000
+    assert -1 - max_long - 2 == -0x8000000000000002
+    assert max_long * max_long == 0x3fffffffffffffff0000000000000001
+    assert min_long * min_long == 0x40000000000000000000000000000000
+    assert min_long * -1 == 0x8000000000000000
+    assert max_long * -3 == -0x17ffffffffffffffd
+    assert 0xffffffff * 0x100000001 == 0xffffffffffffffff
+    assert 3037000500 * 3037000500 == 9223372037000250000
+    assert -3037000499 * 3037000499 == -9223372030926249001
+
+    # results of big int arithmetic that fit into 64 bits again
+    big = max_long + 1
+    assert big - 1 == max_long
+    assert 1 - big == min_long + 1
+    assert big + -big == 0
+    assert big * 0 == 0
+    assert (big - 2) + 1 == max_long
+    assert max_long - big == -1
+    assert 5 - big == -9223372036854775803
+    assert big.__rsub__(5) == -9223372036854775803
+    assert big.__rsub__(2 ** 40) == 2 ** 40 - big
+    assert big.__rsub__(2 ** 70) == 2 ** 70 - big
+
+
+def test_int_64bit_boundary_other_ops():
+    max_long = 0x7fffffffffffffff
+    min_long = -0x8000000000000000
+    assert min_long // -1 == 0x8000000000000000
+    assert -0x80000000 // -1 == 0x80000000
+    assert (-1).__rfloordiv__(min_long) == 0x8000000000000000
+    assert (2).__rfloordiv__(-7) == -4
+    assert (-2).__rfloordiv__(7) == -4
+    assert -min_long == 0x8000000000000000
+    assert -(-min_long) == min_long
+    assert 1 << 63 == 0x8000000000000000
+    assert -3 << 62 == -0xc000000000000000
+    assert max_long << 64 == 0x7fffffffffffffff0000000000000000
+    assert 3 ** 30 == 205891132094649
+    assert 3 ** 40 == 12157665459056928801
+    assert (2 ** 64) ** -1 == 2.0 ** -64
+    assert (2 ** 64) // (2 ** 62) == 4
+
+    assert 5 % -3 == -1
+    assert 6 % -3 == 0
+    assert (2 ** 70 + 4) % -3 == -1
+    assert (2 ** 70 + 5) % -3 == 0
+    assert (2 ** 70 + 4) % -(2 ** 68) == 4 - 2 ** 68
+    assert 5 % -(2 ** 70) == 5 - 2 ** 70
+    assert 0 % -(2 ** 70) == 0
+
+
+def test_pow_results_that_fit():
+    two, three, ten = 2, 3, 10
+    assert two ** 32 == 4294967296
+    assert three ** 39 == 4052555153018976267
+    assert ten ** 16 == 10000000000000000
+    assert two ** 62 == 4611686018427387904
+    assert (-two) ** 63 == -9223372036854775808
+    assert two ** 63 == 9223372036854775808
+    assert three ** 0 == 1
@@ -0,0 +1,214 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import os
+
+TMPFILE = os.path.join(os.environ.get("TMPDIR", "/tmp"), "graalpython_test_io.tmp")
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def write_bytes(data):
+    with open(TMPFILE, "wb") as f:
+        f.write(data)
+
+
+def read_bytes():
+    with open(TMPFILE, "rb") as f:
+        return f.read()
+
+
+def test_text_lines():
+    try:
+        with open(TMPFILE, "w") as f:
+            assert f.write("a\nbb\n") == 5
+            f.writelines(["ccc\n", "dddd"])
+        with open(TMPFILE) as f:
+            assert f.readline() == "a\n"
+            assert [line for line in f] == ["bb\n", "ccc\n", "dddd"]
+            assert f.readline() == ""
+        with open(TMPFILE) as f:
+            assert f.readlines() == ["a\n", "bb\n", "ccc\n", "dddd"]
+        with open(TMPFILE) as f:
+            assert f.readline(1) == "a"
+            assert f.read(3) == "\nbb"
+            assert f.read() == "\nccc\ndddd"
+            assert f.read() == ""
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_binary_buffer_boundaries():
+    data = bytes(range(256)) * 40
+    try:
+        write_bytes(data)
+        with open(TMPFILE, "rb") as f:
+            assert f.read(10) == data[:10]
+            assert f.tell() == 10
+            f.seek(8190)
+            assert f.read(4) == data[8190:8194]
+            assert f.tell() == 8194
+            assert f.readline() == data[8194:data.index(b"\n", 8194) + 1]
+            f.seek(-6, 2)
+            assert f.read() == data[-6:]
+            f.seek(0)
+            assert f.read(20000) == data[:20000]
+            assert f.read() == data[20000:]
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_binary_update():
+    try:
+        write_bytes(b"0123456789")
+        with open(TMPFILE, "rb+") as f:
+            assert f.read(3) == b"012"
+            f.write(b"abc")
+            assert f.read(2) == b"67"
+            f.seek(0)
+            assert f.read() == b"012abc6789"
+        assert read_bytes() == b"012abc6789"
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_closed():
+    try:
+        f = open(TMPFILE, "wb")
+        f.write(b"abc")
+        f.close()
+        assert f.closed
+        assert_raises(ValueError, f.write, b"x")
+        f.close()
+        assert read_bytes() == b"abc"
+        with open(TMPFILE) as f:
+            assert_raises(OSError, f.write, "x")
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_universal_newlines():
+    try:
+        write_bytes(b"a\r\nb\rc\nd")
+        with open(TMPFILE) as f:
+            assert f.readlines() == ["a\n", "b\n", "c\n", "d"]
+            assert set(f.newlines) == {"\r", "\n", "\r\n"}
+        with open(TMPFILE, newline="") as f:
+            assert f.readlines() == ["a\r\n", "b\r", "c\n", "d"]
+        with open(TMPFILE, newline="\r") as f:
+            assert f.readlines() == ["a\r", "\nb\r", "c\nd"]
+        with open(TMPFILE, "w", newline="\r\n") as f:
+            f.write("x\ny\n")
+        assert read_bytes() == b"x\r\ny\r\n"
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_newline_across_buffer_boundary():
+    try:
+        write_bytes(b"a" * 15 + b"\r\nb\r")
+        with open(TMPFILE, buffering=16) as f:
+            assert f.readlines() == ["a" * 15 + "\n", "b\n"]
+        with open(TMPFILE, buffering=16, newline="") as f:
+            assert f.readlines() == ["a" * 15 + "\r\n", "b\r"]
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_utf8_across_buffer_boundary():
+    text = "x" * 8191 + "\xe9€\U0001F600" * 100 + "\nend"
+    try:
+        with open(TMPFILE, "w", encoding="utf-8") as f:
+            f.write(text)
+        assert read_bytes() == text.encode("utf-8")
+        with open(TMPFILE, encoding="utf-8") as f:
+            assert f.read() == text
+        with open(TMPFILE, encoding="utf-8", buffering=7) as f:
+            assert f.readline() == text[:text.index("\n") + 1]
+            assert f.read() == "end"
+        with open(TMPFILE, encoding="latin-1") as f:
+            assert f.read(8192) == "x" * 8191 + "\xc3"
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_text_tell_seek():
+    try:
+        with open(TMPFILE, "w", encoding="utf-8") as f:
+            f.write("€abc\nline2\n")
+        with open(TMPFILE, encoding="utf-8") as f:
+            assert f.readline() == "€abc\n"
+            position = f.tell()
+            assert position == 7
+            assert f.readline() == "line2\n"
+            f.seek(position)
+            assert f.read() == "line2\n"
+            f.seek(0)
+            assert f.read(1) == "€"
+            assert_raises(OSError, f.seek, 1, 1)
+    finally:
+        os.unlink(TMPFILE)
+
+
+def test_text_tell_after_partial_read():
+    try:
+        for encoding, errors, data in [("utf-16", "strict", "ab€\ncd\n".encode("utf-16")),
+                                       ("utf-32", "strict", "ab€\ncd\n".encode("utf-32")),
+                                       ("utf-8", "replace", b"a\xffb\xe2\x82\ncd\n"),
+                                       ("utf-8", "strict", b"ab\r\ncd\r\nef")]:
+            with open(TMPFILE, "wb") as f:
+                f.write(data)
+            with open(TMPFILE, encoding=encoding, errors=errors) as f:
+                first = f.readline()
+                position = f.tell()
+                rest = f.read()
+                f.seek(position)
+                assert f.read() == rest, (encoding, errors)
+                f.seek(0)
+                assert f.read(1) == first[0]
+                position = f.tell()
+                f.seek(position)
+                assert f.read() == (first + rest)[1:], (encoding, errors)
+    finally:
+        os.unlink(TMPFILE)
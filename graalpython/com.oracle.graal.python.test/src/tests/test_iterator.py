@@ -96,3 +96,19 @@ def test_iter():
     zip_iterator = type(iter(zip()))
     assert str(zip_iterator) == "<class 'zip'>"
     # <class 'zip'>
+
+
+def test_any_all():
+    assert any([0, 0, 3])
+    assert not any([0, 0])
+    assert not any([])
+    assert any([0.0, float("nan")])
+    assert any([0, 2 ** 40])
+    assert all([1, 2, 3])
+    assert not all([1, 0])
+    assert all([])
+    assert not all([1.0, 0.0])
+    assert any(x > 2 for x in range(4))
+    assert not all(x > 2 for x in range(4))
+    assert any(["", "a"])
+    assert not all(("a", ""))
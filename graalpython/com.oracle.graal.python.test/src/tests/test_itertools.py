@@ -0,0 +1,156 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import itertools
+
+
+def test_chain():
+    assert list(itertools.chain()) == []
+    assert list(itertools.chain([1, 2], (), "ab")) == [1, 2, "a", "b"]
+    assert list(itertools.chain.from_iterable([[1], [], [2, 3]])) == [1, 2, 3]
+
+
+def test_count():
+    c = itertools.count()
+    assert [next(c) for i in range(3)] == [0, 1, 2]
+    c = itertools.count(10, step=-2.5)
+    assert [next(c) for i in range(3)] == [10, 7.5, 5.0]
+
+
+def test_repeat():
+    assert list(itertools.repeat("x", 3)) == ["x", "x", "x"]
+    assert list(itertools.repeat("x", times=-1)) == []
+    r = itertools.repeat(None)
+    assert [next(r) for i in range(4)] == [None] * 4
+
+
+def test_islice():
+    assert list(itertools.islice(range(10), 3)) == [0, 1, 2]
+    assert list(itertools.islice(range(10), 2, 8, 3)) == [2, 5]
+    assert list(itertools.islice(range(10), 7, None)) == [7, 8, 9]
+    assert list(itertools.islice(itertools.count(), 1, 10, 4)) == [1, 5, 9]
+    it = iter(range(10))
+    assert list(itertools.islice(it, 2, 4)) == [2, 3]
+    assert next(it) == 4
+    for args in ((-1,), (1, -1), (0, 1, 0)):
+        try:
+            itertools.islice([], *args)
+        except ValueError:
+            pass
+        else:
+            assert False, "ValueError expected for %s" % (args,)
+
+
+def test_starmap():
+    assert list(itertools.starmap(pow, [(2, 3), [3, 2], iter((10, 0))])) == [8, 9, 1]
+
+
+def test_filtering():
+    assert list(itertools.compress("abcdef", [1, 0, 1, 0, 1, 1])) == list("acef")
+    assert list(itertools.takewhile(lambda x: x < 5, [1, 4, 6, 4, 1])) == [1, 4]
+    assert list(itertools.dropwhile(lambda x: x < 5, [1, 4, 6, 4, 1])) == [6, 4, 1]
+    assert list(itertools.filterfalse(lambda x: x % 2, range(10))) == [0, 2, 4, 6, 8]
+    assert list(itertools.filterfalse(None, [0, 1, "", "a"])) == [0, ""]
+
+
+def test_accumulate():
+    assert list(itertools.accumulate([1, 2, 3, 4])) == [1, 3, 6, 10]
+    assert list(itertools.accumulate([3, 1, 4], max)) == [3, 3, 4]
+    assert list(itertools.accumulate([1, 2], initial=100)) == [100, 101, 103]
+    assert list(itertools.accumulate([])) == []
+
+
+def test_cycle():
+    c = itertools.cycle("ab")
+    assert [next(c) for i in range(5)] == ["a", "b", "a", "b", "a"]
+    assert list(itertools.cycle([])) == []
+
+
+def test_zip_longest():
+    assert list(itertools.zip_longest("ab", "xyz")) == [("a", "x"), ("b", "y"), (None, "z")]
+    assert list(itertools.zip_longest("ab", [1], fillvalue="-")) == [("a", 1), ("b", "-")]
+    assert list(itertools.zip_longest()) == []
+
+
+def test_groupby():
+    groups = [(k, list(g)) for k, g in itertools.groupby("aaabbcaa")]
+    assert groups == [("a", ["a", "a", "a"]), ("b", ["b", "b"]), ("c", ["c"]), ("a", ["a", "a"])]
+    keys = [k for k, g in itertools.groupby(range(10), key=lambda x: x // 4)]
+    assert keys == [0, 1, 2]
+    # advancing the groupby invalidates the previous group
+    it = itertools.groupby("aabb")
+    k1, g1 = next(it)
+    k2, g2 = next(it)
+    assert list(g1) == []
+    assert list(g2) == ["b", "b"]
+
+
+def test_permutations():
+    assert list(itertools.permutations(range(3))) == [(0, 1, 2), (0, 2, 1), (1, 0, 2), (1, 2, 0), (2, 0, 1), (2, 1, 0)]
+    assert list(itertools.permutations("abc", 2)) == [("a", "b"), ("a", "c"), ("b", "a"), ("b", "c"), ("c", "a"), ("c", "b")]
+    assert list(itertools.permutations("ab", 3)) == []
+    assert list(itertools.permutations("ab", 0)) == [()]
+
+
+def test_combinations():
+    assert list(itertools.combinations("abcd", 2)) == [("a", "b"), ("a", "c"), ("a", "d"), ("b", "c"), ("b", "d"), ("c", "d")]
+    assert list(itertools.combinations(range(3), 4)) == []
+    assert list(itertools.combinations_with_replacement("ab", 2)) == [("a", "a"), ("a", "b"), ("b", "b")]
+    assert list(itertools.combinations_with_replacement([], 0)) == [()]
+    assert list(itertools.combinations_with_replacement([], 1)) == []
+    try:
+        itertools.combinations("ab", -1)
+    except ValueError:
+        pass
+    else:
+        assert False, "ValueError expected"
+
+
+def test_product():
+    assert list(itertools.product("ab", range(2))) == [("a", 0), ("a", 1), ("b", 0), ("b", 1)]
+    assert list(itertools.product([0, 1], repeat=2)) == [(0, 0), (0, 1), (1, 0), (1, 1)]
+    assert list(itertools.product()) == [()]
+    assert list(itertools.product("ab", [])) == []
+
+
+def test_subclass():
+    class MyChain(itertools.chain):
+        pass
+
+    c = MyChain([1], [2])
+    assert isinstance(c, itertools.chain)
+    assert list(c) == [1, 2]
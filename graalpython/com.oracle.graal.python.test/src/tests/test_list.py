@@ -94,4 +94,53 @@ class ListTest():
     def test_pop_border(self):
         l = [1, 2, 5];
         self.assertRaises(IndexError, l.pop, LONG_NUMBER)
-    
\ No newline at end of file
+    
+    def test_sort_int(self):
+        l = [5, 3, 9, 1, 4, 1, 8]
+        l.sort()
+        self.assertEqual([1, 1, 3, 4, 5, 8, 9], l)
+        l.sort(reverse=True)
+        self.assertEqual([9, 8, 5, 4, 3, 1, 1], l)
+
+    def test_sort_long(self):
+        l = [LONG_NUMBER * 3, LONG_NUMBER, -LONG_NUMBER, LONG_NUMBER * 2]
+        l.sort()
+        self.assertEqual([-LONG_NUMBER, LONG_NUMBER, LONG_NUMBER * 2, LONG_NUMBER * 3], l)
+
+    def test_sort_double(self):
+        l = [2.5, -1.0, 0.0, -0.0, 3.25]
+        l.sort()
+        self.assertEqual([-1.0, 0.0, -0.0, 2.5, 3.25], l)
+        self.assertEqual("[-1.0, 0.0, -0.0, 2.5, 3.25]", repr(l))
+
+    def test_sort_large(self):
+        l = [(i * 7919) % 1000 for i in range(1000)]
+        l.sort()
+        self.assertEqual(list(range(1000)), l)
+        l = [str(i) for i in range(200)]
+        l.sort(reverse=True)
+        for i in range(len(l) - 1):
+            self.assertTrue(l[i] >= l[i + 1])
+
+    def test_sort_key_stable(self):
+        words = ['ccc', 'a', 'bb', 'dd', 'e', 'fff']
+        words.sort(key=len)
+        self.assertEqual(['a', 'e', 'bb', 'dd', 'ccc', 'fff'], words)
+        words.sort(key=len, reverse=True)
+        self.assertEqual(['ccc', 'fff', 'bb', 'dd', 'a', 'e'], words)
+        pairs = [(i % 3, i) for i in range(100)]
+        pairs.sort(key=lambda p: p[0] * 0.5)
+        self.assertEqual([p for p in pairs if p[0] == 0], pairs[:34])
+        self.assertEqual(list(range(0, 100, 3)), [p[1] for p in pairs[:34]])
+        pairs.sort(key=lambda p: str(p[1]))
+        self.assertEqual((0, 0), pairs[0])
+
+    def test_sort_errors(self):
+        l = [1, 'a', 2]
+        self.assertRaises(TypeError, l.sort)
+        l = [3, 2, 1]
+
+        def mutating_key(x):
+            l.append(x)
+            return x
+        self.assertRaises(ValueError, l.sort, key=mutating_key)
@@ -56,3 +56,41 @@ def test_map2():
     items0 = [0, 1, 2, 3, 4]
     items1 = [5, 6, 7, 8, 9]
     assert list(map(lambda x, y: x * y, items0, items1)) == [0, 6, 14, 24, 36]
+
+
+def test_map_shortest():
+    assert list(map(lambda x, y: (x, y), "abc", range(2))) == [("a", 0), ("b", 1)]
+
+
+def test_map_lazy():
+    calls = []
+
+    def f(x):
+        calls.append(x)
+        return x
+
+    m = map(f, [1, 2, 3])
+    assert calls == []
+    assert next(m) == 1
+    assert calls == [1]
+    assert iter(m) is m
+
+
+def test_map_callables():
+    assert list(map(str, [1, 2])) == ["1", "2"]
+    assert list(map("-".join, ["ab", "cd"])) == ["a-b", "c-d"]
+    assert sum(map(len, ["a", "bc", "def"])) == 6
+
+
+def test_filter():
+    assert list(filter(lambda x: x % 2, range(6))) == [1, 3, 5]
+    assert list(filter(None, [0, 1, "", "a", None])) == [1, "a"]
+    f = filter(None, [1])
+    assert iter(f) is f
+    assert next(f) == 1
+    try:
+        next(f)
+    except StopIteration:
+        pass
+    else:
+        assert False, "StopIteration expected"
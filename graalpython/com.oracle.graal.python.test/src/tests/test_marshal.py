@@ -0,0 +1,162 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+
+import marshal
+import sys
+
+
+def roundtrip(value):
+    return marshal.loads(marshal.dumps(value))
+
+
+def test_scalars():
+    for value in [None, True, False, ..., 0, 1, -1, 2**31 - 1, -2**31, 2**31, -2**40,
+                  2**63 - 1, -2**63, 2**64, -2**100 + 7, 1.5, -0.0, 1e300, 3 + 4j, "",
+                  "hello", "héllo wörld €", b"", b"\x00\xffbytes"]:
+        result = roundtrip(value)
+        assert result == value, (value, result)
+        assert type(result) == type(value), (value, result)
+
+
+def test_containers():
+    value = (1, [2.5, "a", None], {"x": (1, 2), 3: frozenset({1, 2})}, {4, 5}, ())
+    assert roundtrip(value) == value
+    assert type(roundtrip(frozenset([1]))) == frozenset
+    assert type(roundtrip({1})) == set
+
+
+def test_primitive_lists():
+    ints = list(range(-500, 500))
+    assert roundtrip(ints) == ints
+    floats = [i / 3 for i in range(1000)]
+    assert roundtrip(floats) == floats
+    longs = [2**40 + i for i in range(100)]
+    assert roundtrip(longs) == longs
+    mixed = list(range(10)) + ["a", 1.5, 2**70]
+    assert roundtrip(mixed) == mixed
+    bools = [True, False] * 10
+    assert roundtrip(bools) == bools
+
+
+def test_string_references():
+    data = ["some string that repeats"] * 100
+    assert len(marshal.dumps(data)) < 100 * len(data[0])
+    assert roundtrip(data) == data
+    assert len(marshal.dumps(data, 2)) > 100 * len(data[0])
+    assert marshal.loads(marshal.dumps(data, 2)) == data
+
+
+def test_cpython_format():
+    assert marshal.dumps(None, 2) == b"N"
+    assert marshal.dumps(1, 2) == b"i\x01\x00\x00\x00"
+    assert marshal.dumps(2**31, 2) == b"l\x03\x00\x00\x00\x00\x00\x00\x00\x02\x00"
+    assert marshal.loads(b"\xe9\x05\x00\x00\x00") == 5
+    assert marshal.loads(b"[\x02\x00\x00\x00\xe9\x05\x00\x00\x00r\x00\x00\x00\x00") == [5, 5]
+
+
+def test_errors():
+    try:
+        marshal.dumps(object())
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+    try:
+        marshal.loads(b"i\x01")
+    except EOFError:
+        pass
+    else:
+        assert False, "expected EOFError"
+    try:
+        marshal.loads(b"")
+    except EOFError:
+        pass
+    else:
+        assert False, "expected EOFError"
+
+
+def test_bad_container_sizes():
+    for data in [b"(\xff\xff\xff\x7f", b"[\xff\xff\xff\x7f", b"<\xff\xff\xff\x7f",
+                 b"(\x02\x00\x00\x00N", b"[\x03\x00\x00\x00i\x01\x00\x00\x00", b")\x05N"]:
+        try:
+            marshal.loads(data)
+        except EOFError:
+            pass
+        else:
+            assert False, "expected EOFError for %r" % data
+    try:
+        marshal.loads(b"[\xff\xff\xff\xff")
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+
+def test_bad_long_size():
+    try:
+        marshal.loads(b"l\x00\x00\x00\x80")
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+def test_old_versions_write_text_floats():
+    assert marshal.dumps(1.0, 1) == b"f\x011"
+    assert marshal.dumps(0.1, 0) == b"f\x130.10000000000000001"
+    assert marshal.dumps(1+2j, 1) == b"x\x011\x012"
+    assert marshal.dumps(1.0, 2) == b"g\x00\x00\x00\x00\x00\x00\xf0?"
+    for value in [1.5, -2.5e-07, 1e17, 5e-324, float("inf"), -0.0, [0.25, 3.0], (1-1j)]:
+        assert marshal.loads(marshal.dumps(value, 1)) == value
+        assert repr(marshal.loads(marshal.dumps(value, 1))) == repr(value)
+    nan = marshal.loads(marshal.dumps(float("nan"), 1))
+    assert nan != nan
+
+def test_code():
+    code = compile("result = 6 * 7", "<marshal test>", "exec")
+    namespace = {}
+    exec(roundtrip(code), namespace)
+    assert namespace["result"] == 42
+
+
+def test_code_is_not_cpython_code():
+    if sys.implementation.name == "graalpython":
+        data = marshal.dumps(compile("pass", "<marshal test>", "exec"))
+        # our code objects have their own type code, other readers must reject them
+        assert data[0] & 0x7f != ord("c")
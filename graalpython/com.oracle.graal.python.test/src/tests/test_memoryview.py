@@ -0,0 +1,120 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def test_basic():
+    m = memoryview(b"abcdef")
+    assert len(m) == 6
+    assert m[0] == ord("a")
+    assert m[-1] == ord("f")
+    assert m.readonly
+    assert m.format == "B"
+    assert m.itemsize == 1
+    assert m.nbytes == 6
+    assert m.ndim == 1
+    assert m.shape == (6,)
+    assert m.strides == (1,)
+    assert m.tobytes() == b"abcdef"
+    assert m.tolist() == [97, 98, 99, 100, 101, 102]
+    assert m.hex() == "616263646566"
+    assert_raises(IndexError, lambda: m[6])
+    assert_raises(TypeError, memoryview, "abc")
+
+
+def test_slice_shares_memory():
+    b = bytearray(b"0123456789")
+    m = memoryview(b)
+    s = m[2:8:2]
+    assert s.tobytes() == b"246"
+    assert s.strides == (2,)
+    assert not s.c_contiguous
+    b[2] = ord("x")
+    assert s[0] == ord("x")
+    s[1] = ord("y")
+    assert b == bytearray(b"01x3y56789")
+    m[0:3] = b"abc"
+    assert b == bytearray(b"abc3y56789")
+    assert bytes(m[1:5]) == b"bc3y"
+
+
+def test_readonly():
+    m = memoryview(b"abc")
+    def assign():
+        m[0] = 1
+    assert_raises(TypeError, assign)
+
+
+def test_cast():
+    b = bytearray(8)
+    m = memoryview(b).cast("i")
+    assert len(m) == 2
+    assert m.itemsize == 4
+    m[1] = 0x01020304
+    assert m[1] == 0x01020304
+    assert b[4:] in (bytearray(b"\x04\x03\x02\x01"), bytearray(b"\x01\x02\x03\x04"))
+    assert memoryview(bytearray(8)).cast("d").tolist() == [0.0]
+    assert_raises(TypeError, memoryview(b).cast, "i", [3])
+    assert_raises(TypeError, memoryview(bytearray(3)).cast, "i")
+
+
+def test_release():
+    b = bytearray(b"abc")
+    with memoryview(b) as m:
+        assert m[0] == ord("a")
+    assert_raises(ValueError, len, m)
+    assert "released" in repr(m)
+
+
+def test_eq_hash():
+    assert memoryview(b"abc") == b"abc"
+    assert memoryview(b"abc") == memoryview(bytearray(b"abc"))
+    assert memoryview(b"abc") != b"abd"
+    assert hash(memoryview(b"abc")) == hash(b"abc")
+
+
+def test_join():
+    m = memoryview(b"xxabcxx")[2:5]
+    assert b"-".join([b"1", m, bytearray(b"2")]) == b"1-abc-2"
+    assert bytearray(b"").join([m, m]) == bytearray(b"abcabc")
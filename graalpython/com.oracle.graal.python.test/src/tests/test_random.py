@@ -0,0 +1,127 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+
+import random
+import _random
+
+
+def assert_raises(err, fn, *args, **kwargs):
+    raised = False
+    try:
+        fn(*args, **kwargs)
+    except err:
+        raised = True
+    assert raised
+
+
+def test_cpython_sequence():
+    random.seed(42)
+    assert random.random() == 0.6394267984578837
+    assert random.random() == 0.025010755222666936
+    assert random.getrandbits(100) == 176140902141063639299770569303
+    assert random.getrandbits(40) == 114832269481
+    random.seed(123456789012345678901234567890)
+    assert random.random() == 0.7275084571578186
+    random.seed("hello")
+    assert random.random() == 0.3537754404730722
+    random.seed(-5)
+    assert random.random() == 0.6229016948897019
+
+
+def test_state():
+    random.seed(1)
+    state = random.getstate()
+    assert state[0] == 3
+    assert len(state[1]) == 625
+    first = [random.random() for i in range(1000)]
+    random.setstate(state)
+    assert [random.random() for i in range(1000)] == first
+    assert_raises(ValueError, random.setstate, (1, state[1], None))
+
+
+def test_generator_type():
+    r = _random.Random()
+    r.seed(42)
+    assert r.random() == 0.6394267984578837
+    state = r.getstate()
+    assert len(state) == 625 and state[624] == 2
+    a = r.getrandbits(64)
+    r.setstate(state)
+    assert r.getrandbits(64) == a
+    assert_raises(ValueError, r.setstate, state[:10])
+    assert_raises(ValueError, r.getrandbits, -1)
+    assert r.getrandbits(0) == 0
+    # generators do not share state
+    r1 = _random.Random()
+    r2 = _random.Random()
+    r1.seed(7)
+    r2.seed(7)
+    r1.random()
+    r1.setstate(r2.getstate())
+    assert r1.random() == r2.random()
+
+
+def test_ranges():
+    random.seed(3)
+    for i in range(200):
+        assert 0 <= random.randrange(10) < 10
+        assert 5 <= random.randrange(5, 8) < 8
+        assert random.randrange(0, 10, 3) in (0, 3, 6, 9)
+        assert 1 <= random.randint(1, 6) <= 6
+        assert 2.0 <= random.uniform(2.0, 3.0) <= 3.0
+    big = 2 ** 100
+    assert 0 <= random.randrange(big) < big
+    assert_raises(ValueError, random.randrange, 0)
+    assert_raises(ValueError, random.randrange, 5, 5)
+    assert_raises(ValueError, random.randrange, 0, 10, 0)
+
+
+def test_shuffle():
+    for values in (list(range(50)), [float(i) for i in range(50)], [str(i) for i in range(50)]):
+        shuffled = list(values)
+        random.seed(11)
+        random.shuffle(shuffled)
+        assert sorted(shuffled) == sorted(values)
+        again = list(values)
+        random.seed(11)
+        random.shuffle(again)
+        assert again == shuffled
+    random.seed(11)
+    x = list(range(10))
+    random.shuffle(x)
+    assert x == [2, 6, 0, 1, 5, 4, 3, 9, 8, 7]
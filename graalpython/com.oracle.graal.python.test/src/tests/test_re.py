@@ -103,15 +103,15 @@ class ReTests(unittest.TestCase):
 
     def test_basic_re_sub(self):
         self.assertTypedEqual(re.sub('y', 'a', 'xyz'), 'xaz')
-        # self.assertTypedEqual(re.sub('y', S('a'), S('xyz')), 'xaz')
-        # self.assertTypedEqual(re.sub(b'y', b'a', b'xyz'), b'xaz')
-        # self.assertTypedEqual(re.sub(b'y', B(b'a'), B(b'xyz')), b'xaz')
-        # self.assertTypedEqual(re.sub(b'y', bytearray(b'a'), bytearray(b'xyz')), b'xaz')
+        self.assertTypedEqual(re.sub('y', S('a'), S('xyz')), 'xaz')
+        self.assertTypedEqual(re.sub(b'y', b'a', b'xyz'), b'xaz')
+        self.assertTypedEqual(re.sub(b'y', B(b'a'), B(b'xyz')), b'xaz')
+        self.assertTypedEqual(re.sub(b'y', bytearray(b'a'), bytearray(b'xyz')), b'xaz')
         # self.assertTypedEqual(re.sub(b'y', memoryview(b'a'), memoryview(b'xyz')), b'xaz')
-        # for y in ("\xe0", "\u0430", "\U0001d49c"):
-        #     self.assertEqual(re.sub(y, 'a', 'x%sz' % y), 'xaz')
+        for y in ("\xe0", "\u0430", "\U0001d49c"):
+            self.assertEqual(re.sub(y, 'a', 'x%sz' % y), 'xaz')
 
-        # self.assertEqual(re.sub("(?i)b+", "x", "bbbb BBBB"), 'x x')
+        self.assertEqual(re.sub("(?i)b+", "x", "bbbb BBBB"), 'x x')
         self.assertEqual(re.sub(r'\d+', self.bump_num, '08.2 -2 23x99y'),
                          '9.3 -3 24x100y')
         self.assertEqual(re.sub(r'\d+', self.bump_num, '08.2 -2 23x99y', 3),
@@ -120,21 +120,90 @@ class ReTests(unittest.TestCase):
                          '9.3 -3 23x99y')
 
         self.assertEqual(re.sub('.', lambda m: r"\n", 'x'), '\\n')
-        # self.assertEqual(re.sub('.', r"\n", 'x'), '\n')
+        self.assertEqual(re.sub('.', r"\n", 'x'), '\n')
 
-        # s = r"\1\1"
-        # self.assertEqual(re.sub('(.)', s, 'x'), 'xx')
-        # self.assertEqual(re.sub('(.)', s.replace('\\', r'\\'), 'x'), s)
-        # self.assertEqual(re.sub('(.)', lambda m: s, 'x'), s)
+        s = r"\1\1"
+        self.assertEqual(re.sub('(.)', s, 'x'), 'xx')
+        self.assertEqual(re.sub('(.)', s.replace('\\', r'\\'), 'x'), s)
+        self.assertEqual(re.sub('(.)', lambda m: s, 'x'), s)
 
-        # self.assertEqual(re.sub('(?P<a>x)', r'\g<a>\g<a>', 'xx'), 'xxxx')
-        # self.assertEqual(re.sub('(?P<a>x)', r'\g<a>\g<1>', 'xx'), 'xxxx')
-        # self.assertEqual(re.sub('(?P<unk>x)', r'\g<unk>\g<unk>', 'xx'), 'xxxx')
-        # self.assertEqual(re.sub('(?P<unk>x)', r'\g<1>\g<1>', 'xx'), 'xxxx')
+        self.assertEqual(re.sub('(?P<a>x)', r'\g<a>\g<a>', 'xx'), 'xxxx')
+        self.assertEqual(re.sub('(?P<a>x)', r'\g<a>\g<1>', 'xx'), 'xxxx')
+        self.assertEqual(re.sub('(?P<unk>x)', r'\g<unk>\g<unk>', 'xx'), 'xxxx')
+        self.assertEqual(re.sub('(?P<unk>x)', r'\g<1>\g<1>', 'xx'), 'xxxx')
 
-        # self.assertEqual(re.sub('a', r'\t\n\v\r\f\a\b', 'a'), '\t\n\v\r\f\a\b')
+        self.assertEqual(re.sub('a', r'\t\n\v\r\f\a\b', 'a'), '\t\n\v\r\f\a\b')
         self.assertEqual(re.sub('a', '\t\n\v\r\f\a\b', 'a'), '\t\n\v\r\f\a\b')
         self.assertEqual(re.sub('a', '\t\n\v\r\f\a\b', 'a'),
                          (chr(9)+chr(10)+chr(11)+chr(13)+chr(12)+chr(7)+chr(8)))
 
-        # self.assertEqual(re.sub(r'^\s*', 'X', 'test'), 'Xtest')
+        self.assertEqual(re.sub(r'^\s*', 'X', 'test'), 'Xtest')
+
+    def test_sub_empty_matches(self):
+        self.assertEqual(re.sub('x*', '-', 'abxd'), '-a-b-d-')
+        self.assertEqual(re.subn('x*', '-', 'abxd'), ('-a-b-d-', 4))
+        self.assertEqual(re.sub(b'x*', b'-', b'abxd'), b'-a-b-d-')
+
+    def test_sub_template(self):
+        self.assertEqual(re.sub(r'(\d+)-(\d+)', r'\2-\1', 'a 1-2 b 3-4'), 'a 2-1 b 4-3')
+        self.assertEqual(re.sub(r'(?P<k>\w+)=(?P<v>\w*)', r'\g<v>:\g<k>', 'a=1 b='), '1:a :b')
+        self.assertRaises(re.error, re.sub, '(a)', r'\2', 'a')
+        self.assertRaises(IndexError, re.sub, '(a)', r'\g<b>', 'a')
+
+    def test_split(self):
+        self.assertEqual(re.split(r'\W+', 'Words, words, words.'), ['Words', 'words', 'words', ''])
+        self.assertEqual(re.split(r'(\W+)', 'Words, words.'), ['Words', ', ', 'words', '.', ''])
+        self.assertEqual(re.split(r'\W+', 'Words, words, words.', 1), ['Words', 'words, words.'])
+        self.assertEqual(re.split('(a)|b', 'xbyaz'), ['x', None, 'y', 'a', 'z'])
+        self.assertEqual(re.split(b',', b'a,b'), [b'a', b'b'])
+
+    def test_findall_finditer(self):
+        self.assertEqual(re.findall(r'(\w)(\d)?', 'a1b'), [('a', '1'), ('b', '')])
+        self.assertEqual(re.findall('x*', 'axb'), ['', 'x', '', ''])
+        self.assertEqual([m.span() for m in re.finditer(r'\d+', '1 22 333')], [(0, 1), (2, 4), (5, 8)])
+        self.assertEqual(re.compile(r'\d').findall('123456', 2, 4), ['3', '4'])
+
+    def test_match_object(self):
+        m = re.match(r'(?P<first>\w+) (?P<last>\w+)(x)?', 'Jane Doe!')
+        self.assertEqual(m.group('first', 2), ('Jane', 'Doe'))
+        self.assertEqual(m['last'], 'Doe')
+        self.assertEqual(m.groups(), ('Jane', 'Doe', None))
+        self.assertEqual(m.groups(''), ('Jane', 'Doe', ''))
+        self.assertEqual(m.groupdict(), {'first': 'Jane', 'last': 'Doe'})
+        self.assertEqual(m.span('last'), (5, 8))
+        self.assertEqual(m.lastindex, 2)
+        self.assertEqual(m.lastgroup, 'last')
+        self.assertEqual(m.expand(r'\2, \g<first>'), 'Doe, Jane')
+        self.assertEqual(m.regs, ((0, 8), (0, 4), (5, 8), (-1, -1)))
+        self.assertEqual(m.string, 'Jane Doe!')
+        self.assertEqual(m.start(3), -1)
+        self.assertRaises(IndexError, m.group, 4)
+        self.assertRaises(IndexError, m.group, 'middle')
+
+    def test_pos_endpos(self):
+        p = re.compile(r'^\w+$')
+        self.assertIsNone(p.match('ab cd', 3))
+        self.assertIsNone(p.search('ab cd', 3))
+        self.assertEqual(re.compile(r'\w+$').search('ab cd', 0, 2).group(), 'ab')
+        self.assertEqual(re.compile('d').match('abcd', 3).span(), (3, 4))
+        self.assertEqual(re.compile('(?<=c)d').match('abcd', 3).span(), (3, 4))
+
+    def test_scanner(self):
+        scanner = re.compile(r'\d+|\s+|[a-z]+').scanner('ab 12')
+        self.assertEqual(scanner.match().group(), 'ab')
+        self.assertEqual(scanner.match().group(), ' ')
+        self.assertEqual(scanner.match().group(), '12')
+        self.assertIsNone(scanner.match())
+
+    def test_verbose_and_flags(self):
+        p = re.compile(r"""
+            (?P<key>[a-z]+)   # a key
+            \s* = \s*
+            (?P<value>\d+)    # a number
+        """, re.VERBOSE | re.IGNORECASE)
+        self.assertEqual(p.match('Size = 10').groupdict(), {'key': 'Size', 'value': '10'})
+        self.assertEqual(re.findall('(?m)^x', 'x\nx\ny'), ['x', 'x'])
+        self.assertEqual(re.match('(?s)a.b', 'a\nb').group(), 'a\nb')
+        self.assertEqual(re.match(r'(?P<q>[\'"]).*?(?P=q)', '"a"b').group(), '"a"')
+        self.assertEqual(repr(re.compile('a', re.I)), "re.compile('a', re.IGNORECASE)")
+
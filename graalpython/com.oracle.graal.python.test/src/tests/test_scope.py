@@ -812,3 +812,45 @@ def test_nonlocal_cell():
     assert not done
     a.method()
     assert done
+
+
+folded_global = 1
+
+
+def read_folded_global():
+    return folded_global
+
+
+def read_folded_builtin():
+    return len
+
+
+def test_rebound_globals_and_builtins():
+    import builtins
+    global folded_global
+    for i in range(100):
+        assert read_folded_global() == 1
+    folded_global = 2
+    assert read_folded_global() == 2
+    globals()["folded_global"] = 3
+    assert read_folded_global() == 3
+    import sys
+    setattr(sys.modules[__name__], "folded_global", 4)
+    assert read_folded_global() == 4
+    del folded_global
+    assert_raises(NameError, read_folded_global)
+    folded_global = 1
+
+    original_len = builtins.len
+    for i in range(100):
+        assert read_folded_builtin() is original_len
+    try:
+        builtins.len = max
+        assert read_folded_builtin() is max
+        globals()["len"] = min
+        assert read_folded_builtin() is min
+        del globals()["len"]
+        assert read_folded_builtin() is max
+    finally:
+        builtins.len = original_len
+    assert read_folded_builtin() is original_len
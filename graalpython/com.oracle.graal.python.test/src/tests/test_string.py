@@ -3,6 +3,7 @@
 #
 # Licensed under the PYTHON SOFTWARE FOUNDATION LICENSE VERSION 2
 
+import os
 import sys
 import unittest
 
@@ -69,6 +70,77 @@ def test_format_conversion():
         assert False, "invalid error for wrong conversion specifier"
 
 
+def test_format_spec():
+    assert "{:>6}|{:<6}|{:^6}".format(42, "ab", 1.5) == "    42|ab    | 1.5  "
+    assert "{:05d}".format(-42) == "-0042"
+    assert "{:+,}".format(1234567) == "+1,234,567"
+    assert "{:x} {:X} {:#o} {:b}".format(255, 255, 8, 5) == "ff FF 0o10 101"
+    assert "{:.3f} {:e} {:.1%}".format(3.14159, 12345.0, 0.25) == "3.142 1.234500e+04 25.0%"
+    assert "{:.2f}".format(7) == "7.00"
+    assert "{:10}".format(0.1 + 0.2) == "0.30000000000000004"
+    assert "{:.2}".format("abcdef") == "ab"
+    assert "{:*^9}".format("mid") == "***mid***"
+    assert "{:d}".format(True) == "1"
+    assert "{}".format(True) == "True"
+    assert "{:>{width}.{prec}f}".format(2.5, width=8, prec=2) == "    2.50"
+    assert "{0:{1}}".format(3, 4) == "   3"
+    assert format(12, "04") == "0012"
+    assert format(2.0, "") == "2.0"
+    assert format("x", ">3") == "  x"
+
+
+def test_format_spec_str_subclass():
+    class MyStr(str):
+        pass
+
+    assert format(5, MyStr(">4")) == "   5"
+    assert format(2**70, MyStr("x")) == "400000000000000000"
+    assert format(1.5, MyStr("08.3f")) == "0001.500"
+    assert format("ab", MyStr("^6")) == "  ab  "
+    assert format(object(), MyStr("")).startswith("<object")
+
+
+def test_format_fields():
+    class Point:
+        def __init__(self, x, y):
+            self.x = x
+            self.y = y
+
+    p = Point(1, 2)
+    assert "{0.x},{0.y}".format(p) == "1,2"
+    assert "{p.x}-{p.y}".format(p=p) == "1-2"
+    assert "{0[1]}{0[0]}".format("ab") == "ba"
+    assert "{d[key]}".format(d={"key": "value"}) == "value"
+    assert "{{}} {{{0}}}".format(1) == "{} {1}"
+    assert "{!a}".format("\xe9") == "'\\xe9'"
+
+    class Custom:
+        def __format__(self, spec):
+            return "custom:" + spec
+
+    assert "{:abc}".format(Custom()) == "custom:abc"
+
+
+def test_format_repeated():
+    template = "{} + {} = {:>4}"
+    for i in range(100):
+        assert template.format(i, i, i + i) == "%d + %d = %4d" % (i, i, i + i)
+
+
+def test_format_errors():
+    assertRaises(ValueError, "{".format)
+    assertRaises(ValueError, "}".format)
+    assertRaises(ValueError, "{0".format, 1)
+    assertRaises(ValueError, "{}{0}".format, 1)
+    assertRaises(ValueError, "{0}{}".format, 1)
+    assertRaises(IndexError, "{1}".format, 1)
+    assertRaises(KeyError, "{name}".format, 1)
+    assertRaises(ValueError, "{:d}".format, "text")
+    assertRaises(ValueError, "{:s}".format, 1)
+    assertRaises(ValueError, "{:.2d}".format, 1)
+    assertRaises(ValueError, "{:=5}".format, "text")
+
+
 def test_join0():
     assert ', '.join(str(i) for i in range(10)) == "0, 1, 2, 3, 4, 5, 6, 7, 8, 9"
     assert ', '.join(str(i) for i in range(0)) == ""
@@ -93,6 +165,40 @@ def test_join1():
     assert ", ".join(CustomList(["A", "B", "C"])) == "1, 2, 3"
 
 
+def test_concat_long():
+    s = ""
+    for i in range(1000):
+        s += str(i % 10)
+    expected = "".join(str(i % 10) for i in range(1000))
+    assert len(s) == 1000
+    assert s == expected
+    assert hash(s) == hash(expected)
+    assert s[3] == "3" and s[-1] == "9"
+    assert list(s)[:3] == ["0", "1", "2"]
+    assert s.find("789") == 7
+    assert s.upper() == expected
+    assert s.replace("0", "x").count("x") == 100
+    assert {expected: 1}[s] == 1
+
+    # appending to the same string twice must not let the results see each other
+    t = s + "a"
+    u = s + "b"
+    assert t[-1] == "a" and u[-1] == "b" and len(t) == len(u) == 1001
+    assert "-".join([s, t])[1000:1003] == "-01"
+
+
+def test_concat_long_passed_to_builtins():
+    number = "0." + "1" * 300
+    assert float(number) == 0.1111111111111111
+    assert complex(number) == 0.1111111111111111
+    # a long path that still resolves to the root directory
+    path = "/" + "./" * 200
+    assert len(path) > 256
+    # compare the inode numbers
+    assert os.stat(path)[1] == os.stat("/")[1]
+    assert sorted(os.listdir(path)) == sorted(os.listdir("/"))
+
+
 def test_strip():
     assert ' test  '.strip() == 'test'
     assert u' test  '.strip() == u'test'
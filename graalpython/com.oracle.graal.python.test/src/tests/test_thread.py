@@ -0,0 +1,177 @@
+# Copyright (c) 2018, Oracle and/or its affiliates.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or data
+# (collectively the "Software"), free of charge and under any and all copyright
+# rights in the Software, and any and all patent rights owned or freely
+# licensable by each licensor hereunder covering either (i) the unmodified
+# Software as contributed to or provided by such licensor, or (ii) the Larger
+# Works (as defined below), to deal in both
+#
+# (a) the Software, and
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+#     one is included with the Software (each a "Larger Work" to which the
+#     Software is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+
+import _thread
+import time
+
+
+def wait_for(predicate, timeout=10):
+    deadline = time.time() + timeout
+    while not predicate():
+        assert time.time() < deadline, "timed out"
+        time.sleep(0.001)
+
+
+def test_lock():
+    lock = _thread.allocate_lock()
+    assert not lock.locked()
+    assert lock.acquire()
+    assert lock.locked()
+    assert not lock.acquire(False)
+    assert not lock.acquire(timeout=0.01)
+    lock.release()
+    assert not lock.locked()
+    try:
+        lock.release()
+    except RuntimeError:
+        pass
+    else:
+        assert False, "releasing an unlocked lock must fail"
+    with lock:
+        assert lock.locked()
+    assert not lock.locked()
+
+
+def test_lock_arguments():
+    lock = _thread.allocate_lock()
+    try:
+        lock.acquire(False, 1)
+    except ValueError:
+        pass
+    else:
+        assert False, "a non-blocking acquire cannot have a timeout"
+    try:
+        lock.acquire(timeout=-2)
+    except ValueError:
+        pass
+    else:
+        assert False, "negative timeouts are invalid"
+
+
+def test_rlock():
+    lock = _thread.RLock()
+    assert lock.acquire()
+    assert lock.acquire()
+    assert lock._is_owned()
+    lock.release()
+    lock.release()
+    assert not lock._is_owned()
+    try:
+        lock.release()
+    except RuntimeError:
+        pass
+    else:
+        assert False, "releasing an unowned RLock must fail"
+
+
+def test_start_new_thread():
+    done = _thread.allocate_lock()
+    done.acquire()
+    results = []
+
+    def worker(a, b, c=0):
+        results.append((a + b + c, _thread.get_ident()))
+        done.release()
+
+    _thread.start_new_thread(worker, (1, 2), {"c": 3})
+    assert done.acquire(timeout=10)
+    assert results[0][0] == 6
+    assert results[0][1] != _thread.get_ident()
+
+
+def test_threads_share_state():
+    lock = _thread.allocate_lock()
+    counter = [0]
+    finished = []
+    nthreads = 4
+
+    def worker():
+        for i in range(1000):
+            with lock:
+                counter[0] += 1
+        finished.append(1)
+
+    for i in range(nthreads):
+        _thread.start_new_thread(worker, ())
+    wait_for(lambda: len(finished) == nthreads)
+    assert counter[0] == nthreads * 1000
+
+
+def test_list_and_dict_mutation():
+    items = []
+    mapping = {}
+    finished = []
+    nthreads = 4
+
+    def worker(n):
+        for i in range(2000):
+            items.append(i)
+            mapping[(n, i)] = i
+        finished.append(n)
+
+    for n in range(nthreads):
+        _thread.start_new_thread(worker, (n,))
+    wait_for(lambda: len(finished) == nthreads)
+    assert len(items) == nthreads * 2000
+    assert len(mapping) == nthreads * 2000
+
+
+def test_sentinel():
+    sentinel_holder = []
+    started = _thread.allocate_lock()
+    started.acquire()
+
+    def worker():
+        sentinel = _thread._set_sentinel()
+        sentinel.acquire()
+        sentinel_holder.append(sentinel)
+        started.release()
+
+    _thread.start_new_thread(worker, ())
+    assert started.acquire(timeout=10)
+    # the sentinel is released once the thread has finished
+    assert sentinel_holder[0].acquire(timeout=10)
+
+
+def test_start_new_thread_errors():
+    try:
+        _thread.start_new_thread(print, [])
+    except TypeError:
+        pass
+    else:
+        assert False, "args must be a tuple"
@@ -62,3 +62,52 @@ def test_traceback_dir():
 # def test_import():
 #     import traceback
 
+
+
+
+def test_traceback_inside_ignoring_handler():
+    def lookup(d, key):
+        return d[key]
+
+    def traceback_of_inner():
+        try:
+            lookup({}, "x")
+        except KeyError as e:
+            return e.__traceback__
+
+    tb = None
+    for i in range(100):
+        try:
+            if i % 2 == 0:
+                lookup({}, i)
+            else:
+                tb = traceback_of_inner()
+        except KeyError:
+            pass
+        if i % 2 == 1:
+            assert tb is not None
+            assert tb.tb_frame is not None
+
+
+def test_stop_iteration_traceback_inside_ignoring_handler():
+    def exhausted():
+        return next(iter([]))
+
+    def traceback_of_inner():
+        try:
+            exhausted()
+        except StopIteration as e:
+            return e.__traceback__
+
+    tb = None
+    for i in range(100):
+        try:
+            if i % 2 == 0:
+                exhausted()
+            else:
+                tb = traceback_of_inner()
+        except StopIteration:
+            pass
+        if i % 2 == 1:
+            assert tb is not None
+            assert tb.tb_frame is not None
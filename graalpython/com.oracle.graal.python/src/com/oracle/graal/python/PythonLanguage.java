@@ -49,6 +49,8 @@ import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParseResult;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics;
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -83,8 +85,9 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
     public static final String MIME_TYPE = "application/x-python";
     public static final String EXTENSION = ".py";
 
-    @CompilationFinal private PythonCore sharedCore;
+    @CompilationFinal private Python3Core sharedCore;
     private final NodeFactory nodeFactory;
+    private final Assumption singleThreaded = Truffle.getRuntime().createAssumption("single threaded");
 
     public PythonLanguage() {
         this.nodeFactory = NodeFactory.create(this);
@@ -94,6 +97,20 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         return nodeFactory;
     }
 
+    /**
+     * Valid as long as no Python code in any context of the engine has started another thread.
+     * Only decides whether Truffle lets several threads enter a context, each context tracks its
+     * own threads with {@link PythonContext#getSingleThreadedAssumption()}.
+     */
+    public Assumption getSingleThreadedAssumption() {
+        return singleThreaded;
+    }
+
+    @Override
+    protected boolean isThreadAccessAllowed(Thread thread, boolean singleThreadedAccess) {
+        return singleThreadedAccess || !singleThreaded.isValid();
+    }
+
     @Override
     protected boolean patchContext(PythonContext context, Env newEnv) {
         ensureHomeInOptions(newEnv);
@@ -118,14 +135,25 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
     @Override
     protected PythonContext createContext(Env env) {
         ensureHomeInOptions(env);
-        if (env.getOptions().get(PythonOptions.SharedCore) && sharedCore != null) {
-            return new PythonContext(this, env, sharedCore);
+        if (env.getOptions().get(PythonOptions.SharedCore)) {
+            return new PythonContext(this, env, getSharedCore());
         } else {
             Python3Core newCore = new Python3Core(this, new PythonParserImpl());
             return new PythonContext(this, env, newCore);
         }
     }
 
+    /**
+     * Contexts may be created concurrently by an embedder, so the shared core is created under a
+     * lock. It is only initialized by the first of them in {@link #initializeContext}.
+     */
+    private synchronized Python3Core getSharedCore() {
+        if (sharedCore == null) {
+            sharedCore = new Python3Core(this, new PythonParserImpl());
+        }
+        return sharedCore;
+    }
+
     private void ensureHomeInOptions(Env env) {
         String languageHome = getLanguageHome();
         String sysPrefix = env.getOptions().get(PythonOptions.SysPrefix);
@@ -180,6 +208,11 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         }
     }
 
+    @Override
+    protected void disposeContext(PythonContext context) {
+        context.flushBuffers();
+    }
+
     @Override
     protected OptionDescriptors getOptionDescriptors() {
         return PythonOptions.createDescriptors();
@@ -187,20 +220,17 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
 
     @Override
     protected void initializeContext(PythonContext context) throws Exception {
-        Python3Core core = (Python3Core) getCore();
-        boolean fullInit = !PythonOptions.getOption(context, PythonOptions.LazyInit);
+        Python3Core core = (Python3Core) context.getCore();
+        if (context.getOptions().get(PythonOptions.Metrics)) {
+            PythonMetrics.enable(context);
+        }
         if (context.getOptions().get(PythonOptions.SharedCore)) {
-            if (sharedCore == null) {
-                sharedCore = context.getCore();
-                core.bootstrap();
-            } else {
-                fullInit = false;
-            }
-        } else {
-            core.bootstrap();
+            core.initializeShared(context);
+            return;
         }
+        core.bootstrap();
         context.initialize();
-        if (fullInit) {
+        if (!PythonOptions.getOption(context, PythonOptions.LazyInit)) {
             core.initialize();
         }
     }
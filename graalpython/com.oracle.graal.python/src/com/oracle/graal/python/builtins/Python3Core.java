@@ -37,8 +37,10 @@ import java.net.URI;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.modules.ArrayModuleBuiltins;
@@ -50,6 +52,7 @@ import com.oracle.graal.python.builtins.modules.CollectionsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ErrnoModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.FunctoolsModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.GcModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.GraalPythonModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.IOModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.ImpModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.InteropModuleBuiltins;
@@ -58,25 +61,33 @@ import com.oracle.graal.python.builtins.modules.JavaModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.MarshalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.MathModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.PosixModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.RandomGeneratorModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.RandomModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SREModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SignalModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.StringModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.SysModuleBuiltins;
+import com.oracle.graal.python.builtins.modules.ThreadModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.TimeModuleBuiltins;
 import com.oracle.graal.python.builtins.modules.TruffleCextBuiltins;
 import com.oracle.graal.python.builtins.modules.WeakRefModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PEllipsis;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.array.ArrayBuiltins;
 import com.oracle.graal.python.builtins.objects.bool.BoolBuiltins;
 import com.oracle.graal.python.builtins.objects.bytes.ByteArrayBuiltins;
 import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.cell.CellBuiltins;
+import com.oracle.graal.python.builtins.objects.cell.PCell;
 import com.oracle.graal.python.builtins.objects.code.CodeBuiltins;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.complex.ComplexBuiltins;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
 import com.oracle.graal.python.builtins.objects.cpyobject.PyObjectBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.DequeIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictItemsBuiltins;
 import com.oracle.graal.python.builtins.objects.dict.DictItemsIteratorBuiltins;
@@ -89,34 +100,54 @@ import com.oracle.graal.python.builtins.objects.enumerate.EnumerateBuiltins;
 import com.oracle.graal.python.builtins.objects.exception.BaseExceptionBuiltins;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
 import com.oracle.graal.python.builtins.objects.floats.FloatBuiltins;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
 import com.oracle.graal.python.builtins.objects.foreign.TruffleObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.frame.FrameBuiltins;
 import com.oracle.graal.python.builtins.objects.function.FunctionBuiltins;
+import com.oracle.graal.python.builtins.objects.function.PartialBuiltins;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.generator.GeneratorBuiltins;
+import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptorTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.IntBuiltins;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIOBuiltins;
+import com.oracle.graal.python.builtins.objects.io.TextIOWrapperBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.ForeignIteratorBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.IteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.PFilterBuiltins;
+import com.oracle.graal.python.builtins.objects.iterator.PMapBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.PZipBuiltins;
 import com.oracle.graal.python.builtins.objects.iterator.SentinelIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.itertools.ItertoolsBuiltins;
 import com.oracle.graal.python.builtins.objects.list.ListBuiltins;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mappingproxy.MappingproxyBuiltins;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryViewBuiltins;
 import com.oracle.graal.python.builtins.objects.method.MethodBuiltins;
+import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
+import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
 import com.oracle.graal.python.builtins.objects.range.RangeBuiltins;
 import com.oracle.graal.python.builtins.objects.referencetype.ReferenceTypeBuiltins;
 import com.oracle.graal.python.builtins.objects.reversed.ReversedBuiltins;
 import com.oracle.graal.python.builtins.objects.set.FrozenSetBuiltins;
+import com.oracle.graal.python.builtins.objects.set.PBaseSet;
+import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
+import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.set.SetBuiltins;
 import com.oracle.graal.python.builtins.objects.slice.SliceBuiltins;
+import com.oracle.graal.python.builtins.objects.sre.SREMatchBuiltins;
+import com.oracle.graal.python.builtins.objects.sre.SREPatternBuiltins;
+import com.oracle.graal.python.builtins.objects.sre.SREScannerBuiltins;
 import com.oracle.graal.python.builtins.objects.str.StringBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.LockBuiltins;
+import com.oracle.graal.python.builtins.objects.thread.RLockBuiltins;
 import com.oracle.graal.python.builtins.objects.traceback.TracebackBuiltins;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.tuple.TupleBuiltins;
@@ -130,6 +161,7 @@ import com.oracle.graal.python.runtime.PythonParseResult;
 import com.oracle.graal.python.runtime.PythonParser;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.exception.TracebackProfile;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -160,7 +192,6 @@ public final class Python3Core implements PythonCore {
                     "type",
                     "_imp",
                     "function",
-                    "_functools",
                     "method",
                     "code",
                     "_warnings",
@@ -171,15 +202,23 @@ public final class Python3Core implements PythonCore {
                     "_weakref",
                     "_io",
                     "set",
-                    "itertools",
                     "base_exception",
-                    "python_cext",
-                    "_sre",
-                    "_collections",
                     "list",
                     "_codecs",
                     "bytes",
                     "float",
+                    "_thread",
+    };
+
+    /**
+     * Core files of builtin modules that are not needed to bootstrap {@code builtins} and
+     * {@code sys}. They are only run when their module is first imported, see
+     * {@link #importBuiltinModule}.
+     */
+    private static final String[] LAZY_CORE_FILES = new String[]{
+                    "itertools",
+                    "python_cext",
+                    "_collections",
     };
 
     private static final Map<String, Object> BUILTIN_CONSTANTS = new HashMap<>();
@@ -198,6 +237,7 @@ public final class Python3Core implements PythonCore {
                     new BytesBuiltins(),
                     new ComplexBuiltins(),
                     new ByteArrayBuiltins(),
+                    new MemoryViewBuiltins(),
                     new TypeBuiltins(),
                     new IntBuiltins(),
                     new TruffleObjectBuiltins(),
@@ -218,11 +258,15 @@ public final class Python3Core implements PythonCore {
                     new IteratorBuiltins(),
                     new ReversedBuiltins(),
                     new PZipBuiltins(),
+                    new PMapBuiltins(),
+                    new PFilterBuiltins(),
+                    new ItertoolsBuiltins(),
                     new EnumerateBuiltins(),
                     new SentinelIteratorBuiltins(),
                     new ForeignIteratorBuiltins(),
                     new GeneratorBuiltins(),
                     new FunctionBuiltins(),
+                    new PartialBuiltins(),
                     new MethodBuiltins(),
                     new CodeBuiltins(),
                     new FrameBuiltins(),
@@ -237,23 +281,36 @@ public final class Python3Core implements PythonCore {
                     new MathModuleBuiltins(),
                     new MarshalModuleBuiltins(),
                     new RandomModuleBuiltins(),
+                    new RandomGeneratorModuleBuiltins(),
+                    new RandomBuiltins(),
                     new TruffleCextBuiltins(),
                     new WeakRefModuleBuiltins(),
                     new ReferenceTypeBuiltins(),
+                    new ThreadModuleBuiltins(),
+                    new LockBuiltins(),
+                    new RLockBuiltins(),
                     new IOModuleBuiltins(),
+                    new BufferedIOBuiltins(),
+                    new TextIOWrapperBuiltins(),
                     new StringModuleBuiltins(),
                     new ItertoolsModuleBuiltins(),
                     new FunctoolsModuleBuiltins(),
                     new ErrnoModuleBuiltins(),
                     new CodecsModuleBuiltins(),
                     new CollectionsModuleBuiltins(),
+                    new DequeBuiltins(),
+                    new DequeIteratorBuiltins(),
                     new JavaModuleBuiltins(),
                     new SREModuleBuiltins(),
+                    new SREPatternBuiltins(),
+                    new SREMatchBuiltins(),
+                    new SREScannerBuiltins(),
                     new AstModuleBuiltins(),
                     new SignalModuleBuiltins(),
                     new TracebackBuiltins(),
                     new PyObjectBuiltins(),
                     new GcModuleBuiltins(),
+                    new GraalPythonModuleBuiltins(),
                     new SysModuleBuiltins(),
     };
 
@@ -261,6 +318,8 @@ public final class Python3Core implements PythonCore {
     @CompilationFinal(dimensions = 1) private final PythonBuiltinClass[] builtinTypes = new PythonBuiltinClass[PythonBuiltinClassType.values().length];
 
     private final Map<String, PythonModule> builtinModules = new HashMap<>();
+    // lazy modules whose core file has not been run yet
+    private final Set<String> pendingLazyModules = new HashSet<>(Arrays.asList(LAZY_CORE_FILES));
     @CompilationFinal private PythonModule builtinsModule;
 
     @CompilationFinal private PythonBuiltinClass typeClass;
@@ -340,30 +399,105 @@ public final class Python3Core implements PythonCore {
         for (String s : CORE_FILES) {
             loadFile(s, coreHome);
         }
+        for (String s : LAZY_CORE_FILES) {
+            if (!pendingLazyModules.contains(s)) {
+                loadFile(s, coreHome);
+            }
+        }
         exportCInterface(getContext());
         currentException = null;
         initialized = true;
     }
 
+    /**
+     * Initializes a core that is shared by all contexts of the engine. The first context to get
+     * here bootstraps the core and runs the core library on the core's own modules, which then
+     * serve as the template for every context: a context only gets copies of the mutable parts of
+     * the template (modules, dicts, lists and the functions bound to them), while builtin functions,
+     * classes and immutable values are shared.
+     */
+    public void initializeShared(PythonContext context) {
+        synchronized (this) {
+            if (!initialized) {
+                // every context copies the template modules, so loading lazily gains nothing
+                pendingLazyModules.clear();
+                bootstrap();
+                // sets up sys on the template modules themselves
+                context.initialize();
+                initialize();
+            }
+        }
+        context.initialize();
+        exportCInterface(context);
+    }
+
     public Object duplicate(Map<Object, Object> replacements, Object value) {
+        // immutable and builtin values are shared, which are most of the values in the core
+        if (value instanceof String || value instanceof PNone || value instanceof PNotImplemented || value instanceof Boolean || value instanceof Integer || value instanceof Long ||
+                        value instanceof PInt || value instanceof Double || value instanceof PBuiltinFunction || value instanceof PythonBuiltinClass) {
+            assert !(value instanceof PBuiltinFunction) || ((PythonObject) value).getAttributeNames().isEmpty();
+            return value;
+        } else if (value instanceof PEllipsis || value instanceof GetSetDescriptor) {
+            return value;
+        } else if ((value instanceof PFloat || value instanceof PComplex || value instanceof PBytes) && ((PythonObject) value).getPythonClass() instanceof PythonBuiltinClass) {
+            return value;
+        }
         Object replacement = replacements.get(value);
         if (replacement != null) {
             return replacement;
         }
-        if (value instanceof String || value instanceof PNone || value instanceof PNotImplemented || value instanceof Boolean || value instanceof Integer || value instanceof PInt ||
-                        value instanceof Double) {
-            return value;
-        } else if (value instanceof PFunction) {
+        if (value instanceof PFunction) {
             PFunction function = (PFunction) value;
             PythonModule globals = (PythonModule) function.getGlobals();
-            PFunction newFunction = function.copyWithGlobals((PythonObject) duplicate(replacements, globals));
+            PCell[] closure = function.getClosure();
+            PCell[] newClosure = null;
+            if (closure != null) {
+                newClosure = new PCell[closure.length];
+                for (int i = 0; i < closure.length; i++) {
+                    newClosure[i] = (PCell) duplicate(replacements, closure[i]);
+                }
+            }
+            PythonObject newGlobals = (PythonObject) duplicate(replacements, globals);
+            replacement = replacements.get(function);
+            if (replacement != null) {
+                // reached again through its own globals or closure
+                return replacement;
+            }
+            PFunction newFunction = function.copyWithGlobals(newGlobals, newClosure);
+            replacements.put(function, newFunction);
             for (String attr : function.getAttributeNames()) {
                 newFunction.setAttribute(attr, duplicate(replacements, function.getAttribute(attr)));
             }
             return newFunction;
-        } else if (value instanceof PBuiltinFunction) {
-            assert ((PythonObject) value).getAttributeNames().isEmpty();
-            return value;
+        } else if (value instanceof PCell) {
+            PCell cell = (PCell) value;
+            PCell newCell = new PCell();
+            replacements.put(cell, newCell);
+            Object ref = cell.getRef();
+            if (ref != null) {
+                newCell.setRef(duplicate(replacements, ref));
+            }
+            return newCell;
+        } else if (value instanceof PythonClass) {
+            // classes defined by the core library are mutable like any other class
+            PythonClass clazz = (PythonClass) value;
+            assert clazz.getClass() == PythonClass.class;
+            PythonClass[] bases = clazz.getBaseClasses();
+            PythonClass[] newBases = new PythonClass[bases.length];
+            for (int i = 0; i < bases.length; i++) {
+                newBases[i] = (PythonClass) duplicate(replacements, bases[i]);
+            }
+            PythonClass metaclass = (PythonClass) duplicate(replacements, clazz.getPythonClass());
+            replacement = replacements.get(clazz);
+            if (replacement != null) {
+                return replacement;
+            }
+            PythonClass newClass = factory().createPythonClass(metaclass, clazz.getName(), newBases);
+            replacements.put(clazz, newClass);
+            for (String attr : clazz.getAttributeNames()) {
+                newClass.setAttribute(attr, duplicate(replacements, clazz.getAttribute(attr)));
+            }
+            return newClass;
         } else if (value instanceof PythonModule) {
             PythonModule module = (PythonModule) value;
             PythonModule newModule = factory().createPythonModule(module.getModuleName(), module.getModulePath());
@@ -372,11 +506,6 @@ public final class Python3Core implements PythonCore {
                 newModule.setAttribute(attr, duplicate(replacements, module.getAttribute(attr)));
             }
             return newModule;
-        } else if (value instanceof PythonClass) {
-            // TODO: all classes in core should be PythonBuiltinClass
-            return value;
-        } else if (value instanceof PythonBuiltinClass) {
-            return value;
         } else if (value instanceof PDict) {
             PDict dict = (PDict) value;
             PDict newDict = factory().createDict();
@@ -405,23 +534,62 @@ public final class Python3Core implements PythonCore {
             }
             return newList;
         }
-        assert value.getClass() == PythonObject.class;
-        // TODO: not sure what to do about these
-        return value;
+        } else if (value instanceof PBaseSet) {
+            PBaseSet set = (PBaseSet) value;
+            assert set.getAttributeNames().isEmpty();
+            PSet newSet = factory().createSet();
+            for (Object item : set.values()) {
+                newSet.add(duplicate(replacements, item));
+            }
+            PythonClass cls = (PythonClass) duplicate(replacements, set.getPythonClass());
+            PBaseSet result = set instanceof PFrozenSet ? factory().createFrozenSet(cls, newSet.getDictStorage()) : factory().createSet(cls, newSet.getDictStorage());
+            replacements.put(set, result);
+            return result;
+        } else if (value instanceof PMethod) {
+            PMethod method = (PMethod) value;
+            PMethod newMethod = factory().createMethod(duplicate(replacements, method.__self__()), (PFunction) duplicate(replacements, method.__func__()));
+            replacements.put(method, newMethod);
+            return newMethod;
+        } else if (value instanceof PBuiltinMethod) {
+            PBuiltinMethod method = (PBuiltinMethod) value;
+            PBuiltinMethod newMethod = factory().createBuiltinMethod(duplicate(replacements, method.__self__()), method.__func__());
+            replacements.put(method, newMethod);
+            return newMethod;
+        } else if (value.getClass() == PythonObject.class) {
+            PythonObject object = (PythonObject) value;
+            PythonObject newObject = factory().createPythonObject((PythonClass) duplicate(replacements, object.getPythonClass()));
+            replacements.put(object, newObject);
+            for (String attr : object.getAttributeNames()) {
+                newObject.setAttribute(attr, duplicate(replacements, object.getAttribute(attr)));
+            }
+            return newObject;
+        }
+        // sharing would leak state between contexts and a partial copy would lose it silently
+        throw new IllegalStateException("cannot copy " + value.getClass().getSimpleName() + " from the shared core");
     }
 
     public PythonModule createSysModule(PythonContext context) {
         Map<Object, Object> replacements = new HashMap<>();
-        if (context.getOptions().get(PythonOptions.SharedCore)) {
+        if (context.getOptions().get(PythonOptions.SharedCore) && initialized) {
             for (PythonModule module : builtinModules.values()) {
                 duplicate(replacements, module);
             }
+            PythonClass[] contextErrorClasses = new PythonClass[errorClasses.length];
+            for (int i = 0; i < errorClasses.length; i++) {
+                contextErrorClasses[i] = (PythonClass) duplicate(replacements, errorClasses[i]);
+            }
+            context.setErrorClasses(contextErrorClasses);
         } else {
             for (PythonModule module : builtinModules.values()) {
                 replacements.put(module, module);
             }
         }
-        PythonModule sys = (PythonModule) replacements.get(builtinModules.get("sys"));
+        Map<String, PythonModule> contextModules = new HashMap<>();
+        for (Entry<String, PythonModule> entry : builtinModules.entrySet()) {
+            contextModules.put(entry.getKey(), (PythonModule) replacements.get(entry.getValue()));
+        }
+        context.setBuiltinModules(contextModules);
+        PythonModule sys = contextModules.get("sys");
         String[] args = context.getEnv().getApplicationArguments();
         sys.setAttribute("argv", factory().createList(Arrays.copyOf(args, args.length, Object[].class)));
         String prefix = PythonCore.getSysPrefix(context.getEnv());
@@ -477,6 +645,15 @@ public final class Python3Core implements PythonCore {
         return builtinModules.get(name);
     }
 
+    @TruffleBoundary
+    public synchronized PythonModule importBuiltinModule(String name) {
+        PythonModule module = builtinModules.get(name);
+        if (module != null && initialized && pendingLazyModules.remove(name)) {
+            loadFile(name, PythonCore.getCoreHomeOrFail());
+        }
+        return module;
+    }
+
     public PythonBuiltinClass lookupType(PythonBuiltinClassType type) {
         return builtinTypes[type.ordinal()];
     }
@@ -512,6 +689,10 @@ public final class Python3Core implements PythonCore {
     }
 
     public PythonClass getErrorClass(PythonErrorType type) {
+        if (singletonContext == null && initialized) {
+            // with a shared core, every context has its own copies of the exception classes
+            return getContext().getErrorClass(type);
+        }
         return errorClasses[type.ordinal()];
     }
 
@@ -519,7 +700,22 @@ public final class Python3Core implements PythonCore {
     public PException raise(PBaseException exception, Node node) {
         PException pException = new PException(exception, node);
         exception.setException(pException);
-        throw pException;
+        throw applyTracebackProfile(pException);
+    }
+
+    /**
+     * Lets the innermost try statement that ignores tracebacks decide whether the stack of
+     * {@code pException} is captured.
+     */
+    private PException applyTracebackProfile(PException pException) {
+        PythonContext context = getContext();
+        if (context != null) {
+            TracebackProfile tracebackProfile = context.getThreadState().getTracebackProfile();
+            if (tracebackProfile != null) {
+                pException.skipTraceback(tracebackProfile);
+            }
+        }
+        return pException;
     }
 
     @Override
@@ -541,7 +737,7 @@ public final class Python3Core implements PythonCore {
 
     @Override
     public PException raise(PythonErrorType type) {
-        throw raise(factory.createBaseException(getErrorClass(type)), null);
+        throw raise(type, (Node) null);
     }
 
     @Override
@@ -550,6 +746,11 @@ public final class Python3Core implements PythonCore {
     }
 
     public PException raise(PythonErrorType type, Node node) {
+        if (type == PythonErrorType.StopIteration) {
+            // iterator exhaustion is nearly always only checked by type, so the exception object
+            // is created on demand
+            throw applyTracebackProfile(PException.createLazy(getErrorClass(type), this, node));
+        }
         throw raise(factory.createBaseException(getErrorClass(type)), node);
     }
 
@@ -567,7 +768,10 @@ public final class Python3Core implements PythonCore {
         PythonModule sysModule = builtinModules.get("sys");
         PDict sysModules = (PDict) sysModule.getAttribute("modules");
         for (Entry<String, PythonModule> entry : builtinModules.entrySet()) {
-            sysModules.setItem(entry.getKey(), entry.getValue());
+            // lazy modules are only added by the import machinery through _imp.create_builtin
+            if (!pendingLazyModules.contains(entry.getKey())) {
+                sysModules.setItem(entry.getKey(), entry.getValue());
+            }
         }
     }
 
@@ -580,8 +784,14 @@ public final class Python3Core implements PythonCore {
     public void exportCInterface(PythonContext context) {
         Env env = context.getEnv();
         if (env != null) {
-            env.exportSymbol("python_cext", builtinModules.get("python_cext"));
-            env.exportSymbol("python_builtins", builtinsModule);
+            if (context.isInitialized() && !pendingLazyModules.contains("python_cext")) {
+                // the context's own copies if the core is shared
+                env.exportSymbol("python_cext", context.getSysModules().getItem("python_cext"));
+                env.exportSymbol("python_builtins", context.getBuiltins());
+            } else {
+                env.exportSymbol("python_cext", builtinModules.get("python_cext"));
+                env.exportSymbol("python_builtins", builtinsModule);
+            }
 
             // export all exception classes for the C API
             for (PythonErrorType errorType : PythonErrorType.values()) {
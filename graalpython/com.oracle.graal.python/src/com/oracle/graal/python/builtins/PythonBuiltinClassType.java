@@ -32,17 +32,29 @@ public enum PythonBuiltinClassType {
     TruffleObject(com.oracle.truffle.api.interop.TruffleObject.class, "truffle_object"),
     Boolean(java.lang.Boolean.class, "bool"),
     GetSetDescriptor(com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor.class, "get_set_desc"),
+    PAccumulate(com.oracle.graal.python.builtins.objects.itertools.PAccumulate.class, "accumulate"),
     PArray(com.oracle.graal.python.builtins.objects.array.PArray.class, "array"),
     PBaseException(com.oracle.graal.python.builtins.objects.exception.PBaseException.class, "BaseException"),
     PBaseSetIterator(com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator.class, "iterator"),
+    PBuffered(com.oracle.graal.python.builtins.objects.io.PBuffered.class, "_Buffered"),
+    PBufferedRandom(com.oracle.graal.python.builtins.objects.io.PBufferedRandom.class, "BufferedRandom"),
+    PBufferedReader(com.oracle.graal.python.builtins.objects.io.PBufferedReader.class, "BufferedReader"),
+    PBufferedWriter(com.oracle.graal.python.builtins.objects.io.PBufferedWriter.class, "BufferedWriter"),
     PBuiltinFunction(com.oracle.graal.python.builtins.objects.function.PBuiltinFunction.class, "function"),
     PBuiltinMethod(com.oracle.graal.python.builtins.objects.method.PBuiltinMethod.class, "method"),
     PByteArray(com.oracle.graal.python.builtins.objects.bytes.PByteArray.class, "bytearray"),
     PBytes(com.oracle.graal.python.builtins.objects.bytes.PBytes.class, "bytes"),
     PCell(com.oracle.graal.python.builtins.objects.cell.PCell.class, "cell"),
+    PChain(com.oracle.graal.python.builtins.objects.itertools.PChain.class, "chain"),
     PCharArray(com.oracle.graal.python.builtins.objects.array.PCharArray.class, "chars"),
-    PCharArrayIterator(com.oracle.graal.python.builtins.objects.iterator.PCharArrayIterator.class, "iterator"),
+    PCombinations(com.oracle.graal.python.builtins.objects.itertools.PCombinations.class, "combinations"),
+    PCombinationsWithReplacement(com.oracle.graal.python.builtins.objects.itertools.PCombinationsWithReplacement.class, "combinations_with_replacement"),
     PComplex(com.oracle.graal.python.builtins.objects.complex.PComplex.class, "complex"),
+    PCompress(com.oracle.graal.python.builtins.objects.itertools.PCompress.class, "compress"),
+    PCount(com.oracle.graal.python.builtins.objects.itertools.PCount.class, "count"),
+    PCycle(com.oracle.graal.python.builtins.objects.itertools.PCycle.class, "cycle"),
+    PDeque(com.oracle.graal.python.builtins.objects.deque.PDeque.class, "deque"),
+    PDequeIterator(com.oracle.graal.python.builtins.objects.deque.PDequeIterator.class, "_deque_iterator"),
     PDict(com.oracle.graal.python.builtins.objects.dict.PDict.class, "dict"),
     PDictKeysView(com.oracle.graal.python.builtins.objects.dict.PDictView.PDictKeysView.class, "dict_keys"),
     PDictItemsIterator(com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsIterator.class, "dict_itemsiterator"),
@@ -53,42 +65,66 @@ public enum PythonBuiltinClassType {
     PDoubleArray(com.oracle.graal.python.builtins.objects.array.PDoubleArray.class, "doubles"),
     PDoubleArrayIterator(com.oracle.graal.python.builtins.objects.iterator.PDoubleArrayIterator.class, "iterator"),
     PDoubleSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator.class, "iterator"),
+    PDropwhile(com.oracle.graal.python.builtins.objects.itertools.PDropwhile.class, "dropwhile"),
     PEllipsis(com.oracle.graal.python.builtins.objects.PEllipsis.class, "ellipsis"),
     PEnumerate(com.oracle.graal.python.builtins.objects.enumerate.PEnumerate.class, "enumerate"),
+    PFilterfalse(com.oracle.graal.python.builtins.objects.itertools.PFilterfalse.class, "filterfalse"),
+    PFilter(com.oracle.graal.python.builtins.objects.iterator.PFilter.class, "filter"),
     PFloat(com.oracle.graal.python.builtins.objects.floats.PFloat.class, "float"),
+    PFloatArray(com.oracle.graal.python.builtins.objects.array.PFloatArray.class, "floats"),
     PFrame(com.oracle.graal.python.builtins.objects.frame.PFrame.class, "frame"),
     PFrozenSet(com.oracle.graal.python.builtins.objects.set.PFrozenSet.class, "frozenset"),
     PFunction(com.oracle.graal.python.builtins.objects.function.PFunction.class, "function"),
     PGenerator(com.oracle.graal.python.builtins.objects.generator.PGenerator.class, "generator"),
     PGeneratorFunction(com.oracle.graal.python.builtins.objects.function.PGeneratorFunction.class, "function"),
+    PGroupBy(com.oracle.graal.python.builtins.objects.itertools.PGroupBy.class, "groupby"),
+    PGrouper(com.oracle.graal.python.builtins.objects.itertools.PGrouper.class, "_grouper"),
     PInt(com.oracle.graal.python.builtins.objects.ints.PInt.class, "int"),
+    PInt8Array(com.oracle.graal.python.builtins.objects.array.PInt8Array.class, "int8s"),
     PIntArray(com.oracle.graal.python.builtins.objects.array.PIntArray.class, "ints"),
     PIntArrayIterator(com.oracle.graal.python.builtins.objects.iterator.PIntArrayIterator.class, "iterator"),
     PIntegerSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator.class, "iterator"),
+    PIslice(com.oracle.graal.python.builtins.objects.itertools.PIslice.class, "islice"),
     PList(com.oracle.graal.python.builtins.objects.list.PList.class, "list"),
+    PLock(com.oracle.graal.python.builtins.objects.thread.PLock.class, "LockType"),
     PLongArray(com.oracle.graal.python.builtins.objects.array.PLongArray.class, "longs"),
     PLongArrayIterator(com.oracle.graal.python.builtins.objects.iterator.PLongArrayIterator.class, "iterator"),
     PLongSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PLongSequenceIterator.class, "iterator"),
     PMemoryView(com.oracle.graal.python.builtins.objects.memoryview.PMemoryView.class, "memoryview"),
+    PMap(com.oracle.graal.python.builtins.objects.iterator.PMap.class, "map"),
     PMappingproxy(com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy.class, "mapping_proxy"),
     PMethod(com.oracle.graal.python.builtins.objects.method.PMethod.class, "method"),
     PNone(com.oracle.graal.python.builtins.objects.PNone.class, "NoneType"),
     PNotImplemented(com.oracle.graal.python.builtins.objects.PNotImplemented.class, "NotImplementedType"),
+    PPartial(com.oracle.graal.python.builtins.objects.function.PPartial.class, "partial"),
+    PPermutations(com.oracle.graal.python.builtins.objects.itertools.PPermutations.class, "permutations"),
+    PProduct(com.oracle.graal.python.builtins.objects.itertools.PProduct.class, "product"),
+    PRandom(com.oracle.graal.python.builtins.objects.random.PRandom.class, "Random"),
     PRange(com.oracle.graal.python.builtins.objects.range.PRange.class, "range"),
     PRangeIterator(com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.class, "iterator"),
     PRangeReverseIterator(com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator.class, "iterator"),
+    PRLock(com.oracle.graal.python.builtins.objects.thread.PRLock.class, "RLock"),
     PReferenceType(com.oracle.graal.python.builtins.objects.referencetype.PReferenceType.class, "ReferenceType"),
+    PRepeat(com.oracle.graal.python.builtins.objects.itertools.PRepeat.class, "repeat"),
     PSentinelIterator(com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator.class, "callable_iterator"),
+    PSREMatch(com.oracle.graal.python.builtins.objects.sre.PSREMatch.class, "SRE_Match"),
+    PSREPattern(com.oracle.graal.python.builtins.objects.sre.PSREPattern.class, "SRE_Pattern"),
+    PSREScanner(com.oracle.graal.python.builtins.objects.sre.PSREScanner.class, "SRE_Scanner"),
     PSequenceIterator(com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator.class, "iterator"),
     PForeignArrayIterator(com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator.class, "foreign_iterator"),
     PSequenceReverseIterator(com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator.class, "reversed"),
     PSet(com.oracle.graal.python.builtins.objects.set.PSet.class, "set"),
+    PShortArray(com.oracle.graal.python.builtins.objects.array.PShortArray.class, "shorts"),
     PSlice(com.oracle.graal.python.builtins.objects.slice.PSlice.class, "slice"),
+    PStarmap(com.oracle.graal.python.builtins.objects.itertools.PStarmap.class, "starmap"),
     PString(com.oracle.graal.python.builtins.objects.str.PString.class, "str"),
     PStringIterator(com.oracle.graal.python.builtins.objects.iterator.PStringIterator.class, "iterator"),
     PStringReverseIterator(com.oracle.graal.python.builtins.objects.reversed.PStringReverseIterator.class, "reversed"),
+    PTakewhile(com.oracle.graal.python.builtins.objects.itertools.PTakewhile.class, "takewhile"),
+    PTextIOWrapper(com.oracle.graal.python.builtins.objects.io.PTextIOWrapper.class, "TextIOWrapper"),
     PTraceback(com.oracle.graal.python.builtins.objects.traceback.PTraceback.class, "traceback"),
     PTuple(com.oracle.graal.python.builtins.objects.tuple.PTuple.class, "tuple"),
+    PZipLongest(com.oracle.graal.python.builtins.objects.itertools.PZipLongest.class, "zip_longest"),
     PythonBuiltinClass(com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass.class, "type"),
     PythonClass(com.oracle.graal.python.builtins.objects.type.PythonClass.class, "type"),
     PythonModule(com.oracle.graal.python.builtins.objects.module.PythonModule.class, "module"),
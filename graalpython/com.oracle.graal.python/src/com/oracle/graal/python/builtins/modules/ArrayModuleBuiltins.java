@@ -26,28 +26,34 @@
 package com.oracle.graal.python.builtins.modules;
 
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.array.ArrayBuiltins.ExtendNode;
 import com.oracle.graal.python.builtins.objects.array.PArray;
-import com.oracle.graal.python.builtins.objects.range.PRange;
+import com.oracle.graal.python.builtins.objects.array.PCharArray;
+import com.oracle.graal.python.builtins.objects.array.PDoubleArray;
+import com.oracle.graal.python.builtins.objects.array.PFloatArray;
+import com.oracle.graal.python.builtins.objects.array.PInt8Array;
+import com.oracle.graal.python.builtins.objects.array.PIntArray;
+import com.oracle.graal.python.builtins.objects.array.PLongArray;
+import com.oracle.graal.python.builtins.objects.array.PShortArray;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
-import com.oracle.graal.python.nodes.control.GetIteratorNode;
-import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
-import com.oracle.graal.python.runtime.exception.PException;
-import com.oracle.graal.python.runtime.sequence.PSequence;
-import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
-import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "array")
 public final class ArrayModuleBuiltins extends PythonBuiltins {
@@ -57,123 +63,64 @@ public final class ArrayModuleBuiltins extends PythonBuiltins {
         return ArrayModuleBuiltinsFactory.getFactories();
     }
 
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("typecodes", PArray.TYPECODES);
+    }
+
     // array.array(typecode[, initializer])
-    @Builtin(name = "array", minNumOfArguments = 2, maxNumOfArguments = 3, constructsClass = PArray.class)
+    @Builtin(name = "array", minNumOfArguments = 2, maxNumOfArguments = 3, constructsClass = {PArray.class, PInt8Array.class, PCharArray.class, PShortArray.class, PIntArray.class,
+                    PLongArray.class, PFloatArray.class, PDoubleArray.class})
     @GenerateNodeFactory
     abstract static class PythonArrayNode extends PythonBuiltinNode {
 
-        @Specialization(guards = "noInitializer(typeCode,initializer)")
-        PArray array(PythonClass cls, String typeCode, @SuppressWarnings("unused") Object initializer) {
-            /**
-             * TODO @param typeCode should be a char, not a string
-             */
-            return makeEmptyArray(cls, typeCode.charAt(0));
-        }
-
-        @Specialization
-        PArray arrayWithRangeInitializer(PythonClass cls, String typeCode, PRange range) {
-            if (!typeCode.equals("i")) {
-                typeError(typeCode, range);
-            }
-
-            int[] intArray = new int[range.len()];
-
-            int start = range.getStart();
-            int stop = range.getStop();
-            int step = range.getStep();
-
-            int index = 0;
-            for (int i = start; i < stop; i += step) {
-                intArray[index++] = i;
-            }
-
-            return factory().createIntArray(cls, intArray);
-        }
-
         @Specialization
-        PArray arrayWithSequenceInitializer(PythonClass cls, String typeCode, String str) {
-            if (!typeCode.equals("c")) {
-                typeError(typeCode, str);
+        PArray array(PythonClass cls, String typeCode, Object initializer,
+                        @Cached("create()") ExtendNode extendNode) {
+            PArray array = createEmpty(cls, typeCode);
+            if (initializer == PNone.NO_VALUE) {
+                return array;
+            } else if (initializer instanceof PBytes) {
+                PBytes bytes = (PBytes) initializer;
+                array.fromBytes(bytes.getInternalByteArray(), 0, bytes.len());
+            } else if (initializer instanceof PByteArray) {
+                PByteArray bytes = (PByteArray) initializer;
+                array.fromBytes(bytes.getInternalByteArray(), 0, bytes.len());
+            } else if (initializer instanceof String || initializer instanceof PString) {
+                if (!(array instanceof PCharArray)) {
+                    throw raise(TypeError, "cannot use a str to initialize an array with typecode '%s'", typeCode);
+                }
+                ((PCharArray) array).fromString(initializer instanceof String ? (String) initializer : ((PString) initializer).getValue());
+            } else if (initializer instanceof PCharArray && !(array instanceof PCharArray)) {
+                throw raise(TypeError, "cannot use a unicode array to initialize an array with typecode '%s'", typeCode);
+            } else {
+                extendNode.execute(array, initializer);
             }
-
-            return factory().createCharArray(cls, str.toCharArray());
+            return array;
         }
 
-        /**
-         * @param cls
-         */
         @Specialization
-        PArray arrayWithSequenceInitializer(PythonClass cls, String typeCode, PSequence initializer,
-                        @Cached("create()") GetIteratorNode getIterator,
-                        @Cached("create()") GetNextNode next,
-                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
-            SequenceStorage store;
-            switch (typeCode.charAt(0)) {
-                case 'i':
-                    Object iter = getIterator.executeWith(initializer);
-                    int[] intArray = new int[initializer.len()];
-                    int i = 0;
-
-                    while (true) {
-                        Object nextValue;
-                        try {
-                            nextValue = next.execute(iter);
-                        } catch (PException e) {
-                            e.expectStopIteration(getCore(), errorProfile);
-                            break;
-                        }
-                        if (nextValue instanceof Integer) {
-                            intArray[i++] = (int) nextValue;
-                        } else {
-                            CompilerDirectives.transferToInterpreter();
-                            operandTypeError();
-                        }
-                    }
-
-                    return factory().createIntArray(cls, intArray);
-                case 'd':
-                    store = initializer.getSequenceStorage();
-                    double[] doubleArray = new double[store.length()];
-
-                    for (i = 0; i < doubleArray.length; i++) {
-                        Object val = store.getItemNormalized(i);
-                        doubleArray[i] = (double) val;
-                    }
-
-                    return factory().createDoubleArray(cls, doubleArray);
-                default:
-                    return null;
-            }
+        PArray array(PythonClass cls, PString typeCode, Object initializer,
+                        @Cached("create()") ExtendNode extendNode) {
+            return array(cls, typeCode.getValue(), initializer, extendNode);
         }
 
-        @Specialization
-        PArray arrayWithObjectInitializer(@SuppressWarnings("unused") PythonClass cls, @SuppressWarnings("unused") String typeCode, Object initializer) {
-            throw new RuntimeException("Unsupported initializer " + initializer);
+        @Fallback
+        @SuppressWarnings("unused")
+        PArray array(Object cls, Object typeCode, Object initializer) {
+            throw raise(TypeError, "array() argument 1 must be a unicode character, not %p", typeCode);
         }
 
-        private PArray makeEmptyArray(PythonClass cls, char type) {
-            switch (type) {
-                case 'c':
-                case 'b':
-                case 'B':
-                    return factory().createCharArray(cls, new char[0]);
-                case 'i':
-                    return factory().createIntArray(cls, new int[0]);
-                case 'd':
-                    return factory().createDoubleArray(cls, new double[0]);
-                default:
-                    return null;
+        private PArray createEmpty(PythonClass cls, String typeCode) {
+            if (typeCode.length() != 1) {
+                throw raise(TypeError, "array() argument 1 must be a unicode character, not str");
             }
-        }
-
-        @TruffleBoundary
-        private void typeError(String typeCode, Object initializer) {
-            throw raise(TypeError, "unsupported operand type: %s %s and 'array.array'", typeCode, initializer);
-        }
-
-        @TruffleBoundary
-        private static void operandTypeError() {
-            throw new RuntimeException("Unexpected argument type for array() ");
+            PArray array = factory().createArray(cls, typeCode.charAt(0), 0);
+            if (array == null) {
+                throw raise(ValueError, "bad typecode (must be b, B, u, h, H, i, I, l, L, q, Q, f or d)");
+            }
+            return array;
         }
     }
 }
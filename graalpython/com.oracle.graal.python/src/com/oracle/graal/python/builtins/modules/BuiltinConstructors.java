@@ -31,10 +31,12 @@ import static com.oracle.graal.python.nodes.BuiltinNames.BYTES;
 import static com.oracle.graal.python.nodes.BuiltinNames.COMPLEX;
 import static com.oracle.graal.python.nodes.BuiltinNames.DICT;
 import static com.oracle.graal.python.nodes.BuiltinNames.ENUMERATE;
+import static com.oracle.graal.python.nodes.BuiltinNames.FILTER;
 import static com.oracle.graal.python.nodes.BuiltinNames.FLOAT;
 import static com.oracle.graal.python.nodes.BuiltinNames.FROZENSET;
 import static com.oracle.graal.python.nodes.BuiltinNames.INT;
 import static com.oracle.graal.python.nodes.BuiltinNames.LIST;
+import static com.oracle.graal.python.nodes.BuiltinNames.MAP;
 import static com.oracle.graal.python.nodes.BuiltinNames.MEMORYVIEW;
 import static com.oracle.graal.python.nodes.BuiltinNames.MODULE;
 import static com.oracle.graal.python.nodes.BuiltinNames.OBJECT;
@@ -89,11 +91,13 @@ import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
 import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
@@ -102,6 +106,7 @@ import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryBuffer;
 import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
@@ -133,6 +138,7 @@ import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.JavaTypeConversions;
 import com.oracle.graal.python.runtime.PythonParseResult;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -146,6 +152,7 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 
@@ -199,6 +206,11 @@ public final class BuiltinConstructors extends PythonBuiltins {
             throw raise(TypeError, "string argument without an encoding");
         }
 
+        @Specialization
+        public PBytes bytes(PythonClass cls, PMemoryView source, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors) {
+            return factory().createBytes(cls, source.checkAccessible().toBytes());
+        }
+
         @Specialization
         public PBytes bytes(PythonClass cls, PythonObject source, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors,
                         @Cached("create()") ConstructListNode constructListNode,
@@ -247,6 +259,16 @@ public final class BuiltinConstructors extends PythonBuiltins {
             return factory().createByteArray(cls, BytesUtils.fromStringAndEncoding(PythonLanguage.getCore(), source, encoding));
         }
 
+        @Specialization
+        public PByteArray bytearray(PythonClass cls, PString source, String encoding, PNone errors) {
+            return bytearray(cls, source.getValue(), encoding, errors);
+        }
+
+        @Specialization
+        public PByteArray bytearray(PythonClass cls, PMemoryView source, PNone encoding, PNone errors) {
+            return factory().createByteArray(cls, source.checkAccessible().toBytes());
+        }
+
         @Specialization
         public PByteArray bytearray(PythonClass cls, PythonObject source, PNone encoding, PNone errors,
                         @Cached("create()") ConstructListNode constructListNode,
@@ -297,6 +319,11 @@ public final class BuiltinConstructors extends PythonBuiltins {
             return JavaTypeConversions.convertStringToComplex(real, (PythonClass) cls, factory());
         }
 
+        @Specialization
+        public PComplex complexFromObjectObject(Object cls, PString real, Object imaginary) {
+            return complexFromObjectObject(cls, real.getValue(), imaginary);
+        }
+
         @Fallback
         public PComplex complexFromObjectObject(Object cls, Object real, Object imaginary) {
             throw raise(TypeError, "can't convert real %s imag %s", real, imaginary);
@@ -453,6 +480,11 @@ public final class BuiltinConstructors extends PythonBuiltins {
             return factory().createFloat(cls, value);
         }
 
+        @Specialization
+        public Object floatFromString(PythonClass cls, PString arg) {
+            return floatFromString(cls, arg.getValue());
+        }
+
         @Specialization
         public Object floatFromNone(PythonClass cls, @SuppressWarnings("unused") PNone arg) {
             if (isPrimitiveFloat(cls)) {
@@ -1043,6 +1075,33 @@ public final class BuiltinConstructors extends PythonBuiltins {
         }
     }
 
+    // map(function, iterable, ...)
+    @Builtin(name = MAP, minNumOfArguments = 3, takesVariableArguments = true, constructsClass = PMap.class)
+    @GenerateNodeFactory
+    public abstract static class MapNode extends PythonBuiltinNode {
+        @Specialization
+        public PMap map(PythonClass cls, Object function, Object iterable, PTuple iterables,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            Object[] iterators = new Object[iterables.len() + 1];
+            iterators[0] = getIterator.executeWith(iterable);
+            for (int i = 0; i < iterables.len(); i++) {
+                iterators[i + 1] = getIterator.executeWith(iterables.getItem(i));
+            }
+            return factory().createMap(cls, function, iterators);
+        }
+    }
+
+    // filter(function, iterable)
+    @Builtin(name = FILTER, fixedNumOfArguments = 3, constructsClass = PFilter.class)
+    @GenerateNodeFactory
+    public abstract static class FilterNode extends PythonBuiltinNode {
+        @Specialization
+        public PFilter filter(PythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createFilter(cls, function, getIterator.executeWith(iterable));
+        }
+    }
+
     // function(code, globals[, name[, argdefs[, closure]]])
     @Builtin(name = "function", minNumOfArguments = 3, maxNumOfArguments = 6, constructsClass = {PFunction.class, PBuiltinFunction.class, PGeneratorFunction.class}, isPublic = false)
     @GenerateNodeFactory
@@ -1058,6 +1117,7 @@ public final class BuiltinConstructors extends PythonBuiltins {
     // type(object)
     // type(object, bases, dict)
     @Builtin(name = TYPE, minNumOfArguments = 2, maxNumOfArguments = 4, takesVariableKeywords = true, constructsClass = {PythonClass.class, PythonBuiltinClass.class})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class TypeNode extends PythonBuiltinNode {
         @Specialization(guards = {"isNoValue(bases)", "isNoValue(dict)"})
@@ -1388,10 +1448,25 @@ public final class BuiltinConstructors extends PythonBuiltins {
     @Builtin(name = MEMORYVIEW, constructsClass = {PMemoryView.class}, isPublic = true, fixedNumOfArguments = 2)
     @GenerateNodeFactory
     public abstract static class MemoryViewNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
         @Specialization
-        Object memoryview(PythonClass cls, Object obj) {
-            throw raise(NotImplementedError, "memoryview objects");
+        PMemoryView memoryview(@SuppressWarnings("unused") PythonClass cls, PMemoryView view) {
+            if (view.isReleased()) {
+                throw raise(ValueError, "operation forbidden on released memoryview object");
+            }
+            return factory().createMemoryView(view.getBuffer(), view.getFormat(), view.getOffset(), view.len(), view.getStride(), view.isReadOnly());
+        }
+
+        @Specialization(guards = "!isMemoryView(obj)")
+        PMemoryView memoryview(PythonClass cls, Object obj) {
+            MemoryBuffer buffer = MemoryBuffer.forObject(obj);
+            if (buffer == null) {
+                throw raise(TypeError, "memoryview: a bytes-like object is required, not '%p'", obj);
+            }
+            return factory().createMemoryView(cls, buffer);
+        }
+
+        protected static boolean isMemoryView(Object obj) {
+            return obj instanceof PMemoryView;
         }
     }
 
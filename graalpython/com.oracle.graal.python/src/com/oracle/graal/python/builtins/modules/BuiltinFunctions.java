@@ -27,6 +27,8 @@ package com.oracle.graal.python.builtins.modules;
 
 import static com.oracle.graal.python.builtins.objects.PNotImplemented.NOT_IMPLEMENTED;
 import static com.oracle.graal.python.nodes.BuiltinNames.ABS;
+import static com.oracle.graal.python.nodes.BuiltinNames.ALL;
+import static com.oracle.graal.python.nodes.BuiltinNames.ANY;
 import static com.oracle.graal.python.nodes.BuiltinNames.CALLABLE;
 import static com.oracle.graal.python.nodes.BuiltinNames.CHR;
 import static com.oracle.graal.python.nodes.BuiltinNames.COMPILE;
@@ -48,6 +50,7 @@ import static com.oracle.graal.python.nodes.BuiltinNames.PRINT;
 import static com.oracle.graal.python.nodes.BuiltinNames.REPR;
 import static com.oracle.graal.python.nodes.BuiltinNames.ROUND;
 import static com.oracle.graal.python.nodes.BuiltinNames.SETATTR;
+import static com.oracle.graal.python.nodes.BuiltinNames.SORTED;
 import static com.oracle.graal.python.nodes.BuiltinNames.SUM;
 import static com.oracle.graal.python.nodes.BuiltinNames.__BREAKPOINT__;
 import static com.oracle.graal.python.nodes.SpecialAttributeNames.__NAME__;
@@ -79,6 +82,7 @@ import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.PythonCallable;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.ListBuiltins.ListSortNode;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
@@ -94,6 +98,7 @@ import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.SetAttributeNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
+import com.oracle.graal.python.nodes.builtins.ListNodes.ConstructListNode;
 import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
@@ -115,6 +120,9 @@ import com.oracle.graal.python.runtime.PythonParseResult;
 import com.oracle.graal.python.runtime.PythonParser;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -174,6 +182,140 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // all(iterable)
+    @Builtin(name = ALL, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class AllNode extends PythonUnaryBuiltinNode {
+
+        @Specialization(guards = {"isIntStorage(list)", "isBuiltinList(list)"})
+        public boolean allInt(PList list) {
+            IntSequenceStorage store = (IntSequenceStorage) list.getSequenceStorage();
+            int[] array = store.getInternalIntArray();
+            for (int i = 0; i < store.length(); i++) {
+                if (array[i] == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Specialization(guards = {"isLongStorage(list)", "isBuiltinList(list)"})
+        public boolean allLong(PList list) {
+            LongSequenceStorage store = (LongSequenceStorage) list.getSequenceStorage();
+            long[] array = store.getInternalLongArray();
+            for (int i = 0; i < store.length(); i++) {
+                if (array[i] == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Specialization(guards = {"isDoubleStorage(list)", "isBuiltinList(list)"})
+        public boolean allDouble(PList list) {
+            DoubleSequenceStorage store = (DoubleSequenceStorage) list.getSequenceStorage();
+            double[] array = store.getInternalDoubleArray();
+            for (int i = 0; i < store.length(); i++) {
+                if (array[i] == 0.0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Specialization
+        public boolean all(Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Object iterator = getIterator.executeWith(iterable);
+            while (true) {
+                Object item;
+                try {
+                    item = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return true;
+                }
+                if (!isTrue.executeWith(item)) {
+                    return false;
+                }
+            }
+        }
+
+        protected static boolean isBuiltinList(PList list) {
+            return list.getPythonClass().isBuiltin();
+        }
+    }
+
+    // any(iterable)
+    @Builtin(name = ANY, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class AnyNode extends PythonUnaryBuiltinNode {
+
+        @Specialization(guards = {"isIntStorage(list)", "isBuiltinList(list)"})
+        public boolean anyInt(PList list) {
+            IntSequenceStorage store = (IntSequenceStorage) list.getSequenceStorage();
+            int[] array = store.getInternalIntArray();
+            for (int i = 0; i < store.length(); i++) {
+                if (array[i] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Specialization(guards = {"isLongStorage(list)", "isBuiltinList(list)"})
+        public boolean anyLong(PList list) {
+            LongSequenceStorage store = (LongSequenceStorage) list.getSequenceStorage();
+            long[] array = store.getInternalLongArray();
+            for (int i = 0; i < store.length(); i++) {
+                if (array[i] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Specialization(guards = {"isDoubleStorage(list)", "isBuiltinList(list)"})
+        public boolean anyDouble(PList list) {
+            DoubleSequenceStorage store = (DoubleSequenceStorage) list.getSequenceStorage();
+            double[] array = store.getInternalDoubleArray();
+            for (int i = 0; i < store.length(); i++) {
+                if (array[i] != 0.0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Specialization
+        public boolean any(Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Object iterator = getIterator.executeWith(iterable);
+            while (true) {
+                Object item;
+                try {
+                    item = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return false;
+                }
+                if (isTrue.executeWith(item)) {
+                    return true;
+                }
+            }
+        }
+
+        protected static boolean isBuiltinList(PList list) {
+            return list.getPythonClass().isBuiltin();
+        }
+    }
+
     // callable(object)
     @Builtin(name = CALLABLE, fixedNumOfArguments = 1)
     @GenerateNodeFactory
@@ -339,6 +481,7 @@ public final class BuiltinFunctions extends PythonBuiltins {
 
     // eval(expression, globals=None, locals=None)
     @Builtin(name = EVAL, fixedNumOfArguments = 1, keywordArguments = {"globals", "locals"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class EvalNode extends PythonBuiltinNode {
         @Child private GetItemNode getNameNode = GetItemNode.create();
@@ -421,6 +564,7 @@ public final class BuiltinFunctions extends PythonBuiltins {
 
     // compile(source, filename, mode, flags=0, dont_inherit=False, optimize=-1)
     @Builtin(name = COMPILE, fixedNumOfArguments = 3, keywordArguments = {"flags", "dont_inherit", "optimize"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class CompileNode extends PythonBuiltinNode {
         @Specialization
@@ -911,6 +1055,7 @@ public final class BuiltinFunctions extends PythonBuiltins {
 
     // ord(c)
     @Builtin(name = ORD, fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class OrdNode extends PythonBuiltinNode {
 
@@ -926,6 +1071,7 @@ public final class BuiltinFunctions extends PythonBuiltins {
 
     // print(*objects, sep=' ', end='\n', file=sys.stdout, flush=False)
     @Builtin(name = PRINT, fixedNumOfArguments = 5)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class PrintNode extends PythonBuiltinNode {
         @SuppressWarnings("unused")
@@ -1023,6 +1169,25 @@ public final class BuiltinFunctions extends PythonBuiltins {
         }
     }
 
+    // sorted(iterable, *, key=None, reverse=False)
+    @Builtin(name = SORTED, fixedNumOfArguments = 1, takesVariableArguments = true, keywordArguments = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class SortedNode extends PythonBuiltinNode {
+
+        @Specialization
+        public PList sorted(Object iterable, PTuple args, Object key, Object reverse,
+                        @Cached("create()") ConstructListNode constructList,
+                        @Cached("create()") GetClassNode getClass,
+                        @Cached("create()") ListSortNode sortNode) {
+            if (args.len() != 0) {
+                throw raise(TypeError, "sorted expected 1 arguments, got %d", args.len() + 1);
+            }
+            PList list = constructList.execute(iterable, getClass.execute(iterable));
+            sortNode.execute(list, key, reverse);
+            return list;
+        }
+    }
+
     // sum(iterable[, start])
     @Builtin(name = SUM, fixedNumOfArguments = 1, keywordArguments = {"start"})
     @GenerateNodeFactory
@@ -53,10 +53,12 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
 
 @CoreFunctions(defineModule = "_codecs")
 public class CodecsModuleBuiltins extends PythonBuiltins {
@@ -181,7 +183,7 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     }
 
     @TruffleBoundary
-    static Charset getCharset(String encoding) {
+    public static Charset getCharset(String encoding) {
         if (encoding == null) {
             return Charset.forName(DEFAULT_ENCODING);
         } else {
@@ -202,6 +204,7 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     // _codecs.encode(obj, encoding='utf-8', errors='strict')
     @Builtin(name = "encode", minNumOfArguments = 1, maxNumOfArguments = 1, keywordArguments = {
                     "encoding", "errors"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class PythonEncodeNode extends PythonBuiltinNode {
         @TruffleBoundary
@@ -231,6 +234,7 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
     // _codecs.decode(obj, encoding='utf-8', errors='strict')
     @Builtin(name = "decode", minNumOfArguments = 1, maxNumOfArguments = 1, keywordArguments = {
                     "encoding", "errors"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class PythonDecodeNode extends PythonBuiltinNode {
         @TruffleBoundary
@@ -259,6 +263,7 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
 
     // _codecs.lookup_error(name)
     @Builtin(name = "lookup_error", fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class PythonLookupErrorNode extends PythonBuiltinNode {
         @Specialization
@@ -269,6 +274,7 @@ public class CodecsModuleBuiltins extends PythonBuiltins {
 
     // _codecs.lookup(name)
     @Builtin(name = "lookup", fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class LookupNode extends PythonBuiltinNode {
         // This is replaced in the core _codecs.py with the full functionality
@@ -38,18 +38,47 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIterator;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "_collections")
 public class CollectionsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return CollectionsModuleBuiltinsFactory.getFactories();
+    }
+
+    // deque([iterable[, maxlen]]), the contents are set up by deque.__init__
+    @Builtin(name = "deque", minNumOfArguments = 1, takesVariableArguments = true, takesVariableKeywords = true, constructsClass = PDeque.class)
+    @GenerateNodeFactory
+    public abstract static class DequeNode extends PythonBuiltinNode {
+        @Specialization
+        PDeque deque(PythonClass cls, @SuppressWarnings("unused") PTuple args, @SuppressWarnings("unused") PKeyword[] kwargs) {
+            return factory().createDeque(cls);
+        }
+    }
+
+    // deque iterators are only created by deque.__iter__ and deque.__reversed__
+    @Builtin(name = "_deque_iterator", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PDequeIterator.class, isPublic = false)
+    @GenerateNodeFactory
+    public abstract static class DequeIteratorNode extends PythonBuiltinNode {
+        @Specialization
+        Object dequeIterator(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") PTuple args) {
+            throw raise(TypeError, "cannot create '_collections._deque_iterator' instances");
+        }
     }
 }
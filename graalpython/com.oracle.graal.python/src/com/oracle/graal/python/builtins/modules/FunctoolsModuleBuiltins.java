@@ -38,18 +38,95 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.function.PPartial;
+import com.oracle.graal.python.builtins.objects.function.PartialBuiltins;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "_functools")
 public class FunctoolsModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return FunctoolsModuleBuiltinsFactory.getFactories();
+    }
+
+    // reduce(function, iterable[, initializer])
+    @Builtin(name = "reduce", minNumOfArguments = 2, maxNumOfArguments = 3)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonBuiltinNode {
+        @Specialization
+        Object reduce(Object function, Object iterable, Object initializer,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Object iterator = getIterator.executeWith(iterable);
+            Object value = initializer;
+            while (true) {
+                Object item;
+                try {
+                    item = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    break;
+                }
+                if (value == PNone.NO_VALUE) {
+                    value = item;
+                } else {
+                    value = callNode.execute(function, new Object[]{value, item}, PKeyword.EMPTY_KEYWORDS);
+                }
+            }
+            if (value == PNone.NO_VALUE) {
+                throw raise(TypeError, "reduce() of empty sequence with no initial value");
+            }
+            return value;
+        }
+    }
+
+    // partial(func, *args, **keywords)
+    @Builtin(name = "partial", minNumOfArguments = 2, takesVariableArguments = true, takesVariableKeywords = true, constructsClass = PPartial.class)
+    @GenerateNodeFactory
+    public abstract static class PartialNode extends PythonBuiltinNode {
+        @Specialization(guards = "isFlattenable(function)")
+        PPartial flatten(PythonClass cls, PPartial function, PTuple args, PKeyword[] keywords) {
+            Object[] storedArgs = function.getArgs();
+            Object[] newArgs = args.getArray();
+            Object[] allArgs = new Object[storedArgs.length + newArgs.length];
+            System.arraycopy(storedArgs, 0, allArgs, 0, storedArgs.length);
+            System.arraycopy(newArgs, 0, allArgs, storedArgs.length, newArgs.length);
+            return factory().createPartial(cls, function.getFunction(), allArgs, PartialBuiltins.mergeKeywords(function.getKeywords(), keywords));
+        }
+
+        @Specialization(guards = "!isFlattenable(function)")
+        PPartial partial(PythonClass cls, Object function, PTuple args, PKeyword[] keywords) {
+            return factory().createPartial(cls, function, args.getArray(), keywords);
+        }
+
+        /**
+         * Nesting a plain partial object just extends its arguments, so that calls do not go
+         * through more than one partial.
+         */
+        protected static boolean isFlattenable(Object function) {
+            return function instanceof PPartial && ((PPartial) function).getPythonClass().isBuiltin();
+        }
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics.Counter;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(defineModule = "__graalpython__")
+public final class GraalPythonModuleBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return GraalPythonModuleBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "metrics_enabled", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class MetricsEnabledNode extends PythonBuiltinNode {
+        @Specialization
+        boolean enabled() {
+            return PythonMetrics.isEnabled();
+        }
+    }
+
+    /**
+     * Returns the counters recorded with {@code --python.Metrics} as a list of
+     * {@code (event, from, to, location, count)} tuples.
+     */
+    @Builtin(name = "metrics", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class MetricsNode extends PythonBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        PList metrics() {
+            List<Counter> counters = PythonMetrics.getCounters();
+            Object[] result = new Object[counters.size()];
+            for (int i = 0; i < result.length; i++) {
+                Counter counter = counters.get(i);
+                result[i] = factory().createTuple(new Object[]{counter.event, counter.from, counter.to, counter.location, counter.count});
+            }
+            return factory().createList(result);
+        }
+    }
+
+    @Builtin(name = "reset_metrics", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class ResetMetricsNode extends PythonBuiltinNode {
+        @Specialization
+        Object reset() {
+            PythonMetrics.reset();
+            return PNone.NONE;
+        }
+    }
+}
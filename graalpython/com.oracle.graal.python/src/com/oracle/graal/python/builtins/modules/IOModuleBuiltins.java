@@ -38,18 +38,199 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.LookupError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CallMethodNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CastToLongNode;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
+import com.oracle.graal.python.builtins.objects.io.PBufferedRandom;
+import com.oracle.graal.python.builtins.objects.io.PBufferedReader;
+import com.oracle.graal.python.builtins.objects.io.PBufferedWriter;
+import com.oracle.graal.python.builtins.objects.io.PTextIOWrapper;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.oracle.truffle.api.dsl.Specialization;
 
 @CoreFunctions(defineModule = "_io")
 public class IOModuleBuiltins extends PythonBuiltins {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return IOModuleBuiltinsFactory.getFactories();
+    }
+
+    // the common base of the buffered classes, which holds their methods
+    @Builtin(name = "_Buffered", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PBuffered.class, isPublic = false)
+    @GenerateNodeFactory
+    abstract static class BufferedNode extends PythonBuiltinNode {
+        @Specialization
+        Object buffered(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object args) {
+            throw raise(TypeError, "cannot create '_io._Buffered' instances");
+        }
+    }
+
+    abstract static class BufferedConstructorNode extends PythonBuiltinNode {
+        @Child private GetClassNode getClassNode = GetClassNode.create();
+        @Child private CallMethodNode callNode = CallMethodNode.create();
+        @Child private CastToLongNode castToLong = CastToLongNode.create();
+        @Child private CastToBooleanNode castToBoolean = CastToBooleanNode.createIfTrueNode();
+
+        protected final int bufferSize(Object size) {
+            if (size instanceof PNone) {
+                return DEFAULT_BUFFER_SIZE;
+            }
+            long value = castToLong.execute(size);
+            if (value <= 0 || value > Integer.MAX_VALUE) {
+                throw raise(ValueError, "buffer size must be strictly positive");
+            }
+            return (int) value;
+        }
+
+        /**
+         * @return the channel behind {@code raw} if it is a plain {@code FileIO} on a regular
+         *         file, so that the buffer can bypass its Python methods
+         */
+        protected final SeekableByteChannel getChannel(Object raw) {
+            Object fileIO = getContext().lookupBuiltinModule("_io").getAttribute("FileIO");
+            if (getClassNode.execute(raw) != fileIO || !castToBoolean.executeWith(callNode.executeGet(raw, "closefd"))) {
+                // without closefd, the raw file can be closed while its channel stays open
+                return null;
+            }
+            Object fd = callNode.execute(raw, "fileno");
+            if (!(fd instanceof Integer)) {
+                return null;
+            }
+            return PosixModuleBuiltins.getOpenChannel((int) fd);
+        }
+
+        protected final <T extends PBuffered> T register(T buffered) {
+            if (buffered.getChannel() != null && buffered.isWritable()) {
+                // nothing else flushes a channel-backed buffer at exit
+                getContext().registerBuffer(buffered);
+            }
+            return buffered;
+        }
+    }
+
+    @Builtin(name = "BufferedReader", fixedNumOfArguments = 2, keywordArguments = {"buffer_size"}, constructsClass = PBufferedReader.class, base = PBuffered.class)
+    @GenerateNodeFactory
+    abstract static class BufferedReaderNode extends BufferedConstructorNode {
+        @Specialization
+        Object reader(PythonClass cls, Object raw, Object bufferSize) {
+            return factory().createBufferedReader(cls, raw, getChannel(raw), bufferSize(bufferSize));
+        }
+    }
+
+    @Builtin(name = "BufferedWriter", fixedNumOfArguments = 2, keywordArguments = {"buffer_size"}, constructsClass = PBufferedWriter.class, base = PBuffered.class)
+    @GenerateNodeFactory
+    abstract static class BufferedWriterNode extends BufferedConstructorNode {
+        @Specialization
+        Object writer(PythonClass cls, Object raw, Object bufferSize) {
+            return register(factory().createBufferedWriter(cls, raw, getChannel(raw), bufferSize(bufferSize)));
+        }
+    }
+
+    @Builtin(name = "BufferedRandom", fixedNumOfArguments = 2, keywordArguments = {"buffer_size"}, constructsClass = PBufferedRandom.class, base = PBuffered.class)
+    @GenerateNodeFactory
+    abstract static class BufferedRandomNode extends BufferedConstructorNode {
+        @Specialization
+        Object random(PythonClass cls, Object raw, Object bufferSize) {
+            return register(factory().createBufferedRandom(cls, raw, getChannel(raw), bufferSize(bufferSize)));
+        }
+    }
+
+    @Builtin(name = "TextIOWrapper", fixedNumOfArguments = 2, keywordArguments = {"encoding", "errors", "newline", "line_buffering",
+                    "write_through"}, constructsClass = PTextIOWrapper.class)
+    @GenerateNodeFactory
+    abstract static class TextIOWrapperNode extends PythonBuiltinNode {
+        @Specialization
+        Object wrapper(PythonClass cls, Object buffer, Object encoding, Object errors, Object newline, Object lineBuffering, Object writeThrough,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castLineBuffering,
+                        @Cached("createIfTrueNode()") CastToBooleanNode castWriteThrough) {
+            String encodingName = encoding instanceof PNone ? "UTF-8" : asString(encoding, "encoding");
+            Charset charset = lookupCharset(encodingName);
+            if (charset == null) {
+                throw raise(LookupError, "unknown encoding: %s", encodingName);
+            }
+            String errorsName = errors instanceof PNone ? "strict" : asString(errors, "errors");
+            CodingErrorAction action;
+            switch (errorsName) {
+                case "strict":
+                    action = CodingErrorAction.REPORT;
+                    break;
+                case "ignore":
+                    action = CodingErrorAction.IGNORE;
+                    break;
+                case "replace":
+                    action = CodingErrorAction.REPLACE;
+                    break;
+                default:
+                    throw raise(LookupError, "unknown error handler name '%s'", errorsName);
+            }
+            Object newlineValue = PNone.NONE;
+            if (!(newline instanceof PNone)) {
+                String value = asString(newline, "newline");
+                switch (value) {
+                    case "":
+                    case "\n":
+                    case "\r":
+                    case "\r\n":
+                        newlineValue = value;
+                        break;
+                    default:
+                        throw raise(ValueError, "illegal newline value: %s", value);
+                }
+            }
+            return factory().createTextIOWrapper(cls, buffer, charset, encodingName, errorsName, action, newlineValue, !(lineBuffering instanceof PNone) && castLineBuffering.executeWith(lineBuffering),
+                            !(writeThrough instanceof PNone) && castWriteThrough.executeWith(writeThrough));
+        }
+
+        private String asString(Object value, String name) {
+            if (value instanceof String) {
+                return (String) value;
+            } else if (value instanceof PString) {
+                return ((PString) value).getValue();
+            }
+            throw raise(TypeError, "TextIOWrapper() argument '%s' must be str or None, not %p", name, value);
+        }
+
+        @TruffleBoundary
+        private static Charset lookupCharset(String encoding) {
+            try {
+                return CodecsModuleBuiltins.getCharset(encoding);
+            } catch (IllegalArgumentException e) {
+                // try the normalized spelling, and then the Java name
+            }
+            String normalized = encoding.toLowerCase().replace('_', '-');
+            try {
+                return CodecsModuleBuiltins.getCharset(normalized);
+            } catch (IllegalArgumentException e) {
+                // fall through
+            }
+            try {
+                return Charset.forName(normalized);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
     }
 }
@@ -61,6 +61,7 @@ import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.call.special.CallUnaryMethodNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonParseResult;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -76,6 +77,7 @@ import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.ForeignAccess;
@@ -213,7 +215,7 @@ public class ImpModuleBuiltins extends PythonBuiltins {
                 // call into Python to initialize python_cext module globals
                 ReadAttributeFromObjectNode readNode = ReadAttributeFromObjectNode.create();
                 CallUnaryMethodNode callNode = CallUnaryMethodNode.create();
-                callNode.executeObject(readNode.execute(getContext().getCore().lookupBuiltinModule("python_cext"), INITIALIZE_CAPI), capi);
+                callNode.executeObject(readNode.execute(getContext().getCore().importBuiltinModule("python_cext"), INITIALIZE_CAPI), capi);
                 getContext().setCapiWasLoaded();
             }
         }
@@ -239,6 +241,7 @@ public class ImpModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "is_builtin", fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class IsBuiltin extends PythonBuiltinNode {
         @Specialization
@@ -270,7 +273,8 @@ public class ImpModuleBuiltins extends PythonBuiltins {
             if ("built-in".equals(origin)) {
                 for (String bm : getCore().builtinModuleNames()) {
                     if (bm.equals(name)) {
-                        return getCore().lookupBuiltinModule(bm);
+                        getCore().importBuiltinModule(bm);
+                        return getContext().lookupBuiltinModule(bm);
                     }
                 }
             }
@@ -26,17 +26,47 @@
 package com.oracle.graal.python.builtins.modules;
 
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinationsWithReplacement;
+import com.oracle.graal.python.builtins.objects.itertools.PCompress;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(defineModule = "itertools")
 public final class ItertoolsModuleBuiltins extends PythonBuiltins {
@@ -46,6 +76,374 @@ public final class ItertoolsModuleBuiltins extends PythonBuiltins {
         return ItertoolsModuleBuiltinsFactory.getFactories();
     }
 
+    abstract static class ItertoolsConstructorNode extends PythonBuiltinNode {
+
+        protected static boolean isIntegral(Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Boolean || value instanceof PInt;
+        }
+
+        /**
+         * Converts an integral argument to a {@code long}, saturating values that do not fit.
+         */
+        protected static long asLong(Object value) {
+            if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Long) {
+                return (long) value;
+            } else if (value instanceof Boolean) {
+                return PInt.intValue((boolean) value);
+            }
+            return saturatedLong((PInt) value);
+        }
+
+        @TruffleBoundary
+        private static long saturatedLong(PInt value) {
+            if (value.getValue().bitLength() < Long.SIZE) {
+                return value.longValue();
+            }
+            return value.getValue().signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+
+        protected Object[] materialize(Object iterable, GetIteratorNode getIterator, GetNextNode next, ConditionProfile errorProfile) {
+            Object iterator = getIterator.executeWith(iterable);
+            ArrayList<Object> items = new ArrayList<>();
+            while (true) {
+                try {
+                    add(items, next.execute(iterator));
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return toArray(items);
+                }
+            }
+        }
+
+        /**
+         * Reads the optional {@code r} argument of the combinatoric iterators, clamping it to
+         * {@code n + 1} since any larger length produces no results either.
+         */
+        protected int combinationLength(Object r, int n) {
+            if (r == PNone.NO_VALUE || r == PNone.NONE) {
+                return n;
+            } else if (!isIntegral(r)) {
+                throw raise(TypeError, "%p object cannot be interpreted as an integer", r);
+            }
+            long length = asLong(r);
+            if (length < 0) {
+                throw raise(ValueError, "r must be non-negative");
+            }
+            return (int) Math.min(length, n + 1L);
+        }
+
+        @TruffleBoundary
+        private static void add(ArrayList<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(ArrayList<Object> list) {
+            return list.toArray();
+        }
+    }
+
+    // chain(*iterables)
+    @Builtin(name = "chain", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PChain.class)
+    @GenerateNodeFactory
+    public abstract static class ChainNode extends ItertoolsConstructorNode {
+        @Specialization
+        PChain chain(PythonClass cls, PTuple iterables,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createChain(cls, getIterator.executeWith(iterables));
+        }
+    }
+
+    // installed as the classmethod chain.from_iterable(iterable) by itertools.py
+    @Builtin(name = "_chain_from_iterable", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ChainFromIterableNode extends ItertoolsConstructorNode {
+        @Specialization
+        PChain fromIterable(PythonClass cls, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createChain(cls, getIterator.executeWith(iterable));
+        }
+    }
+
+    // count(start=0, step=1)
+    @Builtin(name = "count", minNumOfArguments = 1, keywordArguments = {"start", "step"}, constructsClass = PCount.class)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends ItertoolsConstructorNode {
+        @Specialization
+        PCount count(PythonClass cls, Object start, Object step) {
+            return factory().createCount(cls, start == PNone.NO_VALUE ? 0 : start, step == PNone.NO_VALUE ? 1 : step);
+        }
+    }
+
+    // repeat(object[, times])
+    @Builtin(name = "repeat", minNumOfArguments = 2, keywordArguments = {"times"}, constructsClass = PRepeat.class)
+    @GenerateNodeFactory
+    public abstract static class RepeatNode extends ItertoolsConstructorNode {
+        @Specialization(guards = "isNoValue(times)")
+        PRepeat repeat(PythonClass cls, Object object, @SuppressWarnings("unused") PNone times) {
+            return factory().createRepeat(cls, object, -1);
+        }
+
+        @Specialization(guards = "isIntegral(times)")
+        PRepeat repeat(PythonClass cls, Object object, Object times) {
+            return factory().createRepeat(cls, object, Math.max(0, asLong(times)));
+        }
+
+        @Specialization(guards = {"!isNoValue(times)", "!isIntegral(times)"})
+        PRepeat repeatError(@SuppressWarnings("unused") PythonClass cls, @SuppressWarnings("unused") Object object, Object times) {
+            throw raise(TypeError, "%p object cannot be interpreted as an integer", times);
+        }
+    }
+
+    // islice(iterable, stop) or islice(iterable, start, stop[, step])
+    @Builtin(name = "islice", minNumOfArguments = 3, maxNumOfArguments = 5, constructsClass = PIslice.class)
+    @GenerateNodeFactory
+    public abstract static class IsliceNode extends ItertoolsConstructorNode {
+        @Specialization(guards = "isNoValue(noStop)")
+        PIslice islice(PythonClass cls, Object iterable, Object stop, @SuppressWarnings("unused") PNone noStop, @SuppressWarnings("unused") PNone noStep,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createIslice(cls, getIterator.executeWith(iterable), 0, toStop(stop), 1);
+        }
+
+        @Specialization(guards = "!isNoValue(stop)")
+        PIslice islice(PythonClass cls, Object iterable, Object start, Object stop, Object step,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            long stopValue = toStop(stop);
+            long startValue = 0;
+            if (start != PNone.NONE) {
+                startValue = isIntegral(start) ? asLong(start) : -1;
+                if (startValue < 0) {
+                    throw raise(ValueError, "Indices for islice() must be None or an integer: 0 <= x <= sys.maxsize.");
+                }
+            }
+            long stepValue = 1;
+            if (step != PNone.NO_VALUE && step != PNone.NONE) {
+                stepValue = isIntegral(step) ? asLong(step) : -1;
+                if (stepValue < 1) {
+                    throw raise(ValueError, "Step for islice() must be a positive integer or None.");
+                }
+            }
+            return factory().createIslice(cls, getIterator.executeWith(iterable), startValue, stopValue, stepValue);
+        }
+
+        private long toStop(Object stop) {
+            if (stop == PNone.NONE) {
+                return -1;
+            }
+            long stopValue = isIntegral(stop) ? asLong(stop) : -1;
+            if (stopValue < 0) {
+                throw raise(ValueError, "Stop argument for islice() must be None or an integer: 0 <= x <= sys.maxsize.");
+            }
+            return stopValue;
+        }
+    }
+
+    // starmap(function, iterable)
+    @Builtin(name = "starmap", fixedNumOfArguments = 3, constructsClass = PStarmap.class)
+    @GenerateNodeFactory
+    public abstract static class StarmapNode extends ItertoolsConstructorNode {
+        @Specialization
+        PStarmap starmap(PythonClass cls, Object function, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createStarmap(cls, function, getIterator.executeWith(iterable));
+        }
+    }
+
+    // compress(data, selectors)
+    @Builtin(name = "compress", fixedNumOfArguments = 3, constructsClass = PCompress.class)
+    @GenerateNodeFactory
+    public abstract static class CompressNode extends ItertoolsConstructorNode {
+        @Specialization
+        PCompress compress(PythonClass cls, Object data, Object selectors,
+                        @Cached("create()") GetIteratorNode getDataIterator,
+                        @Cached("create()") GetIteratorNode getSelectorsIterator) {
+            return factory().createCompress(cls, getDataIterator.executeWith(data), getSelectorsIterator.executeWith(selectors));
+        }
+    }
+
+    // takewhile(predicate, iterable)
+    @Builtin(name = "takewhile", fixedNumOfArguments = 3, constructsClass = PTakewhile.class)
+    @GenerateNodeFactory
+    public abstract static class TakewhileNode extends ItertoolsConstructorNode {
+        @Specialization
+        PTakewhile takewhile(PythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createTakewhile(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
+    // dropwhile(predicate, iterable)
+    @Builtin(name = "dropwhile", fixedNumOfArguments = 3, constructsClass = PDropwhile.class)
+    @GenerateNodeFactory
+    public abstract static class DropwhileNode extends ItertoolsConstructorNode {
+        @Specialization
+        PDropwhile dropwhile(PythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createDropwhile(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
+    // filterfalse(function or None, iterable)
+    @Builtin(name = "filterfalse", fixedNumOfArguments = 3, constructsClass = PFilterfalse.class)
+    @GenerateNodeFactory
+    public abstract static class FilterfalseNode extends ItertoolsConstructorNode {
+        @Specialization
+        PFilterfalse filterfalse(PythonClass cls, Object predicate, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createFilterfalse(cls, predicate, getIterator.executeWith(iterable));
+        }
+    }
+
+    // accumulate(iterable, func=None, *, initial=None)
+    @Builtin(name = "accumulate", minNumOfArguments = 2, keywordArguments = {"func", "initial"}, constructsClass = PAccumulate.class)
+    @GenerateNodeFactory
+    public abstract static class AccumulateNode extends ItertoolsConstructorNode {
+        @Specialization
+        PAccumulate accumulate(PythonClass cls, Object iterable, Object func, Object initial,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            Object function = func == PNone.NO_VALUE ? PNone.NONE : func;
+            Object initialValue = initial == PNone.NO_VALUE || initial == PNone.NONE ? null : initial;
+            return factory().createAccumulate(cls, getIterator.executeWith(iterable), function, initialValue);
+        }
+    }
+
+    // cycle(iterable)
+    @Builtin(name = "cycle", fixedNumOfArguments = 2, constructsClass = PCycle.class)
+    @GenerateNodeFactory
+    public abstract static class CycleNode extends ItertoolsConstructorNode {
+        @Specialization
+        PCycle cycle(PythonClass cls, Object iterable,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createCycle(cls, getIterator.executeWith(iterable));
+        }
+    }
+
+    // zip_longest(*iterables, fillvalue=None)
+    @Builtin(name = "zip_longest", minNumOfArguments = 1, takesVariableArguments = true, keywordArguments = {"fillvalue"}, constructsClass = PZipLongest.class)
+    @GenerateNodeFactory
+    public abstract static class ZipLongestNode extends ItertoolsConstructorNode {
+        @Specialization
+        PZipLongest zipLongest(PythonClass cls, PTuple iterables, Object fillvalue,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            Object[] iterators = new Object[iterables.len()];
+            for (int i = 0; i < iterators.length; i++) {
+                iterators[i] = getIterator.executeWith(iterables.getItem(i));
+            }
+            return factory().createZipLongest(cls, iterators, fillvalue == PNone.NO_VALUE ? PNone.NONE : fillvalue);
+        }
+    }
+
+    // groupby(iterable, key=None)
+    @Builtin(name = "groupby", minNumOfArguments = 2, keywordArguments = {"key"}, constructsClass = PGroupBy.class)
+    @GenerateNodeFactory
+    public abstract static class GroupByNode extends ItertoolsConstructorNode {
+        @Specialization
+        PGroupBy groupby(PythonClass cls, Object iterable, Object key,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return factory().createGroupBy(cls, getIterator.executeWith(iterable), key == PNone.NO_VALUE ? PNone.NONE : key);
+        }
+    }
+
+    // groups are only created by groupby.__next__
+    @Builtin(name = "_grouper", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PGrouper.class, isPublic = false)
+    @GenerateNodeFactory
+    public abstract static class GrouperNode extends ItertoolsConstructorNode {
+        @Specialization
+        Object grouper(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") PTuple args) {
+            throw raise(TypeError, "cannot create '_grouper' instances");
+        }
+    }
+
+    // permutations(iterable, r=None)
+    @Builtin(name = "permutations", minNumOfArguments = 2, keywordArguments = {"r"}, constructsClass = PPermutations.class)
+    @GenerateNodeFactory
+    public abstract static class PermutationsNode extends ItertoolsConstructorNode {
+        @Specialization
+        PPermutations permutations(PythonClass cls, Object iterable, Object r,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Object[] pool = materialize(iterable, getIterator, next, errorProfile);
+            return factory().createPermutations(cls, pool, combinationLength(r, pool.length));
+        }
+    }
+
+    // combinations(iterable, r)
+    @Builtin(name = "combinations", fixedNumOfArguments = 3, constructsClass = PCombinations.class)
+    @GenerateNodeFactory
+    public abstract static class CombinationsNode extends ItertoolsConstructorNode {
+        @Specialization
+        PCombinations combinations(PythonClass cls, Object iterable, Object r,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            if (!isIntegral(r)) {
+                throw raise(TypeError, "%p object cannot be interpreted as an integer", r);
+            }
+            Object[] pool = materialize(iterable, getIterator, next, errorProfile);
+            return factory().createCombinations(cls, pool, combinationLength(r, pool.length));
+        }
+    }
+
+    // combinations_with_replacement(iterable, r)
+    @Builtin(name = "combinations_with_replacement", fixedNumOfArguments = 3, constructsClass = PCombinationsWithReplacement.class)
+    @GenerateNodeFactory
+    public abstract static class CombinationsWithReplacementNode extends ItertoolsConstructorNode {
+        @Specialization
+        PCombinationsWithReplacement combinations(PythonClass cls, Object iterable, Object r,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            if (!isIntegral(r)) {
+                throw raise(TypeError, "%p object cannot be interpreted as an integer", r);
+            }
+            long length = asLong(r);
+            if (length < 0) {
+                throw raise(ValueError, "r must be non-negative");
+            } else if (length > Integer.MAX_VALUE) {
+                throw raise(ValueError, "r is too large");
+            }
+            Object[] pool = materialize(iterable, getIterator, next, errorProfile);
+            return factory().createCombinationsWithReplacement(cls, pool, (int) length);
+        }
+    }
+
+    // product(*iterables, repeat=1)
+    @Builtin(name = "product", minNumOfArguments = 1, takesVariableArguments = true, keywordArguments = {"repeat"}, constructsClass = PProduct.class)
+    @GenerateNodeFactory
+    public abstract static class ProductNode extends ItertoolsConstructorNode {
+        @Specialization
+        PProduct product(PythonClass cls, PTuple iterables, Object repeat,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            long repeatValue = 1;
+            if (repeat != PNone.NO_VALUE) {
+                if (!isIntegral(repeat)) {
+                    throw raise(TypeError, "%p object cannot be interpreted as an integer", repeat);
+                }
+                repeatValue = asLong(repeat);
+                if (repeatValue < 0) {
+                    throw raise(ValueError, "repeat argument cannot be negative");
+                }
+            }
+            int n = iterables.len();
+            if (repeatValue > 0 && n > Integer.MAX_VALUE / repeatValue) {
+                throw raise(ValueError, "repeat argument too large");
+            }
+            Object[][] gears = new Object[(int) (n * repeatValue)][];
+            for (int i = 0; i < n; i++) {
+                Object[] pool = materialize(iterables.getItem(i), getIterator, next, errorProfile);
+                for (int j = 0; j < repeatValue; j++) {
+                    gears[j * n + i] = pool;
+                }
+            }
+            return factory().createProduct(cls, gears);
+        }
+    }
+
     // tee(iterable, n=2)
     @Builtin(name = "tee", minNumOfArguments = 1, maxNumOfArguments = 2)
     @GenerateNodeFactory
@@ -25,62 +25,897 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.EOFError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PEllipsis;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.complex.PComplex;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.set.PBaseSet;
+import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.ModuleNode;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.PythonParseResult;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.source.SourceSection;
 
 @CoreFunctions(defineModule = "marshal")
 public final class MarshalModuleBuiltins extends PythonBuiltins {
+    /**
+     * The same as CPython's current marshal version. Version 3 introduced object references,
+     * version 4 the compact ASCII string codes.
+     */
+    static final int CURRENT_VERSION = 4;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
         return MarshalModuleBuiltinsFactory.getFactories();
     }
 
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("version", CURRENT_VERSION);
+    }
+
     @Builtin(name = "dump", minNumOfArguments = 2, keywordArguments = {"version"})
     @GenerateNodeFactory
     abstract static class DumpNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
         @Specialization
-        Object doit(Object value, Object file, Object version) {
-            throw raise(NotImplementedError, "marshal.dump");
+        Object doit(Object value, Object file, Object version,
+                        @Cached("create()") GetAttributeNode getWrite,
+                        @Cached("create()") CallNode callWrite) {
+            PBytes data = factory().createBytes(dump(getCore(), value, version));
+            callWrite.execute(getWrite.execute(file, "write"), new Object[]{data}, PKeyword.EMPTY_KEYWORDS);
+            return PNone.NONE;
         }
     }
 
     @Builtin(name = "dumps", minNumOfArguments = 1, keywordArguments = {"version"})
     @GenerateNodeFactory
     abstract static class DumpsNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
         @Specialization
         Object doit(Object value, Object version) {
-            throw raise(NotImplementedError, "marshal.dumps");
+            return factory().createBytes(dump(getCore(), value, version));
         }
     }
 
     @Builtin(name = "load", fixedNumOfArguments = 1)
     @GenerateNodeFactory
     abstract static class LoadNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
         @Specialization
-        Object doit(Object file) {
-            throw raise(NotImplementedError, "marshal.load");
+        Object doit(Object file,
+                        @Cached("create()") GetAttributeNode getRead,
+                        @Cached("create()") GetAttributeNode getSeek,
+                        @Cached("create()") CallNode callRead,
+                        @Cached("create()") CallNode callSeek) {
+            // we cannot read object by object from a Python file, so we read everything that is
+            // left and seek back behind the first object afterwards
+            Object data = callRead.execute(getRead.execute(file, "read"), new Object[0], PKeyword.EMPTY_KEYWORDS);
+            if (!(data instanceof PBytes)) {
+                throw raise(TypeError, "file.read() returned not bytes but %p", data);
+            }
+            PBytes bytes = (PBytes) data;
+            UnMarshaller unmarshaller = new UnMarshaller(getCore(), factory(), bytes.getInternalByteArray(), bytes.len(), unboxStorage());
+            Object result = unmarshaller.load();
+            int unread = bytes.len() - unmarshaller.position();
+            if (unread > 0) {
+                callSeek.execute(getSeek.execute(file, "seek"), new Object[]{-unread, 1}, PKeyword.EMPTY_KEYWORDS);
+            }
+            return result;
+        }
+
+        private boolean unboxStorage() {
+            return PythonOptions.getOption(getContext(), PythonOptions.UnboxSequenceStorage);
         }
     }
 
     @Builtin(name = "loads", fixedNumOfArguments = 1)
     @GenerateNodeFactory
     abstract static class LoadsNode extends PythonBuiltinNode {
-        @SuppressWarnings("unused")
         @Specialization
+        Object doit(PBytes bytes) {
+            return new UnMarshaller(getCore(), factory(), bytes.getInternalByteArray(), bytes.len(), unboxStorage()).load();
+        }
+
+        @Specialization
+        Object doit(PByteArray bytes) {
+            return new UnMarshaller(getCore(), factory(), bytes.getInternalByteArray(), bytes.len(), unboxStorage()).load();
+        }
+
+        @Specialization(guards = "!isBytes(bytes)")
         Object doit(Object bytes) {
-            throw raise(NotImplementedError, "marshal.loads");
+            throw raise(TypeError, "a bytes-like object is required, not '%p'", bytes);
+        }
+
+        protected static boolean isBytes(Object bytes) {
+            return bytes instanceof PBytes || bytes instanceof PByteArray;
+        }
+
+        private boolean unboxStorage() {
+            return PythonOptions.getOption(getContext(), PythonOptions.UnboxSequenceStorage);
+        }
+    }
+
+    private static byte[] dump(PythonCore core, Object value, Object version) {
+        int v;
+        if (version instanceof PNone) {
+            v = CURRENT_VERSION;
+        } else if (version instanceof Integer) {
+            v = (int) version;
+        } else {
+            throw core.raise(TypeError, "an integer is required (got type %p)", version);
+        }
+        return new Marshaller(core, v).dump(value);
+    }
+
+    // type codes as used by CPython's marshal.c
+    private static final byte TYPE_NULL = '0';
+    private static final byte TYPE_NONE = 'N';
+    private static final byte TYPE_FALSE = 'F';
+    private static final byte TYPE_TRUE = 'T';
+    private static final byte TYPE_ELLIPSIS = '.';
+    private static final byte TYPE_INT = 'i';
+    private static final byte TYPE_LONG = 'l';
+    private static final byte TYPE_FLOAT = 'f';
+    private static final byte TYPE_BINARY_FLOAT = 'g';
+    private static final byte TYPE_COMPLEX = 'x';
+    private static final byte TYPE_BINARY_COMPLEX = 'y';
+    private static final byte TYPE_STRING = 's';
+    private static final byte TYPE_INTERNED = 't';
+    private static final byte TYPE_REF = 'r';
+    private static final byte TYPE_TUPLE = '(';
+    private static final byte TYPE_LIST = '[';
+    private static final byte TYPE_DICT = '{';
+    private static final byte TYPE_UNICODE = 'u';
+    private static final byte TYPE_SET = '<';
+    private static final byte TYPE_FROZENSET = '>';
+    private static final byte TYPE_ASCII = 'a';
+    private static final byte TYPE_ASCII_INTERNED = 'A';
+    private static final byte TYPE_SMALL_TUPLE = ')';
+    private static final byte TYPE_SHORT_ASCII = 'z';
+    private static final byte TYPE_SHORT_ASCII_INTERNED = 'Z';
+    /*
+     * Not a CPython type code: our code objects are stored as their file name and source, which
+     * must not be mistaken for CPython's 'c' layout by other readers.
+     */
+    private static final byte TYPE_GRAALPYTHON_CODE = 'C';
+
+    private static final int FLAG_REF = 0x80;
+
+    private static final int MAX_MARSHAL_STACK_DEPTH = 2000;
+
+    /**
+     * Python ints are written as sequences of 15-bit digits.
+     */
+    private static final int PYLONG_MARSHAL_SHIFT = 15;
+    private static final int PYLONG_MARSHAL_BASE = 1 << PYLONG_MARSHAL_SHIFT;
+
+    /**
+     * Writes objects in CPython's marshal format into a growable byte array. Strings are
+     * remembered and written as back-references when they are seen again. Lists backed by a
+     * primitive storage are written in one loop over the primitive array without boxing.
+     * Versions below 2 write floats and complex numbers as text, as CPython does for them.
+     *
+     * Code objects are not portable to CPython: we store the file name and the source of the
+     * module and parse it again when loading.
+     */
+    static final class Marshaller {
+        private final PythonCore core;
+        private final int version;
+        private final HashMap<String, Integer> strings = new HashMap<>();
+        private byte[] buffer = new byte[64];
+        private int pos;
+        private int depth;
+
+        Marshaller(PythonCore core, int version) {
+            this.core = core;
+            this.version = version;
+        }
+
+        @TruffleBoundary
+        byte[] dump(Object value) {
+            writeObject(value);
+            return Arrays.copyOf(buffer, pos);
+        }
+
+        private void ensureCapacity(long additional) {
+            long required = pos + additional;
+            if (required > buffer.length) {
+                if (required > Integer.MAX_VALUE - 8) {
+                    throw core.raise(ValueError, "object too large to marshal");
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.max(required, Math.min(buffer.length * 2L, Integer.MAX_VALUE - 8)));
+            }
+        }
+
+        private void writeByte(int b) {
+            ensureCapacity(1);
+            buffer[pos++] = (byte) b;
+        }
+
+        private void putShort(int v) {
+            buffer[pos++] = (byte) v;
+            buffer[pos++] = (byte) (v >> 8);
+        }
+
+        private void putInt(int v) {
+            buffer[pos++] = (byte) v;
+            buffer[pos++] = (byte) (v >> 8);
+            buffer[pos++] = (byte) (v >> 16);
+            buffer[pos++] = (byte) (v >> 24);
+        }
+
+        private void putDouble(double v) {
+            long bits = Double.doubleToRawLongBits(v);
+            putInt((int) bits);
+            putInt((int) (bits >>> 32));
+        }
+
+        private void writeInt(int v) {
+            ensureCapacity(4);
+            putInt(v);
+        }
+
+        private void writeBytes(byte[] bytes, int len) {
+            ensureCapacity(len);
+            System.arraycopy(bytes, 0, buffer, pos, len);
+            pos += len;
+        }
+
+        private void writeSize(long size) {
+            if (size > Integer.MAX_VALUE) {
+                throw core.raise(ValueError, "unmarshallable object");
+            }
+            writeInt((int) size);
+        }
+
+        private void writeObject(Object v) {
+            if (++depth > MAX_MARSHAL_STACK_DEPTH) {
+                throw core.raise(ValueError, "object too deeply nested to marshal");
+            }
+            try {
+                writeObjectInternal(v);
+            } finally {
+                depth--;
+            }
+        }
+
+        private void writeObjectInternal(Object v) {
+            if (v == PNone.NONE) {
+                writeByte(TYPE_NONE);
+            } else if (v == PEllipsis.INSTANCE) {
+                writeByte(TYPE_ELLIPSIS);
+            } else if (v instanceof Boolean) {
+                writeByte((boolean) v ? TYPE_TRUE : TYPE_FALSE);
+            } else if (v instanceof Integer) {
+                ensureCapacity(5);
+                buffer[pos++] = TYPE_INT;
+                putInt((int) v);
+            } else if (v instanceof Long) {
+                writeLong((long) v);
+            } else if (v instanceof PInt) {
+                writeBigInteger(((PInt) v).getValue());
+            } else if (v instanceof Double) {
+                writeFloat((double) v);
+            } else if (v instanceof PFloat) {
+                writeFloat(((PFloat) v).getValue());
+            } else if (v instanceof PComplex) {
+                writeComplex(((PComplex) v).getReal(), ((PComplex) v).getImag());
+            } else if (v instanceof String) {
+                writeString((String) v);
+            } else if (v instanceof PString) {
+                writeString(((PString) v).getValue());
+            } else if (v instanceof PBytes || v instanceof PByteArray) {
+                SequenceStorage store = ((PSequence) v).getSequenceStorage();
+                writeByte(TYPE_STRING);
+                writeSize(store.length());
+                writeBytes(((ByteSequenceStorage) store).getInternalByteArray(), store.length());
+            } else if (v instanceof PTuple) {
+                Object[] items = ((PTuple) v).getArray();
+                if (version >= 4 && items.length < 256) {
+                    writeByte(TYPE_SMALL_TUPLE);
+                    writeByte(items.length);
+                } else {
+                    writeByte(TYPE_TUPLE);
+                    writeSize(items.length);
+                }
+                for (Object item : items) {
+                    writeObject(item);
+                }
+            } else if (v instanceof PList) {
+                writeList(((PList) v).getSequenceStorage());
+            } else if (v instanceof PDict) {
+                writeByte(TYPE_DICT);
+                for (DictEntry entry : ((PDict) v).getDictStorage().entries()) {
+                    writeObject(entry.getKey());
+                    writeObject(entry.getValue());
+                }
+                writeByte(TYPE_NULL);
+            } else if (v instanceof PBaseSet) {
+                HashingStorage storage = ((PBaseSet) v).getDictStorage();
+                writeByte(v instanceof PFrozenSet ? TYPE_FROZENSET : TYPE_SET);
+                writeSize(storage.length());
+                for (Object key : storage.keys()) {
+                    writeObject(key);
+                }
+            } else if (v instanceof PythonParseResult) {
+                writeCode((PythonParseResult) v);
+            } else {
+                throw core.raise(ValueError, "unmarshallable object");
+            }
+        }
+
+        private void writeLong(long v) {
+            if (v == (int) v) {
+                ensureCapacity(5);
+                buffer[pos++] = TYPE_INT;
+                putInt((int) v);
+            } else if (v == Long.MIN_VALUE) {
+                writeBigInteger(BigInteger.valueOf(v));
+            } else {
+                long abs = Math.abs(v);
+                int ndigits = 0;
+                for (long t = abs; t != 0; t >>>= PYLONG_MARSHAL_SHIFT) {
+                    ndigits++;
+                }
+                ensureCapacity(5 + 2 * ndigits);
+                buffer[pos++] = TYPE_LONG;
+                putInt(v < 0 ? -ndigits : ndigits);
+                for (int i = 0; i < ndigits; i++) {
+                    putShort((int) (abs & (PYLONG_MARSHAL_BASE - 1)));
+                    abs >>>= PYLONG_MARSHAL_SHIFT;
+                }
+            }
+        }
+
+        private void writeBigInteger(BigInteger v) {
+            if (v.bitLength() < 64) {
+                writeLong(v.longValue());
+                return;
+            }
+            BigInteger abs = v.abs();
+            int ndigits = (abs.bitLength() + PYLONG_MARSHAL_SHIFT - 1) / PYLONG_MARSHAL_SHIFT;
+            ensureCapacity(5 + 2L * ndigits);
+            buffer[pos++] = TYPE_LONG;
+            putInt(v.signum() < 0 ? -ndigits : ndigits);
+            for (int i = 0; i < ndigits; i++) {
+                putShort(abs.shiftRight(i * PYLONG_MARSHAL_SHIFT).intValue() & (PYLONG_MARSHAL_BASE - 1));
+            }
+        }
+
+        private void writeString(String s) {
+            if (version >= 3) {
+                Integer ref = strings.get(s);
+                if (ref != null) {
+                    ensureCapacity(5);
+                    buffer[pos++] = TYPE_REF;
+                    putInt(ref);
+                    return;
+                }
+                strings.put(s, strings.size());
+            }
+            int flag = version >= 3 ? FLAG_REF : 0;
+            if (version >= 4 && isAscii(s)) {
+                int len = s.length();
+                if (len < 256) {
+                    ensureCapacity(2 + len);
+                    buffer[pos++] = (byte) (TYPE_SHORT_ASCII | flag);
+                    buffer[pos++] = (byte) len;
+                } else {
+                    ensureCapacity(5 + len);
+                    buffer[pos++] = (byte) (TYPE_ASCII | flag);
+                    putInt(len);
+                }
+                for (int i = 0; i < len; i++) {
+                    buffer[pos++] = (byte) s.charAt(i);
+                }
+            } else {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                writeByte(TYPE_UNICODE | flag);
+                writeSize(utf8.length);
+                writeBytes(utf8, utf8.length);
+            }
+        }
+
+        private static boolean isAscii(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) >= 128) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void writeList(SequenceStorage store) {
+            int len = store.length();
+            writeByte(TYPE_LIST);
+            writeInt(len);
+            if (store instanceof IntSequenceStorage) {
+                int[] values = ((IntSequenceStorage) store).getInternalIntArray();
+                ensureCapacity(5L * len);
+                for (int i = 0; i < len; i++) {
+                    buffer[pos++] = TYPE_INT;
+                    putInt(values[i]);
+                }
+            } else if (store instanceof LongSequenceStorage) {
+                long[] values = ((LongSequenceStorage) store).getInternalLongArray();
+                for (int i = 0; i < len; i++) {
+                    writeLong(values[i]);
+                }
+            } else if (store instanceof DoubleSequenceStorage && version >= 2) {
+                double[] values = ((DoubleSequenceStorage) store).getInternalDoubleArray();
+                ensureCapacity(9L * len);
+                for (int i = 0; i < len; i++) {
+                    buffer[pos++] = TYPE_BINARY_FLOAT;
+                    putDouble(values[i]);
+                }
+            } else if (store instanceof BoolSequenceStorage) {
+                boolean[] values = ((BoolSequenceStorage) store).getInternalBoolArray();
+                ensureCapacity(len);
+                for (int i = 0; i < len; i++) {
+                    buffer[pos++] = values[i] ? TYPE_TRUE : TYPE_FALSE;
+                }
+            } else {
+                for (int i = 0; i < len; i++) {
+                    writeObject(store.getItemNormalized(i));
+                }
+            }
+        }
+
+        private void writeFloat(double v) {
+            if (version < 2) {
+                writeByte(TYPE_FLOAT);
+                writeFloatString(v);
+            } else {
+                ensureCapacity(9);
+                buffer[pos++] = TYPE_BINARY_FLOAT;
+                putDouble(v);
+            }
+        }
+
+        private void writeComplex(double real, double imag) {
+            if (version < 2) {
+                writeByte(TYPE_COMPLEX);
+                writeFloatString(real);
+                writeFloatString(imag);
+            } else {
+                ensureCapacity(17);
+                buffer[pos++] = TYPE_BINARY_COMPLEX;
+                putDouble(real);
+                putDouble(imag);
+            }
+        }
+
+        /**
+         * Versions 0 and 1 store floats as text: one length byte followed by the value formatted
+         * like {@code '%.17g'}.
+         */
+        private void writeFloatString(double v) {
+            byte[] text = formatFloat(v).getBytes(StandardCharsets.ISO_8859_1);
+            writeByte(text.length);
+            writeBytes(text, text.length);
+        }
+
+        private static String formatFloat(double v) {
+            if (Double.isNaN(v)) {
+                return "nan";
+            } else if (Double.isInfinite(v)) {
+                return v > 0 ? "inf" : "-inf";
+            } else if (v == 0) {
+                return Double.doubleToRawLongBits(v) < 0 ? "-0" : "0";
+            }
+            BigDecimal d = new BigDecimal(v).round(new MathContext(17, RoundingMode.HALF_EVEN)).stripTrailingZeros();
+            int exponent = d.precision() - d.scale() - 1;
+            if (exponent >= -4 && exponent < 17) {
+                return d.toPlainString();
+            }
+            String digits = d.unscaledValue().abs().toString();
+            StringBuilder sb = new StringBuilder();
+            if (d.signum() < 0) {
+                sb.append('-');
+            }
+            sb.append(digits.charAt(0));
+            if (digits.length() > 1) {
+                sb.append('.').append(digits, 1, digits.length());
+            }
+            sb.append(exponent < 0 ? "e-" : "e+");
+            if (Math.abs(exponent) < 10) {
+                sb.append('0');
+            }
+            sb.append(Math.abs(exponent));
+            return sb.toString();
+        }
+
+        private void writeCode(PythonParseResult code) {
+            // only module code can be re-created from its source
+            SourceSection section = code.getRootNode().getSourceSection();
+            if (!(code.getRootNode() instanceof ModuleNode) || section == null) {
+                throw core.raise(ValueError, "unmarshallable object");
+            }
+            writeByte(TYPE_GRAALPYTHON_CODE);
+            writeString(section.getSource().getName());
+            writeString(section.getSource().getCharacters().toString());
+        }
+    }
+
+    /**
+     * Reads objects written by {@link Marshaller} or by CPython. Runs of ints or floats in a list
+     * are read directly into a primitive storage.
+     */
+    static final class UnMarshaller {
+        private final PythonCore core;
+        private final PythonObjectFactory factory;
+        private final byte[] data;
+        private final int end;
+        private final boolean unboxStorage;
+        private final ArrayList<Object> refs = new ArrayList<>();
+        private int pos;
+        private int depth;
+
+        UnMarshaller(PythonCore core, PythonObjectFactory factory, byte[] data, int length, boolean unboxStorage) {
+            this.core = core;
+            this.factory = factory;
+            this.data = data;
+            this.end = length;
+            this.unboxStorage = unboxStorage;
+        }
+
+        int position() {
+            return pos;
+        }
+
+        @TruffleBoundary
+        Object load() {
+            return readObject();
+        }
+
+        private PException eof() {
+            return core.raise(EOFError, "EOF read where object expected");
+        }
+
+        private void ensureAvailable(long n) {
+            if (n < 0 || pos + n > end) {
+                throw core.raise(EOFError, "marshal data too short");
+            }
+        }
+
+        private int readByte() {
+            if (pos >= end) {
+                throw eof();
+            }
+            return data[pos++] & 0xFF;
+        }
+
+        private int getShort() {
+            return (data[pos++] & 0xFF) | (data[pos++] & 0xFF) << 8;
+        }
+
+        private int getInt() {
+            return (data[pos++] & 0xFF) | (data[pos++] & 0xFF) << 8 | (data[pos++] & 0xFF) << 16 | (data[pos++] & 0xFF) << 24;
+        }
+
+        private double getDouble() {
+            long low = getInt() & 0xFFFFFFFFL;
+            long high = getInt() & 0xFFFFFFFFL;
+            return Double.longBitsToDouble(high << 32 | low);
+        }
+
+        private int readInt() {
+            ensureAvailable(4);
+            return getInt();
+        }
+
+        private int readSize() {
+            int n = readInt();
+            if (n < 0) {
+                throw core.raise(ValueError, "bad marshal data (size out of range)");
+            }
+            return n;
+        }
+
+        /**
+         * Reads the element count of a container. Every element takes at least one byte, so a count
+         * larger than the remaining data is rejected before anything is allocated for it.
+         */
+        private int readContainerSize() {
+            int n = readSize();
+            ensureAvailable(n);
+            return n;
+        }
+
+        private String readString(int len, boolean ascii) {
+            ensureAvailable(len);
+            String s = new String(data, pos, len, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        private Object readObject() {
+            if (++depth > MAX_MARSHAL_STACK_DEPTH) {
+                throw core.raise(ValueError, "recursion limit exceeded");
+            }
+            try {
+                int code = readByte();
+                int refIndex = -1;
+                if ((code & FLAG_REF) != 0) {
+                    refIndex = refs.size();
+                    refs.add(null);
+                }
+                Object result = readObjectInternal(code & ~FLAG_REF, refIndex);
+                if (refIndex >= 0) {
+                    refs.set(refIndex, result);
+                }
+                return result;
+            } finally {
+                depth--;
+            }
+        }
+
+        private Object readObjectInternal(int type, int refIndex) {
+            switch (type) {
+                case TYPE_NONE:
+                    return PNone.NONE;
+                case TYPE_ELLIPSIS:
+                    return PEllipsis.INSTANCE;
+                case TYPE_TRUE:
+                    return true;
+                case TYPE_FALSE:
+                    return false;
+                case TYPE_INT:
+                    return readInt();
+                case TYPE_LONG:
+                    return readLong();
+                case TYPE_FLOAT:
+                    return readFloatString();
+                case TYPE_BINARY_FLOAT:
+                    ensureAvailable(8);
+                    return getDouble();
+                case TYPE_COMPLEX: {
+                    double real = readFloatString();
+                    return factory.createComplex(real, readFloatString());
+                }
+                case TYPE_BINARY_COMPLEX:
+                    ensureAvailable(16);
+                    return factory.createComplex(getDouble(), getDouble());
+                case TYPE_STRING: {
+                    int len = readSize();
+                    ensureAvailable(len);
+                    byte[] bytes = Arrays.copyOfRange(data, pos, pos + len);
+                    pos += len;
+                    return factory.createBytes(bytes);
+                }
+                case TYPE_UNICODE:
+                case TYPE_INTERNED:
+                    return readString(readSize(), false);
+                case TYPE_ASCII:
+                case TYPE_ASCII_INTERNED:
+                    return readString(readSize(), true);
+                case TYPE_SHORT_ASCII:
+                case TYPE_SHORT_ASCII_INTERNED:
+                    return readString(readByte(), true);
+                case TYPE_REF: {
+                    int index = readInt();
+                    if (index < 0 || index >= refs.size() || refs.get(index) == null) {
+                        throw core.raise(ValueError, "bad marshal data (invalid reference)");
+                    }
+                    return refs.get(index);
+                }
+                case TYPE_SMALL_TUPLE: {
+                    int len = readByte();
+                    ensureAvailable(len);
+                    return readTuple(len);
+                }
+                case TYPE_TUPLE:
+                    return readTuple(readContainerSize());
+                case TYPE_LIST:
+                    return readList(readContainerSize(), refIndex);
+                case TYPE_DICT:
+                    return readDict(refIndex);
+                case TYPE_SET:
+                case TYPE_FROZENSET: {
+                    int len = readContainerSize();
+                    HashingStorage storage = EconomicMapStorage.create(len, true);
+                    for (int i = 0; i < len; i++) {
+                        Object key = readObject();
+                        storage.setItem(key, PNone.NO_VALUE, HashingStorage.getSlowPathEquivalence(key));
+                    }
+                    return type == TYPE_SET ? factory.createSet(storage) : factory.createFrozenSet(storage);
+                }
+                case TYPE_GRAALPYTHON_CODE: {
+                    Object filename = readObject();
+                    Object source = readObject();
+                    if (!(filename instanceof String) || !(source instanceof String)) {
+                        throw core.raise(ValueError, "bad marshal data (invalid code object)");
+                    }
+                    return core.getParser().parseExec(core, (String) source, (String) filename);
+                }
+                case TYPE_NULL:
+                    throw core.raise(TypeError, "NULL object in marshal data for object");
+                default:
+                    throw core.raise(ValueError, "bad marshal data (unknown type code)");
+            }
+        }
+
+        private double readFloatString() {
+            String text = readString(readByte(), true);
+            String lower = text.toLowerCase();
+            boolean negative = lower.startsWith("-");
+            String unsigned = negative || lower.startsWith("+") ? lower.substring(1) : lower;
+            if (unsigned.equals("inf") || unsigned.equals("infinity")) {
+                return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            } else if (unsigned.equals("nan")) {
+                return Double.NaN;
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw core.raise(ValueError, "could not convert string to float: '%s'", text);
+            }
+        }
+
+        private Object readLong() {
+            int n = readInt();
+            if (n == Integer.MIN_VALUE) {
+                // its absolute value does not fit in an int
+                throw core.raise(ValueError, "bad marshal data (long size out of range)");
+            }
+            int size = Math.abs(n);
+            ensureAvailable(2L * size);
+            if ((long) size * PYLONG_MARSHAL_SHIFT < 63) {
+                long value = 0;
+                for (int i = 0; i < size; i++) {
+                    int digit = getShort();
+                    checkDigit(digit, i == size - 1);
+                    value |= (long) digit << (i * PYLONG_MARSHAL_SHIFT);
+                }
+                value = n < 0 ? -value : value;
+                if (value == (int) value) {
+                    return (int) value;
+                }
+                return value;
+            }
+            BigInteger value = BigInteger.ZERO;
+            for (int i = 0; i < size; i++) {
+                int digit = getShort();
+                checkDigit(digit, i == size - 1);
+                value = value.or(BigInteger.valueOf(digit).shiftLeft(i * PYLONG_MARSHAL_SHIFT));
+            }
+            value = n < 0 ? value.negate() : value;
+            if (value.bitLength() < 64) {
+                return value.longValue();
+            }
+            return factory.createInt(value);
+        }
+
+        private void checkDigit(int digit, boolean last) {
+            if (digit >= PYLONG_MARSHAL_BASE) {
+                throw core.raise(ValueError, "bad marshal data (digit out of range in long)");
+            } else if (last && digit == 0) {
+                throw core.raise(ValueError, "bad marshal data (unnormalized long data)");
+            }
+        }
+
+        private PTuple readTuple(int len) {
+            Object[] items = new Object[len];
+            for (int i = 0; i < len; i++) {
+                items[i] = readObject();
+            }
+            return factory.createTuple(items);
+        }
+
+        private PList readList(int len, int refIndex) {
+            PList list = factory.createList();
+            if (refIndex >= 0) {
+                // the list may contain itself
+                refs.set(refIndex, list);
+            }
+            int start = 0;
+            SequenceStorage store = null;
+            if (unboxStorage && len > 0 && pos < end) {
+                if (data[pos] == TYPE_INT) {
+                    int[] values = new int[len];
+                    while (start < len && pos + 5 <= end && data[pos] == TYPE_INT) {
+                        pos++;
+                        values[start++] = getInt();
+                    }
+                    store = start == len ? new IntSequenceStorage(values) : boxed(values, start, len);
+                } else if (data[pos] == TYPE_BINARY_FLOAT) {
+                    double[] values = new double[len];
+                    while (start < len && pos + 9 <= end && data[pos] == TYPE_BINARY_FLOAT) {
+                        pos++;
+                        values[start++] = getDouble();
+                    }
+                    store = start == len ? new DoubleSequenceStorage(values) : boxed(values, start, len);
+                }
+            }
+            if (start < len) {
+                Object[] items = store != null ? ((ObjectSequenceStorage) store).getInternalArray() : new Object[len];
+                for (int i = start; i < len; i++) {
+                    items[i] = readObject();
+                }
+                store = new ObjectSequenceStorage(items);
+            }
+            if (store != null) {
+                list.setSequenceStorage(store);
+            }
+            return list;
+        }
+
+        private static ObjectSequenceStorage boxed(int[] values, int count, int len) {
+            Object[] items = new Object[len];
+            for (int i = 0; i < count; i++) {
+                items[i] = values[i];
+            }
+            return new ObjectSequenceStorage(items);
+        }
+
+        private static ObjectSequenceStorage boxed(double[] values, int count, int len) {
+            Object[] items = new Object[len];
+            for (int i = 0; i < count; i++) {
+                items[i] = values[i];
+            }
+            return new ObjectSequenceStorage(items);
+        }
+
+        private PDict readDict(int refIndex) {
+            PDict dict = factory.createDict();
+            if (refIndex >= 0) {
+                refs.set(refIndex, dict);
+            }
+            while (true) {
+                if (pos < end && data[pos] == TYPE_NULL) {
+                    pos++;
+                    return dict;
+                }
+                Object key = readObject();
+                Object value = readObject();
+                dict.setItem(key, value);
+            }
         }
     }
 }
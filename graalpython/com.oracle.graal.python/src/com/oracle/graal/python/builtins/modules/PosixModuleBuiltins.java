@@ -62,12 +62,16 @@ import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.floats.PFloat;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryBuffer;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonExitException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleFile;
@@ -75,6 +79,7 @@ import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
 
 @CoreFunctions(defineModule = "posix")
 public class PosixModuleBuiltins extends PythonBuiltins {
@@ -140,6 +145,20 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         return PosixModuleBuiltinsFactory.getFactories();
     }
 
+    /**
+     * Gives buffered I/O direct access to the channel behind a file descriptor returned by
+     * {@code open}.
+     *
+     * @return the channel, or {@code null} for the standard streams and unknown descriptors
+     */
+    @TruffleBoundary
+    public static SeekableByteChannel getOpenChannel(int fd) {
+        if (fd < 3 || fd >= files.size()) {
+            return null;
+        }
+        return files.get(fd);
+    }
+
     private abstract static class PythonFileNode extends PythonBuiltinNode {
         protected SeekableByteChannel getFileChannel(int fd) {
             if (files.size() <= fd || fd < 3) {
@@ -276,6 +295,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "stat", fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class StatNode extends PythonBuiltinNode {
         private static final int S_IFIFO = 0010000;
@@ -396,6 +416,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "listdir", fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class ListdirNode extends PythonBuiltinNode {
         @Specialization
@@ -432,6 +453,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "open", minNumOfArguments = 2, maxNumOfArguments = 4, keywordArguments = {"mode", "dir_fd"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class OpenNode extends PythonFileNode {
         @Specialization(guards = {"isNoValue(mode)", "isNoValue(dir_fd)"})
@@ -536,6 +558,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "unlink", fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class UnlinkNode extends PythonFileNode {
         @Specialization
@@ -561,6 +584,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "mkdir", fixedNumOfArguments = 1, keywordArguments = {"mode", "dir_fd"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class MkdirNode extends PythonFileNode {
         @Specialization
@@ -584,15 +608,19 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class WriteNode extends PythonFileNode {
         @Specialization(guards = {"fd <= 2", "fd > 0"})
-        @TruffleBoundary
         Object writeStd(int fd, byte[] data) {
+            return writeStd(fd, data, 0, data.length);
+        }
+
+        @TruffleBoundary
+        private Object writeStd(int fd, byte[] data, int offset, int length) {
             try {
                 switch (fd) {
                     case 1:
-                        getContext().getStandardOut().write(data);
+                        getContext().getStandardOut().write(data, offset, length);
                         break;
                     case 2:
-                        getContext().getStandardErr().write(data);
+                        getContext().getStandardErr().write(data, offset, length);
                         break;
                 }
             } catch (IOException e) {
@@ -602,10 +630,14 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         }
 
         @Specialization(guards = "fd == 0 || fd > 2")
-        @TruffleBoundary
         Object write(int fd, byte[] data) {
+            return write(fd, data, 0, data.length);
+        }
+
+        @TruffleBoundary
+        private Object write(int fd, byte[] data, int offset, int length) {
             try {
-                return getFileChannel(fd).write(ByteBuffer.wrap(data));
+                return getFileChannel(fd).write(ByteBuffer.wrap(data, offset, length));
             } catch (NonWritableChannelException | IOException e) {
                 throw raise(OSError, e.getMessage());
             }
@@ -634,27 +666,41 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         }
 
         @Specialization(guards = "fd == 0 || fd > 2")
-        @TruffleBoundary
         Object write(int fd, PBytes data) {
-            return write(fd, data.getInternalByteArray());
+            return write(fd, data.getInternalByteArray(), 0, data.len());
         }
 
         @Specialization(guards = {"fd <= 2", "fd > 0"})
-        @TruffleBoundary
         Object writeStd(int fd, PBytes data) {
-            return writeStd(fd, data.getInternalByteArray());
+            return writeStd(fd, data.getInternalByteArray(), 0, data.len());
         }
 
         @Specialization(guards = "fd == 0 || fd > 2")
-        @TruffleBoundary
         Object write(int fd, PByteArray data) {
-            return write(fd, data.getInternalByteArray());
+            return write(fd, data.getInternalByteArray(), 0, data.len());
         }
 
         @Specialization(guards = {"fd <= 2", "fd > 0"})
-        @TruffleBoundary
         Object writeStd(int fd, PByteArray data) {
-            return writeStd(fd, data.getInternalByteArray());
+            return writeStd(fd, data.getInternalByteArray(), 0, data.len());
+        }
+
+        @Specialization(guards = "fd == 0 || fd > 2")
+        Object write(int fd, PMemoryView data) {
+            byte[] array = data.checkAccessible().getContiguousByteArray();
+            if (array != null) {
+                return write(fd, array, data.getOffset(), data.getNBytes());
+            }
+            return write(fd, data.toBytes());
+        }
+
+        @Specialization(guards = {"fd <= 2", "fd > 0"})
+        Object writeStd(int fd, PMemoryView data) {
+            byte[] array = data.checkAccessible().getContiguousByteArray();
+            if (array != null) {
+                return writeStd(fd, array, data.getOffset(), data.getNBytes());
+            }
+            return writeStd(fd, data.toBytes());
         }
     }
 
@@ -679,6 +725,53 @@ public class PosixModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    // readv(fd, buffers)
+    @Builtin(name = "readv", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ReadvNode extends PythonFileNode {
+        @Specialization
+        @TruffleBoundary
+        long readv(int fd, PSequence buffers) {
+            SeekableByteChannel channel = getFileChannel(fd);
+            long total = 0;
+            for (int i = 0; i < buffers.len(); i++) {
+                PMemoryView view = asWritableView(buffers.getItem(i));
+                int length = view.getNBytes();
+                byte[] array = view.getContiguousByteArray();
+                // contiguous byte storage is read into directly, other buffers through a copy
+                ByteBuffer dst = array != null ? ByteBuffer.wrap(array, view.getOffset(), length) : ByteBuffer.wrap(view.toBytes());
+                try {
+                    channel.read(dst);
+                } catch (IOException e) {
+                    throw raise(OSError, e.getMessage());
+                }
+                int read = length - dst.remaining();
+                if (array == null) {
+                    view.setBytes(dst.array(), 0);
+                }
+                total += read;
+                if (read < length) {
+                    break;
+                }
+            }
+            return total;
+        }
+
+        private PMemoryView asWritableView(Object object) {
+            PMemoryView view;
+            if (object instanceof PMemoryView) {
+                view = ((PMemoryView) object).checkAccessible();
+            } else {
+                MemoryBuffer buffer = MemoryBuffer.forObject(object);
+                view = buffer != null ? factory().createMemoryView(buffer) : null;
+            }
+            if (view == null || view.isReadOnly()) {
+                throw raise(TypeError, "readv() arg 2 must contain only writable bytes-like objects");
+            }
+            return view;
+        }
+    }
+
     @Builtin(name = "isatty", fixedNumOfArguments = 1)
     @GenerateNodeFactory
     public abstract static class IsATTYNode extends PythonBuiltinNode {
@@ -707,6 +800,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "chmod", minNumOfArguments = 2, keywordArguments = {"dir_fd", "follow_symlinks"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class ChmodNode extends PythonBuiltinNode {
         @Specialization
@@ -732,6 +826,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "utime", minNumOfArguments = 1, keywordArguments = {"times", "ns", "dir_fd", "follow_symlinks"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class UtimeNode extends PythonBuiltinNode {
         @SuppressWarnings("unused")
@@ -835,6 +930,7 @@ public class PosixModuleBuiltins extends PythonBuiltins {
 
     // FIXME: this is not nearly ready, just good enough for now
     @Builtin(name = "system", fixedNumOfArguments = 1)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     abstract static class SystemNode extends PythonBuiltinNode {
         static final String[] shell = System.getProperty("os.name").toLowerCase().startsWith("windows") ? new String[]{"cmd.exe", "/c"}
@@ -25,222 +25,337 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
-import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
-import java.util.Random;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.random.PRandom;
+import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
+import com.oracle.graal.python.builtins.objects.random.RandomBuiltins.StateNode;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 
+/**
+ * The module level functions of {@code random}. They share one Mersenne Twister per context, so
+ * their streams and states are those of CPython's {@code random} module for the same seed.
+ */
 @CoreFunctions(defineModule = "random")
 public class RandomModuleBuiltins extends PythonBuiltins {
 
+    /**
+     * The version of the state tuples returned by {@code getstate}.
+     */
+    private static final int STATE_VERSION = 3;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
         return RandomModuleBuiltinsFactory.getFactories();
     }
 
-    // TODO: put the RNG into the context
-    protected static java.util.Random javaRandom = new java.util.Random();
+    abstract static class RandomFunctionNode extends PythonBuiltinNode {
 
-    @Builtin(name = "seed", fixedNumOfArguments = 1)
-    @GenerateNodeFactory
-    public abstract static class SeedNode extends PythonBuiltinNode {
+        protected final PRandom getRandom() {
+            PythonContext context = getContext();
+            PRandom random = context.getRandom();
+            if (random == null) {
+                CompilerDirectives.transferToInterpreter();
+                random = getCore().factory().createRandom();
+                random.seedFromEntropy();
+                context.setRandom(random);
+            }
+            return random;
+        }
+    }
 
-        @SuppressWarnings("unused")
+    @Builtin(name = "seed", minNumOfArguments = 0, maxNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class SeedNode extends RandomFunctionNode {
         @Specialization
-        @TruffleBoundary
-        public PNone seed(PNone none) {
-            javaRandom.setSeed(System.currentTimeMillis());
+        PNone seed(Object seed,
+                        @Cached("create()") RandomBuiltins.SeedNode seedNode) {
+            seedNode.execute(getRandom(), seed);
             return PNone.NONE;
         }
+    }
 
+    @Builtin(name = "jumpahead", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class JumpAheadNode extends RandomFunctionNode {
         @Specialization
-        public PNone seed(int inputSeed) {
-            javaRandom.setSeed(inputSeed);
+        PNone jumpahead(long jumps) {
+            PRandom random = getRandom();
+            for (long i = jumps; i > 0; i--) {
+                random.nextInt();
+            }
             return PNone.NONE;
         }
+    }
 
+    @Builtin(name = "getstate", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    public abstract static class GetStateNode extends RandomFunctionNode {
         @Specialization
-        public PNone seed(PInt inputSeed) {
-            javaRandom.setSeed(inputSeed.longValue());
-            return PNone.NONE;
+        PTuple getstate(@Cached("create()") StateNode stateNode) {
+            return factory().createTuple(new Object[]{STATE_VERSION, stateNode.getState(getRandom()), PNone.NONE});
         }
+    }
 
+    @Builtin(name = "setstate", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends RandomFunctionNode {
         @Specialization
-        public PNone seed(double inputSeed) {
-            javaRandom.setSeed((long) ((Long.MAX_VALUE - inputSeed) * 412316924));
+        PNone setstate(PTuple state,
+                        @Cached("create()") StateNode stateNode) {
+            Object[] items = state.getArray();
+            if (items.length != 3 || !(items[0] instanceof Integer) || (int) items[0] != STATE_VERSION) {
+                throw raise(ValueError, "state with version %s passed to Random.setstate() of version %s", items.length > 0 ? items[0] : PNone.NONE, STATE_VERSION);
+            }
+            stateNode.setState(getRandom(), items[1]);
             return PNone.NONE;
         }
 
-        @Specialization
-        @TruffleBoundary
-        public PNone seed(Object inputSeed) {
-            javaRandom.setSeed(System.identityHashCode(inputSeed));
-            return PNone.NONE;
+        @Fallback
+        Object setstate(Object state) {
+            throw raise(TypeError, "state vector must be a tuple, not %p", state);
         }
     }
 
-    @Builtin(name = "jumpahead", fixedNumOfArguments = 1)
+    @Builtin(name = "random", fixedNumOfArguments = 0)
     @GenerateNodeFactory
-    public abstract static class JumpAheadNode extends PythonBuiltinNode {
+    public abstract static class RandomNode extends RandomFunctionNode {
         @Specialization
-        @TruffleBoundary
-        public PNone jumpahead(int jumps) {
-            for (int i = jumps; i > 0; i--) {
-                javaRandom.nextInt();
-            }
-            return PNone.NONE;
+        double random() {
+            return getRandom().nextDouble();
         }
+    }
 
+    // _randoms(n) is [random() for _ in range(n)] without boxing each value
+    @Builtin(name = "_randoms", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class RandomsNode extends RandomFunctionNode {
         @Specialization
-        @TruffleBoundary
-        public PNone jumpahead(double jumps) {
-            for (double i = jumps; i > 0; i--) {
-                javaRandom.nextInt();
+        PList randoms(int n) {
+            if (n < 0) {
+                throw raise(ValueError, "negative count");
             }
-            return PNone.NONE;
+            return RandomBuiltins.getRandomDoubles(factory(), getRandom(), n);
         }
     }
 
-    @Builtin(name = "setstate", fixedNumOfArguments = 1)
+    @Builtin(name = "getrandbits", fixedNumOfArguments = 1)
     @GenerateNodeFactory
-    public abstract static class SetStateNode extends PythonBuiltinNode {
-
+    public abstract static class GetRandBitsNode extends RandomFunctionNode {
         @Specialization
-        @TruffleBoundary
-        public PNone setstate(PTuple tuple) {
-            Object[] arr = tuple.getArray();
-            if (arr.length == 1) {
-                Object object = arr[0];
-                if (object instanceof Long) {
-                    javaRandom = new Random((Long) object);
-                    return PNone.NONE;
-                }
+        Object getrandbits(int k) {
+            if (k < 0) {
+                throw raise(ValueError, "number of bits must be non-negative");
             }
-            throw raise(SystemError, "state vector invalid.");
+            return RandomBuiltins.getRandomBits(factory(), getRandom(), k);
         }
     }
 
-    // TODO: randrange is not part of _random
-    @Builtin(name = "randrange", fixedNumOfArguments = 1)
-    @GenerateNodeFactory
-    public abstract static class RandRangeNode extends PythonBuiltinNode {
-
-        @Specialization
-        @TruffleBoundary
-        public int randrange(int stop) {
-            double scaled = javaRandom.nextDouble() * stop;
-
-            while (scaled > stop) {
-                scaled = javaRandom.nextDouble() * stop;
+    /**
+     * Draws like {@code random.randrange} and {@code random.randint}, so that the results match
+     * CPython's for the same state.
+     */
+    abstract static class RangeNode extends RandomFunctionNode {
+        protected static final long MAX = Long.MAX_VALUE;
+
+        protected final long randrange(long start, long stop) {
+            long width = stop - start;
+            if (stop <= start) {
+                throw raise(ValueError, "empty range for randrange() (%d,%d, %d)", start, stop, width);
             }
+            if (width < 0) {
+                // the width overflows
+                return bigRandrange(BigInteger.valueOf(start), BigInteger.valueOf(stop), BigInteger.ONE).longValue();
+            }
+            return start + getRandom().nextBelow(width);
+        }
 
-            assert scaled <= stop;
-            return (int) scaled;
+        protected final Object randrange(Object start, Object stop, Object step) {
+            return factory().createInt(bigRandrange(toBigInteger(start, 1), toBigInteger(stop, 2), step == PNone.NO_VALUE ? BigInteger.ONE : toBigInteger(step, 3)));
         }
 
-        @Specialization
         @TruffleBoundary
-        public long randrange(long stop) {
-            double scaled = javaRandom.nextDouble() * stop;
+        protected final Object randint(BigInteger a, BigInteger b) {
+            return factory().createInt(bigRandrange(a, b.add(BigInteger.ONE), BigInteger.ONE));
+        }
 
-            while (scaled > stop) {
-                scaled = javaRandom.nextDouble() * stop;
+        protected final BigInteger toBigInteger(Object value, int argNum) {
+            if (value instanceof Integer) {
+                return BigInteger.valueOf((int) value);
+            } else if (value instanceof Long) {
+                return BigInteger.valueOf((long) value);
+            } else if (value instanceof Boolean) {
+                return (boolean) value ? BigInteger.ONE : BigInteger.ZERO;
+            } else if (value instanceof PInt) {
+                return ((PInt) value).getValue();
             }
-
-            assert scaled <= stop;
-            return (long) scaled;
+            throw raise(ValueError, "non-integer arg %d for randrange()", argNum);
         }
 
-        @Specialization
         @TruffleBoundary
-        public PInt randrange(PInt stop) {
-            double stopDouble = stop.getValue().doubleValue();
-
-            double scaled = javaRandom.nextDouble() * stopDouble;
-
-            while (scaled > stopDouble) {
-                scaled = javaRandom.nextDouble() * stopDouble;
+        private BigInteger bigRandrange(BigInteger start, BigInteger stop, BigInteger step) {
+            BigInteger width = stop.subtract(start);
+            BigInteger n;
+            if (step.signum() > 0) {
+                n = width.add(step).subtract(BigInteger.ONE).divide(step);
+            } else if (step.signum() < 0) {
+                n = width.add(step).add(BigInteger.ONE).divide(step);
+            } else {
+                throw raise(ValueError, "zero step for randrange()");
             }
-
-            assert scaled <= stopDouble;
-            return factory().createInt(BigDecimal.valueOf(scaled).toBigInteger());
+            if (n.signum() <= 0) {
+                throw raise(ValueError, "empty range for randrange()");
+            }
+            return start.add(step.multiply(getRandom().nextBelow(n)));
         }
     }
 
-    @Builtin(name = "getstate", fixedNumOfArguments = 0)
+    @Builtin(name = "randrange", minNumOfArguments = 1, maxNumOfArguments = 3)
     @GenerateNodeFactory
-    public abstract static class GetStateNode extends PythonBuiltinNode {
+    public abstract static class RandRangeNode extends RangeNode {
 
-        @SuppressWarnings("unused")
-        @Specialization
-        @TruffleBoundary
-        public PTuple getstate(PNone none) {
-            return factory().createTuple(new Object[]{javaRandom.nextLong()});
+        // with a single argument, it is the stop of the range
+        @Specialization(guards = {"isNoValue(stop)", "isNoValue(step)"})
+        long randrange(long start, @SuppressWarnings("unused") PNone stop, @SuppressWarnings("unused") PNone step) {
+            if (start <= 0) {
+                throw raise(ValueError, "empty range for randrange()");
+            }
+            return getRandom().nextBelow(start);
         }
-    }
 
-    @Builtin(name = "random", fixedNumOfArguments = 0)
-    @GenerateNodeFactory
-    public abstract static class RandomNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(step)")
+        long randrange(long start, long stop, @SuppressWarnings("unused") PNone step) {
+            return randrange(start, stop);
+        }
 
-        @Specialization
-        @TruffleBoundary
-        public double random() {
-            return javaRandom.nextDouble();
+        @Specialization(guards = "isNoValue(stop)")
+        Object randrange(Object start, @SuppressWarnings("unused") PNone stop, Object step) {
+            return randrange(0, start, step);
+        }
+
+        @Specialization(guards = "!isNoValue(stop)")
+        Object randrangeGeneric(Object start, Object stop, Object step) {
+            return randrange(start, stop, step);
         }
     }
 
-    @Builtin(name = "getrandbits", fixedNumOfArguments = 1)
+    @Builtin(name = "randint", fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    public abstract static class GetRandBitsNode extends PythonBuiltinNode {
+    public abstract static class RandIntNode extends RangeNode {
 
-        @TruffleBoundary
-        private static BigInteger createRandomBits(int k) {
-            return new BigInteger(k, javaRandom);
+        @Specialization(guards = "b != MAX")
+        long randint(long a, long b) {
+            return randrange(a, b + 1);
         }
 
-        @Specialization
-        public PInt getrandbits(int k) {
-            return factory().createInt(createRandomBits(k));
+        @Fallback
+        Object randint(Object a, Object b) {
+            return randint(toBigInteger(a, 1), toBigInteger(b, 2));
         }
     }
 
-    @Builtin(name = "randint", fixedNumOfArguments = 2)
+    @Builtin(name = "uniform", fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    public abstract static class RandIntNode extends PythonBuiltinNode {
+    public abstract static class UniformNode extends RandomFunctionNode {
 
         @Specialization
-        @TruffleBoundary
-        public int randint(int a, int b) {
-            assert a <= b;
-            return javaRandom.nextInt(b - a) + a;
+        double uniform(double a, double b) {
+            return a + (b - a) * getRandom().nextDouble();
+        }
+
+        @Specialization
+        double uniform(long a, long b) {
+            return uniform((double) a, (double) b);
+        }
+
+        @Fallback
+        Object uniform(Object a, Object b) {
+            throw raise(TypeError, "unsupported operand type(s) for -: '%p' and '%p'", b, a);
         }
     }
 
-    @Builtin(name = "uniform", fixedNumOfArguments = 2)
+    @Builtin(name = "shuffle", fixedNumOfArguments = 1)
     @GenerateNodeFactory
-    public abstract static class UniformNode extends PythonBuiltinNode {
+    public abstract static class ShuffleNode extends RandomFunctionNode {
 
+        /*
+         * Fisher-Yates in the order of Random.shuffle, swapping directly in the storage; a swap
+         * never changes the kind of storage a list needs.
+         */
         @Specialization
-        @TruffleBoundary
-        public double uniform(double a, double b) {
-            assert a <= b;
-            return (b - a) * javaRandom.nextDouble() + a;
+        PNone shuffle(PList list) {
+            PRandom random = getRandom();
+            SequenceStorage store = list.getSequenceStorage();
+            if (store instanceof IntSequenceStorage) {
+                int[] values = ((IntSequenceStorage) store).getInternalIntArray();
+                for (int i = store.length() - 1; i > 0; i--) {
+                    int j = (int) random.nextBelow(i + 1);
+                    int tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            } else if (store instanceof LongSequenceStorage) {
+                long[] values = ((LongSequenceStorage) store).getInternalLongArray();
+                for (int i = store.length() - 1; i > 0; i--) {
+                    int j = (int) random.nextBelow(i + 1);
+                    long tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            } else if (store instanceof DoubleSequenceStorage) {
+                double[] values = ((DoubleSequenceStorage) store).getInternalDoubleArray();
+                for (int i = store.length() - 1; i > 0; i--) {
+                    int j = (int) random.nextBelow(i + 1);
+                    double tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            } else if (store instanceof ObjectSequenceStorage) {
+                Object[] values = store.getInternalArray();
+                for (int i = store.length() - 1; i > 0; i--) {
+                    int j = (int) random.nextBelow(i + 1);
+                    Object tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                }
+            } else {
+                for (int i = store.length() - 1; i > 0; i--) {
+                    int j = (int) random.nextBelow(i + 1);
+                    Object tmp = store.getItemNormalized(i);
+                    store.setItemNormalized(i, store.getItemNormalized(j));
+                    store.setItemNormalized(j, tmp);
+                }
+            }
+            return PNone.NONE;
         }
-    }
 
+        @Fallback
+        Object shuffle(Object x) {
+            throw raise(TypeError, "'%p' object does not support item assignment", x);
+        }
+    }
 }
@@ -38,18 +38,176 @@
  */
 package com.oracle.graal.python.builtins.modules;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.sre.PSREMatch;
+import com.oracle.graal.python.builtins.objects.sre.PSREPattern;
+import com.oracle.graal.python.builtins.objects.sre.PSREScanner;
+import com.oracle.graal.python.builtins.objects.sre.PythonRegexTranslator;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * The {@code _sre} module. Instead of interpreting the code produced by {@code sre_compile}, the
+ * original pattern is translated to a {@link Pattern}; see {@link PythonRegexTranslator}.
+ */
 @CoreFunctions(defineModule = "_sre")
 public class SREModuleBuiltins extends PythonBuiltins {
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
-        return new ArrayList<>();
+        return SREModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("CODESIZE", 4);
+        builtinConstants.put("MAGIC", 20140917);
+        builtinConstants.put("MAXREPEAT", 4294967295L);
+        builtinConstants.put("MAXGROUPS", 2147483647);
+    }
+
+    // compile(pattern, flags, code, groups, groupindex, indexgroup)
+    @Builtin(name = "compile", fixedNumOfArguments = 6)
+    @GenerateNodeFactory
+    abstract static class CompileNode extends PythonBuiltinNode {
+        @Specialization
+        Object compile(Object pattern, int flags, @SuppressWarnings("unused") Object code, int groups, Object groupindex, Object indexgroup,
+                        @Cached("create()") GetAttributeNode getError,
+                        @Cached("create()") CallNode callError) {
+            String source;
+            boolean bytes;
+            if (pattern instanceof String) {
+                source = (String) pattern;
+                bytes = false;
+            } else if (pattern instanceof PString) {
+                source = ((PString) pattern).getValue();
+                bytes = false;
+            } else if (pattern instanceof PIBytesLike) {
+                source = PSREPattern.decode(((PIBytesLike) pattern).getInternalByteArray(), ((PSequence) pattern).len());
+                bytes = true;
+            } else {
+                throw raise(TypeError, "cannot compile a pre-parsed pattern");
+            }
+            Pattern regex;
+            try {
+                regex = translate(source, flags, !bytes);
+            } catch (IllegalArgumentException e) {
+                throw raiseError(getMessage(e), getError, callError);
+            }
+            return factory().createSREPattern(pattern, flags, groups, groupindex, toNames(indexgroup, groups), bytes, regex);
+        }
+
+        @TruffleBoundary
+        private static Pattern translate(String source, int flags, boolean unicode) {
+            return PythonRegexTranslator.compile(source, flags, unicode);
+        }
+
+        @TruffleBoundary
+        private static String getMessage(IllegalArgumentException e) {
+            return e.getMessage();
+        }
+
+        @TruffleBoundary
+        private static String[] toNames(Object indexgroup, int groups) {
+            String[] names = new String[groups + 1];
+            Object[] items = indexgroup instanceof PTuple ? ((PTuple) indexgroup).getArray() : ((PSequence) indexgroup).getSequenceStorage().getCopyOfInternalArray();
+            for (int i = 0; i < items.length && i < names.length; i++) {
+                if (items[i] instanceof String) {
+                    names[i] = (String) items[i];
+                } else if (items[i] instanceof PString) {
+                    names[i] = ((PString) items[i]).getValue();
+                }
+            }
+            return names;
+        }
+
+        /**
+         * Raises {@code sre_constants.error}, the exception type {@code re.error} refers to.
+         */
+        private PException raiseError(String message, GetAttributeNode getError, CallNode callError) {
+            Object module = getContext().getSysModules().getItem("sre_constants");
+            if (module == null) {
+                throw raise(ValueError, message);
+            }
+            Object error = callError.execute(getError.execute(module, "error"), new Object[]{message}, PKeyword.EMPTY_KEYWORDS);
+            PException exception = new PException((PBaseException) error, this);
+            ((PBaseException) error).setException(exception);
+            throw exception;
+        }
+    }
+
+    @Builtin(name = "getcodesize", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class GetCodeSizeNode extends PythonBuiltinNode {
+        @Specialization
+        int getcodesize() {
+            return 4;
+        }
+    }
+
+    @Builtin(name = "getlower", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class GetLowerNode extends PythonBuiltinNode {
+        @Specialization
+        int getlower(int character, int flags) {
+            if ((flags & (PythonRegexTranslator.FLAG_LOCALE | PythonRegexTranslator.FLAG_UNICODE)) == 0 || (flags & PythonRegexTranslator.FLAG_ASCII) != 0) {
+                return character >= 'A' && character <= 'Z' ? character + ('a' - 'A') : character;
+            }
+            return toLowerCase(character);
+        }
+
+        @TruffleBoundary
+        private static int toLowerCase(int character) {
+            return Character.toLowerCase(character);
+        }
+    }
+
+    @Builtin(name = "SRE_Pattern", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PSREPattern.class, isPublic = false)
+    @GenerateNodeFactory
+    abstract static class SREPatternNode extends PythonBuiltinNode {
+        @Specialization
+        Object pattern(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object args) {
+            throw raise(TypeError, "cannot create '_sre.SRE_Pattern' instances");
+        }
+    }
+
+    @Builtin(name = "SRE_Match", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PSREMatch.class, isPublic = false)
+    @GenerateNodeFactory
+    abstract static class SREMatchNode extends PythonBuiltinNode {
+        @Specialization
+        Object match(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object args) {
+            throw raise(TypeError, "cannot create '_sre.SRE_Match' instances");
+        }
+    }
+
+    @Builtin(name = "SRE_Scanner", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PSREScanner.class, isPublic = false)
+    @GenerateNodeFactory
+    abstract static class SREScannerNode extends PythonBuiltinNode {
+        @Specialization
+        Object scanner(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object args) {
+            throw raise(TypeError, "cannot create '_sre.SRE_Scanner' instances");
+        }
     }
 }
@@ -215,7 +215,12 @@ public class SysModuleBuiltins extends PythonBuiltins {
             @Override
             public Object execute(VirtualFrame frame) {
                 CompilerDirectives.transferToInterpreter();
-                throw PythonLanguage.getCore().raise(ValueError);
+                // not raised through the core, which might skip capturing the stack
+                PythonCore core = PythonLanguage.getCore();
+                PBaseException exception = core.factory().createBaseException(core.getErrorClass(ValueError));
+                PException pException = new PException(exception, this);
+                exception.setException(pException);
+                throw pException;
             }
 
             @Override
@@ -314,4 +319,31 @@ public class SysModuleBuiltins extends PythonBuiltins {
             return factory().createString(s.intern());
         }
     }
+
+    @Builtin(name = "getswitchinterval", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class GetSwitchIntervalNode extends PythonBuiltinNode {
+        @Specialization
+        double getSwitchInterval() {
+            return getContext().getSwitchInterval();
+        }
+    }
+
+    @Builtin(name = "setswitchinterval", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class SetSwitchIntervalNode extends PythonBuiltinNode {
+        @Specialization
+        PNone setSwitchInterval(double interval) {
+            if (interval <= 0) {
+                throw raise(ValueError, "switch interval must be strictly positive");
+            }
+            getContext().setSwitchInterval(interval);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone setSwitchInterval(int interval) {
+            return setSwitchInterval((double) interval);
+        }
+    }
 }
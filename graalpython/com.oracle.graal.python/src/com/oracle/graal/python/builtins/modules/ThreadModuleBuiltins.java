@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.SystemExit;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.thread.PLock;
+import com.oracle.graal.python.builtins.objects.thread.PRLock;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.BuiltinNames;
+import com.oracle.graal.python.nodes.PRootNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+@CoreFunctions(defineModule = "_thread")
+public class ThreadModuleBuiltins extends PythonBuiltins {
+    public static final double TIMEOUT_MAX = Long.MAX_VALUE / 1e9;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return ThreadModuleBuiltinsFactory.getFactories();
+    }
+
+    @Override
+    public void initialize(PythonCore core) {
+        super.initialize(core);
+        builtinConstants.put("TIMEOUT_MAX", TIMEOUT_MAX);
+    }
+
+    @Builtin(name = "LockType", fixedNumOfArguments = 1, constructsClass = PLock.class)
+    @GenerateNodeFactory
+    abstract static class ConstructLockNode extends PythonBuiltinNode {
+        @Specialization
+        PLock construct(@SuppressWarnings("unused") Object cls) {
+            return factory().createLock();
+        }
+    }
+
+    @Builtin(name = "RLock", minNumOfArguments = 1, takesVariableArguments = true, constructsClass = PRLock.class)
+    @GenerateNodeFactory
+    abstract static class ConstructRLockNode extends PythonBuiltinNode {
+        @Specialization
+        PRLock construct(@SuppressWarnings("unused") Object cls, @SuppressWarnings("unused") Object args) {
+            return factory().createRLock();
+        }
+    }
+
+    @Builtin(name = "allocate_lock", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class AllocateLockNode extends PythonBuiltinNode {
+        @Specialization
+        PLock allocate() {
+            return factory().createLock();
+        }
+    }
+
+    @Builtin(name = "get_ident", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class GetIdentNode extends PythonBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        long getIdent() {
+            return Thread.currentThread().getId();
+        }
+    }
+
+    @Builtin(name = "_count", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class CountNode extends PythonBuiltinNode {
+        @Specialization
+        int count() {
+            return getContext().getThreadCount().get();
+        }
+    }
+
+    @Builtin(name = "_set_sentinel", fixedNumOfArguments = 0)
+    @GenerateNodeFactory
+    abstract static class SetSentinelNode extends PythonBuiltinNode {
+        @Specialization
+        PLock setSentinel() {
+            PLock sentinel = factory().createLock();
+            getContext().getThreadState().setSentinelLock(sentinel);
+            return sentinel;
+        }
+    }
+
+    @Builtin(name = "stack_size", maxNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class StackSizeNode extends PythonBuiltinNode {
+        // threads are created with the default stack size of the JVM, which we report as 0
+        @Specialization
+        int getStackSize(@SuppressWarnings("unused") PNone size) {
+            return 0;
+        }
+
+        @Specialization
+        int setStackSize(int size) {
+            if (size != 0 && size < 32768) {
+                throw raise(ValueError, "size not valid: %d bytes", size);
+            }
+            return 0;
+        }
+    }
+
+    @Builtin(name = "start_new_thread", minNumOfArguments = 2, maxNumOfArguments = 3)
+    @GenerateNodeFactory
+    abstract static class StartNewThreadNode extends PythonBuiltinNode {
+        private RootCallTarget threadBody;
+
+        @Specialization
+        long start(Object function, PTuple args, Object kwargs) {
+            PKeyword[] keywords;
+            if (kwargs instanceof PDict) {
+                keywords = toKeywords((PDict) kwargs);
+            } else if (kwargs == PNone.NO_VALUE) {
+                keywords = PKeyword.EMPTY_KEYWORDS;
+            } else {
+                throw raise(TypeError, "optional 3rd arg must be a dictionary");
+            }
+            return startThread(getContext(), function, args.getArray(), keywords);
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        long start(Object function, Object args, Object kwargs) {
+            throw raise(TypeError, "2nd arg must be a tuple");
+        }
+
+        @TruffleBoundary
+        private static PKeyword[] toKeywords(PDict kwargs) {
+            PKeyword[] keywords = new PKeyword[kwargs.size()];
+            Iterator<DictEntry> iterator = kwargs.entries().iterator();
+            for (int i = 0; i < keywords.length; i++) {
+                DictEntry entry = iterator.next();
+                keywords[i] = new PKeyword(entry.getKey().toString(), entry.getValue());
+            }
+            return keywords;
+        }
+
+        @TruffleBoundary
+        private long startThread(PythonContext context, Object function, Object[] arguments, PKeyword[] keywords) {
+            if (threadBody == null) {
+                threadBody = Truffle.getRuntime().createCallTarget(new ThreadRootNode(getRootNode().getLanguage(PythonLanguage.class)));
+            }
+            RootCallTarget body = threadBody;
+            context.enterMultiThreaded();
+            Thread thread = context.getEnv().createThread(() -> body.call(context, function, arguments, keywords));
+            context.getThreadCount().incrementAndGet();
+            thread.start();
+            return thread.getId();
+        }
+    }
+
+    /**
+     * The body of a thread started with {@code start_new_thread}. Every thread runs in its own
+     * invocation of this root, so the call nodes it specializes belong to a call target rather
+     * than to the builtin node of the thread that started it.
+     */
+    private static final class ThreadRootNode extends PRootNode {
+        @Child private CallNode callNode = CallNode.create();
+
+        ThreadRootNode(PythonLanguage language) {
+            super(language);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            Object[] args = frame.getArguments();
+            PythonContext context = (PythonContext) args[0];
+            Object function = args[1];
+            context.acquireGil();
+            try {
+                callNode.execute(function, (Object[]) args[2], (PKeyword[]) args[3]);
+            } catch (PException e) {
+                if (e.getType() != context.getCore().getErrorClass(SystemExit)) {
+                    printUnhandledException(context, function, e);
+                }
+            } finally {
+                PLock sentinel = context.getThreadState().getSentinelLock();
+                if (sentinel != null) {
+                    sentinel.release();
+                }
+                context.getThreadCount().decrementAndGet();
+                context.releaseGil();
+            }
+            return PNone.NONE;
+        }
+
+        @TruffleBoundary
+        private void printUnhandledException(PythonContext context, Object function, PException e) {
+            try {
+                context.getStandardErr().write(("Unhandled exception in thread started by " + function + "\n").getBytes());
+                PBaseException value = e.getExceptionObject();
+                PythonModule sys = context.lookupBuiltinModule("sys");
+                Object hook = sys.getAttribute(BuiltinNames.EXCEPTHOOK);
+                if (hook != PNone.NO_VALUE) {
+                    callNode.execute(hook, new Object[]{value.getPythonClass(), value, value.getTraceback(context.getCore().factory())}, PKeyword.EMPTY_KEYWORDS);
+                }
+            } catch (IOException | PException ignored) {
+                // nothing left to report the error to
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "start_new_thread";
+        }
+    }
+}
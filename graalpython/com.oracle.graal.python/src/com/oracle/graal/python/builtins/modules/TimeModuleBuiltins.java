@@ -32,6 +32,7 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -106,6 +107,29 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         Object sleep(long seconds) {
+            // other threads may run while this one sleeps
+            PythonContext context = getContext();
+            int holds = context.releaseGil();
+            try {
+                return doSleep(seconds);
+            } finally {
+                context.reacquireGil(holds);
+            }
+        }
+
+        @Specialization
+        @TruffleBoundary
+        Object sleep(double seconds) {
+            PythonContext context = getContext();
+            int holds = context.releaseGil();
+            try {
+                return doSleep(seconds);
+            } finally {
+                context.reacquireGil(holds);
+            }
+        }
+
+        private static Object doSleep(long seconds) {
             long secs = seconds;
 
             long deadline = (long) timeSeconds() + secs;
@@ -124,9 +148,7 @@ public final class TimeModuleBuiltins extends PythonBuiltins {
             return PNone.NONE;
         }
 
-        @Specialization
-        @TruffleBoundary
-        Object sleep(double seconds) {
+        private static Object doSleep(double seconds) {
             double secs = seconds;
 
             double deadline = timeSeconds() + secs;
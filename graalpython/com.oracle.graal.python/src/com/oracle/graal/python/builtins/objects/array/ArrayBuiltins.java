@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2017, Oracle and/or its affiliates.
- * Copyright (c) 2014, Regents of the University of California
+ * Copyright (c) 2013, Regents of the University of California
  *
  * All rights reserved.
  *
@@ -25,135 +25,830 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__COPY__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.EOFError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
-import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
+import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PBaseNode;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.SequenceUtil.NormalizeIndexNode;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = PArray.class)
 public class ArrayBuiltins extends PythonBuiltins {
 
+    private static final String OUT_OF_BOUNDS = "array index out of range";
+    private static final String ASSIGN_OUT_OF_BOUNDS = "array assignment index out of range";
+
+    /**
+     * The amount of data written per call of {@code write} in {@code tofile}, so that large arrays
+     * are not copied into a single bytes object.
+     */
+    private static final int BLOCK_SIZE = 64 * 1024;
+
     @Override
     protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
         return ArrayBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = SpecialMethodNames.__ADD__, fixedNumOfArguments = 2)
+    /**
+     * Appends all items of an iterable to an array. Arrays of the same typecode are copied in bulk,
+     * lists and tuples are read from their storage.
+     */
+    public static final class ExtendNode extends PBaseNode {
+        @Child private GetIteratorNode getIterator;
+        @Child private GetNextNode next;
+        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+
+        public static ExtendNode create() {
+            return new ExtendNode();
+        }
+
+        public void execute(PArray self, Object iterable) {
+            if (iterable instanceof PArray && ((PArray) iterable).getTypeCode() == self.getTypeCode()) {
+                self.extend((PArray) iterable);
+            } else if (iterable instanceof PList || iterable instanceof PTuple) {
+                SequenceStorage store = ((PSequence) iterable).getSequenceStorage();
+                for (int i = 0; i < store.length(); i++) {
+                    self.append(store.getItemNormalized(i));
+                }
+            } else {
+                if (getIterator == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getIterator = insert(GetIteratorNode.create());
+                    next = insert(GetNextNode.create());
+                }
+                Object iterator = getIterator.executeWith(iterable);
+                while (true) {
+                    Object value;
+                    try {
+                        value = next.execute(iterator);
+                    } catch (PException e) {
+                        e.expectStopIteration(getCore(), errorProfile);
+                        return;
+                    }
+                    self.append(value);
+                }
+            }
+        }
+    }
+
+    abstract static class ArraySearchNode extends PythonBuiltinNode {
+        @Child private BinaryComparisonNode eqNode = BinaryComparisonNode.create(__EQ__, __EQ__, "==");
+
+        protected final int find(PArray self, Object value, int start, int stop) {
+            for (int i = start; i < stop && i < self.len(); i++) {
+                if (eqNode.executeBool(self.getItemNormalized(i), value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    abstract static class IndexedNode extends PythonBuiltinNode {
+        @Child private NormalizeIndexNode normalize = NormalizeIndexNode.create();
+
+        protected final int normalize(PArray self, Object index, String message) {
+            if (index instanceof Integer) {
+                return normalize.execute((int) index, self.len(), message);
+            } else if (index instanceof Long) {
+                return normalize.execute((long) index, self.len(), message);
+            } else if (index instanceof PInt) {
+                return normalize.execute((PInt) index, self.len(), message);
+            }
+            throw raise(TypeError, "array indices must be integers");
+        }
+    }
+
+    @Builtin(name = "typecode", fixedNumOfArguments = 1, isGetter = true)
     @GenerateNodeFactory
-    abstract static class AddNode extends PythonBuiltinNode {
+    public abstract static class TypeCodeNode extends PythonBuiltinNode {
         @Specialization
-        PLongArray doPArray(PLongArray left, PLongArray right) {
-            long[] joined = new long[left.len() + right.len()];
-            System.arraycopy(left.getSequence(), 0, joined, 0, left.len());
-            System.arraycopy(right.getSequence(), 0, joined, left.len(), right.len());
-            return factory().createLongArray(joined);
+        String typeCode(PArray self) {
+            return String.valueOf(self.getTypeCode());
         }
+    }
 
+    @Builtin(name = "itemsize", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ItemSizeNode extends PythonBuiltinNode {
         @Specialization
-        PCharArray doPArray(PCharArray left, PCharArray right) {
-            char[] joined = new char[left.len() + right.len()];
-            System.arraycopy(left.getSequence(), 0, joined, 0, left.len());
-            System.arraycopy(right.getSequence(), 0, joined, left.len(), right.len());
-            return factory().createCharArray(joined);
+        int itemSize(PArray self) {
+            return self.getItemSize();
         }
+    }
 
+    @Builtin(name = "append", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class AppendNode extends PythonBuiltinNode {
         @Specialization
-        PDoubleArray doPArray(PDoubleArray left, PDoubleArray right) {
-            double[] joined = new double[left.len() + right.len()];
-            System.arraycopy(left.getSequence(), 0, joined, 0, left.len());
-            System.arraycopy(right.getSequence(), 0, joined, left.len(), right.len());
-            return factory().createDoubleArray(joined);
+        PNone append(PArray self, Object value) {
+            self.append(value);
+            return PNone.NONE;
         }
+    }
 
+    @Builtin(name = "extend", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ExtendBuiltinNode extends PythonBuiltinNode {
         @Specialization
-        PIntArray doPArray(PIntArray left, PIntArray right) {
-            int[] joined = new int[left.len() + right.len()];
-            System.arraycopy(left.getSequence(), 0, joined, 0, left.len());
-            System.arraycopy(right.getSequence(), 0, joined, left.len(), right.len());
-            return factory().createIntArray(joined);
+        PNone extend(PArray self, Object iterable,
+                        @Cached("create()") ExtendNode extendNode) {
+            if (iterable instanceof PArray && ((PArray) iterable).getTypeCode() != self.getTypeCode()) {
+                throw raise(TypeError, "can only extend with array of same kind");
+            }
+            extendNode.execute(self, iterable);
+            return PNone.NONE;
         }
     }
 
-    @Builtin(name = SpecialMethodNames.__RMUL__, fixedNumOfArguments = 2)
+    @Builtin(name = "insert", fixedNumOfArguments = 3)
     @GenerateNodeFactory
-    abstract static class RMulNode extends PythonBuiltinNode {
+    public abstract static class InsertNode extends PythonBuiltinNode {
         @Specialization
-        PLongArray doIntPArray(PLongArray right, int left) {
-            long[] newArray = new long[left * right.len()];
-            int count = 0;
-            for (int i = 0; i < left; i++) {
-                for (int j = 0; j < right.len(); j++) {
-                    newArray[count++] = right.getSequence()[i];
-                }
+        PNone insert(PArray self, long index, Object value) {
+            long idx = index < 0 ? index + self.len() : index;
+            self.insert((int) Math.max(0, Math.min(idx, self.len())), value);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone insert(PArray self, PInt index, Object value) {
+            self.insert(index.isZeroOrPositive() ? self.len() : 0, value);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object insert(@SuppressWarnings("unused") Object self, Object index, @SuppressWarnings("unused") Object value) {
+            throw raise(TypeError, "an integer is required (got type %p)", index);
+        }
+    }
+
+    @Builtin(name = "pop", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class PopNode extends IndexedNode {
+        @Specialization
+        Object pop(PArray self, Object index) {
+            if (self.len() == 0) {
+                throw raise(IndexError, "pop from empty array");
             }
-            return factory().createLongArray(newArray);
+            int idx = index == PNone.NO_VALUE ? self.len() - 1 : normalize(self, index, "pop index out of range");
+            return self.pop(idx);
         }
+    }
 
+    @Builtin(name = "remove", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class RemoveNode extends ArraySearchNode {
         @Specialization
-        PCharArray doIntPArray(PCharArray right, int left) {
-            char[] newArray = new char[left * right.len()];
-            int count = 0;
-            for (int i = 0; i < left; i++) {
-                for (int j = 0; j < right.len(); j++) {
-                    newArray[count++] = right.getSequence()[i];
-                }
+        PNone remove(PArray self, Object value) {
+            int idx = find(self, value, 0, self.len());
+            if (idx < 0) {
+                throw raise(ValueError, "array.remove(x): x not in array");
             }
-            return factory().createCharArray(newArray);
+            self.delItem(idx);
+            return PNone.NONE;
         }
+    }
 
+    @Builtin(name = "index", minNumOfArguments = 2, maxNumOfArguments = 4)
+    @GenerateNodeFactory
+    public abstract static class IndexNode extends ArraySearchNode {
         @Specialization
-        PDoubleArray doIntPArray(PDoubleArray right, int left) {
-            double[] newArray = new double[left * right.len()];
-            int count = 0;
-            for (int i = 0; i < left; i++) {
-                for (int j = 0; j < right.len(); j++) {
-                    newArray[count++] = right.getSequence()[i];
-                }
+        int index(PArray self, Object value, Object start, Object stop) {
+            int idx = find(self, value, toBound(self, start, 0), toBound(self, stop, self.len()));
+            if (idx < 0) {
+                throw raise(ValueError, "array.index(x): x not in array");
+            }
+            return idx;
+        }
+
+        private int toBound(PArray self, Object value, int defaultValue) {
+            long bound;
+            if (value == PNone.NO_VALUE) {
+                return defaultValue;
+            } else if (value instanceof Integer) {
+                bound = (int) value;
+            } else if (value instanceof Long) {
+                bound = (long) value;
+            } else if (value instanceof PInt) {
+                bound = ((PInt) value).isZeroOrPositive() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            } else {
+                throw raise(TypeError, "slice indices must be integers or have an __index__ method");
+            }
+            if (bound < 0) {
+                bound = Math.max(0, bound + self.len());
             }
-            return factory().createDoubleArray(newArray);
+            return (int) Math.min(bound, self.len());
         }
+    }
 
+    @Builtin(name = "count", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends ArraySearchNode {
         @Specialization
-        PIntArray doIntPArray(PIntArray right, int left) {
-            int[] newArray = new int[left * right.len()];
+        int count(PArray self, Object value) {
             int count = 0;
-            for (int i = 0; i < left; i++) {
-                for (int j = 0; j < right.len(); j++) {
-                    newArray[count++] = right.getSequence()[i];
+            int idx = find(self, value, 0, self.len());
+            while (idx >= 0) {
+                count++;
+                idx = find(self, value, idx + 1, self.len());
+            }
+            return count;
+        }
+    }
+
+    @Builtin(name = __CONTAINS__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ContainsNode extends ArraySearchNode {
+        @Specialization
+        boolean contains(PArray self, Object value) {
+            return find(self, value, 0, self.len()) >= 0;
+        }
+    }
+
+    @Builtin(name = "reverse", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReverseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone reverse(PArray self) {
+            self.reverse();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "byteswap", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ByteSwapNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone byteswap(PArray self) {
+            self.byteswap();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "tobytes", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ToBytesNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PBytes tobytes(PArray self) {
+            return factory().createBytes(self.toBytes());
+        }
+    }
+
+    @Builtin(name = "frombytes", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class FromBytesNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone frombytes(PArray self, PBytes data) {
+            self.fromBytes(data.getInternalByteArray(), 0, data.len());
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone frombytes(PArray self, PByteArray data) {
+            self.fromBytes(data.getInternalByteArray(), 0, data.len());
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone frombytes(PArray self, PMemoryView data) {
+            byte[] array = data.checkAccessible().getContiguousByteArray();
+            if (array != null) {
+                self.fromBytes(array, data.getOffset(), data.getNBytes());
+            } else {
+                byte[] bytes = data.toBytes();
+                self.fromBytes(bytes, 0, bytes.length);
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone frombytes(PArray self, PArray data) {
+            byte[] bytes = data.toBytes();
+            self.fromBytes(bytes, 0, bytes.length);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object frombytes(@SuppressWarnings("unused") Object self, Object data) {
+            throw raise(TypeError, "a bytes-like object is required, not '%p'", data);
+        }
+    }
+
+    @Builtin(name = "fromlist", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class FromListNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone fromlist(PArray self, PList list,
+                        @Cached("create()") ExtendNode extendNode) {
+            // the list is added as a whole or not at all
+            int length = self.len();
+            try {
+                extendNode.execute(self, list);
+            } catch (PException e) {
+                self.truncate(length);
+                throw e;
+            }
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object fromlist(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object list) {
+            throw raise(TypeError, "arg must be list");
+        }
+    }
+
+    @Builtin(name = "tolist", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ToListNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PList tolist(PArray self) {
+            return factory().createList(self.toArray());
+        }
+    }
+
+    @Builtin(name = "fromunicode", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class FromUnicodeNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone fromunicode(PCharArray self, String str) {
+            self.fromString(str);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone fromunicode(PCharArray self, PString str) {
+            return fromunicode(self, str.getValue());
+        }
+
+        @Specialization(guards = "!isCharArray(self)")
+        Object fromunicode(@SuppressWarnings("unused") PArray self, @SuppressWarnings("unused") Object str) {
+            throw raise(ValueError, "fromunicode() may only be called on unicode type arrays");
+        }
+
+        @Fallback
+        Object fromunicode(@SuppressWarnings("unused") Object self, Object str) {
+            throw raise(TypeError, "fromunicode() argument must be str, not %p", str);
+        }
+
+        protected static boolean isCharArray(PArray array) {
+            return array instanceof PCharArray;
+        }
+    }
+
+    @Builtin(name = "tounicode", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ToUnicodeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        String tounicode(PCharArray self) {
+            return self.toString();
+        }
+
+        @Fallback
+        Object tounicode(@SuppressWarnings("unused") Object self) {
+            throw raise(ValueError, "tounicode() may only be called on unicode type arrays");
+        }
+    }
+
+    @Builtin(name = "fromfile", fixedNumOfArguments = 3)
+    @GenerateNodeFactory
+    public abstract static class FromFileNode extends PythonBuiltinNode {
+        @Specialization
+        PNone fromfile(PArray self, Object file, int n,
+                        @Cached("create()") GetAttributeNode getRead,
+                        @Cached("create()") CallNode callRead) {
+            if (n < 0) {
+                throw raise(ValueError, "negative count");
+            }
+            long requested = (long) n * self.getItemSize();
+            if (requested > Integer.MAX_VALUE) {
+                throw raise(MemoryError);
+            }
+            Object data = callRead.execute(getRead.execute(file, "read"), new Object[]{(int) requested}, PKeyword.EMPTY_KEYWORDS);
+            if (!(data instanceof PBytes)) {
+                throw raise(TypeError, "read() didn't return bytes");
+            }
+            PBytes bytes = (PBytes) data;
+            int available = bytes.len() - bytes.len() % self.getItemSize();
+            self.fromBytes(bytes.getInternalByteArray(), 0, available);
+            if (bytes.len() < requested) {
+                throw raise(EOFError, "read() didn't return enough bytes");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "tofile", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ToFileNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone tofile(PArray self, Object file,
+                        @Cached("create()") GetAttributeNode getWrite,
+                        @Cached("create()") CallNode callWrite) {
+            Object write = getWrite.execute(file, "write");
+            int blockItems = BLOCK_SIZE / self.getItemSize();
+            for (int start = 0; start < self.len(); start += blockItems) {
+                int count = Math.min(blockItems, self.len() - start);
+                callWrite.execute(write, new Object[]{factory().createBytes(self.toBytes(start, count))}, PKeyword.EMPTY_KEYWORDS);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __LEN__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class LenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int len(PArray self) {
+            return self.len();
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GetItemNode extends IndexedNode {
+        @Specialization
+        Object getItem(PArray self, PSlice slice) {
+            SliceInfo info = slice.computeActualIndices(self.len());
+            return self.getSlice(factory(), info.start, info.stop, info.step, info.length);
+        }
+
+        @Specialization(guards = "!isPSlice(index)")
+        Object getItem(PArray self, Object index) {
+            return self.getItemNormalized(normalize(self, index, OUT_OF_BOUNDS));
+        }
+    }
+
+    @Builtin(name = __SETITEM__, fixedNumOfArguments = 3)
+    @GenerateNodeFactory
+    public abstract static class SetItemNode extends IndexedNode {
+        @Specialization
+        PNone setItem(PArray self, PSlice slice, Object value) {
+            if (!(value instanceof PArray)) {
+                throw raise(TypeError, "can only assign array (not \"%p\") to array slice", value);
+            }
+            self.setSlice(slice, (PArray) value);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPSlice(index)")
+        PNone setItem(PArray self, Object index, Object value) {
+            self.setItemNormalized(normalize(self, index, ASSIGN_OUT_OF_BOUNDS), value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELITEM__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class DelItemNode extends IndexedNode {
+        @Specialization
+        PNone delItem(PArray self, PSlice slice) {
+            self.delSlice(slice);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPSlice(index)")
+        PNone delItem(PArray self, Object index) {
+            self.delItem(normalize(self, index, ASSIGN_OUT_OF_BOUNDS));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object iter(PArray self,
+                        @Cached("create()") GetIteratorNode getIterator) {
+            return getIterator.executeWith(self);
+        }
+    }
+
+    @Builtin(name = __ADD__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class AddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PArray add(PArray self, PArray other) {
+            if (self.getTypeCode() != other.getTypeCode()) {
+                throw raise(TypeError, "bad argument type for built-in operation");
+            }
+            PArray result = self.copy(factory());
+            result.extend(other);
+            return result;
+        }
+
+        @Fallback
+        Object add(@SuppressWarnings("unused") Object self, Object other) {
+            throw raise(TypeError, "can only append array (not \"%p\") to array", other);
+        }
+    }
+
+    @Builtin(name = __IADD__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class IAddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PArray iadd(PArray self, PArray other) {
+            if (self.getTypeCode() != other.getTypeCode()) {
+                throw raise(TypeError, "can only extend with array of same kind");
+            }
+            self.extend(other);
+            return self;
+        }
+
+        @Fallback
+        Object iadd(@SuppressWarnings("unused") Object self, Object other) {
+            throw raise(TypeError, "can only extend array with array (not \"%p\")", other);
+        }
+    }
+
+    @Builtin(name = __MUL__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class MulNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PArray mul(PArray self, int times) {
+            PArray result = self.copy(factory());
+            result.repeat(times);
+            return result;
+        }
+
+        @Fallback
+        Object mul(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __RMUL__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class RMulNode extends MulNode {
+    }
+
+    @Builtin(name = __IMUL__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class IMulNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PArray imul(PArray self, int times) {
+            self.repeat(times);
+            return self;
+        }
+
+        @Fallback
+        Object imul(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __COPY__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class CopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PArray copy(PArray self) {
+            return self.copy(factory());
+        }
+    }
+
+    @Builtin(name = "__deepcopy__", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class DeepCopyNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PArray deepcopy(PArray self, @SuppressWarnings("unused") Object memo) {
+            return self.copy(factory());
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        Object repr(PArray self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode repr) {
+            StringBuilder result = new StringBuilder(self.getPythonClass().getName()).append("('").append(self.getTypeCode()).append('\'');
+            if (self.len() > 0) {
+                result.append(", ");
+                if (self instanceof PCharArray) {
+                    result.append(toString(repr.executeObject(self.toString())));
+                } else {
+                    result.append('[');
+                    for (int i = 0; i < self.len(); i++) {
+                        if (i > 0) {
+                            result.append(", ");
+                        }
+                        result.append(toString(repr.executeObject(self.getItemNormalized(i))));
+                    }
+                    result.append(']');
                 }
             }
-            return factory().createIntArray(newArray);
+            return result.append(')').toString();
+        }
+
+        private String toString(Object reprString) {
+            if (reprString instanceof PString) {
+                return ((PString) reprString).getValue();
+            } else if (reprString instanceof String) {
+                return (String) reprString;
+            }
+            throw raise(TypeError, "__repr__ returned non-string (type %p)", reprString);
         }
     }
 
-    @Builtin(name = SpecialMethodNames.__MUL__, fixedNumOfArguments = 2)
+    @Builtin(name = __HASH__, fixedNumOfArguments = 1)
     @GenerateNodeFactory
-    abstract static class MulNode extends RMulNode {
+    public abstract static class HashNode extends PythonBuiltinNode {
+        @Specialization
+        Object hash(Object self) {
+            throw raise(TypeError, "unhashable type: '%p'", self);
+        }
+    }
+
+    /**
+     * Lexicographic comparison of two arrays. Items of arrays with the same integral typecode are
+     * compared by their bits, other items with {@code ==}.
+     */
+    abstract static class ArrayCompareNode extends PythonBinaryBuiltinNode {
+        @Child private BinaryComparisonNode eqNode;
+
+        /**
+         * @return the first index at which the items differ, or the length of the shorter array
+         */
+        protected final int mismatch(PArray left, PArray right) {
+            int min = Math.min(left.len(), right.len());
+            if (left.getTypeCode() == right.getTypeCode() && left.getTypeCode() != 'f' && left.getTypeCode() != 'd') {
+                for (int i = 0; i < min; i++) {
+                    if (left.getRawItem(i) != right.getRawItem(i)) {
+                        return i;
+                    }
+                }
+                return min;
+            }
+            if (eqNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                eqNode = insert(BinaryComparisonNode.create(__EQ__, __EQ__, "=="));
+            }
+            for (int i = 0; i < min; i++) {
+                if (!eqNode.executeBool(left.getItemNormalized(i), right.getItemNormalized(i))) {
+                    return i;
+                }
+            }
+            return min;
+        }
+
+        @Fallback
+        Object compare(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
     }
 
-    @Builtin(name = SpecialMethodNames.__CONTAINS__, fixedNumOfArguments = 2)
+    @Builtin(name = __EQ__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    abstract static class ContainsNode extends PythonBinaryBuiltinNode {
+    public abstract static class EqNode extends ArrayCompareNode {
         @Specialization
-        boolean contains(PSequence self, Object other) {
-            return self.index(other) != -1;
+        boolean eq(PArray self, PArray other) {
+            return self.len() == other.len() && mismatch(self, other) == self.len();
         }
     }
 
-    @Builtin(name = SpecialMethodNames.__LT__, fixedNumOfArguments = 2)
+    @Builtin(name = __NE__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    abstract static class LtNode extends PythonBinaryBuiltinNode {
+    public abstract static class NeNode extends ArrayCompareNode {
         @Specialization
-        boolean contains(PSequence self, PSequence other) {
-            return self.lessThan(other);
+        boolean ne(PArray self, PArray other) {
+            return self.len() != other.len() || mismatch(self, other) != self.len();
+        }
+    }
+
+    abstract static class OrderNode extends ArrayCompareNode {
+        @Child private BinaryComparisonNode orderNode;
+
+        protected abstract BinaryComparisonNode createOrderNode();
+
+        protected abstract boolean compareLengths(int left, int right);
+
+        @Specialization
+        boolean compare(PArray self, PArray other) {
+            int idx = mismatch(self, other);
+            if (idx < self.len() && idx < other.len()) {
+                if (orderNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    orderNode = insert(createOrderNode());
+                }
+                return orderNode.executeBool(self.getItemNormalized(idx), other.getItemNormalized(idx));
+            }
+            return compareLengths(self.len(), other.len());
+        }
+    }
+
+    @Builtin(name = __LT__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class LtNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__LT__, __GT__, "<");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left < right;
+        }
+    }
+
+    @Builtin(name = __LE__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class LeNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__LE__, __GE__, "<=");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left <= right;
+        }
+    }
+
+    @Builtin(name = __GT__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GtNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__GT__, __LT__, ">");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left > right;
+        }
+    }
+
+    @Builtin(name = __GE__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GeNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__GE__, __LE__, ">=");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left >= right;
         }
     }
 }
@@ -25,47 +25,593 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.MemoryError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.SequenceUtil;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
+/**
+ * An {@code array.array}. Each subclass keeps the items in a primitive Java array of the width of
+ * its typecodes; unsigned typecodes share the storage of their signed counterpart and are
+ * converted on access. The backing array grows geometrically, only the first {@link #len()} slots
+ * are in use.
+ * <p>
+ * Since all backing arrays are primitive arrays, resizing, slicing and concatenation are done
+ * generically with {@link System#arraycopy}. The binary representation used by {@code tobytes}
+ * and {@code frombytes} is the native byte order, as in CPython.
+ */
 public abstract class PArray extends PSequence {
 
-    public PArray(PythonClass clazz) {
+    public static final String TYPECODES = "bBuhHiIlLqQfd";
+
+    private static final String OUT_OF_BOUNDS = "array index out of range";
+    private static final String ASSIGN_OUT_OF_BOUNDS = "array assignment index out of range";
+
+    private final char typeCode;
+    protected int length;
+
+    public PArray(PythonClass clazz, char typeCode, int length) {
         super(clazz);
+        this.typeCode = typeCode;
+        this.length = length;
+    }
+
+    /**
+     * @return the size of an item of {@code typeCode} in bytes, or {@code -1} if it is not a valid
+     *         typecode
+     */
+    public static int getItemSize(char typeCode) {
+        switch (typeCode) {
+            case 'b':
+            case 'B':
+                return Byte.BYTES;
+            case 'u':
+            case 'h':
+            case 'H':
+                return Short.BYTES;
+            case 'i':
+            case 'I':
+            case 'f':
+                return Integer.BYTES;
+            case 'l':
+            case 'L':
+            case 'q':
+            case 'Q':
+            case 'd':
+                return Long.BYTES;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @return a new empty array of {@code typeCode} with room for {@code capacity} items, or
+     *         {@code null} if the typecode is not valid
+     */
+    public static PArray allocate(PythonClass clazz, char typeCode, int capacity) {
+        switch (typeCode) {
+            case 'b':
+            case 'B':
+                return new PInt8Array(clazz, typeCode, new byte[capacity], 0);
+            case 'u':
+                return new PCharArray(clazz, new char[capacity], 0);
+            case 'h':
+            case 'H':
+                return new PShortArray(clazz, typeCode, new short[capacity], 0);
+            case 'i':
+            case 'I':
+                return new PIntArray(clazz, typeCode, new int[capacity], 0);
+            case 'l':
+            case 'L':
+            case 'q':
+            case 'Q':
+                return new PLongArray(clazz, typeCode, new long[capacity], 0);
+            case 'f':
+                return new PFloatArray(clazz, new float[capacity], 0);
+            case 'd':
+                return new PDoubleArray(clazz, new double[capacity], 0);
+            default:
+                return null;
+        }
+    }
+
+    public final char getTypeCode() {
+        return typeCode;
+    }
+
+    public final int getItemSize() {
+        return getItemSize(typeCode);
+    }
+
+    public final boolean isUnsigned() {
+        return typeCode >= 'A' && typeCode <= 'Z';
     }
 
     @Override
-    public void setSlice(int start, int stop, int step, PSequence value) {
-        throw new UnsupportedOperationException();
+    public final int len() {
+        return length;
     }
 
+    /**
+     * @return the backing primitive array; it may be longer than {@link #len()}
+     */
+    public abstract Object getStore();
+
+    protected abstract void setStore(Object store);
+
+    protected abstract Object allocateStore(int capacity);
+
+    public abstract int capacity();
+
+    public abstract Object getItemNormalized(int idx);
+
+    /**
+     * Converts {@code value} to the item type and stores it. Raises {@code TypeError} or
+     * {@code OverflowError} and leaves the array unchanged if the value does not fit.
+     */
+    public abstract void setItemNormalized(int idx, Object value);
+
+    /**
+     * @return the bits of the item as an unsigned number of {@link #getItemSize()} bytes
+     */
+    public abstract long getRawItem(int idx);
+
+    public abstract void setRawItem(int idx, long bits);
+
+    /**
+     * Copies {@code count} items starting at {@code start} into {@code dst}.
+     */
+    protected abstract void putItems(ByteBuffer dst, int start, int count);
+
+    /**
+     * Copies {@code count} items from {@code src} into this array starting at {@code start}.
+     */
+    protected abstract void getItems(ByteBuffer src, int start, int count);
+
+    public abstract void byteswap();
+
     @Override
-    public void setSlice(PSlice slice, PSequence value) {
-        throw new UnsupportedOperationException();
+    public Object getItem(int idx) {
+        return getItemNormalized(SequenceUtil.normalizeIndex(idx, length, OUT_OF_BOUNDS));
+    }
+
+    public final void ensureCapacity(int minCapacity) {
+        int capacity = capacity();
+        if (minCapacity > capacity) {
+            int newCapacity = Math.max(minCapacity, capacity > (Integer.MAX_VALUE >> 1) ? Integer.MAX_VALUE : capacity * 2);
+            Object newStore = allocateStore(newCapacity);
+            System.arraycopy(getStore(), 0, newStore, 0, length);
+            setStore(newStore);
+        }
+    }
+
+    /**
+     * @return the length of this array after adding {@code count} items
+     */
+    protected final int grownLength(long count) {
+        long newLength = length + count;
+        if (newLength > Integer.MAX_VALUE) {
+            CompilerDirectives.transferToInterpreter();
+            throw PythonLanguage.getCore().raise(MemoryError);
+        }
+        return (int) newLength;
+    }
+
+    public final void append(Object value) {
+        ensureCapacity(grownLength(1));
+        setItemNormalized(length, value);
+        length++;
+    }
+
+    /**
+     * Inserts {@code value} before the item at {@code idx}, which must be in
+     * {@code [0, len()]}.
+     */
+    public final void insert(int idx, Object value) {
+        ensureCapacity(grownLength(1));
+        Object store = getStore();
+        System.arraycopy(store, idx, store, idx + 1, length - idx);
+        try {
+            setItemNormalized(idx, value);
+        } catch (PException e) {
+            System.arraycopy(store, idx + 1, store, idx, length - idx);
+            throw e;
+        }
+        length++;
+    }
+
+    /**
+     * Appends the items of {@code other}, which must have the same typecode.
+     */
+    public final void extend(PArray other) {
+        assert other.typeCode == typeCode;
+        int count = other.length;
+        ensureCapacity(grownLength(count));
+        System.arraycopy(other.getStore(), 0, getStore(), length, count);
+        length += count;
+    }
+
+    public final void clear() {
+        length = 0;
+    }
+
+    /**
+     * Drops the items from {@code newLength} on.
+     */
+    public final void truncate(int newLength) {
+        assert newLength <= length;
+        length = newLength;
+    }
+
+    public final Object pop(int idx) {
+        Object result = getItemNormalized(idx);
+        delSlice(idx, idx + 1, 1, 1);
+        return result;
+    }
+
+    /**
+     * Repeats the current items so that they appear {@code times} times in total.
+     */
+    public final void repeat(int times) {
+        if (times <= 0) {
+            length = 0;
+            return;
+        }
+        int count = length;
+        ensureCapacity(grownLength((long) count * (times - 1)));
+        Object store = getStore();
+        for (int i = 1; i < times; i++) {
+            System.arraycopy(store, 0, store, count * i, count);
+        }
+        length = count * times;
+    }
+
+    public final void reverse() {
+        Object store = getStore();
+        Object tmp = allocateStore(1);
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            System.arraycopy(store, i, tmp, 0, 1);
+            System.arraycopy(store, j, store, i, 1);
+            System.arraycopy(tmp, 0, store, j, 1);
+        }
+    }
+
+    public final PArray copy(PythonObjectFactory factory) {
+        return getSlice(factory, 0, length, 1, length);
+    }
+
+    @Override
+    public final PArray getSlice(PythonObjectFactory factory, int start, int stop, int step, int sliceLength) {
+        PArray result = factory.createArray(typeCode, sliceLength);
+        Object store = getStore();
+        Object resultStore = result.getStore();
+        if (step == 1) {
+            System.arraycopy(store, start, resultStore, 0, sliceLength);
+        } else {
+            for (int i = start, j = 0; j < sliceLength; i += step, j++) {
+                System.arraycopy(store, i, resultStore, j, 1);
+            }
+        }
+        result.length = sliceLength;
+        return result;
+    }
+
+    @Override
+    public final void setSlice(PSlice slice, PSequence value) {
+        SliceInfo info = slice.computeActualIndices(length);
+        setSlice(info.start, info.stop, info.step, info.length, value);
+    }
+
+    @Override
+    public final void setSlice(int start, int stop, int step, PSequence value) {
+        int sliceLength;
+        if (step > 0) {
+            sliceLength = stop > start ? (stop - start - 1) / step + 1 : 0;
+        } else {
+            sliceLength = stop < start ? (start - stop - 1) / -step + 1 : 0;
+        }
+        setSlice(start, stop, step, sliceLength, value);
+    }
+
+    private void setSlice(int start, int stop, int step, int sliceLength, PSequence value) {
+        if (!(value instanceof PArray)) {
+            throw raise(TypeError, "can only assign array (not \"%p\") to array slice", value);
+        }
+        PArray other = (PArray) value;
+        if (other.typeCode != typeCode) {
+            throw raise(TypeError, "bad argument type for built-in operation");
+        }
+        int count = other.length;
+        Object src = other.getStore();
+        if (other == this) {
+            src = allocateStore(count);
+            System.arraycopy(getStore(), 0, src, 0, count);
+        }
+        if (step == 1) {
+            int end = Math.max(start, stop);
+            int newLength = grownLength((long) count - (end - start));
+            ensureCapacity(newLength);
+            Object store = getStore();
+            System.arraycopy(store, end, store, start + count, length - end);
+            System.arraycopy(src, 0, store, start, count);
+            length = newLength;
+        } else {
+            if (count != sliceLength) {
+                throw raise(ValueError, "attempt to assign array of size %d to extended slice of size %d", count, sliceLength);
+            }
+            Object store = getStore();
+            for (int i = start, j = 0; j < sliceLength; i += step, j++) {
+                System.arraycopy(src, j, store, i, 1);
+            }
+        }
     }
 
     @Override
-    public void delItem(int idx) {
-        throw new UnsupportedOperationException();
+    public final void delItem(int idx) {
+        int index = SequenceUtil.normalizeIndex(idx, length, ASSIGN_OUT_OF_BOUNDS);
+        delSlice(index, index + 1, 1, 1);
+    }
+
+    public final void delSlice(PSlice slice) {
+        SliceInfo info = slice.computeActualIndices(length);
+        delSlice(info.start, info.stop, info.step, info.length);
+    }
+
+    private void delSlice(int start, @SuppressWarnings("unused") int stop, int step, int sliceLength) {
+        if (sliceLength == 0) {
+            return;
+        }
+        int first = start;
+        int distance = step;
+        if (step < 0) {
+            first = start + step * (sliceLength - 1);
+            distance = -step;
+        }
+        // move the runs of items between the deleted ones down
+        Object store = getStore();
+        int dst = first;
+        for (int k = 0; k < sliceLength; k++) {
+            int runStart = first + k * distance + 1;
+            int runEnd = k + 1 < sliceLength ? runStart + distance - 1 : length;
+            System.arraycopy(store, runStart, store, dst, runEnd - runStart);
+            dst += runEnd - runStart;
+        }
+        length = dst;
+    }
+
+    /**
+     * @return the items in their binary representation
+     */
+    public final byte[] toBytes() {
+        return toBytes(0, length);
+    }
+
+    public final byte[] toBytes(int start, int count) {
+        byte[] result = new byte[count * getItemSize()];
+        putItems(ByteBuffer.wrap(result).order(ByteOrder.nativeOrder()), start, count);
+        return result;
+    }
+
+    /**
+     * Appends the items encoded in {@code data[offset:offset + count]}. The count must be a
+     * multiple of the item size.
+     */
+    public final void fromBytes(byte[] data, int offset, int count) {
+        int itemSize = getItemSize();
+        if (count % itemSize != 0) {
+            throw raise(ValueError, "bytes length not a multiple of item size");
+        }
+        int items = count / itemSize;
+        ensureCapacity(grownLength(items));
+        getItems(ByteBuffer.wrap(data, offset, count).order(ByteOrder.nativeOrder()), length, items);
+        length += items;
     }
 
     @Override
+    @TruffleBoundary
     public int index(Object value) {
-        throw new UnsupportedOperationException();
+        for (int i = 0; i < length; i++) {
+            if (itemEquals(getItemNormalized(i), value)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
+    public final Object[] toArray() {
+        Object[] values = new Object[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = getItemNormalized(i);
+        }
+        return values;
+    }
+
+    /**
+     * @return a copy of the items in a sequence storage; it does not write through to this array
+     */
     @Override
     public SequenceStorage getSequenceStorage() {
-        throw new UnsupportedOperationException();
+        return new ObjectSequenceStorage(toArray());
     }
 
     @Override
+    @TruffleBoundary
     public boolean lessThan(PSequence sequence) {
-        throw new UnsupportedOperationException();
+        int otherLength = sequence.len();
+        for (int i = 0; i < length && i < otherLength; i++) {
+            Object left = getItemNormalized(i);
+            Object right = sequence.getItem(i);
+            if (!itemEquals(left, right)) {
+                if (isNumber(left) && isNumber(right)) {
+                    int cmp = compareNumbers(left, right);
+                    return cmp != UNORDERED && cmp < 0;
+                } else if (left instanceof String && right instanceof String) {
+                    return ((String) left).compareTo((String) right) < 0;
+                }
+                throw raise(TypeError, "'<' not supported between instances of '%p' and '%p'", left, right);
+            }
+        }
+        return length < otherLength;
     }
 
-    public abstract Object getItemNormalized(int idx);
+    private static final int UNORDERED = Integer.MIN_VALUE;
+
+    /**
+     * Python equality of an item with another value. Numbers are compared exactly, as {@code ==}
+     * does between ints and floats; anything else goes through {@code __eq__}.
+     */
+    private static boolean itemEquals(Object item, Object value) {
+        if (isNumber(item) && isNumber(value)) {
+            return compareNumbers(item, value) == 0;
+        } else if (item instanceof String && value instanceof String) {
+            return item.equals(value);
+        }
+        return PythonLanguage.getContext().getSlowPathEquivalence().equals(item, value);
+    }
+
+    private static boolean isNumber(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Boolean || value instanceof PInt || value instanceof Double || value instanceof PFloat;
+    }
+
+    /**
+     * @return the sign of {@code left - right}, or {@link #UNORDERED} if one of them is a NaN
+     */
+    private static int compareNumbers(Object left, Object right) {
+        boolean leftFloat = left instanceof Double || left instanceof PFloat;
+        boolean rightFloat = right instanceof Double || right instanceof PFloat;
+        if (leftFloat && rightFloat) {
+            double l = toDouble(left);
+            double r = toDouble(right);
+            return l < r ? -1 : l > r ? 1 : l == r ? 0 : UNORDERED;
+        } else if (leftFloat || rightFloat) {
+            double d = toDouble(leftFloat ? left : right);
+            int result;
+            if (Double.isNaN(d)) {
+                return UNORDERED;
+            } else if (Double.isInfinite(d)) {
+                result = d > 0 ? 1 : -1;
+            } else {
+                result = new BigDecimal(d).compareTo(new BigDecimal(toBigInteger(leftFloat ? right : left)));
+            }
+            return leftFloat ? result : -result;
+        } else if (left instanceof PInt || right instanceof PInt) {
+            return toBigInteger(left).compareTo(toBigInteger(right));
+        }
+        return Long.compare(toExactLong(left), toExactLong(right));
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof PFloat ? ((PFloat) value).getValue() : (double) value;
+    }
+
+    private static long toExactLong(Object value) {
+        if (value instanceof Integer) {
+            return (int) value;
+        } else if (value instanceof Boolean) {
+            return (boolean) value ? 1 : 0;
+        }
+        return (long) value;
+    }
 
+    private static BigInteger toBigInteger(Object value) {
+        return value instanceof PInt ? ((PInt) value).getValue() : BigInteger.valueOf(toExactLong(value));
+    }
+
+    protected static PException raise(PythonErrorType type, String format, Object... args) {
+        CompilerDirectives.transferToInterpreter();
+        throw PythonLanguage.getCore().raise(type, format, args);
+    }
+
+    /**
+     * Converts an integer item value. Values of unsigned 64-bit typecodes above
+     * {@link Long#MAX_VALUE} are returned in two's complement.
+     */
+    protected final long toLong(Object value) {
+        if (value instanceof Integer) {
+            return (int) value;
+        } else if (value instanceof Long) {
+            return (long) value;
+        } else if (value instanceof Boolean) {
+            return (boolean) value ? 1 : 0;
+        } else if (value instanceof PInt) {
+            BigInteger big = ((PInt) value).getValue();
+            if (big.bitLength() < Long.SIZE || (isUnsigned() && big.signum() > 0 && big.bitLength() == Long.SIZE)) {
+                return big.longValue();
+            } else if (isUnsigned() && big.signum() < 0) {
+                throw raise(OverflowError, "can't convert negative value to unsigned int");
+            }
+            throw raise(OverflowError, "Python int too large to convert to C %s", isUnsigned() ? "unsigned long" : "long");
+        } else if (value instanceof Double || value instanceof PFloat) {
+            throw raise(TypeError, "integer argument expected, got float");
+        }
+        throw raise(TypeError, "an integer is required (got type %p)", value);
+    }
+
+    /**
+     * Converts an integer item value and checks that it fits into {@code [min, max]}.
+     */
+    protected final long toLong(Object value, long min, long max) {
+        long result = toLong(value);
+        if (result < min) {
+            throw raise(OverflowError, "%s is less than minimum", getCTypeName());
+        } else if (result > max) {
+            throw raise(OverflowError, "%s is greater than maximum", getCTypeName());
+        }
+        return result;
+    }
+
+    private String getCTypeName() {
+        switch (typeCode) {
+            case 'b':
+                return "signed char";
+            case 'B':
+                return "unsigned byte integer";
+            case 'h':
+                return "signed short integer";
+            case 'H':
+                return "unsigned short";
+            case 'i':
+                return "signed integer";
+            default:
+                return "unsigned int";
+        }
+    }
+
+    protected static double toDouble(Object value) {
+        if (value instanceof Double) {
+            return (double) value;
+        } else if (value instanceof PFloat) {
+            return ((PFloat) value).getValue();
+        } else if (value instanceof Integer) {
+            return (int) value;
+        } else if (value instanceof Long) {
+            return (long) value;
+        } else if (value instanceof Boolean) {
+            return (boolean) value ? 1 : 0;
+        } else if (value instanceof PInt) {
+            return ((PInt) value).doubleValue();
+        }
+        throw raise(TypeError, "must be real number, not %p", value);
+    }
 }
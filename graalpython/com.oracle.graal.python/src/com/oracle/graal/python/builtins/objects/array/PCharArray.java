@@ -25,17 +25,24 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
-import com.oracle.graal.python.runtime.object.PythonObjectFactory;
-import com.oracle.graal.python.runtime.sequence.SequenceUtil;
 
+/**
+ * An array of typecode {@code 'u'}. The items are UTF-16 code units, so the item size is 2 as for
+ * {@code wchar_t} on Windows.
+ */
 public final class PCharArray extends PArray {
 
-    private final char[] array;
+    private char[] array;
 
-    public PCharArray(PythonClass clazz, char[] elements) {
-        super(clazz);
-        this.array = elements;
+    public PCharArray(PythonClass clazz, char[] array, int length) {
+        super(clazz, 'u', length);
+        this.array = array;
     }
 
     public char[] getSequence() {
@@ -43,14 +50,28 @@ public final class PCharArray extends PArray {
     }
 
     @Override
-    public Object getItem(int idx) {
-        int index = SequenceUtil.normalizeIndex(idx, array.length, "array index out of range");
-        return getCharItemNormalized(index);
+    public Object getStore() {
+        return array;
+    }
+
+    @Override
+    protected void setStore(Object store) {
+        array = (char[]) store;
+    }
+
+    @Override
+    protected Object allocateStore(int capacity) {
+        return new char[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return array.length;
     }
 
     @Override
     public Object getItemNormalized(int idx) {
-        return getCharItemNormalized(idx);
+        return String.valueOf(array[idx]);
     }
 
     public char getCharItemNormalized(int idx) {
@@ -62,32 +83,53 @@ public final class PCharArray extends PArray {
     }
 
     @Override
-    public PCharArray getSlice(PythonObjectFactory factory, int start, int stop, int step, int length) {
-        char[] newArray = new char[length];
-        if (step == 1) {
-            System.arraycopy(array, start, newArray, 0, stop - start);
-            return factory.createCharArray(newArray);
-        }
-        for (int i = start, j = 0; j < length; i += step, j++) {
-            newArray[j] = array[i];
+    public void setItemNormalized(int idx, Object value) {
+        String str = value instanceof PString ? ((PString) value).getValue() : value instanceof String ? (String) value : null;
+        if (str == null || str.length() != 1) {
+            throw raise(TypeError, "array item must be unicode character");
         }
-        return factory.createCharArray(newArray);
+        array[idx] = str.charAt(0);
     }
 
-    @Override
-    public int len() {
-        return array.length;
+    /**
+     * Appends the characters of {@code str}.
+     */
+    public void fromString(String str) {
+        int count = str.length();
+        ensureCapacity(grownLength(count));
+        str.getChars(0, count, array, length);
+        length += count;
     }
 
     @Override
     public String toString() {
-        StringBuilder buf = new StringBuilder();
-        buf.append("array('c', [");
-        for (int i = 0; i < array.length - 1; i++) {
-            buf.append(array[i] + " ");
+        return new String(array, 0, length);
+    }
+
+    @Override
+    public long getRawItem(int idx) {
+        return array[idx];
+    }
+
+    @Override
+    public void setRawItem(int idx, long bits) {
+        array[idx] = (char) bits;
+    }
+
+    @Override
+    protected void putItems(ByteBuffer dst, int start, int count) {
+        dst.asCharBuffer().put(array, start, count);
+    }
+
+    @Override
+    protected void getItems(ByteBuffer src, int start, int count) {
+        src.asCharBuffer().get(array, start, count);
+    }
+
+    @Override
+    public void byteswap() {
+        for (int i = 0; i < length; i++) {
+            array[i] = Character.reverseBytes(array[i]);
         }
-        buf.append(array[array.length - 1]);
-        buf.append("])");
-        return buf.toString();
     }
 }
@@ -25,17 +25,20 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import java.nio.ByteBuffer;
+
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
-import com.oracle.graal.python.runtime.object.PythonObjectFactory;
-import com.oracle.graal.python.runtime.sequence.SequenceUtil;
 
+/**
+ * An array of typecode {@code 'd'}.
+ */
 public final class PDoubleArray extends PArray {
 
-    private final double[] array;
+    private double[] array;
 
-    public PDoubleArray(PythonClass clazz, double[] elements) {
-        super(clazz);
-        this.array = elements;
+    public PDoubleArray(PythonClass clazz, double[] array, int length) {
+        super(clazz, 'd', length);
+        this.array = array;
     }
 
     public double[] getSequence() {
@@ -43,14 +46,28 @@ public final class PDoubleArray extends PArray {
     }
 
     @Override
-    public Object getItem(int idx) {
-        int index = SequenceUtil.normalizeIndex(idx, array.length, "array index out of range");
-        return getDoubleItemNormalized(index);
+    public Object getStore() {
+        return array;
+    }
+
+    @Override
+    protected void setStore(Object store) {
+        array = (double[]) store;
+    }
+
+    @Override
+    protected Object allocateStore(int capacity) {
+        return new double[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return array.length;
     }
 
     @Override
     public Object getItemNormalized(int idx) {
-        return getDoubleItemNormalized(idx);
+        return array[idx];
     }
 
     public double getDoubleItemNormalized(int idx) {
@@ -62,33 +79,34 @@ public final class PDoubleArray extends PArray {
     }
 
     @Override
-    public PDoubleArray getSlice(PythonObjectFactory factory, int start, int stop, int step, int length) {
-        double[] newArray = new double[length];
+    public void setItemNormalized(int idx, Object value) {
+        array[idx] = toDouble(value);
+    }
 
-        if (step == 1) {
-            System.arraycopy(array, start, newArray, 0, stop - start);
-            return factory.createDoubleArray(newArray);
-        }
-        for (int i = start, j = 0; j < length; i += step, j++) {
-            newArray[j] = array[i];
-        }
-        return factory.createDoubleArray(newArray);
+    @Override
+    public long getRawItem(int idx) {
+        return Double.doubleToRawLongBits(array[idx]);
     }
 
     @Override
-    public int len() {
-        return array.length;
+    public void setRawItem(int idx, long bits) {
+        array[idx] = Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    protected void putItems(ByteBuffer dst, int start, int count) {
+        dst.asDoubleBuffer().put(array, start, count);
+    }
+
+    @Override
+    protected void getItems(ByteBuffer src, int start, int count) {
+        src.asDoubleBuffer().get(array, start, count);
     }
 
     @Override
-    public String toString() {
-        StringBuilder buf = new StringBuilder();
-        buf.append("array('d', [");
-        for (int i = 0; i < array.length - 1; i++) {
-            buf.append(array[i] + ", ");
+    public void byteswap() {
+        for (int i = 0; i < length; i++) {
+            array[i] = Double.longBitsToDouble(Long.reverseBytes(Double.doubleToRawLongBits(array[i])));
         }
-        buf.append(array[array.length - 1]);
-        buf.append("])");
-        return buf.toString();
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.array;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+
+/**
+ * An array of typecode {@code 'b'} or {@code 'B'}.
+ */
+public final class PInt8Array extends PArray {
+
+    private byte[] array;
+
+    public PInt8Array(PythonClass clazz, char typeCode, byte[] array, int length) {
+        super(clazz, typeCode, length);
+        this.array = array;
+    }
+
+    public byte[] getSequence() {
+        return array;
+    }
+
+    @Override
+    public Object getStore() {
+        return array;
+    }
+
+    @Override
+    protected void setStore(Object store) {
+        array = (byte[]) store;
+    }
+
+    @Override
+    protected Object allocateStore(int capacity) {
+        return new byte[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return array.length;
+    }
+
+    @Override
+    public Object getItemNormalized(int idx) {
+        return isUnsigned() ? array[idx] & 0xFF : array[idx];
+    }
+
+    @Override
+    public void setItemNormalized(int idx, Object value) {
+        array[idx] = (byte) (isUnsigned() ? toLong(value, 0, 0xFF) : toLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE));
+    }
+
+    @Override
+    public long getRawItem(int idx) {
+        return array[idx] & 0xFFL;
+    }
+
+    @Override
+    public void setRawItem(int idx, long bits) {
+        array[idx] = (byte) bits;
+    }
+
+    @Override
+    protected void putItems(ByteBuffer dst, int start, int count) {
+        dst.put(array, start, count);
+    }
+
+    @Override
+    protected void getItems(ByteBuffer src, int start, int count) {
+        src.get(array, start, count);
+    }
+
+    @Override
+    public void byteswap() {
+        // single bytes have no byte order
+    }
+}
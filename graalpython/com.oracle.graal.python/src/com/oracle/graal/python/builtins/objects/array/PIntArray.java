@@ -25,17 +25,20 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import java.nio.ByteBuffer;
+
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
-import com.oracle.graal.python.runtime.object.PythonObjectFactory;
-import com.oracle.graal.python.runtime.sequence.SequenceUtil;
 
+/**
+ * An array of typecode {@code 'i'} or {@code 'I'}.
+ */
 public final class PIntArray extends PArray {
 
-    private final int[] array;
+    private int[] array;
 
-    public PIntArray(PythonClass clazz, int[] elements) {
-        super(clazz);
-        this.array = elements;
+    public PIntArray(PythonClass clazz, char typeCode, int[] array, int length) {
+        super(clazz, typeCode, length);
+        this.array = array;
     }
 
     public int[] getSequence() {
@@ -43,52 +46,76 @@ public final class PIntArray extends PArray {
     }
 
     @Override
-    public Object getItem(int idx) {
-        int index = SequenceUtil.normalizeIndex(idx, array.length, "array index out of range");
-        return getIntItemNormalized(index);
+    public Object getStore() {
+        return array;
+    }
+
+    @Override
+    protected void setStore(Object store) {
+        array = (int[]) store;
+    }
+
+    @Override
+    protected Object allocateStore(int capacity) {
+        return new int[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return array.length;
     }
 
     @Override
     public Object getItemNormalized(int idx) {
-        return getIntItemNormalized(idx);
+        int value = array[idx];
+        if (isUnsigned() && value < 0) {
+            return value & 0xFFFFFFFFL;
+        }
+        return value;
     }
 
+    /**
+     * Unboxed access to the items of signed arrays.
+     */
     public int getIntItemNormalized(int idx) {
+        assert !isUnsigned();
         return array[idx];
     }
 
     public void setIntItemNormalized(int idx, int value) {
+        assert !isUnsigned();
         array[idx] = value;
     }
 
     @Override
-    public PIntArray getSlice(PythonObjectFactory factory, int start, int stop, int step, int length) {
-        int[] newArray = new int[length];
+    public void setItemNormalized(int idx, Object value) {
+        array[idx] = (int) (isUnsigned() ? toLong(value, 0, 0xFFFFFFFFL) : toLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
 
-        if (step == 1) {
-            System.arraycopy(array, start, newArray, 0, stop - start);
-            return factory.createIntArray(newArray);
-        }
-        for (int i = start, j = 0; j < length; i += step, j++) {
-            newArray[j] = array[i];
-        }
-        return factory.createIntArray(newArray);
+    @Override
+    public long getRawItem(int idx) {
+        return array[idx] & 0xFFFFFFFFL;
     }
 
     @Override
-    public int len() {
-        return array.length;
+    public void setRawItem(int idx, long bits) {
+        array[idx] = (int) bits;
+    }
+
+    @Override
+    protected void putItems(ByteBuffer dst, int start, int count) {
+        dst.asIntBuffer().put(array, start, count);
+    }
+
+    @Override
+    protected void getItems(ByteBuffer src, int start, int count) {
+        src.asIntBuffer().get(array, start, count);
     }
 
     @Override
-    public String toString() {
-        StringBuilder buf = new StringBuilder();
-        buf.append("array('i', [");
-        for (int i = 0; i < array.length - 1; i++) {
-            buf.append(array[i] + ", ");
+    public void byteswap() {
+        for (int i = 0; i < length; i++) {
+            array[i] = Integer.reverseBytes(array[i]);
         }
-        buf.append(array[array.length - 1]);
-        buf.append("])");
-        return buf.toString();
     }
 }
@@ -25,17 +25,27 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
-import com.oracle.graal.python.runtime.object.PythonObjectFactory;
-import com.oracle.graal.python.runtime.sequence.SequenceUtil;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
+/**
+ * An array of typecode {@code 'l'}, {@code 'L'}, {@code 'q'} or {@code 'Q'}, which are all 64 bits
+ * wide.
+ */
 public final class PLongArray extends PArray {
 
-    private final long[] array;
+    private long[] array;
 
-    public PLongArray(PythonClass clazz, long[] elements) {
-        super(clazz);
-        this.array = elements;
+    public PLongArray(PythonClass clazz, char typeCode, long[] array, int length) {
+        super(clazz, typeCode, length);
+        this.array = array;
     }
 
     public long[] getSequence() {
@@ -43,52 +53,85 @@ public final class PLongArray extends PArray {
     }
 
     @Override
-    public Object getItem(int idx) {
-        int index = SequenceUtil.normalizeIndex(idx, array.length, "array index out of range");
-        return getLongItemNormalized(index);
+    public Object getStore() {
+        return array;
+    }
+
+    @Override
+    protected void setStore(Object store) {
+        array = (long[]) store;
+    }
+
+    @Override
+    protected Object allocateStore(int capacity) {
+        return new long[capacity];
+    }
+
+    @Override
+    public int capacity() {
+        return array.length;
     }
 
     @Override
     public Object getItemNormalized(int idx) {
-        return getLongItemNormalized(idx);
+        long value = array[idx];
+        if (isUnsigned() && value < 0) {
+            return toUnsignedInt(value);
+        }
+        return value;
     }
 
+    @TruffleBoundary
+    private static PInt toUnsignedInt(long value) {
+        return PythonLanguage.getCore().factory().createInt(BigInteger.valueOf(value).add(BigInteger.ONE.shiftLeft(Long.SIZE)));
+    }
+
+    /**
+     * Unboxed access to the items of signed arrays.
+     */
     public long getLongItemNormalized(int idx) {
+        assert !isUnsigned();
         return array[idx];
     }
 
     public void setLongItemNormalized(int idx, long value) {
+        assert !isUnsigned();
         array[idx] = value;
     }
 
     @Override
-    public PLongArray getSlice(PythonObjectFactory factory, int start, int stop, int step, int length) {
-        long[] newArray = new long[length];
-
-        if (step == 1) {
-            System.arraycopy(array, start, newArray, 0, stop - start);
-            return factory.createLongArray(newArray);
-        }
-        for (int i = start, j = 0; j < length; i += step, j++) {
-            newArray[j] = array[i];
+    public void setItemNormalized(int idx, Object value) {
+        long result = toLong(value);
+        if (isUnsigned() && result < 0 && !(value instanceof PInt)) {
+            throw raise(OverflowError, "can't convert negative value to unsigned int");
         }
-        return factory.createLongArray(newArray);
+        array[idx] = result;
     }
 
     @Override
-    public int len() {
-        return array.length;
+    public long getRawItem(int idx) {
+        return array[idx];
+    }
+
+    @Override
+    public void setRawItem(int idx, long bits) {
+        array[idx] = bits;
+    }
+
+    @Override
+    protected void putItems(ByteBuffer dst, int start, int count) {
+        dst.asLongBuffer().put(array, start, count);
+    }
+
+    @Override
+    protected void getItems(ByteBuffer src, int start, int count) {
+        src.asLongBuffer().get(array, start, count);
     }
 
     @Override
-    public String toString() {
-        StringBuilder buf = new StringBuilder();
-        buf.append("array('i', [");
-        for (int i = 0; i < array.length - 1; i++) {
-            buf.append(array[i] + ", ");
+    public void byteswap() {
+        for (int i = 0; i < length; i++) {
+            array[i] = Long.reverseBytes(array[i]);
         }
-        buf.append(array[array.length - 1]);
-        buf.append("])");
-        return buf.toString();
     }
 }
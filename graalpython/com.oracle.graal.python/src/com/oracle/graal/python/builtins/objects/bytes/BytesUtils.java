@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
@@ -223,32 +224,47 @@ public final class BytesUtils {
     }
 
     public static byte[] join(PythonCore core, byte[] bytes, Object... values) {
-        List<byte[]> parts = new ArrayList<>();
+        // the internal storage array may be longer than the sequence, it then ends with null
+        int count = 0;
         int totalSize = 0;
-        for (int i = 0; i < values.length; i++) {
-            Object value = values[i];
-            if (value == null) {
-                // end of internal storage array
-                break;
-            } else if (value instanceof PSequence && ((PSequence) value).getSequenceStorage() instanceof ByteSequenceStorage) {
-                byte[] internalByteArray = ((ByteSequenceStorage) ((PSequence) value).getSequenceStorage()).getInternalByteArray();
-                parts.add(internalByteArray);
-                totalSize += internalByteArray.length;
+        while (count < values.length && values[count] != null) {
+            Object value = values[count];
+            if (value instanceof PSequence && ((PSequence) value).getSequenceStorage() instanceof ByteSequenceStorage) {
+                totalSize += ((PSequence) value).getSequenceStorage().length();
+            } else if (value instanceof PMemoryView) {
+                totalSize += ((PMemoryView) value).checkAccessible().getNBytes();
             } else {
-                throw core.raise(TypeError, "sequence item %s: expected a bytes-like object, %s found", i, core.lookupType(value.getClass()));
-            }
-
-            if (bytes != null && i < values.length - 1) {
-                parts.add(bytes);
-                totalSize += bytes.length;
+                throw core.raise(TypeError, "sequence item %s: expected a bytes-like object, %s found", count, core.lookupType(value.getClass()));
             }
+            count++;
+        }
+        if (bytes != null && count > 1) {
+            totalSize += bytes.length * (count - 1);
         }
 
         byte[] joinedBytes = new byte[totalSize];
         int offset = 0;
-        for (byte[] array : parts) {
-            System.arraycopy(array, 0, joinedBytes, offset, array.length);
-            offset += array.length;
+        for (int i = 0; i < count; i++) {
+            if (bytes != null && i > 0) {
+                System.arraycopy(bytes, 0, joinedBytes, offset, bytes.length);
+                offset += bytes.length;
+            }
+            Object value = values[i];
+            if (value instanceof PMemoryView) {
+                PMemoryView view = (PMemoryView) value;
+                byte[] array = view.getContiguousByteArray();
+                if (array != null) {
+                    System.arraycopy(array, view.getOffset(), joinedBytes, offset, view.getNBytes());
+                } else {
+                    byte[] part = view.toBytes();
+                    System.arraycopy(part, 0, joinedBytes, offset, part.length);
+                }
+                offset += view.getNBytes();
+            } else {
+                ByteSequenceStorage storage = (ByteSequenceStorage) ((PSequence) value).getSequenceStorage();
+                System.arraycopy(storage.getInternalByteArray(), 0, joinedBytes, offset, storage.length());
+                offset += storage.length();
+            }
         }
 
         return joinedBytes;
@@ -40,6 +40,7 @@ package com.oracle.graal.python.builtins.objects.common;
 
 import java.util.ArrayList;
 
+import com.oracle.graal.python.builtins.objects.module.GlobalAssumptions;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Layout;
@@ -140,6 +141,12 @@ public abstract class DynamicObjectStorage extends HashingStorage {
         return store;
     }
 
+    /**
+     * Called by the nodes that write or remove {@code key} directly in the store.
+     */
+    void keyChanged(@SuppressWarnings("unused") Object key) {
+    }
+
     public static class FastDictStorage extends DynamicObjectStorage {
         public FastDictStorage() {
         }
@@ -157,8 +164,59 @@ public abstract class DynamicObjectStorage extends HashingStorage {
     }
 
     public static class PythonObjectDictStorage extends DynamicObjectStorage {
+        // set if the store belongs to a module, see GlobalAssumptions
+        private final GlobalAssumptions globalAssumptions;
+
         public PythonObjectDictStorage(DynamicObject store) {
+            this(store, null);
+        }
+
+        public PythonObjectDictStorage(DynamicObject store, GlobalAssumptions globalAssumptions) {
             super(store);
+            this.globalAssumptions = globalAssumptions;
+        }
+
+        public GlobalAssumptions getGlobalAssumptions() {
+            return globalAssumptions;
+        }
+
+        @Override
+        void keyChanged(Object key) {
+            if (globalAssumptions != null) {
+                globalAssumptions.changed(key);
+            }
+        }
+
+        /**
+         * Called when the store is cleared or when a dict stops using this storage, after which
+         * writes to the dict no longer reach the store.
+         */
+        public void allKeysChanged() {
+            if (globalAssumptions != null) {
+                globalAssumptions.changedAll();
+            }
+        }
+
+        @Override
+        @TruffleBoundary
+        public void setItem(Object key, Object value, Equivalence eq) {
+            super.setItem(key, value, eq);
+            keyChanged(key);
+        }
+
+        @Override
+        @TruffleBoundary
+        public boolean remove(Object key, Equivalence eq) {
+            boolean result = super.remove(key, eq);
+            keyChanged(key);
+            return result;
+        }
+
+        @Override
+        @TruffleBoundary
+        public void clear() {
+            super.clear();
+            allKeysChanged();
         }
 
         @Override
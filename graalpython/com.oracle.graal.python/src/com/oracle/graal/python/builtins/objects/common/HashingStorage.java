@@ -45,6 +45,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 import java.util.Iterator;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.nodes.PBaseNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
@@ -87,6 +88,11 @@ public abstract class HashingStorage {
     public abstract static class Equivalence extends PBaseNode {
         public abstract int hashCode(Object o);
 
+        /**
+         * The untruncated Python hash of {@code o}, for storages that spread all of its bits.
+         */
+        public abstract long hashCodeLong(Object o);
+
         public abstract boolean equals(Object left, Object right);
 
     }
@@ -98,6 +104,11 @@ public abstract class HashingStorage {
             return o.hashCode();
         }
 
+        @Override
+        public long hashCodeLong(Object o) {
+            return o.hashCode();
+        }
+
         @Override
         public boolean equals(Object a, Object b) {
             return (a == b) || (a != null && objectEquals(a, b));
@@ -166,6 +177,20 @@ public abstract class HashingStorage {
             }
         }
 
+        @Override
+        public long hashCodeLong(Object o) {
+            Object result = hashRootNode.getCallTarget().call(o);
+            if (result instanceof Integer) {
+                return (int) result;
+            } else if (result instanceof Long) {
+                return (long) result;
+            } else if (result instanceof PInt) {
+                return ((PInt) result).longValue();
+            } else {
+                throw raise(TypeError, "__hash__ method should return an integer");
+            }
+        }
+
         @Override
         public boolean equals(Object a, Object b) {
             return (boolean) eqRootNode.getCallTarget().call(a, b);
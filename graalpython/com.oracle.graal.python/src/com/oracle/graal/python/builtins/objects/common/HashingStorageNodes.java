@@ -80,6 +80,7 @@ import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics;
 import com.oracle.graal.python.runtime.sequence.PSequence;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -107,6 +108,7 @@ public abstract class HashingStorageNodes {
     public static class PythonEquivalence extends Equivalence {
         @Child private LookupAndCallUnaryNode callHashNode = LookupAndCallUnaryNode.create(__HASH__);
         @Child private BinaryComparisonNode callEqNode = BinaryComparisonNode.create(SpecialMethodNames.__EQ__, SpecialMethodNames.__EQ__, "==", null, null);
+        @Child private LookupAndCallUnaryNode callLongHashNode;
         @CompilationFinal private int state = 0;
 
         @Override
@@ -151,6 +153,24 @@ public abstract class HashingStorageNodes {
             }
         }
 
+        @Override
+        public long hashCodeLong(Object o) {
+            if (callLongHashNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callLongHashNode = insert(LookupAndCallUnaryNode.create(__HASH__));
+            }
+            Object hash = callLongHashNode.executeObject(o);
+            if (hash instanceof Integer) {
+                return (int) hash;
+            } else if (hash instanceof Long) {
+                return (long) hash;
+            } else if (hash instanceof PInt) {
+                return ((PInt) hash).longValue();
+            } else {
+                throw hashCodeTypeError();
+            }
+        }
+
         private PException hashCodeTypeError() {
             return raise(PythonErrorType.TypeError, "__hash__ method should return an integer");
         }
@@ -236,13 +256,27 @@ public abstract class HashingStorageNodes {
             EconomicMapStorage newStorage = EconomicMapStorage.create(storage.length() + 1, false);
             newStorage.addAll(storage, getEquivalence());
             container.setDictStorage(newStorage);
+            PythonMetrics.record(PythonMetrics.DICT_STORAGE_SWITCHED, storage.getClass(), EconomicMapStorage.class, this);
+            return newStorage;
+        }
+
+        protected static StringMapStorage switchToStringMap(PHashingCollection container, HashingStorage storage) {
+            StringMapStorage newStorage = new StringMapStorage(storage.length() + 1);
+            newStorage.addAll(storage, DEFAULT_EQIVALENCE);
+            container.setDictStorage(newStorage);
+            PythonMetrics.record(PythonMetrics.DICT_STORAGE_SWITCHED, storage.getClass(), StringMapStorage.class, null);
             return newStorage;
         }
 
+        protected static boolean isLongKey(Object key) {
+            return LongMapStorage.isLongKey(key);
+        }
+
         protected static DynamicObjectStorage switchToFastDictStorage(PHashingCollection container, HashingStorage storage) {
             DynamicObjectStorage newStorage = new FastDictStorage();
             newStorage.addAll(storage, DEFAULT_EQIVALENCE);
             container.setDictStorage(newStorage);
+            PythonMetrics.record(PythonMetrics.DICT_STORAGE_SWITCHED, storage.getClass(), FastDictStorage.class, null);
             return newStorage;
         }
 
@@ -353,6 +387,7 @@ public abstract class HashingStorageNodes {
             ArrayList<PSequence> elements = new ArrayList<>();
             PythonClass listClass = getCore().lookupType(PList.class);
             boolean isStringKey = false;
+            boolean allLongKeys = true;
             try {
                 while (true) {
                     Object next = getNextNode().execute(it);
@@ -370,6 +405,7 @@ public abstract class HashingStorageNodes {
 
                     // really check for Java String since PString can be subclassed
                     isStringKey = isStringKey || element.getItem(0) instanceof String;
+                    allLongKeys = allLongKeys && isLongKey(element.getItem(0));
 
                     elements.add(element);
                 }
@@ -381,12 +417,17 @@ public abstract class HashingStorageNodes {
                 }
             }
 
-            HashingStorage storage = PDict.createNewStorage(isStringKey, elements.size());
-            for (int j = 0; j < elements.size(); j++) {
-                getSetItemNode().execute(self, storage, elements.get(j).getItem(0), elements.get(j).getItem(1));
+            HashingStorage storage;
+            if (allLongKeys && !elements.isEmpty()) {
+                storage = new LongMapStorage(elements.size());
+            } else {
+                storage = PDict.createNewStorage(isStringKey, elements.size());
             }
-
+            // install the storage first, the set item node may need to generalize it
             self.setDictStorage(storage);
+            for (int j = 0; j < elements.size(); j++) {
+                getSetItemNode().execute(self, self.getDictStorage(), elements.get(j).getItem(0), elements.get(j).getItem(1));
+            }
         }
 
         @TruffleBoundary
@@ -484,6 +525,36 @@ public abstract class HashingStorageNodes {
             return false;
         }
 
+        @Specialization
+        protected boolean contains(LongMapStorage storage, int key) {
+            return storage.hasLong(key);
+        }
+
+        @Specialization
+        protected boolean contains(LongMapStorage storage, long key) {
+            return storage.hasLong(key);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(key)"})
+        protected boolean contains(LongMapStorage storage, Object key) {
+            return storage.hasKey(key, getEquivalence());
+        }
+
+        @Specialization
+        protected boolean contains(StringMapStorage storage, String key) {
+            return storage.hasString(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean contains(StringMapStorage storage, PString key) {
+            return storage.hasString(key.getValue());
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        protected boolean contains(StringMapStorage storage, Object key) {
+            return storage.hasKey(key, getEquivalence());
+        }
+
         @Specialization(guards = "isHashable(key)")
         protected boolean contains(EconomicMapStorage storage, Object key) {
             return storage.hasKey(key, getEquivalence());
@@ -514,74 +585,17 @@ public abstract class HashingStorageNodes {
         public abstract boolean execute(HashingStorage storage, Object value);
 
         @Specialization
-        @SuppressWarnings("unused")
-        protected boolean contains(EmptyStorage storage, Object value) {
-            return false;
-        }
-
-        @Specialization
-        protected boolean contains(KeywordsStorage storage, Object value,
-                        @Cached("createClassProfile()") ValueProfile keyTypeProfile) {
-
-            Object profileKey = keyTypeProfile.profile(value);
-            PKeyword[] store = storage.getStore();
-            for (int i = 0; i < store.length; i++) {
-            }
-
-            if (profileKey instanceof String) {
-                return storage.hasKey(value, DEFAULT_EQIVALENCE);
+        protected boolean contains(HashingStorage storage, Object value) {
+            // no storage indexes its values, so they are compared one by one
+            Equivalence equivalence = getEquivalence();
+            for (Object storedValue : storage.values()) {
+                if (storedValue == value || equivalence.equals(storedValue, value)) {
+                    return true;
+                }
             }
             return false;
         }
 
-        @Specialization(limit = "3", //
-                        guards = {
-                                        "cachedName.equals(name)",
-                                        "shapeCheck(shape, storage.getStore())"
-                        }, //
-                        assumptions = {
-                                        "shape.getValidAssumption()"
-                        })
-        protected static boolean doDynamicObjectString(@SuppressWarnings("unused") DynamicObjectStorage storage, @SuppressWarnings("unused") String name,
-                        @SuppressWarnings("unused") @Cached("name") String cachedName,
-                        @SuppressWarnings("unused") @Cached("lookupShape(storage.getStore())") Shape shape,
-                        @Cached("lookupLocation(shape, name)") Location location) {
-            return location != null;
-        }
-
-        @TruffleBoundary
-        @Specialization(replaces = {"doDynamicObjectString"}, guards = "storage.getStore().getShape().isValid()")
-        protected boolean readUncached(DynamicObjectStorage storage, String name) {
-            return storage.getStore().containsKey(name);
-        }
-
-        @Specialization(guards = "!storage.getStore().getShape().isValid()")
-        protected boolean updateShape(DynamicObjectStorage storage, String name) {
-            CompilerDirectives.transferToInterpreter();
-            storage.getStore().updateShape();
-            return readUncached(storage, name);
-        }
-
-        @Specialization(guards = "isHashable(key)")
-        protected boolean contains(EconomicMapStorage storage, Object key) {
-            return storage.hasKey(key, getEquivalence());
-        }
-
-        @Specialization(guards = "isHashable(key)")
-        protected boolean contains(HashMapStorage storage, Object key) {
-            return storage.hasKey(key, getEquivalence());
-        }
-
-        @Specialization(guards = "isHashable(key)")
-        protected boolean contains(LocalsStorage storage, Object key) {
-            return storage.hasKey(key, HashingStorage.DEFAULT_EQIVALENCE);
-        }
-
-        @Specialization(guards = "!isHashable(key)")
-        protected boolean doUnhashable(@SuppressWarnings("unused") HashMapStorage storage, Object key) {
-            throw unhashable(key);
-        }
-
         public static ContainsValueNode create() {
             return ContainsValueNodeGen.create();
         }
@@ -592,20 +606,49 @@ public abstract class HashingStorageNodes {
         public abstract void execute(PHashingCollection container, HashingStorage storage, Object key, Object value);
 
         @Specialization
-        protected void doEmptyStorage(PHashingCollection container, EmptyStorage storage, String key, Object value) {
+        protected void doEmptyStorage(PDict container, EmptyStorage storage, String key, Object value) {
             // immediately replace storage since empty storage is immutable
             DynamicObjectStorage newStorage = switchToFastDictStorage(container, storage);
             doDynamicObjectUpdateShape(container, newStorage, key, value);
         }
 
         @Specialization(guards = "wrappedString(key)")
-        protected void doEmptyStorage(PHashingCollection container, EmptyStorage storage, PString key, Object value) {
+        protected void doEmptyStorage(PDict container, EmptyStorage storage, PString key, Object value) {
             // immediately replace storage since empty storage is immutable
             DynamicObjectStorage newStorage = switchToFastDictStorage(container, storage);
             doDynamicObjectUpdateShape(container, newStorage, key.getValue(), value);
         }
 
-        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        @Specialization
+        protected void doEmptyStorageStringMap(PHashingCollection container, @SuppressWarnings("unused") EmptyStorage storage, String key, Object value) {
+            // sets do not benefit from object shapes, so they go to the string map directly
+            StringMapStorage newStorage = new StringMapStorage();
+            newStorage.setString(key, value);
+            container.setDictStorage(newStorage);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected void doEmptyStorageStringMap(PHashingCollection container, @SuppressWarnings("unused") EmptyStorage storage, PString key, Object value) {
+            StringMapStorage newStorage = new StringMapStorage();
+            newStorage.setString(key.getValue(), value);
+            container.setDictStorage(newStorage);
+        }
+
+        @Specialization
+        protected void doEmptyStorage(PHashingCollection container, @SuppressWarnings("unused") EmptyStorage storage, int key, Object value) {
+            LongMapStorage newStorage = new LongMapStorage();
+            newStorage.setLong(key, value);
+            container.setDictStorage(newStorage);
+        }
+
+        @Specialization
+        protected void doEmptyStorage(PHashingCollection container, @SuppressWarnings("unused") EmptyStorage storage, long key, Object value) {
+            LongMapStorage newStorage = new LongMapStorage();
+            newStorage.setLong(key, value);
+            container.setDictStorage(newStorage);
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "!isLongKey(key)", "isHashable(key)"})
         protected void doEmptyStorage(PHashingCollection container, @SuppressWarnings("unused") EmptyStorage storage, Object key, Object value) {
             // immediately replace storage since empty storage is immutable
             EconomicMapStorage newStorage = EconomicMapStorage.create(false);
@@ -629,7 +672,7 @@ public abstract class HashingStorageNodes {
                         })
         protected static void doDynamicObjectExistingCached(@SuppressWarnings("unused") PHashingCollection container, DynamicObjectStorage storage, @SuppressWarnings("unused") String name,
                         Object value,
-                        @SuppressWarnings("unused") @Cached("name") String cachedName,
+                        @Cached("name") String cachedName,
                         @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, name, value)") Location location) {
             try {
@@ -639,6 +682,7 @@ public abstract class HashingStorageNodes {
                 /* Our guards ensure that the value can be stored, so this cannot happen. */
                 throw new IllegalStateException(ex);
             }
+            storage.keyChanged(cachedName);
         }
 
         /**
@@ -670,6 +714,7 @@ public abstract class HashingStorageNodes {
                 /* Our guards ensure that the value can be stored, so this cannot happen. */
                 throw new IllegalStateException(ex);
             }
+            storage.keyChanged(cachedName);
         }
 
         /**
@@ -680,11 +725,12 @@ public abstract class HashingStorageNodes {
         @Specialization(replaces = {"doDynamicObjectExistingCached", "doDynamicObjectNewCached"}, guards = {"storage.getStore().getShape().isValid()", "!exceedsLimit(storage)"})
         protected static void doDynamicObjectUncached(@SuppressWarnings("unused") PHashingCollection container, DynamicObjectStorage storage, String name, Object value) {
             storage.getStore().define(name, value);
+            storage.keyChanged(name);
         }
 
         @Specialization(guards = {"storage.getStore().getShape().isValid()", "exceedsLimit(storage)"})
         protected void doDynamicObjectGeneralize(PHashingCollection container, FastDictStorage storage, String name, Object value) {
-            switchToEconomicMap(container, storage).setItem(name, value, getEquivalence());
+            switchToStringMap(container, storage).setString(name, value);
         }
 
         @TruffleBoundary
@@ -727,6 +773,7 @@ public abstract class HashingStorageNodes {
                 /* Our guards ensure that the value can be stored, so this cannot happen. */
                 throw new IllegalStateException(ex);
             }
+            storage.keyChanged(cachedName);
         }
 
         /**
@@ -758,6 +805,7 @@ public abstract class HashingStorageNodes {
                 /* Our guards ensure that the value can be stored, so this cannot happen. */
                 throw new IllegalStateException(ex);
             }
+            storage.keyChanged(cachedName);
         }
 
         /**
@@ -776,11 +824,12 @@ public abstract class HashingStorageNodes {
                         })
         protected static void doDynamicObjectPStringUncached(@SuppressWarnings("unused") PHashingCollection container, DynamicObjectStorage storage, PString name, Object value) {
             storage.getStore().define(name.getValue(), value);
+            storage.keyChanged(name.getValue());
         }
 
         @Specialization(guards = {"wrappedString(name)", "storage.getStore().getShape().isValid()", "exceedsLimit(storage)"})
         protected void doDynamicObjectPStringGeneralize(PHashingCollection container, DynamicObjectStorage storage, PString name, Object value) {
-            switchToEconomicMap(container, storage).setItem(name.getValue(), value, getEquivalence());
+            switchToStringMap(container, storage).setString(name.getValue(), value);
         }
 
         @TruffleBoundary
@@ -838,6 +887,37 @@ public abstract class HashingStorageNodes {
             newStorage.addAll(storage, getEquivalence());
             newStorage.setItem(key, value, getEquivalence());
             container.setDictStorage(newStorage);
+            PythonMetrics.record(PythonMetrics.DICT_STORAGE_SWITCHED, KeywordsStorage.class, EconomicMapStorage.class, this);
+        }
+
+        @Specialization
+        protected void doLongMap(@SuppressWarnings("unused") PHashingCollection container, LongMapStorage storage, int key, Object value) {
+            storage.setLong(key, value);
+        }
+
+        @Specialization
+        protected void doLongMap(@SuppressWarnings("unused") PHashingCollection container, LongMapStorage storage, long key, Object value) {
+            storage.setLong(key, value);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(key)"})
+        protected void doLongMapGeneralize(PHashingCollection container, LongMapStorage storage, Object key, Object value) {
+            switchToEconomicMap(container, storage).setItem(key, value, getEquivalence());
+        }
+
+        @Specialization
+        protected void doStringMap(@SuppressWarnings("unused") PHashingCollection container, StringMapStorage storage, String key, Object value) {
+            storage.setString(key, value);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected void doStringMap(@SuppressWarnings("unused") PHashingCollection container, StringMapStorage storage, PString key, Object value) {
+            storage.setString(key.getValue(), value);
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        protected void doStringMapGeneralize(PHashingCollection container, StringMapStorage storage, Object key, Object value) {
+            switchToEconomicMap(container, storage).setItem(key, value, getEquivalence());
         }
 
         @Specialization(guards = "isHashable(key)")
@@ -910,7 +990,7 @@ public abstract class HashingStorageNodes {
                                         "shape.getValidAssumption()"
                         })
         protected static Object doDynamicObjectString(DynamicObjectStorage storage, @SuppressWarnings("unused") String name,
-                        @SuppressWarnings("unused") @Cached("name") String cachedName,
+                        @Cached("name") String cachedName,
                         @Cached("lookupShape(storage.getStore())") Shape shape,
                         @Cached("lookupLocation(shape, name)") Location location) {
 
@@ -998,6 +1078,36 @@ public abstract class HashingStorageNodes {
             return null;
         }
 
+        @Specialization
+        Object doLongMap(LongMapStorage storage, int key) {
+            return storage.getLong(key);
+        }
+
+        @Specialization
+        Object doLongMap(LongMapStorage storage, long key) {
+            return storage.getLong(key);
+        }
+
+        @Specialization(guards = {"!isLongKey(key)", "isHashable(key)"})
+        Object doLongMap(LongMapStorage storage, Object key) {
+            return storage.getItem(key, getEquivalence());
+        }
+
+        @Specialization
+        Object doStringMap(StringMapStorage storage, String key) {
+            return storage.getString(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        Object doStringMap(StringMapStorage storage, PString key) {
+            return storage.getString(key.getValue());
+        }
+
+        @Specialization(guards = {"!isJavaString(key)", "isHashable(key)"})
+        Object doStringMap(StringMapStorage storage, Object key) {
+            return storage.getItem(key, getEquivalence());
+        }
+
         @Specialization(guards = "isHashable(key)")
         Object doGeneric(EconomicMapStorage storage, Object key) {
             return storage.getItem(key, getEquivalence());
@@ -1166,6 +1276,36 @@ public abstract class HashingStorageNodes {
             return false;
         }
 
+        @Specialization
+        protected boolean doLongMap(@SuppressWarnings("unused") PHashingCollection container, LongMapStorage storage, int key) {
+            return storage.removeLong(key);
+        }
+
+        @Specialization
+        protected boolean doLongMap(@SuppressWarnings("unused") PHashingCollection container, LongMapStorage storage, long key) {
+            return storage.removeLong(key);
+        }
+
+        @Specialization(guards = "!isLongKey(key)")
+        protected boolean doLongMap(@SuppressWarnings("unused") PHashingCollection container, LongMapStorage storage, Object key) {
+            return storage.remove(key, getEquivalence());
+        }
+
+        @Specialization
+        protected boolean doStringMap(@SuppressWarnings("unused") PHashingCollection container, StringMapStorage storage, String key) {
+            return storage.removeString(key);
+        }
+
+        @Specialization(guards = "wrappedString(key)")
+        protected boolean doStringMap(@SuppressWarnings("unused") PHashingCollection container, StringMapStorage storage, PString key) {
+            return storage.removeString(key.getValue());
+        }
+
+        @Specialization(guards = "!isJavaString(key)")
+        protected boolean doStringMap(@SuppressWarnings("unused") PHashingCollection container, StringMapStorage storage, Object key) {
+            return storage.remove(key, getEquivalence());
+        }
+
         @Specialization
         protected boolean doEconomicMap(@SuppressWarnings("unused") PHashingCollection container, EconomicMapStorage storage, Object key) {
             return storage.remove(key, getEquivalence());
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.common;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Insertion-ordered hash storage for dictionaries and sets whose keys are all Java strings.
+ *
+ * This is the counterpart of {@link LongMapStorage} for {@code str} keys that is used once a
+ * dictionary outgrows the {@link DynamicObjectStorage.FastDictStorage} or when a set is filled with
+ * strings. The hash of every key is cached next to it, so neither probing nor resizing ever has to
+ * recompute or compare more than the hashes of colliding keys.
+ *
+ * Only {@link String} keys can be stored, the nodes in {@link HashingStorageNodes} switch to an
+ * {@link EconomicMapStorage} before any other key is inserted.
+ */
+public final class StringMapStorage extends HashingStorage {
+
+    private static final int INITIAL_INDEX_SIZE = 8;
+
+    /** Index table marker for a slot that has never been used. */
+    private static final int EMPTY = -1;
+
+    /** Index table marker for a slot whose entry was removed. */
+    private static final int DUMMY = -2;
+
+    private static final int PERTURB_SHIFT = 5;
+
+    private String[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int[] indices;
+
+    /** Number of used entries in {@link #keys} and {@link #values}, including removed ones. */
+    private int used;
+
+    /** Number of live entries. */
+    private int size;
+
+    public StringMapStorage() {
+        this(0);
+    }
+
+    public StringMapStorage(int expectedSize) {
+        int indexSize = indexSizeFor(expectedSize);
+        this.indices = newIndices(indexSize);
+        this.keys = new String[usable(indexSize)];
+        this.hashes = new int[usable(indexSize)];
+        this.values = new Object[usable(indexSize)];
+    }
+
+    private StringMapStorage(StringMapStorage other) {
+        this.indices = other.indices.clone();
+        this.keys = other.keys.clone();
+        this.hashes = other.hashes.clone();
+        this.values = other.values.clone();
+        this.used = other.used;
+        this.size = other.size;
+    }
+
+    private static int usable(int indexSize) {
+        return (indexSize << 1) / 3;
+    }
+
+    private static int indexSizeFor(int expectedSize) {
+        int indexSize = INITIAL_INDEX_SIZE;
+        while (usable(indexSize) < expectedSize) {
+            indexSize <<= 1;
+        }
+        return indexSize;
+    }
+
+    private static int[] newIndices(int indexSize) {
+        int[] result = new int[indexSize];
+        Arrays.fill(result, EMPTY);
+        return result;
+    }
+
+    private int findSlot(String key, int hash) {
+        int[] table = indices;
+        int mask = table.length - 1;
+        int perturb = hash;
+        int i = perturb & mask;
+        while (true) {
+            int ix = table[i];
+            if (ix == EMPTY || ix >= 0 && hashes[ix] == hash && key.equals(keys[ix])) {
+                return i;
+            }
+            perturb >>>= PERTURB_SHIFT;
+            i = (i * 5 + perturb + 1) & mask;
+        }
+    }
+
+    private int findString(String key) {
+        return indices[findSlot(key, key.hashCode())];
+    }
+
+    private int findGeneric(Object key, Equivalence eq) {
+        int hash = eq.hashCode(key);
+        int[] table = indices;
+        int mask = table.length - 1;
+        int perturb = hash;
+        int i = perturb & mask;
+        while (true) {
+            int ix = table[i];
+            if (ix == EMPTY) {
+                return -1;
+            } else if (ix >= 0 && hashes[ix] == hash && eq.equals(key, keys[ix])) {
+                return ix;
+            }
+            perturb >>>= PERTURB_SHIFT;
+            i = (i * 5 + perturb + 1) & mask;
+        }
+    }
+
+    private int find(Object key, Equivalence eq) {
+        if (key instanceof String) {
+            return findString((String) key);
+        } else if (key instanceof Integer || key instanceof Long || key instanceof Boolean || key instanceof Double) {
+            return -1;
+        }
+        return findGeneric(key, eq);
+    }
+
+    public Object getString(String key) {
+        int ix = findString(key);
+        return ix < 0 ? null : values[ix];
+    }
+
+    public boolean hasString(String key) {
+        return findString(key) >= 0;
+    }
+
+    public void setString(String key, Object value) {
+        assert value != null;
+        int hash = key.hashCode();
+        int slot = findSlot(key, hash);
+        int ix = indices[slot];
+        if (ix >= 0) {
+            values[ix] = value;
+            return;
+        }
+        if (used == keys.length) {
+            resize(size + 1);
+            slot = findSlot(key, hash);
+        }
+        keys[used] = key;
+        hashes[used] = hash;
+        values[used] = value;
+        indices[slot] = used;
+        used++;
+        size++;
+    }
+
+    public boolean removeString(String key) {
+        int slot = findSlot(key, key.hashCode());
+        int ix = indices[slot];
+        if (ix < 0) {
+            return false;
+        }
+        indices[slot] = DUMMY;
+        keys[ix] = null;
+        values[ix] = null;
+        size--;
+        return true;
+    }
+
+    private void resize(int minSize) {
+        // grow only if the live entries need it, otherwise just drop the removed ones
+        int indexSize = indexSizeFor(Math.max(minSize, size << 1));
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        int oldUsed = used;
+        indices = newIndices(indexSize);
+        keys = new String[usable(indexSize)];
+        hashes = new int[usable(indexSize)];
+        values = new Object[usable(indexSize)];
+        used = 0;
+        int mask = indexSize - 1;
+        for (int j = 0; j < oldUsed; j++) {
+            if (oldKeys[j] != null) {
+                int hash = oldHashes[j];
+                int perturb = hash;
+                int i = perturb & mask;
+                while (indices[i] != EMPTY) {
+                    perturb >>>= PERTURB_SHIFT;
+                    i = (i * 5 + perturb + 1) & mask;
+                }
+                keys[used] = oldKeys[j];
+                hashes[used] = hash;
+                values[used] = oldValues[j];
+                indices[i] = used;
+                used++;
+            }
+        }
+        assert used == size;
+    }
+
+    @Override
+    public int length() {
+        return size;
+    }
+
+    @Override
+    public boolean hasKey(Object key, Equivalence eq) {
+        return find(key, eq) >= 0;
+    }
+
+    @Override
+    public Object getItem(Object key, Equivalence eq) {
+        int ix = find(key, eq);
+        return ix < 0 ? null : values[ix];
+    }
+
+    @Override
+    public void setItem(Object key, Object value, Equivalence eq) {
+        if (key instanceof String) {
+            setString((String) key, value);
+        } else {
+            int ix = find(key, eq);
+            if (ix < 0) {
+                // the key cannot be represented, the owner has to generalize the storage
+                throw UnmodifiableStorageException.INSTANCE;
+            }
+            values[ix] = value;
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Equivalence eq) {
+        int ix = find(key, eq);
+        if (ix < 0) {
+            return false;
+        }
+        return removeString(keys[ix]);
+    }
+
+    @Override
+    public void clear() {
+        indices = newIndices(INITIAL_INDEX_SIZE);
+        keys = new String[usable(INITIAL_INDEX_SIZE)];
+        hashes = new int[usable(INITIAL_INDEX_SIZE)];
+        values = new Object[usable(INITIAL_INDEX_SIZE)];
+        used = 0;
+        size = 0;
+    }
+
+    @Override
+    public HashingStorage copy(Equivalence eq) {
+        return new StringMapStorage(this);
+    }
+
+    private abstract class EntryIterator<T> implements Iterator<T> {
+        private int current = advance(0);
+
+        private int advance(int start) {
+            int i = start;
+            while (i < used && keys[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current < used;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = get(current);
+            current = advance(current + 1);
+            return result;
+        }
+
+        protected abstract T get(int index);
+    }
+
+    @Override
+    public Iterable<Object> keys() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntryIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return keys[index];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Object> values() {
+        return new Iterable<Object>() {
+            public Iterator<Object> iterator() {
+                return new EntryIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return values[index];
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<DictEntry> entries() {
+        return new Iterable<DictEntry>() {
+            public Iterator<DictEntry> iterator() {
+                return new EntryIterator<DictEntry>() {
+                    @Override
+                    protected DictEntry get(int index) {
+                        return new DictEntry(keys[index], values[index]);
+                    }
+                };
+            }
+        };
+    }
+}
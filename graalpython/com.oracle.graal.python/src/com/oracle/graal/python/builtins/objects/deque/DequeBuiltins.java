@@ -0,0 +1,843 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__BOOL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CONTAINS__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__COPY__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__DELITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IADD__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__IMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__INIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__MUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REDUCE__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REVERSED__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__RMUL__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.PBaseNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.SequenceUtil.NormalizeIndexNode;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PDeque.class)
+public class DequeBuiltins extends PythonBuiltins {
+
+    private static final String OUT_OF_BOUNDS = "deque index out of range";
+    private static final String MUTATED = "deque mutated during iteration";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return DequeBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Appends all elements of an iterable to either end of a deque. Deques are copied up front, so
+     * that extending a deque with itself terminates.
+     */
+    static final class ExtendNode extends PBaseNode {
+        @Child private GetIteratorNode getIterator = GetIteratorNode.create();
+        @Child private GetNextNode next = GetNextNode.create();
+        private final ConditionProfile errorProfile = ConditionProfile.createBinaryProfile();
+
+        static ExtendNode create() {
+            return new ExtendNode();
+        }
+
+        void execute(PDeque self, Object iterable, boolean left) {
+            if (iterable instanceof PDeque) {
+                Object[] values = ((PDeque) iterable).getStore().toArray();
+                for (int i = 0; i < values.length; i++) {
+                    add(self, values[i], left);
+                }
+                return;
+            }
+            Object iterator = getIterator.executeWith(iterable);
+            while (true) {
+                Object value;
+                try {
+                    value = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return;
+                }
+                add(self, value, left);
+            }
+        }
+
+        private static void add(PDeque self, Object value, boolean left) {
+            if (left) {
+                self.appendLeft(value);
+            } else {
+                self.append(value);
+            }
+        }
+    }
+
+    /**
+     * Base for the operations that compare the elements against a value. Like CPython, a deque
+     * that is changed by one of the {@code __eq__} calls raises a {@code RuntimeError}.
+     */
+    abstract static class DequeSearchNode extends PythonBuiltinNode {
+        @Child private BinaryComparisonNode eqNode;
+
+        protected final boolean isElementEqual(PDeque self, int idx, Object value) {
+            if (eqNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                eqNode = insert(BinaryComparisonNode.create(__EQ__, __EQ__, "=="));
+            }
+            int state = self.getState();
+            Object item = self.getStore().getItem(idx);
+            boolean result = item == value || eqNode.executeBool(item, value);
+            if (self.getState() != state) {
+                throw raise(RuntimeError, MUTATED);
+            }
+            return result;
+        }
+
+        protected final int find(PDeque self, Object value, int start, int stop) {
+            for (int i = start; i < stop && i < self.len(); i++) {
+                if (isElementEqual(self, i, value)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // deque([iterable[, maxlen]])
+    @Builtin(name = __INIT__, minNumOfArguments = 1, maxNumOfArguments = 3, keywordArguments = {"iterable", "maxlen"})
+    @GenerateNodeFactory
+    public abstract static class InitNode extends PythonBuiltinNode {
+        @Child private ExtendNode extendNode;
+
+        @Specialization
+        PNone init(PDeque self, Object iterable, Object maxlen) {
+            self.setMaxLength(toMaxLength(maxlen));
+            if (self.len() > 0) {
+                self.clear();
+            }
+            if (iterable != PNone.NO_VALUE) {
+                if (extendNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    extendNode = insert(ExtendNode.create());
+                }
+                extendNode.execute(self, iterable, false);
+            }
+            return PNone.NONE;
+        }
+
+        private int toMaxLength(Object maxlen) {
+            long value;
+            if (maxlen instanceof PNone) {
+                return -1;
+            } else if (maxlen instanceof Integer) {
+                value = (int) maxlen;
+            } else if (maxlen instanceof Long) {
+                value = (long) maxlen;
+            } else if (maxlen instanceof PInt) {
+                value = ((PInt) maxlen).getValue().signum() < 0 ? -1 : Long.MAX_VALUE;
+            } else {
+                throw raise(TypeError, "an integer is required");
+            }
+            if (value < 0) {
+                throw raise(ValueError, "maxlen must be non-negative");
+            } else if (value > Integer.MAX_VALUE) {
+                throw raise(OverflowError, "maxlen is too large");
+            }
+            return (int) value;
+        }
+    }
+
+    @Builtin(name = "maxlen", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class MaxlenNode extends PythonBuiltinNode {
+        @Specialization
+        Object maxlen(PDeque self) {
+            int maxLength = self.getMaxLength();
+            return maxLength < 0 ? PNone.NONE : maxLength;
+        }
+    }
+
+    @Builtin(name = "append", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class AppendNode extends PythonBuiltinNode {
+        @Specialization(guards = {"self.isIntStorage()", "!self.isFull()"})
+        PNone appendInt(PDeque self, int value) {
+            self.appendInt(value);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone append(PDeque self, Object value) {
+            self.append(value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "appendleft", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class AppendLeftNode extends PythonBuiltinNode {
+        @Specialization
+        PNone appendLeft(PDeque self, Object value) {
+            self.appendLeft(value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "pop", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class PopNode extends PythonBuiltinNode {
+        @Specialization(guards = "self.isIntStorage()")
+        int popInt(PDeque self,
+                        @Cached("createBinaryProfile()") ConditionProfile isEmpty) {
+            if (isEmpty.profile(self.len() == 0)) {
+                throw raise(IndexError, "pop from an empty deque");
+            }
+            return self.popInt();
+        }
+
+        @Specialization(guards = "!self.isIntStorage()")
+        Object pop(PDeque self,
+                        @Cached("createBinaryProfile()") ConditionProfile isEmpty) {
+            if (isEmpty.profile(self.len() == 0)) {
+                throw raise(IndexError, "pop from an empty deque");
+            }
+            return self.pop();
+        }
+    }
+
+    @Builtin(name = "popleft", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class PopLeftNode extends PythonBuiltinNode {
+        @Specialization
+        Object popLeft(PDeque self,
+                        @Cached("createBinaryProfile()") ConditionProfile isEmpty) {
+            if (isEmpty.profile(self.len() == 0)) {
+                throw raise(IndexError, "pop from an empty deque");
+            }
+            return self.popLeft();
+        }
+    }
+
+    @Builtin(name = "extend", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ExtendBuiltinNode extends PythonBuiltinNode {
+        @Specialization
+        PNone extend(PDeque self, Object iterable,
+                        @Cached("create()") ExtendNode extendNode) {
+            extendNode.execute(self, iterable, false);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "extendleft", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ExtendLeftNode extends PythonBuiltinNode {
+        @Specialization
+        PNone extendLeft(PDeque self, Object iterable,
+                        @Cached("create()") ExtendNode extendNode) {
+            extendNode.execute(self, iterable, true);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __IADD__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class IAddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDeque iadd(PDeque self, Object iterable,
+                        @Cached("create()") ExtendNode extendNode) {
+            extendNode.execute(self, iterable, false);
+            return self;
+        }
+    }
+
+    @Builtin(name = "insert", fixedNumOfArguments = 3)
+    @GenerateNodeFactory
+    public abstract static class InsertNode extends PythonBuiltinNode {
+        @Specialization
+        PNone insert(PDeque self, int index, Object value) {
+            return doInsert(self, index, value);
+        }
+
+        @Specialization
+        PNone insert(PDeque self, long index, Object value) {
+            return doInsert(self, (int) Math.max(Math.min(index, Integer.MAX_VALUE), Integer.MIN_VALUE), value);
+        }
+
+        @Fallback
+        Object insert(@SuppressWarnings("unused") Object self, Object index, @SuppressWarnings("unused") Object value) {
+            throw raise(TypeError, "'%p' object cannot be interpreted as an integer", index);
+        }
+
+        private PNone doInsert(PDeque self, int index, Object value) {
+            if (self.isFull()) {
+                throw raise(IndexError, "deque already at its maximum size");
+            }
+            int length = self.len();
+            int idx = index < 0 ? Math.max(index + length, 0) : Math.min(index, length);
+            self.insert(idx, value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "remove", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class RemoveNode extends DequeSearchNode {
+        @Specialization
+        PNone remove(PDeque self, Object value) {
+            int idx = find(self, value, 0, self.len());
+            if (idx < 0) {
+                throw raise(ValueError, "deque.remove(x): x not in deque");
+            }
+            self.delete(idx);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "index", minNumOfArguments = 2, maxNumOfArguments = 4)
+    @GenerateNodeFactory
+    public abstract static class IndexNode extends DequeSearchNode {
+        @Specialization
+        int index(PDeque self, Object value, Object start, Object stop) {
+            int length = self.len();
+            int idx = find(self, value, toIndex(start, 0, length), toIndex(stop, length, length));
+            if (idx < 0) {
+                throw raise(ValueError, "%r is not in deque", value);
+            }
+            return idx;
+        }
+
+        private int toIndex(Object value, int defaultValue, int length) {
+            long idx;
+            if (value instanceof PNone) {
+                return defaultValue;
+            } else if (value instanceof Integer) {
+                idx = (int) value;
+            } else if (value instanceof Long) {
+                idx = (long) value;
+            } else if (value instanceof PInt) {
+                idx = ((PInt) value).getValue().signum() < 0 ? Long.MIN_VALUE / 2 : Long.MAX_VALUE;
+            } else {
+                throw raise(TypeError, "slice indices must be integers or have an __index__ method");
+            }
+            if (idx < 0) {
+                idx += length;
+            }
+            return (int) Math.max(Math.min(idx, length), 0);
+        }
+    }
+
+    @Builtin(name = "count", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class CountNode extends DequeSearchNode {
+        @Specialization
+        int count(PDeque self, Object value) {
+            int count = 0;
+            for (int i = 0; i < self.len(); i++) {
+                if (isElementEqual(self, i, value)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    @Builtin(name = __CONTAINS__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class ContainsNode extends DequeSearchNode {
+        @Specialization
+        boolean contains(PDeque self, Object value) {
+            return find(self, value, 0, self.len()) >= 0;
+        }
+    }
+
+    @Builtin(name = "rotate", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class RotateNode extends PythonBuiltinNode {
+        @Specialization
+        PNone rotate(PDeque self, @SuppressWarnings("unused") PNone n) {
+            self.rotate(1);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone rotate(PDeque self, int n) {
+            self.rotate(n);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone rotate(PDeque self, long n) {
+            self.rotate(n);
+            return PNone.NONE;
+        }
+
+        @Specialization
+        PNone rotate(PDeque self, PInt n) {
+            if (self.len() > 0) {
+                self.rotate(mod(n.getValue(), self.len()));
+            }
+            return PNone.NONE;
+        }
+
+        @Fallback
+        Object rotate(@SuppressWarnings("unused") Object self, Object n) {
+            throw raise(TypeError, "'%p' object cannot be interpreted as an integer", n);
+        }
+
+        @TruffleBoundary
+        private static long mod(BigInteger n, int length) {
+            return n.mod(BigInteger.valueOf(length)).longValue();
+        }
+    }
+
+    @Builtin(name = "reverse", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReverseNode extends PythonBuiltinNode {
+        @Specialization
+        PNone reverse(PDeque self) {
+            self.reverse();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "clear", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ClearNode extends PythonBuiltinNode {
+        @Specialization
+        PNone clear(PDeque self) {
+            self.clear();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "copy", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class CopyNode extends PythonBuiltinNode {
+        @Specialization
+        PDeque copy(PDeque self) {
+            PDeque copy = factory().createDeque(self.getPythonClass());
+            copy.setStore(self.getStore().copy());
+            copy.setMaxLength(self.getMaxLength());
+            return copy;
+        }
+    }
+
+    @Builtin(name = __COPY__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class DunderCopyNode extends CopyNode {
+    }
+
+    @Builtin(name = __REDUCE__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReduceNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object reduce(PDeque self) {
+            Object maxlen = self.getMaxLength() < 0 ? PNone.NONE : self.getMaxLength();
+            Object[] args = new Object[]{factory().createList(self.getStore().toArray()), maxlen};
+            return factory().createTuple(new Object[]{self.getPythonClass(), factory().createTuple(args)});
+        }
+    }
+
+    @Builtin(name = __LEN__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class LenNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int len(PDeque self) {
+            return self.len();
+        }
+    }
+
+    @Builtin(name = __BOOL__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class BoolNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        boolean bool(PDeque self) {
+            return self.len() != 0;
+        }
+    }
+
+    abstract static class IndexedNode extends PythonBuiltinNode {
+        @Child private NormalizeIndexNode normalize = NormalizeIndexNode.create();
+
+        protected final int normalize(PDeque self, Object index) {
+            if (index instanceof Integer) {
+                return normalize.execute((int) index, self.len(), OUT_OF_BOUNDS);
+            } else if (index instanceof Long) {
+                return normalize.execute((long) index, self.len(), OUT_OF_BOUNDS);
+            } else if (index instanceof PInt) {
+                return normalize.execute((PInt) index, self.len(), OUT_OF_BOUNDS);
+            }
+            throw raise(TypeError, "sequence index must be integer, not '%p'", index);
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GetItemNode extends IndexedNode {
+        @Specialization(guards = "self.isIntStorage()")
+        int getIntItem(PDeque self, int index) {
+            return ((IntDequeStorage) self.getStore()).getIntItem(normalize(self, index));
+        }
+
+        @Specialization
+        Object getItem(PDeque self, Object index) {
+            return self.getStore().getItem(normalize(self, index));
+        }
+    }
+
+    @Builtin(name = __SETITEM__, fixedNumOfArguments = 3)
+    @GenerateNodeFactory
+    public abstract static class SetItemNode extends IndexedNode {
+        @Specialization
+        PNone setItem(PDeque self, Object index, Object value) {
+            self.setItem(normalize(self, index), value);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __DELITEM__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class DelItemNode extends IndexedNode {
+        @Specialization
+        PNone delItem(PDeque self, Object index) {
+            self.delete(normalize(self, index));
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIterator iter(PDeque self) {
+            return factory().createDequeIterator(self, false);
+        }
+    }
+
+    @Builtin(name = __REVERSED__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReversedNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDequeIterator reversed(PDeque self) {
+            return factory().createDequeIterator(self, true);
+        }
+    }
+
+    @Builtin(name = __ADD__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class AddNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PDeque add(PDeque self, PDeque other,
+                        @Cached("create()") ExtendNode extendNode) {
+            PDeque result = factory().createDeque(self.getPythonClass());
+            result.setStore(self.getStore().copy());
+            result.setMaxLength(self.getMaxLength());
+            extendNode.execute(result, other, false);
+            return result;
+        }
+
+        @Fallback
+        Object add(@SuppressWarnings("unused") Object self, Object other) {
+            throw raise(TypeError, "can only concatenate deque (not \"%p\") to deque", other);
+        }
+    }
+
+    abstract static class RepeatNode extends PythonBinaryBuiltinNode {
+        protected static void repeat(PDeque deque, Object[] values, int times) {
+            for (int i = 0; i < times; i++) {
+                for (int j = 0; j < values.length; j++) {
+                    deque.append(values[j]);
+                }
+            }
+        }
+
+        @Fallback
+        Object mul(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __MUL__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class MulNode extends RepeatNode {
+        @Specialization
+        PDeque mul(PDeque self, int times) {
+            PDeque result = factory().createDeque(self.getPythonClass());
+            result.setMaxLength(self.getMaxLength());
+            repeat(result, self.getStore().toArray(), times);
+            return result;
+        }
+    }
+
+    @Builtin(name = __RMUL__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class RMulNode extends MulNode {
+    }
+
+    @Builtin(name = __IMUL__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class IMulNode extends RepeatNode {
+        @Specialization
+        PDeque imul(PDeque self, int times) {
+            if (times <= 0) {
+                self.clear();
+            } else {
+                repeat(self, self.getStore().toArray(), times - 1);
+            }
+            return self;
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        Object repr(PDeque self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode repr) {
+            StringBuilder result = new StringBuilder(self.getPythonClass().getName()).append("([");
+            Object[] values = self.getStore().toArray();
+            for (int i = 0; i < values.length; i++) {
+                Object reprString = repr.executeObject(values[i]);
+                if (reprString instanceof PString) {
+                    reprString = ((PString) reprString).getValue();
+                }
+                if (!(reprString instanceof String)) {
+                    throw raise(TypeError, "__repr__ returned non-string (type %p)", reprString);
+                }
+                if (i > 0) {
+                    result.append(", ");
+                }
+                result.append((String) reprString);
+            }
+            result.append(']');
+            if (self.getMaxLength() >= 0) {
+                result.append(", maxlen=").append(self.getMaxLength());
+            }
+            return result.append(')').toString();
+        }
+    }
+
+    @Builtin(name = __HASH__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class HashNode extends PythonBuiltinNode {
+        @Specialization
+        Object hash(Object self) {
+            throw raise(TypeError, "unhashable type: '%p'", self);
+        }
+    }
+
+    /**
+     * Lexicographic comparison of two deques. Elements are compared on snapshots so that
+     * {@code __eq__} implementations that modify either deque cannot make the indices go stale.
+     */
+    abstract static class DequeCompareNode extends PythonBinaryBuiltinNode {
+        @Child private BinaryComparisonNode eqNode = BinaryComparisonNode.create(__EQ__, __EQ__, "==");
+
+        /**
+         * @return the first index at which the elements differ, or the length of the shorter
+         *         deque
+         */
+        protected final int mismatch(Object[] left, Object[] right) {
+            int min = Math.min(left.length, right.length);
+            for (int i = 0; i < min; i++) {
+                if (left[i] != right[i] && !eqNode.executeBool(left[i], right[i])) {
+                    return i;
+                }
+            }
+            return min;
+        }
+
+        @Fallback
+        Object compare(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object other) {
+            return PNotImplemented.NOT_IMPLEMENTED;
+        }
+    }
+
+    @Builtin(name = __EQ__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class EqNode extends DequeCompareNode {
+        @Specialization
+        boolean eq(PDeque self, PDeque other) {
+            if (self.len() != other.len()) {
+                return false;
+            }
+            Object[] left = self.getStore().toArray();
+            Object[] right = other.getStore().toArray();
+            return mismatch(left, right) == left.length;
+        }
+    }
+
+    @Builtin(name = __NE__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class NeNode extends DequeCompareNode {
+        @Specialization
+        boolean ne(PDeque self, PDeque other) {
+            if (self.len() != other.len()) {
+                return true;
+            }
+            Object[] left = self.getStore().toArray();
+            Object[] right = other.getStore().toArray();
+            return mismatch(left, right) != left.length;
+        }
+    }
+
+    abstract static class OrderNode extends DequeCompareNode {
+        @Child private BinaryComparisonNode orderNode;
+
+        protected abstract BinaryComparisonNode createOrderNode();
+
+        protected abstract boolean compareLengths(int left, int right);
+
+        @Specialization
+        boolean compare(PDeque self, PDeque other) {
+            Object[] left = self.getStore().toArray();
+            Object[] right = other.getStore().toArray();
+            int idx = mismatch(left, right);
+            if (idx < left.length && idx < right.length) {
+                if (orderNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    orderNode = insert(createOrderNode());
+                }
+                return orderNode.executeBool(left[idx], right[idx]);
+            }
+            return compareLengths(left.length, right.length);
+        }
+    }
+
+    @Builtin(name = __LT__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class LtNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__LT__, __GT__, "<");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left < right;
+        }
+    }
+
+    @Builtin(name = __LE__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class LeNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__LE__, __GE__, "<=");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left <= right;
+        }
+    }
+
+    @Builtin(name = __GT__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GtNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__GT__, __LT__, ">");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left > right;
+        }
+    }
+
+    @Builtin(name = __GE__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GeNode extends OrderNode {
+        @Override
+        protected BinaryComparisonNode createOrderNode() {
+            return BinaryComparisonNode.create(__GE__, __LE__, ">=");
+        }
+
+        @Override
+        protected boolean compareLengths(int left, int right) {
+            return left >= right;
+        }
+    }
+}
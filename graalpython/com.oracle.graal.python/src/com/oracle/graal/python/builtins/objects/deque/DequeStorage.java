@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
+
+/**
+ * The elements of a {@link PDeque}, kept in a circular array whose capacity is always a power of
+ * two. Indices passed to the accessors are logical, i.e. relative to the left end of the deque,
+ * and must already be normalized.
+ */
+public abstract class DequeStorage {
+
+    protected static final int INITIAL_CAPACITY = 8;
+
+    protected int head;
+    protected int length;
+
+    public final int length() {
+        return length;
+    }
+
+    protected abstract int capacity();
+
+    protected final int mask() {
+        return capacity() - 1;
+    }
+
+    protected final int physical(int idx) {
+        return (head + idx) & mask();
+    }
+
+    protected final int newCapacity() {
+        int capacity = capacity();
+        if (capacity >= Integer.MAX_VALUE / 2) {
+            throw new OutOfMemoryError();
+        }
+        return capacity * 2;
+    }
+
+    public abstract Object getItem(int idx);
+
+    public abstract void setItem(int idx, Object value) throws SequenceStoreException;
+
+    public abstract void append(Object value) throws SequenceStoreException;
+
+    public abstract void appendLeft(Object value) throws SequenceStoreException;
+
+    public abstract void insert(int idx, Object value) throws SequenceStoreException;
+
+    public abstract Object pop();
+
+    public abstract Object popLeft();
+
+    /**
+     * Removes the element at {@code idx}, shifting whichever side of the ring is shorter.
+     */
+    public abstract void delete(int idx);
+
+    /**
+     * Rotates {@code steps} elements from the right end to the left end, where
+     * {@code 0 <= steps < length}. A full ring only moves its head; otherwise the shorter of the
+     * two directions is taken, so at most {@code length / 2} elements are moved.
+     */
+    public abstract void rotate(int steps);
+
+    public abstract void reverse();
+
+    public abstract void clear();
+
+    public abstract DequeStorage copy();
+
+    /**
+     * @return storage that can hold any object, with the same contents as this one
+     */
+    public abstract ObjectDequeStorage generalize();
+
+    public Object[] toArray() {
+        Object[] result = new Object[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = getItem(i);
+        }
+        return result;
+    }
+}
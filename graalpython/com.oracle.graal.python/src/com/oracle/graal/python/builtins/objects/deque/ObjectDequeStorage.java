@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+/**
+ * Deque storage holding arbitrary objects. Vacated slots are cleared so that popped elements can
+ * be collected.
+ */
+public final class ObjectDequeStorage extends DequeStorage {
+
+    private Object[] values;
+
+    public ObjectDequeStorage() {
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    ObjectDequeStorage(Object[] values, int length) {
+        assert Integer.bitCount(values.length) == 1;
+        this.values = values;
+        this.length = length;
+    }
+
+    private ObjectDequeStorage(Object[] values, int head, int length) {
+        this.values = values;
+        this.head = head;
+        this.length = length;
+    }
+
+    @Override
+    protected int capacity() {
+        return values.length;
+    }
+
+    private void grow() {
+        Object[] newValues = new Object[newCapacity()];
+        int first = Math.min(length, values.length - head);
+        System.arraycopy(values, head, newValues, 0, first);
+        System.arraycopy(values, 0, newValues, first, length - first);
+        values = newValues;
+        head = 0;
+    }
+
+    @Override
+    public Object getItem(int idx) {
+        return values[physical(idx)];
+    }
+
+    @Override
+    public void setItem(int idx, Object value) {
+        values[physical(idx)] = value;
+    }
+
+    @Override
+    public void append(Object value) {
+        if (length == values.length) {
+            grow();
+        }
+        values[physical(length)] = value;
+        length++;
+    }
+
+    @Override
+    public void appendLeft(Object value) {
+        if (length == values.length) {
+            grow();
+        }
+        head = (head - 1) & mask();
+        values[head] = value;
+        length++;
+    }
+
+    @Override
+    public void insert(int idx, Object value) {
+        if (length == values.length) {
+            grow();
+        }
+        if (idx < length / 2) {
+            head = (head - 1) & mask();
+            for (int i = 0; i < idx; i++) {
+                values[physical(i)] = values[physical(i + 1)];
+            }
+        } else {
+            for (int i = length; i > idx; i--) {
+                values[physical(i)] = values[physical(i - 1)];
+            }
+        }
+        values[physical(idx)] = value;
+        length++;
+    }
+
+    @Override
+    public Object pop() {
+        assert length > 0;
+        length--;
+        int last = physical(length);
+        Object value = values[last];
+        values[last] = null;
+        return value;
+    }
+
+    @Override
+    public Object popLeft() {
+        assert length > 0;
+        Object value = values[head];
+        values[head] = null;
+        head = (head + 1) & mask();
+        length--;
+        return value;
+    }
+
+    @Override
+    public void delete(int idx) {
+        if (idx < length / 2) {
+            for (int i = idx; i > 0; i--) {
+                values[physical(i)] = values[physical(i - 1)];
+            }
+            values[head] = null;
+            head = (head + 1) & mask();
+        } else {
+            for (int i = idx; i < length - 1; i++) {
+                values[physical(i)] = values[physical(i + 1)];
+            }
+            values[physical(length - 1)] = null;
+        }
+        length--;
+    }
+
+    @Override
+    public void rotate(int steps) {
+        assert steps >= 0 && steps < Math.max(length, 1);
+        int mask = mask();
+        if (length == values.length) {
+            head = (head - steps) & mask;
+        } else if (steps <= length / 2) {
+            for (int i = 0; i < steps; i++) {
+                int last = (head + length - 1) & mask;
+                head = (head - 1) & mask;
+                values[head] = values[last];
+                values[last] = null;
+            }
+        } else {
+            for (int i = steps; i < length; i++) {
+                values[(head + length) & mask] = values[head];
+                values[head] = null;
+                head = (head + 1) & mask;
+            }
+        }
+    }
+
+    @Override
+    public void reverse() {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int pi = physical(i);
+            int pj = physical(j);
+            Object tmp = values[pi];
+            values[pi] = values[pj];
+            values[pj] = tmp;
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < length; i++) {
+            values[physical(i)] = null;
+        }
+        head = 0;
+        length = 0;
+    }
+
+    @Override
+    public ObjectDequeStorage copy() {
+        return new ObjectDequeStorage(values.clone(), head, length);
+    }
+
+    @Override
+    public ObjectDequeStorage generalize() {
+        return this;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.deque;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
+
+/**
+ * A double-ended queue backed by a {@link DequeStorage} ring buffer. The storage starts out
+ * holding unboxed ints and is generalized to objects on the first element that does not fit.
+ * <p>
+ * {@link #getState() state} is bumped by every operation that adds, removes or moves elements, so
+ * that iterators can detect concurrent modification.
+ */
+public final class PDeque extends PythonBuiltinObject {
+
+    private DequeStorage store = new IntDequeStorage();
+    private int maxLength = -1;
+    private int state;
+
+    public PDeque(PythonClass cls) {
+        super(cls);
+    }
+
+    public DequeStorage getStore() {
+        return store;
+    }
+
+    public void setStore(DequeStorage store) {
+        this.store = store;
+        state++;
+    }
+
+    public boolean isIntStorage() {
+        return store instanceof IntDequeStorage;
+    }
+
+    /**
+     * @return the maximum length, or {@code -1} if the deque is unbounded
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public int len() {
+        return store.length();
+    }
+
+    public boolean isFull() {
+        return store.length() == maxLength;
+    }
+
+    public void append(Object value) {
+        if (maxLength == 0) {
+            return;
+        }
+        if (isFull()) {
+            store.popLeft();
+        }
+        try {
+            store.append(value);
+        } catch (SequenceStoreException e) {
+            ObjectDequeStorage generalized = store.generalize();
+            store = generalized;
+            generalized.append(value);
+        }
+        state++;
+    }
+
+    public void appendInt(int value) {
+        assert isIntStorage() && !isFull();
+        ((IntDequeStorage) store).appendInt(value);
+        state++;
+    }
+
+    public void appendLeft(Object value) {
+        if (maxLength == 0) {
+            return;
+        }
+        if (isFull()) {
+            store.pop();
+        }
+        try {
+            store.appendLeft(value);
+        } catch (SequenceStoreException e) {
+            ObjectDequeStorage generalized = store.generalize();
+            store = generalized;
+            generalized.appendLeft(value);
+        }
+        state++;
+    }
+
+    /**
+     * Inserts before {@code idx}; the caller has to make sure that the deque is not full.
+     */
+    public void insert(int idx, Object value) {
+        assert !isFull();
+        try {
+            store.insert(idx, value);
+        } catch (SequenceStoreException e) {
+            ObjectDequeStorage generalized = store.generalize();
+            store = generalized;
+            generalized.insert(idx, value);
+        }
+        state++;
+    }
+
+    public void setItem(int idx, Object value) {
+        try {
+            store.setItem(idx, value);
+        } catch (SequenceStoreException e) {
+            ObjectDequeStorage generalized = store.generalize();
+            store = generalized;
+            generalized.setItem(idx, value);
+        }
+    }
+
+    public Object pop() {
+        state++;
+        return store.pop();
+    }
+
+    public int popInt() {
+        state++;
+        return ((IntDequeStorage) store).popInt();
+    }
+
+    public Object popLeft() {
+        state++;
+        return store.popLeft();
+    }
+
+    public void delete(int idx) {
+        store.delete(idx);
+        state++;
+    }
+
+    /**
+     * Rotates {@code n} steps to the right, or {@code -n} steps to the left if {@code n} is
+     * negative.
+     */
+    public void rotate(long n) {
+        int length = store.length();
+        if (length > 1) {
+            int steps = (int) Math.floorMod(n, (long) length);
+            if (steps != 0) {
+                store.rotate(steps);
+                state++;
+            }
+        }
+    }
+
+    public void reverse() {
+        store.reverse();
+        state++;
+    }
+
+    public void clear() {
+        store.clear();
+        state++;
+    }
+}
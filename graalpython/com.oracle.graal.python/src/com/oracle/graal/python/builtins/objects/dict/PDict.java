@@ -27,13 +27,16 @@ package com.oracle.graal.python.builtins.objects.dict;
 
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage;
 import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.FastDictStorage;
+import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectDictStorage;
 import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.EmptyStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage.UnmodifiableStorageException;
 import com.oracle.graal.python.builtins.objects.common.KeywordsStorage;
+import com.oracle.graal.python.builtins.objects.common.LongMapStorage;
 import com.oracle.graal.python.builtins.objects.common.PHashingCollection;
+import com.oracle.graal.python.builtins.objects.common.StringMapStorage;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 
@@ -64,10 +67,23 @@ public final class PDict extends PHashingCollection {
         try {
             dictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
         } catch (UnmodifiableStorageException e) {
-            HashingStorage newDictStorage = createNewStorage(key instanceof String, size() + 1);
-            newDictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
-            dictStorage = newDictStorage;
+            dictStorage = generalizeStorage(dictStorage, key);
+            dictStorage.setItem(key, value, HashingStorage.getSlowPathEquivalence(key));
+        }
+    }
+
+    /**
+     * Creates a storage that can hold the contents of {@code storage} as well as {@code key}.
+     */
+    public static HashingStorage generalizeStorage(HashingStorage storage, Object key) {
+        if (storage.length() == 0) {
+            return LongMapStorage.isLongKey(key) ? new LongMapStorage() : createNewStorage(key instanceof String, 1);
+        }
+        HashingStorage newDictStorage = EconomicMapStorage.create(storage.length() + 1, false);
+        for (DictEntry entry : storage.entries()) {
+            newDictStorage.setItem(entry.key, entry.value, HashingStorage.getSlowPathEquivalence(entry.key));
         }
+        return newDictStorage;
     }
 
     public static HashingStorage createNewStorage(boolean isStringKey, int expectedSize) {
@@ -76,6 +92,8 @@ public final class PDict extends PHashingCollection {
             newDictStorage = new EmptyStorage();
         } else if (isStringKey && expectedSize < DynamicObjectStorage.SIZE_THRESHOLD) {
             newDictStorage = new FastDictStorage();
+        } else if (isStringKey) {
+            newDictStorage = new StringMapStorage(expectedSize);
         } else {
             newDictStorage = EconomicMapStorage.create(expectedSize, false);
         }
@@ -108,6 +126,9 @@ public final class PDict extends PHashingCollection {
 
     @Override
     public void setDictStorage(HashingStorage newStorage) {
+        if (dictStorage != newStorage && dictStorage instanceof PythonObjectDictStorage) {
+            ((PythonObjectDictStorage) dictStorage).allKeysChanged();
+        }
         dictStorage = newStorage;
     }
 
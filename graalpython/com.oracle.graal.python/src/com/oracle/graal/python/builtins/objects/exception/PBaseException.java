@@ -70,6 +70,8 @@ public final class PBaseException extends PythonObject {
 
     private PException exception;
 
+    // set by reifyException, the stack trace itself is only materialized when it is asked for
+    private boolean stackFilledIn;
     private List<TruffleStackTraceElement> stackTrace;
     private PTraceback[] traceback;
 
@@ -96,22 +98,30 @@ public final class PBaseException extends PythonObject {
     }
 
     public PTraceback getTraceback(PythonObjectFactory factory, int index) {
-        if (index < 0 || index >= traceback.length) {
+        PTraceback[] tracebacks = getTracebacks();
+        if (index < 0 || index >= tracebacks.length) {
             return null;
         }
-        if (traceback[index] == null) {
-            traceback[index] = factory.createTraceback(this, index);
+        if (tracebacks[index] == null) {
+            tracebacks[index] = factory.createTraceback(this, index);
         }
-        return traceback[index];
+        return tracebacks[index];
     }
 
     public PTraceback getTraceback(PythonObjectFactory factory) {
         reifyException();
-        return getTraceback(factory, traceback.length - 1);
+        return getTraceback(factory, getTracebacks().length - 1);
     }
 
     public void setTraceback(PTraceback traceback) {
-        this.traceback = traceback.getException().traceback;
+        this.traceback = traceback.getException().getTracebacks();
+    }
+
+    private PTraceback[] getTracebacks() {
+        if (traceback == null) {
+            traceback = new PTraceback[getStackTrace().size()];
+        }
+        return traceback;
     }
 
     /**
@@ -151,32 +161,40 @@ public final class PBaseException extends PythonObject {
     }
 
     public List<TruffleStackTraceElement> getStackTrace() {
+        if (stackTrace == null && stackFilledIn) {
+            materializeStackTrace();
+        }
         return stackTrace;
     }
 
     /**
      * This function must be called before handing out exceptions into the Python value space,
      * because otherwise the stack will not be correct if the exception object escapes the current
-     * function.
+     * function. It only records the frames that are still on the stack; building the stack trace
+     * from them is left to {@link #getStackTrace()}.
      */
     @TruffleBoundary
     public void reifyException() {
-        if (stackTrace == null && traceback == null) {
+        if (!stackFilledIn && traceback == null) {
+            exception.tracebackObserved();
             TruffleStackTraceElement.fillIn(exception);
-            stackTrace = new ArrayList<>(TruffleStackTraceElement.getStackTrace(exception));
-            Iterator<TruffleStackTraceElement> iter = stackTrace.iterator();
-            while (iter.hasNext()) {
-                TruffleStackTraceElement element = iter.next();
-                // remove all top level exception handlers - they shouldn't show up
-                if (element.getTarget() != null) {
-                    RootNode rootNode = element.getTarget().getRootNode();
-                    if (rootNode instanceof TopLevelExceptionHandler || rootNode instanceof BuiltinFunctionRootNode) {
-                        iter.remove();
-                    }
+            stackFilledIn = true;
+        }
+    }
+
+    @TruffleBoundary
+    private void materializeStackTrace() {
+        stackTrace = new ArrayList<>(TruffleStackTraceElement.getStackTrace(exception));
+        Iterator<TruffleStackTraceElement> iter = stackTrace.iterator();
+        while (iter.hasNext()) {
+            TruffleStackTraceElement element = iter.next();
+            // remove all top level exception handlers - they shouldn't show up
+            if (element.getTarget() != null) {
+                RootNode rootNode = element.getTarget().getRootNode();
+                if (rootNode instanceof TopLevelExceptionHandler || rootNode instanceof BuiltinFunctionRootNode) {
+                    iter.remove();
                 }
             }
-
-            traceback = new PTraceback[stackTrace.size()];
         }
     }
 
@@ -37,6 +37,7 @@ import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallVarargsNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
@@ -44,6 +45,7 @@ import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.JavaTypeConversions;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -99,6 +101,30 @@ public final class FloatBuiltins extends PythonBuiltins {
     abstract static class ReprNode extends StrNode {
     }
 
+    @Builtin(name = SpecialMethodNames.__FORMAT__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class FormatNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "formatSpec.isEmpty()")
+        Object formatEmpty(Object self, @SuppressWarnings("unused") String formatSpec,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode) {
+            return strNode.executeObject(self);
+        }
+
+        @Specialization(guards = "!formatSpec.isEmpty()")
+        @TruffleBoundary
+        String format(double self, String formatSpec) {
+            StringBuilder result = new StringBuilder();
+            InternalFormat.formatFloat(getCore(), result, InternalFormat.fromText(getCore(), formatSpec), self);
+            return result.toString();
+        }
+
+        @Fallback
+        Object formatFail(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object formatSpec) {
+            throw raise(PythonErrorType.TypeError, "format_spec must be a string");
+        }
+    }
+
     @Builtin(name = SpecialMethodNames.__BOOL__, fixedNumOfArguments = 1)
     @GenerateNodeFactory
     abstract static class BoolNode extends PythonUnaryBuiltinNode {
@@ -321,6 +347,7 @@ public final class FloatBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "fromhex", fixedNumOfArguments = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class FromHexNode extends PythonBuiltinNode {
 
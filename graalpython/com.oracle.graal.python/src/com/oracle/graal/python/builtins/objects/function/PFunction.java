@@ -66,6 +66,10 @@ public class PFunction extends PythonObject implements PythonCallable {
         return new PFunction(getPythonClass(), name, enclosingClassName, arity, callTarget, frameDescriptor, newGlobals, closure);
     }
 
+    public PFunction copyWithGlobals(PythonObject newGlobals, PCell[] newClosure) {
+        return new PFunction(getPythonClass(), name, enclosingClassName, arity, callTarget, frameDescriptor, newGlobals, newClosure);
+    }
+
     @TruffleBoundary
     private static void addDefaultConstants(DynamicObject storage2, String name, String enclosingClassName) {
         storage2.define(__NAME__, name);
@@ -100,6 +104,10 @@ public class PFunction extends PythonObject implements PythonCallable {
         return name;
     }
 
+    public String getEnclosingClassName() {
+        return enclosingClassName;
+    }
+
     @Override
     public Arity getArity() {
         return arity;
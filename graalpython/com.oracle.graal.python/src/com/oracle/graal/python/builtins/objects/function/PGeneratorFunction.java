@@ -55,6 +55,15 @@ public final class PGeneratorFunction extends PFunction {
         super(clazz, name, enclosingClassName, arity, callTarget, frameDescriptor, globals, closure);
     }
 
+    @Override
+    public PFunction copyWithGlobals(PythonObject newGlobals, PCell[] newClosure) {
+        // the generator root node of our call target holds on to the closure
+        if (newClosure != getClosure()) {
+            throw new IllegalStateException("cannot replace the closure of generator function " + getName());
+        }
+        return new PGeneratorFunction(getPythonClass(), getName(), getEnclosingClassName(), getArity(), getCallTarget(), getFrameDescriptor(), newGlobals, newClosure);
+    }
+
     @Override
     public boolean isGeneratorFunction() {
         return true;
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017, Oracle and/or its affiliates.
+ * Copyright (c) 2013, Regents of the University of California
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.graal.python.builtins.objects.function;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__CALL__;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PPartial.class)
+public class PartialBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return PartialBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __CALL__, minNumOfArguments = 1, takesVariableArguments = true, takesVariableKeywords = true)
+    @GenerateNodeFactory
+    public abstract static class CallPartialNode extends PythonBuiltinNode {
+
+        @Specialization
+        protected Object call(PPartial self, PTuple arguments, PKeyword[] keywords,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile noArgsProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile noKeywordsProfile) {
+            Object[] callArgs = arguments.getArray();
+            Object[] partialArgs = self.getArgs();
+            Object[] args;
+            if (noArgsProfile.profile(partialArgs.length == 0)) {
+                args = callArgs;
+            } else {
+                args = new Object[partialArgs.length + callArgs.length];
+                System.arraycopy(partialArgs, 0, args, 0, partialArgs.length);
+                System.arraycopy(callArgs, 0, args, partialArgs.length, callArgs.length);
+            }
+            PKeyword[] kwargs;
+            if (noKeywordsProfile.profile(self.getKeywords().length == 0)) {
+                kwargs = keywords;
+            } else {
+                kwargs = mergeKeywords(self.getKeywords(), keywords);
+            }
+            return callNode.execute(self.getFunction(), args, kwargs);
+        }
+    }
+
+    @Builtin(name = "func", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class FuncNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object func(PPartial self) {
+            return self.getFunction();
+        }
+    }
+
+    @Builtin(name = "args", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ArgsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple args(PPartial self) {
+            return factory().createTuple(self.getArgs());
+        }
+    }
+
+    @Builtin(name = "keywords", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class KeywordsNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PDict keywords(PPartial self) {
+            return factory().createDict(self.getKeywords());
+        }
+    }
+
+    /**
+     * Keywords passed to the call override the ones stored in the partial object.
+     */
+    @TruffleBoundary
+    public static PKeyword[] mergeKeywords(PKeyword[] stored, PKeyword[] passed) {
+        if (passed.length == 0) {
+            return stored;
+        }
+        ArrayList<PKeyword> result = new ArrayList<>(stored.length + passed.length);
+        outer: for (PKeyword keyword : stored) {
+            for (PKeyword override : passed) {
+                if (override.getName().equals(keyword.getName())) {
+                    continue outer;
+                }
+            }
+            result.add(keyword);
+        }
+        for (PKeyword keyword : passed) {
+            result.add(keyword);
+        }
+        return result.toArray(new PKeyword[result.size()]);
+    }
+}
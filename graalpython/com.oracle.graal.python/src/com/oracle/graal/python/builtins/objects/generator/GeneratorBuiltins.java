@@ -93,7 +93,7 @@ public class GeneratorBuiltins extends PythonBuiltins {
             } catch (PException e) {
                 e.expectStopIteration(getCore(), errorProfile);
                 self.markAsFinished();
-                throw raise(StopIteration);
+                throw e;
             }
         }
     }
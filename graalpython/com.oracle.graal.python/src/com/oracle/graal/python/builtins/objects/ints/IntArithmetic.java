@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.ints;
+
+import java.math.BigInteger;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Arithmetic on {@code long} and {@link BigInteger} operands for the overflow paths of the int
+ * builtins. The exact results of {@code long} operations that overflow fit into 128 bits and are
+ * built from their two's complement words instead of by {@link BigInteger} arithmetic. Operations
+ * with a {@link PInt} operand stay on {@link BigInteger}, which the operand already is.
+ */
+public final class IntArithmetic {
+
+    private IntArithmetic() {
+        // no instances
+    }
+
+    /**
+     * The exact sum of {@code x} and {@code y}, whose {@code long} addition overflowed.
+     */
+    public static BigInteger addOverflow(long x, long y) {
+        // both operands have the same sign, which the 65-bit result keeps
+        return fromInt128(x < 0 ? -1 : 0, x + y);
+    }
+
+    /**
+     * The exact difference of {@code x} and {@code y}, whose {@code long} subtraction overflowed.
+     */
+    public static BigInteger subtractOverflow(long x, long y) {
+        // the operands have different signs and the 65-bit result has the sign of x
+        return fromInt128(x < 0 ? -1 : 0, x - y);
+    }
+
+    /**
+     * The exact negation of {@code x}, whose {@code long} negation overflowed.
+     */
+    public static BigInteger negateOverflow(long x) {
+        // only Long.MIN_VALUE overflows, its negation is 2^63
+        return fromInt128(x < 0 ? 0 : -1, -x);
+    }
+
+    /**
+     * The exact value of {@code x << n} for {@code 0 < n < 64}, whose {@code long} shift
+     * overflowed.
+     */
+    public static BigInteger shiftLeftOverflow(long x, int n) {
+        assert n > 0 && n < 64;
+        return fromInt128(x >> (64 - n), x << n);
+    }
+
+    /**
+     * The exact product of {@code x} and {@code y}, or {@code null} if it fits into a
+     * {@code long}.
+     */
+    public static BigInteger multiplyOverflow(long x, long y) {
+        long high = multiplyHigh(x, y);
+        long low = x * y;
+        if (high == (low >> 63)) {
+            return null;
+        }
+        return fromInt128(high, low);
+    }
+
+    /**
+     * The high 64 bits of the 128-bit product of {@code x} and {@code y} (Hacker's Delight, 8-2).
+     */
+    static long multiplyHigh(long x, long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = (t & 0xFFFFFFFFL) + x2 * y1;
+        long z0 = t >> 32;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    @TruffleBoundary
+    static BigInteger fromInt128(long high, long low) {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+        }
+        return new BigInteger(bytes);
+    }
+
+    @TruffleBoundary
+    public static BigInteger add(BigInteger x, long y) {
+        return x.add(BigInteger.valueOf(y));
+    }
+
+    @TruffleBoundary
+    public static BigInteger subtract(BigInteger x, long y) {
+        return x.subtract(BigInteger.valueOf(y));
+    }
+
+    @TruffleBoundary
+    public static BigInteger subtract(long x, BigInteger y) {
+        return BigInteger.valueOf(x).subtract(y);
+    }
+
+    @TruffleBoundary
+    public static BigInteger multiply(BigInteger x, long y) {
+        return x.multiply(BigInteger.valueOf(y));
+    }
+
+    @TruffleBoundary
+    public static boolean fitsInLong(BigInteger value) {
+        return value.bitLength() < 64;
+    }
+
+    @TruffleBoundary
+    public static long longValue(BigInteger value) {
+        return value.longValue();
+    }
+}
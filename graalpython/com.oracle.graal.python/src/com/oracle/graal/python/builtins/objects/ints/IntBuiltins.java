@@ -48,19 +48,23 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.ArithmeticUtil;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.dsl.TypeSystemReference;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @CoreFunctions(extendClasses = PInt.class)
 public class IntBuiltins extends PythonBuiltins {
@@ -81,6 +85,25 @@ public class IntBuiltins extends PythonBuiltins {
         }
     }
 
+    private abstract static class IntArithmeticBuiltinNode extends IntBinaryBuiltinNode {
+        private final ConditionProfile overflowProfile = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile fitsInLongProfile = ConditionProfile.createBinaryProfile();
+
+        protected final boolean profileOverflow(boolean overflow) {
+            return overflowProfile.profile(overflow);
+        }
+
+        /**
+         * Results of big int arithmetic that fit into a {@code long} are returned as such.
+         */
+        protected final Object fromBigInteger(BigInteger value) {
+            if (fitsInLongProfile.profile(IntArithmetic.fitsInLong(value))) {
+                return IntArithmetic.longValue(value);
+            }
+            return factory().createInt(value);
+        }
+    }
+
     @Builtin(name = SpecialMethodNames.__ROUND__, minNumOfArguments = 1, maxNumOfArguments = 2)
     @GenerateNodeFactory
     abstract static class RoundNode extends PythonBinaryBuiltinNode {
@@ -93,7 +116,7 @@ public class IntBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__ADD__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    public abstract static class AddNode extends PythonBinaryBuiltinNode {
+    public abstract static class AddNode extends IntArithmeticBuiltinNode {
 
         @Specialization
         Object add(boolean left, boolean right) {
@@ -131,28 +154,32 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt addPInt(boolean left, long right) {
+        Object addPInt(boolean left, long right) {
             return addPInt(PInt.intValue(left), right);
         }
 
         @Specialization
-        PInt addPInt(long left, long right) {
-            return factory().createInt(op(BigInteger.valueOf(left), BigInteger.valueOf(right)));
+        Object addPInt(long left, long right) {
+            long result = left + right;
+            if (profileOverflow(((left ^ result) & (right ^ result)) < 0)) {
+                return factory().createInt(IntArithmetic.addOverflow(left, right));
+            }
+            return result;
         }
 
         @Specialization
         Object add(int left, PInt right) {
-            return add(factory().createInt(left), right);
+            return fromBigInteger(IntArithmetic.add(right.getValue(), left));
         }
 
         @Specialization
         Object add(PInt left, int right) {
-            return add(left, factory().createInt(right));
+            return fromBigInteger(IntArithmetic.add(left.getValue(), right));
         }
 
         @Specialization
         Object add(PInt left, long right) {
-            return add(left, factory().createInt(right));
+            return fromBigInteger(IntArithmetic.add(left.getValue(), right));
         }
 
         @Specialization(rewriteOn = ArithmeticException.class)
@@ -162,12 +189,12 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         Object add(long left, PInt right) {
-            return add(factory().createInt(left), right);
+            return fromBigInteger(IntArithmetic.add(right.getValue(), left));
         }
 
         @Specialization
-        PInt add(PInt left, PInt right) {
-            return factory().createInt(op(left.getValue(), right.getValue()));
+        Object add(PInt left, PInt right) {
+            return fromBigInteger(op(left.getValue(), right.getValue()));
         }
 
         @TruffleBoundary
@@ -189,7 +216,7 @@ public class IntBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__SUB__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    public abstract static class SubNode extends PythonBinaryBuiltinNode {
+    public abstract static class SubNode extends IntArithmeticBuiltinNode {
         @Specialization
         int doBB(boolean left, boolean right) {
             return PInt.intValue(left) - PInt.intValue(right);
@@ -211,7 +238,7 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt doBLOvf(boolean left, long right) {
+        Object doBLOvf(boolean left, long right) {
             return doLLOvf(PInt.intValue(left), right);
         }
 
@@ -236,23 +263,27 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt doLLOvf(long x, long y) {
-            return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
+        Object doLLOvf(long x, long y) {
+            long result = x - y;
+            if (profileOverflow(((x ^ y) & (x ^ result)) < 0)) {
+                return factory().createInt(IntArithmetic.subtractOverflow(x, y));
+            }
+            return result;
         }
 
         @Specialization
-        PInt doIntegerPInt(int left, PInt right) {
-            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
+        Object doIntegerPInt(int left, PInt right) {
+            return fromBigInteger(IntArithmetic.subtract(left, right.getValue()));
         }
 
         @Specialization
-        PInt doPIntInteger(PInt left, int right) {
-            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
+        Object doPIntInteger(PInt left, int right) {
+            return fromBigInteger(IntArithmetic.subtract(left.getValue(), right));
         }
 
         @Specialization
         Object doPIntLong(PInt left, long right) {
-            return doPIntPInt(left, factory().createInt(right));
+            return fromBigInteger(IntArithmetic.subtract(left.getValue(), right));
         }
 
         @Specialization(rewriteOn = ArithmeticException.class)
@@ -261,18 +292,18 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt doLBOvf(long left, boolean right) {
+        Object doLBOvf(long left, boolean right) {
             return doLLOvf(left, PInt.intValue(right));
         }
 
         @Specialization
         Object doLongPInt(long left, PInt right) {
-            return doPIntPInt(factory().createInt(left), right);
+            return fromBigInteger(IntArithmetic.subtract(left, right.getValue()));
         }
 
         @Specialization
-        PInt doPIntPInt(PInt left, PInt right) {
-            return factory().createInt(op(left.getValue(), right.getValue()));
+        Object doPIntPInt(PInt left, PInt right) {
+            return fromBigInteger(op(left.getValue(), right.getValue()));
         }
 
         @TruffleBoundary
@@ -289,7 +320,7 @@ public class IntBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__RSUB__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    public abstract static class RSubNode extends PythonBinaryBuiltinNode {
+    public abstract static class RSubNode extends IntArithmeticBuiltinNode {
         @Specialization
         int doBB(boolean right, boolean left) {
             return PInt.intValue(left) - PInt.intValue(right);
@@ -311,7 +342,7 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt doBLOvf(boolean right, long left) {
+        Object doBLOvf(boolean right, long left) {
             return doLLOvf(PInt.intValue(right), left);
         }
 
@@ -336,23 +367,27 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt doLLOvf(long y, long x) {
-            return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
+        Object doLLOvf(long y, long x) {
+            long result = x - y;
+            if (profileOverflow(((x ^ y) & (x ^ result)) < 0)) {
+                return factory().createInt(IntArithmetic.subtractOverflow(x, y));
+            }
+            return result;
         }
 
         @Specialization
-        PInt doIntegerPInt(int right, PInt left) {
-            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
+        Object doIntegerPInt(int right, PInt left) {
+            return fromBigInteger(IntArithmetic.subtract(left.getValue(), right));
         }
 
         @Specialization
-        PInt doPIntInteger(PInt right, int left) {
-            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
+        Object doPIntInteger(PInt right, int left) {
+            return fromBigInteger(IntArithmetic.subtract(left, right.getValue()));
         }
 
         @Specialization
         Object doPIntLong(PInt right, long left) {
-            return doPIntPInt(factory().createInt(left), right);
+            return fromBigInteger(IntArithmetic.subtract(left, right.getValue()));
         }
 
         @Specialization(rewriteOn = ArithmeticException.class)
@@ -361,18 +396,18 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt doLBOvf(long right, boolean left) {
+        Object doLBOvf(long right, boolean left) {
             return doLLOvf(right, PInt.intValue(left));
         }
 
         @Specialization
         Object doLongPInt(long right, PInt left) {
-            return doPIntPInt(factory().createInt(right), left);
+            return fromBigInteger(IntArithmetic.subtract(left.getValue(), right));
         }
 
         @Specialization
-        PInt doPIntPInt(PInt right, PInt left) {
-            return factory().createInt(op(left.getValue(), right.getValue()));
+        Object doPIntPInt(PInt right, PInt left) {
+            return fromBigInteger(op(left.getValue(), right.getValue()));
         }
 
         @TruffleBoundary
@@ -566,35 +601,51 @@ public class IntBuiltins extends PythonBuiltins {
     @Builtin(name = SpecialMethodNames.__FLOORDIV__, fixedNumOfArguments = 2)
     @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
-    abstract static class FloorDivNode extends IntBinaryBuiltinNode {
-        @Specialization
-        int doLL(int left, int right) {
+    abstract static class FloorDivNode extends IntArithmeticBuiltinNode {
+        @Specialization(rewriteOn = ArithmeticException.class)
+        int doII(int left, int right) {
             raiseDivisionByZero(right == 0);
+            if (right == -1) {
+                // the only quotient that overflows is MIN_VALUE // -1
+                return Math.negateExact(left);
+            }
             return Math.floorDiv(left, right);
         }
 
-        @Specialization
+        @Specialization(rewriteOn = ArithmeticException.class)
         long doLL(long left, long right) {
             raiseDivisionByZero(right == 0);
+            if (right == -1) {
+                return Math.negateExact(left);
+            }
             return Math.floorDiv(left, right);
         }
 
         @Specialization
-        PInt doLPi(long left, PInt right) {
+        Object doLLOvf(long left, long right) {
+            raiseDivisionByZero(right == 0);
+            if (profileOverflow(right == -1 && left == Long.MIN_VALUE)) {
+                return factory().createInt(IntArithmetic.negateOverflow(left));
+            }
+            return Math.floorDiv(left, right);
+        }
+
+        @Specialization
+        Object doLPi(long left, PInt right) {
             raiseDivisionByZero(right.isZero());
-            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
+            return fromBigInteger(op(BigInteger.valueOf(left), right.getValue()));
         }
 
         @Specialization
-        PInt doPiL(PInt left, long right) {
+        Object doPiL(PInt left, long right) {
             raiseDivisionByZero(right == 0);
-            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
+            return fromBigInteger(op(left.getValue(), BigInteger.valueOf(right)));
         }
 
         @Specialization
-        PInt doPiPi(PInt left, PInt right) {
+        Object doPiPi(PInt left, PInt right) {
             raiseDivisionByZero(right.isZero());
-            return factory().createInt(op(left.getValue(), right.getValue()));
+            return fromBigInteger(op(left.getValue(), right.getValue()));
         }
 
         @TruffleBoundary
@@ -619,40 +670,50 @@ public class IntBuiltins extends PythonBuiltins {
     @Builtin(name = SpecialMethodNames.__RFLOORDIV__, fixedNumOfArguments = 2)
     @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
-    abstract static class RFloorDivNode extends IntBinaryBuiltinNode {
-        @Specialization
+    abstract static class RFloorDivNode extends IntArithmeticBuiltinNode {
+        @Specialization(rewriteOn = ArithmeticException.class)
         int doII(int right, int left) {
             raiseDivisionByZero(right == 0);
-            return left / right;
+            if (right == -1) {
+                return Math.negateExact(left);
+            }
+            return Math.floorDiv(left, right);
         }
 
-        @Specialization
+        @Specialization(rewriteOn = ArithmeticException.class)
         long doLL(long right, long left) {
             raiseDivisionByZero(right == 0);
-            return left / right;
+            if (right == -1) {
+                return Math.negateExact(left);
+            }
+            return Math.floorDiv(left, right);
+        }
+
+        @Specialization
+        Object doLLOvf(long right, long left) {
+            raiseDivisionByZero(right == 0);
+            if (profileOverflow(right == -1 && left == Long.MIN_VALUE)) {
+                return factory().createInt(IntArithmetic.negateOverflow(left));
+            }
+            return Math.floorDiv(left, right);
         }
 
         @Specialization
-        PInt doPiL(PInt right, long left) {
+        Object doPiL(PInt right, long left) {
             raiseDivisionByZero(right.isZero());
-            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
+            return fromBigInteger(FloorDivNode.op(BigInteger.valueOf(left), right.getValue()));
         }
 
         @Specialization
-        PInt doLPi(long right, PInt left) {
+        Object doLPi(long right, PInt left) {
             raiseDivisionByZero(right == 0);
-            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
+            return fromBigInteger(FloorDivNode.op(left.getValue(), BigInteger.valueOf(right)));
         }
 
         @Specialization
-        PInt doPiPi(PInt right, PInt left) {
+        Object doPiPi(PInt right, PInt left) {
             raiseDivisionByZero(right.isZero());
-            return factory().createInt(op(left.getValue(), right.getValue()));
-        }
-
-        @TruffleBoundary
-        static BigInteger op(BigInteger left, BigInteger right) {
-            return left.divide(right);
+            return fromBigInteger(FloorDivNode.op(left.getValue(), right.getValue()));
         }
 
         @SuppressWarnings("unused")
@@ -665,7 +726,7 @@ public class IntBuiltins extends PythonBuiltins {
     @Builtin(name = SpecialMethodNames.__MOD__, fixedNumOfArguments = 2)
     @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
-    abstract static class ModNode extends IntBinaryBuiltinNode {
+    abstract static class ModNode extends IntArithmeticBuiltinNode {
         @Specialization
         int doII(int left, int right) {
             raiseDivisionByZero(right == 0);
@@ -678,32 +739,37 @@ public class IntBuiltins extends PythonBuiltins {
             return Math.floorMod(left, right);
         }
 
-        @Specialization
+        @Specialization(guards = "right.isZeroOrPositive()")
         Object doLPi(long left, PInt right) {
             raiseDivisionByZero(right.isZero());
-            return factory().createInt(op(BigInteger.valueOf(left), right.getValue()));
+            return fromBigInteger(op(BigInteger.valueOf(left), right.getValue()));
+        }
+
+        @Specialization(guards = "!right.isZeroOrPositive()")
+        Object doLPiNeg(long left, PInt right) {
+            return fromBigInteger(opNeg(BigInteger.valueOf(left), right.getValue()));
         }
 
         @Specialization(guards = "right >= 0")
         Object doPiL(PInt left, long right) {
             raiseDivisionByZero(right == 0);
-            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
+            return fromBigInteger(op(left.getValue(), BigInteger.valueOf(right)));
         }
 
         @Specialization(guards = "right.isZeroOrPositive()")
         Object doPiPi(PInt left, PInt right) {
             raiseDivisionByZero(right.isZero());
-            return factory().createInt(op(left.getValue(), right.getValue()));
+            return fromBigInteger(op(left.getValue(), right.getValue()));
         }
 
         @Specialization(guards = "right < 0")
         Object doPiLNeg(PInt left, long right) {
-            return factory().createInt(opNeg(left.getValue(), BigInteger.valueOf(right)));
+            return fromBigInteger(opNeg(left.getValue(), BigInteger.valueOf(right)));
         }
 
         @Specialization(guards = "!right.isZeroOrPositive()")
         Object doPiPiNeg(PInt left, PInt right) {
-            return factory().createInt(opNeg(left.getValue(), right.getValue()));
+            return fromBigInteger(opNeg(left.getValue(), right.getValue()));
         }
 
         @TruffleBoundary
@@ -711,12 +777,13 @@ public class IntBuiltins extends PythonBuiltins {
             return a.mod(b);
         }
 
+        /**
+         * The remainder for a negative divisor, which has the sign of the divisor.
+         */
         @TruffleBoundary
         static BigInteger opNeg(BigInteger a, BigInteger b) {
-            if (a.equals(BigInteger.ZERO)) {
-                return BigInteger.ZERO;
-            }
-            return a.mod(b.negate()).subtract(b);
+            BigInteger r = a.mod(b.negate());
+            return r.signum() == 0 ? r : r.add(b);
         }
 
         @SuppressWarnings("unused")
@@ -728,7 +795,7 @@ public class IntBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__MUL__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    abstract static class MulNode extends PythonBinaryBuiltinNode {
+    abstract static class MulNode extends IntArithmeticBuiltinNode {
         @Specialization
         int doBB(boolean x, boolean y) {
             return x ? PInt.intValue(y) : 0;
@@ -756,16 +823,16 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         Object doLLOvf(long x, long y) {
-            try {
-                return Math.multiplyExact(x, y);
-            } catch (ArithmeticException e) {
-                return factory().createInt(op(BigInteger.valueOf(x), BigInteger.valueOf(y)));
+            BigInteger product = IntArithmetic.multiplyOverflow(x, y);
+            if (profileOverflow(product != null)) {
+                return factory().createInt(product);
             }
+            return x * y;
         }
 
         @Specialization
-        PInt doPIntPInt(PInt left, PInt right) {
-            return factory().createInt(op(left.getValue(), right.getValue()));
+        Object doPIntPInt(PInt left, PInt right) {
+            return fromBigInteger(op(left.getValue(), right.getValue()));
         }
 
         @TruffleBoundary
@@ -775,7 +842,7 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         Object doPIntLong(PInt left, long right) {
-            return factory().createInt(op(left.getValue(), BigInteger.valueOf(right)));
+            return fromBigInteger(IntArithmetic.multiply(left.getValue(), right));
         }
 
         @Specialization
@@ -807,25 +874,28 @@ public class IntBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__POW__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
-    abstract static class PowNode extends PythonBinaryBuiltinNode {
+    abstract static class PowNode extends IntArithmeticBuiltinNode {
         @Specialization(guards = "right >= 0", rewriteOn = ArithmeticException.class)
         int doIntegerFast(int left, int right) {
             int result = 1;
             int exponent = right;
             int base = left;
-            while (exponent != 0) {
+            while (true) {
                 if ((exponent & 1) != 0) {
                     result = Math.multiplyExact(result, base);
                 }
                 exponent >>= 1;
+                if (exponent == 0) {
+                    // squaring the base once more could overflow although the result fits
+                    return result;
+                }
                 base = Math.multiplyExact(base, base);
             }
-            return result;
         }
 
         @Specialization(guards = "right >= 0")
-        PInt doInteger(int left, int right) {
-            return factory().createInt(op(BigInteger.valueOf(left), right));
+        Object doInteger(int left, int right) {
+            return doLong((long) left, (long) right);
         }
 
         @Specialization(guards = "right >= 0", rewriteOn = ArithmeticException.class)
@@ -834,7 +904,7 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization(guards = "right >= 0")
-        PInt doLong(long left, int right) {
+        Object doLong(long left, int right) {
             return doLong(left, (long) right);
         }
 
@@ -844,7 +914,7 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization(guards = "right >= 0")
-        PInt doLong(int left, long right) {
+        Object doLong(int left, long right) {
             return doLong((long) left, right);
         }
 
@@ -853,19 +923,26 @@ public class IntBuiltins extends PythonBuiltins {
             long result = 1;
             long exponent = right;
             long base = left;
-            while (exponent != 0) {
+            while (true) {
                 if ((exponent & 1) != 0) {
                     result = Math.multiplyExact(result, base);
                 }
                 exponent >>= 1;
+                if (exponent == 0) {
+                    // squaring the base once more could overflow although the result fits
+                    return result;
+                }
                 base = Math.multiplyExact(base, base);
             }
-            return result;
         }
 
         @Specialization(guards = "right >= 0")
-        PInt doLong(long left, long right) {
-            return factory().createInt(op(BigInteger.valueOf(left), right));
+        Object doLong(long left, long right) {
+            try {
+                return doLongFast(left, right);
+            } catch (ArithmeticException e) {
+                return fromBigInteger(op(BigInteger.valueOf(left), right));
+            }
         }
 
         @Specialization
@@ -879,14 +956,19 @@ public class IntBuiltins extends PythonBuiltins {
         }
 
         @Specialization
-        PInt doPInt(PInt left, PInt right) {
+        Object doPInt(PInt left, PInt right) {
+            if (!right.isZeroOrPositive()) {
+                // a negative exponent gives a float, as for the primitive operands
+                return Math.pow(left.doubleValue(), right.doubleValue());
+            }
+            long exponent;
             try {
-                return factory().createInt(op(left.getValue(), right.getValue().longValueExact()));
+                exponent = right.getValue().longValueExact();
             } catch (ArithmeticException e) {
-                // fall through to normal computation
+                // only the parity matters for the bases op() can handle, the others raise
+                exponent = right.getValue().testBit(0) ? Long.MAX_VALUE : Long.MAX_VALUE - 1;
             }
-            double value = Math.pow(left.doubleValue(), right.doubleValue());
-            return factory().createInt((long) value);
+            return fromBigInteger(op(left.getValue(), exponent));
         }
 
         @TruffleBoundary
@@ -1026,6 +1108,8 @@ public class IntBuiltins extends PythonBuiltins {
     @Builtin(name = SpecialMethodNames.__NEG__, fixedNumOfArguments = 1)
     @GenerateNodeFactory
     abstract static class NegNode extends PythonUnaryBuiltinNode {
+        private final ConditionProfile fitsInLongProfile = ConditionProfile.createBinaryProfile();
+
         @Specialization(rewriteOn = ArithmeticException.class)
         int neg(int arg) {
             return Math.negateExact(arg);
@@ -1043,16 +1127,19 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         Object negOvf(long arg) {
-            try {
-                return Math.negateExact(arg);
-            } catch (ArithmeticException e) {
-                return factory().createInt(negate(BigInteger.valueOf(arg)));
+            if (arg == Long.MIN_VALUE) {
+                return factory().createInt(IntArithmetic.negateOverflow(arg));
             }
+            return -arg;
         }
 
         @Specialization
-        PInt doPInt(PInt operand) {
-            return factory().createInt(negate(operand.getValue()));
+        Object doPInt(PInt operand) {
+            BigInteger value = negate(operand.getValue());
+            if (fitsInLongProfile.profile(IntArithmetic.fitsInLong(value))) {
+                return IntArithmetic.longValue(value);
+            }
+            return factory().createInt(value);
         }
 
         @TruffleBoundary
@@ -1088,7 +1175,7 @@ public class IntBuiltins extends PythonBuiltins {
     @Builtin(name = SpecialMethodNames.__LSHIFT__, fixedNumOfArguments = 2)
     @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
-    abstract static class LShiftNode extends PythonBinaryBuiltinNode {
+    abstract static class LShiftNode extends IntArithmeticBuiltinNode {
         @Specialization(rewriteOn = ArithmeticException.class)
         int doII(int left, int right) {
             raiseNegativeShiftCount(right < 0);
@@ -1098,11 +1185,7 @@ public class IntBuiltins extends PythonBuiltins {
         @Specialization
         Object doIIOvf(int left, int right) {
             raiseNegativeShiftCount(right < 0);
-            try {
-                return ArithmeticUtil.leftShiftExact(left, right);
-            } catch (ArithmeticException e) {
-                return doGuardedBiI(BigInteger.valueOf(left), right);
-            }
+            return doLLOvf(left, right);
         }
 
         @Specialization(rewriteOn = ArithmeticException.class)
@@ -1117,6 +1200,10 @@ public class IntBuiltins extends PythonBuiltins {
             try {
                 return ArithmeticUtil.leftShiftExact(left, right);
             } catch (ArithmeticException e) {
+                if (profileOverflow(right < Long.SIZE)) {
+                    // the shifted value still fits into 128 bits
+                    return factory().createInt(IntArithmetic.shiftLeftOverflow(left, (int) right));
+                }
                 int rightI = (int) right;
                 if (rightI == right) {
                     return factory().createInt(op(BigInteger.valueOf(left), rightI));
@@ -1715,6 +1802,7 @@ public class IntBuiltins extends PythonBuiltins {
     }
 
     @Builtin(name = "from_bytes", fixedNumOfArguments = 2, takesVariableArguments = true, keywordArguments = {"signed"})
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     @SuppressWarnings("unused")
     public abstract static class FromBytesNode extends PythonBuiltinNode {
@@ -1797,6 +1885,51 @@ public class IntBuiltins extends PythonBuiltins {
     abstract static class ReprNode extends StrNode {
     }
 
+    @Builtin(name = SpecialMethodNames.__FORMAT__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class FormatNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "formatSpec.isEmpty()")
+        Object formatEmpty(Object self, @SuppressWarnings("unused") String formatSpec,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode) {
+            return strNode.executeObject(self);
+        }
+
+        @Specialization(guards = "!formatSpec.isEmpty()")
+        String format(boolean self, String formatSpec) {
+            return format(self ? 1 : 0, formatSpec);
+        }
+
+        @Specialization(guards = "!formatSpec.isEmpty()")
+        @TruffleBoundary
+        String format(int self, String formatSpec) {
+            StringBuilder result = new StringBuilder();
+            InternalFormat.formatInteger(getCore(), result, InternalFormat.fromText(getCore(), formatSpec), self);
+            return result.toString();
+        }
+
+        @Specialization(guards = "!formatSpec.isEmpty()")
+        @TruffleBoundary
+        String format(long self, String formatSpec) {
+            StringBuilder result = new StringBuilder();
+            InternalFormat.formatInteger(getCore(), result, InternalFormat.fromText(getCore(), formatSpec), self);
+            return result.toString();
+        }
+
+        @Specialization(guards = "!formatSpec.isEmpty()")
+        @TruffleBoundary
+        String format(PInt self, String formatSpec) {
+            StringBuilder result = new StringBuilder();
+            InternalFormat.formatInteger(getCore(), result, InternalFormat.fromText(getCore(), formatSpec), self.getValue());
+            return result.toString();
+        }
+
+        @Fallback
+        Object formatFail(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object formatSpec) {
+            throw raise(PythonErrorType.TypeError, "format_spec must be a string");
+        }
+    }
+
     @Builtin(name = SpecialMethodNames.__HASH__, fixedNumOfArguments = 1)
     @GenerateNodeFactory
     abstract static class HashNode extends PythonUnaryBuiltinNode {
@@ -0,0 +1,689 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CallMethodNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CastToLongNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CheckClosedNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FillNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FlushNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.RaiseUnsupportedNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PBuffered.class)
+public class BufferedIOBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return BufferedIOBuiltinsFactory.getFactories();
+    }
+
+    abstract static class BufferedNode extends PythonBuiltinNode {
+        @Child private CheckClosedNode checkClosedNode = CheckClosedNode.create();
+        @Child private FlushNode flushNode;
+        @Child private RaiseUnsupportedNode raiseUnsupportedNode;
+
+        protected final void checkClosed(PBuffered self) {
+            checkClosedNode.execute(self);
+        }
+
+        protected final boolean isClosed(PBuffered self) {
+            return checkClosedNode.isClosed(self);
+        }
+
+        protected final void checkReadable(PBuffered self) {
+            checkClosed(self);
+            if (!self.isReadable()) {
+                throw raiseUnsupported("File or stream is not readable.");
+            }
+        }
+
+        protected final void checkWritable(PBuffered self) {
+            checkClosed(self);
+            if (!self.isWritable()) {
+                throw raiseUnsupported("File or stream is not writable.");
+            }
+        }
+
+        protected final PException raiseUnsupported(String message) {
+            if (raiseUnsupportedNode == null) {
+                raiseUnsupportedNode = insert(RaiseUnsupportedNode.create());
+            }
+            throw raiseUnsupportedNode.execute(message);
+        }
+
+        protected final void flush(PBuffered self) {
+            if (self.pendingWrite() > 0) {
+                if (flushNode == null) {
+                    flushNode = insert(FlushNode.create());
+                }
+                flushNode.execute(self);
+            }
+        }
+
+        /**
+         * Converts an optional size argument; {@code None} and negative values mean "unlimited"
+         * and are returned as {@code -1}.
+         */
+        protected final int asSize(Object size) {
+            long value;
+            if (size instanceof PNone) {
+                return -1;
+            } else if (size instanceof Integer) {
+                value = (int) size;
+            } else if (size instanceof Long) {
+                value = (long) size;
+            } else if (size instanceof Boolean) {
+                value = PInt.intValue((boolean) size);
+            } else if (size instanceof PInt) {
+                value = ((PInt) size).getValue().signum() < 0 ? -1 : Integer.MAX_VALUE;
+            } else {
+                throw raise(TypeError, "integer argument expected, got '%p'", size);
+            }
+            return value < 0 ? -1 : (int) Math.min(value, Integer.MAX_VALUE);
+        }
+    }
+
+    abstract static class ReadingNode extends BufferedNode {
+        @Child private FillNode fillNode = FillNode.create();
+
+        protected final boolean fill(PBuffered self) {
+            return fillNode.execute(self);
+        }
+
+        /**
+         * Reads one line of at most {@code limit} bytes (any length if {@code limit} is negative).
+         */
+        protected final byte[] readline(PBuffered self, int limit) {
+            int max = limit < 0 ? Integer.MAX_VALUE : limit;
+            int length = self.lineLength(max);
+            if (length >= 0 || self.available() >= max) {
+                // the whole line is already in the buffer
+                return take(self, length >= 0 ? length : max);
+            }
+            ByteArrayOutputStream out = newStream(self.getBufferSize());
+            int total = 0;
+            while (true) {
+                length = self.lineLength(max - total);
+                if (length >= 0) {
+                    self.take(out, length);
+                    break;
+                }
+                total += self.take(out, max - total);
+                if (total >= max || !fill(self)) {
+                    break;
+                }
+            }
+            return toByteArray(out);
+        }
+
+        protected static byte[] take(PBuffered self, int length) {
+            byte[] result = new byte[length];
+            self.take(result, 0, length);
+            return result;
+        }
+
+        @TruffleBoundary
+        protected static ByteArrayOutputStream newStream(int size) {
+            return new ByteArrayOutputStream(size);
+        }
+
+        @TruffleBoundary
+        protected static byte[] toByteArray(ByteArrayOutputStream out) {
+            return out.toByteArray();
+        }
+    }
+
+    @Builtin(name = "read", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class ReadNode extends ReadingNode {
+        @Specialization
+        Object read(PBuffered self, Object size,
+                        @Cached("create()") CallMethodNode callRaw) {
+            checkReadable(self);
+            flush(self);
+            int n = asSize(size);
+            if (n < 0) {
+                return factory().createBytes(readAll(self, callRaw));
+            }
+            byte[] result = new byte[n];
+            int got = self.take(result, 0, n);
+            while (got < n) {
+                if (self.getChannel() != null && n - got >= self.getBufferSize()) {
+                    // large requests go straight into the result
+                    int read = readDirect(self, result, got, n - got);
+                    if (read <= 0) {
+                        break;
+                    }
+                    got += read;
+                } else if (fill(self)) {
+                    got += self.take(result, got, n - got);
+                } else {
+                    break;
+                }
+            }
+            return factory().createBytes(got == n ? result : copyOf(result, got));
+        }
+
+        private byte[] readAll(PBuffered self, CallMethodNode callRaw) {
+            if (self.getChannel() != null) {
+                try {
+                    return self.readAllFromChannel();
+                } catch (IOException e) {
+                    throw raise(OSError, getMessage(e));
+                }
+            }
+            byte[] buffered = take(self, self.available());
+            Object rest = callRaw.execute(self.getRaw(), "readall");
+            if (!(rest instanceof PIBytesLike)) {
+                return buffered;
+            }
+            return concat(buffered, ((PIBytesLike) rest).getInternalByteArray(), ((PSequence) rest).len());
+        }
+
+        private int readDirect(PBuffered self, byte[] result, int offset, int length) {
+            try {
+                return self.readDirect(result, offset, length);
+            } catch (IOException e) {
+                throw raise(OSError, getMessage(e));
+            }
+        }
+
+        @TruffleBoundary
+        private static String getMessage(IOException e) {
+            return e.getMessage();
+        }
+
+        @TruffleBoundary
+        private static byte[] copyOf(byte[] data, int length) {
+            return Arrays.copyOf(data, length);
+        }
+
+        @TruffleBoundary
+        private static byte[] concat(byte[] first, byte[] second, int secondLength) {
+            byte[] result = Arrays.copyOf(first, first.length + secondLength);
+            System.arraycopy(second, 0, result, first.length, secondLength);
+            return result;
+        }
+    }
+
+    @Builtin(name = "read1", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class Read1Node extends ReadingNode {
+        @Specialization
+        Object read1(PBuffered self, Object size) {
+            checkReadable(self);
+            flush(self);
+            int n = asSize(size);
+            if (self.available() == 0 && n != 0) {
+                fill(self);
+            }
+            return factory().createBytes(take(self, n < 0 ? self.available() : Math.min(n, self.available())));
+        }
+    }
+
+    @Builtin(name = "peek", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class PeekNode extends ReadingNode {
+        @Specialization
+        Object peek(PBuffered self, @SuppressWarnings("unused") Object size) {
+            checkReadable(self);
+            flush(self);
+            if (self.available() == 0) {
+                fill(self);
+            }
+            return factory().createBytes(self.peek());
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class ReadlineNode extends ReadingNode {
+        @Specialization
+        Object readline(PBuffered self, Object size) {
+            checkReadable(self);
+            flush(self);
+            return factory().createBytes(readline(self, asSize(size)));
+        }
+    }
+
+    @Builtin(name = "readlines", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class ReadlinesNode extends ReadingNode {
+        @Specialization
+        Object readlines(PBuffered self, Object hint) {
+            checkReadable(self);
+            flush(self);
+            int max = asSize(hint);
+            ArrayList<Object> lines = new ArrayList<>();
+            long total = 0;
+            while (true) {
+                byte[] line = readline(self, -1);
+                if (line.length == 0) {
+                    break;
+                }
+                add(lines, factory().createBytes(line));
+                total += line.length;
+                if (max > 0 && total >= max) {
+                    break;
+                }
+            }
+            return factory().createList(toArray(lines));
+        }
+
+        @TruffleBoundary
+        private static void add(ArrayList<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(ArrayList<Object> list) {
+            return list.toArray();
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends BufferedNode {
+        @Specialization
+        Object iter(PBuffered self) {
+            checkClosed(self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends ReadingNode {
+        @Specialization
+        Object next(PBuffered self) {
+            checkReadable(self);
+            flush(self);
+            byte[] line = readline(self, -1);
+            if (line.length == 0) {
+                throw raise(StopIteration);
+            }
+            return factory().createBytes(line);
+        }
+    }
+
+    @Builtin(name = "write", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class WriteBytesNode extends BufferedNode {
+        @Specialization
+        int write(PBuffered self, Object data,
+                        @Cached("create()") WriteNode writeNode) {
+            checkWritable(self);
+            if (!(data instanceof PIBytesLike)) {
+                throw raise(TypeError, "a bytes-like object is required, not '%p'", data);
+            }
+            int length = ((PSequence) data).len();
+            writeNode.execute(self, ((PIBytesLike) data).getInternalByteArray(), length);
+            return length;
+        }
+    }
+
+    @Builtin(name = "writelines", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class WritelinesNode extends BufferedNode {
+        @Specialization
+        Object writelines(PBuffered self, Object lines,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") WriteNode writeNode,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            checkWritable(self);
+            Object iterator = getIterator.executeWith(lines);
+            while (true) {
+                Object data;
+                try {
+                    data = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return PNone.NONE;
+                }
+                if (!(data instanceof PIBytesLike)) {
+                    throw raise(TypeError, "a bytes-like object is required, not '%p'", data);
+                }
+                writeNode.execute(self, ((PIBytesLike) data).getInternalByteArray(), ((PSequence) data).len());
+            }
+        }
+    }
+
+    @Builtin(name = "flush", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class FlushBufferNode extends BufferedNode {
+        @Specialization
+        Object flush(PBuffered self) {
+            checkClosed(self);
+            flush(self);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends BufferedNode {
+        @Specialization
+        Object close(PBuffered self,
+                        @Cached("create()") CallMethodNode callRaw) {
+            if (isClosed(self)) {
+                return PNone.NONE;
+            }
+            try {
+                flush(self);
+            } finally {
+                callRaw.execute(self.getRaw(), "close");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends BufferedNode {
+        @Specialization
+        boolean closed(PBuffered self) {
+            return isClosed(self);
+        }
+    }
+
+    @Builtin(name = "detach", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends BufferedNode {
+        @Specialization
+        Object detach(PBuffered self) {
+            checkClosed(self);
+            flush(self);
+            return self.detach();
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfArguments = 2, maxNumOfArguments = 3)
+    @GenerateNodeFactory
+    abstract static class SeekNode extends BufferedNode {
+        @Specialization
+        Object seek(PBuffered self, Object pos, Object whence,
+                        @Cached("create()") CastToLongNode castToLong,
+                        @Cached("create()") CallMethodNode callRaw) {
+            checkClosed(self);
+            long how = whence instanceof PNone ? 0 : castToLong.execute(whence);
+            if (how < 0 || how > 2) {
+                throw raise(ValueError, "whence value %d unsupported", how);
+            }
+            long offset = castToLong.execute(pos);
+            flush(self);
+            if (how == 1) {
+                offset -= self.available();
+            }
+            self.discardReadBuffer();
+            if (self.getChannel() != null) {
+                try {
+                    return self.channelSeek(offset, (int) how);
+                } catch (IOException e) {
+                    throw raise(OSError, getMessage(e));
+                }
+            }
+            return callRaw.execute(self.getRaw(), "seek", offset, how);
+        }
+
+        @TruffleBoundary
+        private static String getMessage(IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Builtin(name = "tell", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends BufferedNode {
+        @Specialization
+        Object tell(PBuffered self,
+                        @Cached("create()") CallMethodNode callRaw) {
+            checkClosed(self);
+            if (self.getChannel() != null) {
+                try {
+                    return self.channelTell();
+                } catch (IOException e) {
+                    throw raise(OSError, getMessage(e));
+                }
+            }
+            Object position = callRaw.execute(self.getRaw(), "tell");
+            long correction = self.pendingWrite() - self.available();
+            if (position instanceof Integer) {
+                return (int) position + correction;
+            } else if (position instanceof Long) {
+                return (long) position + correction;
+            }
+            return position;
+        }
+
+        @TruffleBoundary
+        private static String getMessage(IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class TruncateNode extends BufferedNode {
+        @Specialization
+        Object truncate(PBuffered self, Object pos,
+                        @Cached("create()") CallMethodNode callRaw) {
+            checkWritable(self);
+            flush(self);
+            if (self.available() > 0) {
+                // the raw position must be the logical position for truncate(None)
+                Object position = callRaw.execute(self, "tell");
+                self.discardReadBuffer();
+                callRaw.execute(self.getRaw(), "seek", position);
+            }
+            if (pos instanceof PNone) {
+                return callRaw.execute(self.getRaw(), "truncate");
+            }
+            return callRaw.execute(self.getRaw(), "truncate", pos);
+        }
+    }
+
+    abstract static class DelegateNode extends BufferedNode {
+        @Child private CallMethodNode callRaw = CallMethodNode.create();
+
+        protected final Object delegate(PBuffered self, String method) {
+            checkClosed(self);
+            return callRaw.execute(self.getRaw(), method);
+        }
+
+        protected final Object attribute(PBuffered self, String name) {
+            if (self.isDetached()) {
+                throw raise(ValueError, "raw stream has been detached");
+            }
+            return callRaw.executeGet(self.getRaw(), name);
+        }
+    }
+
+    @Builtin(name = "fileno", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends DelegateNode {
+        @Specialization
+        Object fileno(PBuffered self) {
+            return delegate(self, "fileno");
+        }
+    }
+
+    @Builtin(name = "isatty", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class IsattyNode extends DelegateNode {
+        @Specialization
+        Object isatty(PBuffered self) {
+            return delegate(self, "isatty");
+        }
+    }
+
+    @Builtin(name = "readable", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class ReadableNode extends DelegateNode {
+        @Specialization
+        Object readable(PBuffered self) {
+            return self.isReadable() && (boolean) delegate(self, "readable");
+        }
+    }
+
+    @Builtin(name = "writable", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class WritableNode extends DelegateNode {
+        @Specialization
+        Object writable(PBuffered self) {
+            return self.isWritable() && (boolean) delegate(self, "writable");
+        }
+    }
+
+    @Builtin(name = "seekable", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class SeekableNode extends DelegateNode {
+        @Specialization
+        Object seekable(PBuffered self) {
+            return delegate(self, "seekable");
+        }
+    }
+
+    @Builtin(name = "raw", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class RawNode extends PythonBuiltinNode {
+        @Specialization
+        Object raw(PBuffered self) {
+            return self.isDetached() ? PNone.NONE : self.getRaw();
+        }
+    }
+
+    @Builtin(name = "name", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends DelegateNode {
+        @Specialization
+        Object name(PBuffered self) {
+            return attribute(self, "name");
+        }
+    }
+
+    @Builtin(name = "mode", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ModeNode extends DelegateNode {
+        @Specialization
+        Object mode(PBuffered self) {
+            return attribute(self, "mode");
+        }
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends BufferedNode {
+        @Specialization
+        Object enter(PBuffered self) {
+            checkClosed(self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfArguments = 1, takesVariableArguments = true)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        @Specialization
+        Object exit(PBuffered self, @SuppressWarnings("unused") Object args,
+                        @Cached("create()") CallMethodNode callClose) {
+            return callClose.execute(self, "close");
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends DelegateNode {
+        @Specialization
+        Object repr(PBuffered self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            String type = self.getPythonClass().getName();
+            Object name;
+            try {
+                name = attribute(self, "name");
+            } catch (PException e) {
+                e.expect(AttributeError, getCore(), errorProfile);
+                return "<_io." + type + ">";
+            }
+            return format(type, reprNode.executeObject(name));
+        }
+
+        @TruffleBoundary
+        private static String format(String type, Object name) {
+            return "<_io." + type + " name=" + name + ">";
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.io.IOException;
+
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.nodes.PBaseNode;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Nodes that move data between a {@link PBuffered} and its raw stream. They are shared by the
+ * buffered objects and by {@code TextIOWrapper}, which talks to a {@link PBuffered} directly
+ * instead of going through its Python methods.
+ */
+public abstract class BufferedIONodes {
+
+    abstract static class RawNode extends PBaseNode {
+        @Child private GetAttributeNode getAttributeNode;
+        @Child private CallNode callNode;
+
+        protected final Object getAttribute(Object receiver, String name) {
+            if (getAttributeNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getAttributeNode = insert(GetAttributeNode.create());
+            }
+            return getAttributeNode.execute(receiver, name);
+        }
+
+        protected final Object callMethod(Object receiver, String name, Object... args) {
+            if (callNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                callNode = insert(CallNode.create());
+            }
+            return callNode.execute(getAttribute(receiver, name), args, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        protected final PException raiseOSError(IOException e) {
+            throw raise(OSError, getMessage(e));
+        }
+
+        @TruffleBoundary
+        private static String getMessage(IOException e) {
+            return e.getMessage();
+        }
+
+        protected final byte[] toBytes(Object data, String method) {
+            if (!(data instanceof PIBytesLike)) {
+                throw raise(TypeError, "%s() should return bytes", method);
+            }
+            return ((PIBytesLike) data).getInternalByteArray();
+        }
+
+        protected static int length(Object data) {
+            return ((PSequence) data).len();
+        }
+    }
+
+    /**
+     * Refills the read buffer, keeping the bytes that have not been consumed yet.
+     */
+    public static final class FillNode extends RawNode {
+
+        public static FillNode create() {
+            return new FillNode();
+        }
+
+        /**
+         * @return {@code false} if the raw stream is at its end (or has no data available)
+         */
+        public boolean execute(PBuffered self) {
+            if (self.getChannel() != null) {
+                try {
+                    return self.fillFromChannel() > 0;
+                } catch (IOException e) {
+                    throw raiseOSError(e);
+                }
+            }
+            Object data = callMethod(self.getRaw(), "read", self.freeReadSpace());
+            if (data == PNone.NONE) {
+                return false;
+            }
+            byte[] bytes = toBytes(data, "read");
+            int length = length(data);
+            if (length == 0) {
+                return false;
+            }
+            self.fill(bytes, length);
+            return true;
+        }
+    }
+
+    /**
+     * Passes the pending writes to the raw stream.
+     */
+    public static final class FlushNode extends RawNode {
+
+        public static FlushNode create() {
+            return new FlushNode();
+        }
+
+        public void execute(PBuffered self) {
+            if (self.pendingWrite() == 0) {
+                return;
+            }
+            if (self.getChannel() != null) {
+                try {
+                    self.flushToChannel();
+                } catch (IOException e) {
+                    throw raiseOSError(e);
+                }
+            } else {
+                callMethod(self.getRaw(), "write", factory().createBytes(self.takePendingWrite()));
+            }
+        }
+    }
+
+    /**
+     * Writes bytes through the write buffer, bypassing it for data that does not fit.
+     */
+    public static final class WriteNode extends RawNode {
+        @Child private FlushNode flushNode = FlushNode.create();
+
+        public static WriteNode create() {
+            return new WriteNode();
+        }
+
+        public void execute(PBuffered self, byte[] data, int length) {
+            if (self.available() > 0) {
+                // continue writing where the user stopped reading
+                if (self.getChannel() != null) {
+                    try {
+                        self.rewindChannel();
+                    } catch (IOException e) {
+                        throw raiseOSError(e);
+                    }
+                } else {
+                    callMethod(self.getRaw(), "seek", -self.available(), 1);
+                    self.discardReadBuffer();
+                }
+            }
+            if (self.buffer(data, 0, length)) {
+                return;
+            }
+            flushNode.execute(self);
+            if (self.buffer(data, 0, length)) {
+                return;
+            }
+            if (self.getChannel() != null) {
+                try {
+                    self.writeToChannel(data, 0, length);
+                } catch (IOException e) {
+                    throw raiseOSError(e);
+                }
+            } else {
+                callMethod(self.getRaw(), "write", factory().createBytes(copyOf(data, length)));
+            }
+        }
+
+        @TruffleBoundary
+        private static byte[] copyOf(byte[] data, int length) {
+            return java.util.Arrays.copyOf(data, length);
+        }
+    }
+
+    /**
+     * Checks that the buffer is neither detached nor closed.
+     */
+    public static final class CheckClosedNode extends RawNode {
+        @Child private CastToBooleanNode castToBoolean;
+
+        public static CheckClosedNode create() {
+            return new CheckClosedNode();
+        }
+
+        public boolean isClosed(PBuffered self) {
+            if (self.isDetached()) {
+                throw raise(ValueError, "raw stream has been detached");
+            }
+            if (self.getChannel() != null) {
+                return self.isChannelClosed();
+            }
+            if (castToBoolean == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBoolean = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBoolean.executeWith(getAttribute(self.getRaw(), "closed"));
+        }
+
+        public void execute(PBuffered self) {
+            if (isClosed(self)) {
+                throw raise(ValueError, "I/O operation on closed file.");
+            }
+        }
+    }
+
+    /**
+     * Raises {@code io.UnsupportedOperation}, which is defined in Python.
+     */
+    public static final class RaiseUnsupportedNode extends RawNode {
+
+        public static RaiseUnsupportedNode create() {
+            return new RaiseUnsupportedNode();
+        }
+
+        public PException execute(String message) {
+            Object error = callMethod(getContext().lookupBuiltinModule("_io"), "UnsupportedOperation", message);
+            if (!(error instanceof PBaseException)) {
+                throw raise(OSError, message);
+            }
+            PException exception = new PException((PBaseException) error, this);
+            ((PBaseException) error).setException(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Calls a method of the raw stream or the buffer of a text file.
+     */
+    public static final class CallMethodNode extends RawNode {
+
+        public static CallMethodNode create() {
+            return new CallMethodNode();
+        }
+
+        public Object execute(Object receiver, String name, Object... args) {
+            return callMethod(receiver, name, args);
+        }
+
+        public Object executeGet(Object receiver, String name) {
+            return getAttribute(receiver, name);
+        }
+    }
+
+    /**
+     * Converts a position or offset argument to a {@code long}.
+     */
+    public static final class CastToLongNode extends RawNode {
+
+        public static CastToLongNode create() {
+            return new CastToLongNode();
+        }
+
+        public long execute(Object value) {
+            if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Long) {
+                return (long) value;
+            } else if (value instanceof Boolean) {
+                return PInt.intValue((boolean) value);
+            } else if (value instanceof PInt) {
+                try {
+                    return ((PInt) value).longValueExact();
+                } catch (ArithmeticException e) {
+                    throw raise(OverflowError, "Python int too large to convert to C long");
+                }
+            }
+            throw raise(TypeError, "an integer is required (got type %p)", value);
+        }
+    }
+}
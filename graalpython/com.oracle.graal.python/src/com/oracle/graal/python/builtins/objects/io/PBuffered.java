@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Common state of {@code BufferedReader}, {@code BufferedWriter} and {@code BufferedRandom}.
+ * <p>
+ * Each object owns one direct read buffer and one direct write buffer, allocated on first use and
+ * reused for the lifetime of the file. If the raw stream is a plain {@code FileIO}, the channel
+ * behind its file descriptor is used directly; otherwise the raw object's {@code read},
+ * {@code write} and {@code seek} methods are called once per buffer.
+ */
+public abstract class PBuffered extends PythonBuiltinObject {
+
+    private Object raw;
+    private SeekableByteChannel channel;
+    private final int bufferSize;
+    /** Unread bytes are between position and limit. */
+    private ByteBuffer readBuffer;
+    /** Pending bytes are between 0 and position. */
+    private ByteBuffer writeBuffer;
+    private boolean detached;
+
+    public PBuffered(PythonClass clazz, Object raw, SeekableByteChannel channel, int bufferSize) {
+        super(clazz);
+        this.raw = raw;
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+    }
+
+    public Object getRaw() {
+        return raw;
+    }
+
+    /**
+     * @return the channel of the raw file, or {@code null} if the raw stream has to be accessed
+     *         through its Python methods
+     */
+    public SeekableByteChannel getChannel() {
+        return channel;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public Object detach() {
+        Object result = raw;
+        detached = true;
+        raw = null;
+        channel = null;
+        return result;
+    }
+
+    public abstract boolean isReadable();
+
+    public abstract boolean isWritable();
+
+    @TruffleBoundary
+    public boolean isChannelClosed() {
+        return channel != null && !channel.isOpen();
+    }
+
+    // reading
+
+    @TruffleBoundary
+    private ByteBuffer getReadBuffer() {
+        if (readBuffer == null) {
+            readBuffer = ByteBuffer.allocateDirect(bufferSize);
+            readBuffer.limit(0);
+        }
+        return readBuffer;
+    }
+
+    /**
+     * @return the number of bytes that can be consumed without touching the raw stream
+     */
+    public int available() {
+        return readBuffer == null ? 0 : readBuffer.remaining();
+    }
+
+    /**
+     * @return how many bytes a refill may add to the read buffer
+     */
+    @TruffleBoundary
+    public int freeReadSpace() {
+        ByteBuffer buf = getReadBuffer();
+        return buf.capacity() - buf.remaining();
+    }
+
+    /**
+     * Moves the unread bytes to the front of the read buffer and appends what the channel delivers.
+     *
+     * @return the number of bytes read, or {@code -1} at the end of the file
+     */
+    @TruffleBoundary
+    public int fillFromChannel() throws IOException {
+        ByteBuffer buf = getReadBuffer();
+        buf.compact();
+        try {
+            return channel.read(buf);
+        } finally {
+            buf.flip();
+        }
+    }
+
+    /**
+     * Appends bytes returned by the raw stream's {@code read} to the read buffer.
+     */
+    @TruffleBoundary
+    public void fill(byte[] data, int length) {
+        ByteBuffer buf = getReadBuffer();
+        buf.compact();
+        if (buf.remaining() < length) {
+            buf.flip();
+            ByteBuffer larger = ByteBuffer.allocateDirect(buf.remaining() + length);
+            larger.put(buf);
+            buf = readBuffer = larger;
+        }
+        buf.put(data, 0, length);
+        buf.flip();
+    }
+
+    /**
+     * Exposes the read buffer to a decoder, which consumes bytes by advancing its position.
+     */
+    ByteBuffer readBufferForDecoding() {
+        return getReadBuffer();
+    }
+
+    /**
+     * Consumes up to {@code length} bytes from the read buffer into {@code dst}.
+     *
+     * @return the number of bytes copied
+     */
+    @TruffleBoundary
+    public int take(byte[] dst, int offset, int length) {
+        int n = Math.min(length, available());
+        if (n > 0) {
+            readBuffer.get(dst, offset, n);
+        }
+        return n;
+    }
+
+    /**
+     * Consumes up to {@code length} bytes from the read buffer into {@code out}.
+     *
+     * @return the number of bytes copied
+     */
+    @TruffleBoundary
+    public int take(ByteArrayOutputStream out, int length) {
+        int n = Math.min(length, available());
+        if (n > 0) {
+            byte[] chunk = new byte[n];
+            readBuffer.get(chunk);
+            out.write(chunk, 0, n);
+        }
+        return n;
+    }
+
+    /**
+     * Reads everything up to the end of the file, starting with the buffered bytes.
+     */
+    @TruffleBoundary
+    public byte[] readAllFromChannel() throws IOException {
+        long size = channel.size() - channel.position() + available();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size > 0 && size < Integer.MAX_VALUE ? (int) size : bufferSize);
+        take(out, available());
+        ByteBuffer buf = getReadBuffer();
+        while (true) {
+            buf.clear();
+            int n = channel.read(buf);
+            buf.flip();
+            if (n <= 0) {
+                break;
+            }
+            take(out, n);
+        }
+        return out.toByteArray();
+    }
+
+    @TruffleBoundary
+    public byte[] peek() {
+        byte[] result = new byte[available()];
+        if (result.length > 0) {
+            readBuffer.duplicate().get(result);
+        }
+        return result;
+    }
+
+    /**
+     * Looks for a line feed among the first {@code limit} unread bytes.
+     *
+     * @return the number of bytes up to and including the line feed, or {@code -1}
+     */
+    @TruffleBoundary
+    public int lineLength(int limit) {
+        if (readBuffer == null) {
+            return -1;
+        }
+        int start = readBuffer.position();
+        int end = start + Math.min(limit, readBuffer.remaining());
+        for (int i = start; i < end; i++) {
+            if (readBuffer.get(i) == '\n') {
+                return i - start + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads into {@code dst} without going through the read buffer; used for requests that are
+     * larger than the buffer.
+     */
+    @TruffleBoundary
+    public int readDirect(byte[] dst, int offset, int length) throws IOException {
+        return channel.read(ByteBuffer.wrap(dst, offset, length));
+    }
+
+    public void discardReadBuffer() {
+        if (readBuffer != null) {
+            readBuffer.limit(0);
+        }
+    }
+
+    // writing
+
+    /**
+     * @return the number of bytes written by the user but not yet passed to the raw stream
+     */
+    public int pendingWrite() {
+        return writeBuffer == null ? 0 : writeBuffer.position();
+    }
+
+    /**
+     * Appends {@code data} to the write buffer if it fits.
+     *
+     * @return {@code false} if the buffer has to be flushed first
+     */
+    @TruffleBoundary
+    public boolean buffer(byte[] data, int offset, int length) {
+        if (writeBuffer == null) {
+            writeBuffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        if (writeBuffer.remaining() < length) {
+            return false;
+        }
+        writeBuffer.put(data, offset, length);
+        return true;
+    }
+
+    @TruffleBoundary
+    public void flushToChannel() throws IOException {
+        if (pendingWrite() > 0) {
+            writeBuffer.flip();
+            try {
+                while (writeBuffer.hasRemaining()) {
+                    channel.write(writeBuffer);
+                }
+            } finally {
+                writeBuffer.clear();
+            }
+        }
+    }
+
+    @TruffleBoundary
+    public byte[] takePendingWrite() {
+        byte[] result = new byte[pendingWrite()];
+        writeBuffer.flip();
+        writeBuffer.get(result);
+        writeBuffer.clear();
+        return result;
+    }
+
+    @TruffleBoundary
+    public void writeToChannel(byte[] data, int offset, int length) throws IOException {
+        ByteBuffer src = ByteBuffer.wrap(data, offset, length);
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    // positioning
+
+    /**
+     * @return the logical position, taking read-ahead and pending writes into account
+     */
+    @TruffleBoundary
+    public long channelTell() throws IOException {
+        return channel.position() - available() + pendingWrite();
+    }
+
+    /**
+     * Moves the channel to the logical position so that the raw file can be written at the
+     * position the user has read up to.
+     */
+    @TruffleBoundary
+    public void rewindChannel() throws IOException {
+        if (available() > 0) {
+            channel.position(channel.position() - available());
+            discardReadBuffer();
+        }
+    }
+
+    @TruffleBoundary
+    public long channelSeek(long offset, int whence) throws IOException {
+        long base = whence == 1 ? channel.position() : whence == 2 ? channel.size() : 0;
+        long target = base + offset;
+        if (target < 0) {
+            throw new IOException("Invalid argument");
+        }
+        channel.position(target);
+        return target;
+    }
+}
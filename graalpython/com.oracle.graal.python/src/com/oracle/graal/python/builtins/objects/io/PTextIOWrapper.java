@@ -0,0 +1,571 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * {@code io.TextIOWrapper}: decodes the bytes of a buffered stream incrementally.
+ * <p>
+ * If the buffer is one of our {@link PBuffered} objects, the decoder reads straight out of its
+ * read buffer; an incomplete multi-byte sequence at the end stays there until the next refill moves
+ * it to the front. Other buffers are read with {@code read1} into a private byte buffer. Decoded
+ * text is kept in a {@link StringBuilder} and handed out from {@link #decodedPos} on.
+ * <p>
+ * For {@code tell}, the decoded text is covered by {@link Segment}s that record how many bytes the
+ * decoder consumed for each piece of it. Only the bytes behind a partly consumed segment have to
+ * be found by decoding its bytes again.
+ */
+public final class PTextIOWrapper extends PythonBuiltinObject {
+
+    public static final int SEEN_CR = 1;
+    public static final int SEEN_LF = 2;
+    public static final int SEEN_CRLF = 4;
+
+    public static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The characters {@link #decode} produced in one step of the decoder, after line ending
+     * translation, and the bytes the decoder consumed for them.
+     */
+    private static final class Segment {
+        private final byte[] bytes;
+        private final int chars;
+        /** Whether the decoder was in its initial state at the start of this segment. */
+        private final boolean initial;
+
+        Segment(byte[] bytes, int chars, boolean initial) {
+            this.bytes = bytes;
+            this.chars = chars;
+            this.initial = initial;
+        }
+    }
+
+    private Object buffer;
+    private PBuffered buffered;
+    private final Charset charset;
+    private final String encoding;
+    private final String errors;
+    private final CharsetDecoder decoder;
+    private final CharsetEncoder encoder;
+    private final CodingErrorAction action;
+    private final Object newline;
+    /** Translate {@code \r} and {@code \r\n} to {@code \n} while reading. */
+    private final boolean readTranslate;
+    /** Recognize all three line endings while reading. */
+    private final boolean readUniversal;
+    /** The line ending written for {@code \n}, or {@code null} if no translation is needed. */
+    private final String writeNewline;
+    private final boolean lineBuffering;
+    private final boolean writeThrough;
+    private Object mode;
+    private boolean detached;
+
+    private final StringBuilder decoded = new StringBuilder();
+    private int decodedPos;
+    private CharBuffer chars;
+    /** Bytes read with {@code read1} that have not been decoded yet. */
+    private ByteBuffer pendingBytes;
+    /** A trailing {@code \r} that is only passed on once we know whether {@code \n} follows. */
+    private boolean pendingCR;
+
+    /** The segments covering the decoded characters from {@link #decodedPos} on. */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    /** How many characters of the first segment have been consumed. */
+    private int segmentPos;
+    /** The total number of bytes in {@link #segments}. */
+    private long segmentBytes;
+    /**
+     * Consumed bytes that belong to the next segment, i.e. a byte order mark or the bytes of
+     * {@link #pendingCR}.
+     */
+    private byte[] carry = new byte[0];
+    /** The byte order mark the decoder consumed when it started, if any. */
+    private byte[] byteOrderMark = new byte[0];
+    /** Whether the decoder has not seen any input since it was created or reset. */
+    private boolean decoderInitial = true;
+    private int crWidth = -1;
+    private int seenNewlines;
+
+    public PTextIOWrapper(PythonClass clazz, Object buffer, Charset charset, String encoding, String errors, CodingErrorAction action, Object newline, boolean lineBuffering,
+                    boolean writeThrough) {
+        super(clazz);
+        this.buffer = buffer;
+        this.buffered = buffer instanceof PBuffered ? (PBuffered) buffer : null;
+        this.charset = charset;
+        this.encoding = encoding;
+        this.errors = errors;
+        this.decoder = newDecoder(charset, action);
+        this.encoder = newEncoder(charset, action);
+        this.action = action;
+        this.newline = newline;
+        this.readTranslate = !(newline instanceof String);
+        this.readUniversal = readTranslate || "".equals(newline);
+        this.writeNewline = readUniversal || "\n".equals(newline) ? null : (String) newline;
+        this.lineBuffering = lineBuffering;
+        this.writeThrough = writeThrough;
+    }
+
+    @TruffleBoundary
+    private static CharsetDecoder newDecoder(Charset charset, CodingErrorAction action) {
+        return charset.newDecoder().onMalformedInput(action).onUnmappableCharacter(action);
+    }
+
+    @TruffleBoundary
+    private static CharsetEncoder newEncoder(Charset charset, CodingErrorAction action) {
+        return charset.newEncoder().onMalformedInput(action).onUnmappableCharacter(action);
+    }
+
+    public Object getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the buffer if it is one of our buffered objects, otherwise {@code null}
+     */
+    public PBuffered getBuffered() {
+        return buffered;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public String getErrors() {
+        return errors;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public Object getNewline() {
+        return newline;
+    }
+
+    public boolean isLineBuffering() {
+        return lineBuffering;
+    }
+
+    public boolean isWriteThrough() {
+        return writeThrough;
+    }
+
+    public Object getMode() {
+        return mode;
+    }
+
+    public void setMode(Object mode) {
+        this.mode = mode;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public Object detach() {
+        Object result = buffer;
+        detached = true;
+        buffer = null;
+        buffered = null;
+        return result;
+    }
+
+    public int getSeenNewlines() {
+        return seenNewlines;
+    }
+
+    // reading
+
+    /**
+     * @return the number of decoded characters that have not been consumed
+     */
+    public int pendingChars() {
+        return decoded.length() - decodedPos;
+    }
+
+    /**
+     * Decodes what is in the read buffer of the {@link PBuffered} buffer.
+     *
+     * @return {@code true} if new characters became available
+     */
+    public boolean decodeBuffered(boolean eof) throws CharacterCodingException {
+        return decode(buffered.readBufferForDecoding(), eof);
+    }
+
+    /**
+     * Decodes bytes returned by the buffer's {@code read1}, together with any incomplete sequence
+     * left over from the previous call.
+     *
+     * @return {@code true} if new characters became available
+     */
+    @TruffleBoundary
+    public boolean decodeBytes(byte[] data, int length, boolean eof) throws CharacterCodingException {
+        if (pendingBytes == null) {
+            pendingBytes = ByteBuffer.allocate(Math.max(CHUNK_SIZE, length));
+            pendingBytes.limit(0);
+        }
+        pendingBytes.compact();
+        if (pendingBytes.remaining() < length) {
+            pendingBytes.flip();
+            ByteBuffer larger = ByteBuffer.allocate(pendingBytes.remaining() + length);
+            larger.put(pendingBytes);
+            pendingBytes = larger;
+        }
+        pendingBytes.put(data, 0, length);
+        pendingBytes.flip();
+        return decode(pendingBytes, eof);
+    }
+
+    /**
+     * @return the number of undecoded bytes held by this object itself
+     */
+    public int pendingBytes() {
+        return pendingBytes == null ? 0 : pendingBytes.remaining();
+    }
+
+    @TruffleBoundary
+    private boolean decode(ByteBuffer in, boolean eof) throws CharacterCodingException {
+        int before = decoded.length();
+        if (chars == null) {
+            chars = CharBuffer.allocate(CHUNK_SIZE);
+        }
+        chars.clear();
+        if (decoderInitial) {
+            // without room for output, the decoder only consumes a byte order mark
+            int start = in.position();
+            decoder.decode(in, CharBuffer.allocate(0), false);
+            byteOrderMark = copyConsumed(in, start);
+            carry = byteOrderMark;
+        }
+        restorePendingCR();
+        CoderResult result;
+        int start = in.position();
+        while ((result = decoder.decode(in, chars, eof)).isOverflow()) {
+            appendDecoded(in, start, false);
+            start = in.position();
+            restorePendingCR();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        if (eof) {
+            while (decoder.flush(chars).isOverflow()) {
+                appendDecoded(in, start, false);
+                start = in.position();
+                restorePendingCR();
+            }
+            decoder.reset();
+        }
+        appendDecoded(in, start, eof);
+        if (eof) {
+            decoderInitial = true;
+        }
+        return decoded.length() > before;
+    }
+
+    private static byte[] copyConsumed(ByteBuffer in, int start) {
+        byte[] result = new byte[in.position() - start];
+        ByteBuffer consumed = in.duplicate();
+        consumed.position(start);
+        consumed.get(result);
+        return result;
+    }
+
+    /**
+     * Moves the characters from {@link #chars} to {@link #decoded}, translating line endings, and
+     * records a segment for them and the bytes consumed from {@code in} since {@code inStart}.
+     */
+    private void appendDecoded(ByteBuffer in, int inStart, boolean eof) {
+        int decodedBefore = decoded.length();
+        byte[] consumed = copyConsumed(in, inStart);
+        byte[] bytes = consumed;
+        if (carry.length > 0) {
+            bytes = Arrays.copyOf(carry, carry.length + consumed.length);
+            System.arraycopy(consumed, 0, bytes, carry.length, consumed.length);
+            carry = new byte[0];
+        }
+        chars.flip();
+        int end = chars.length();
+        if (readUniversal && !eof && end > 0 && chars.charAt(end - 1) == '\r') {
+            pendingCR = true;
+            end--;
+            // the bytes of the held back \r go with the segment it is passed on in
+            int split = Math.max(0, bytes.length - getCRWidth());
+            carry = Arrays.copyOfRange(bytes, split, bytes.length);
+            bytes = Arrays.copyOf(bytes, split);
+        }
+        if (!readUniversal) {
+            decoded.append(chars, 0, end);
+        } else {
+            int start = 0;
+            for (int i = 0; i < end; i++) {
+                char c = chars.charAt(i);
+                if (c == '\n') {
+                    seenNewlines |= SEEN_LF;
+                } else if (c == '\r') {
+                    boolean crlf = i + 1 < end && chars.charAt(i + 1) == '\n';
+                    seenNewlines |= crlf ? SEEN_CRLF : SEEN_CR;
+                    if (readTranslate) {
+                        decoded.append(chars, start, i).append('\n');
+                        start = crlf ? i + 2 : i + 1;
+                    }
+                    if (crlf) {
+                        i++;
+                    }
+                }
+            }
+            decoded.append(chars, start, end);
+        }
+        chars.clear();
+        if (bytes.length > 0 || decoded.length() > decodedBefore) {
+            segments.addLast(new Segment(bytes, decoded.length() - decodedBefore, decoderInitial));
+            segmentBytes += bytes.length;
+            decoderInitial = false;
+        }
+    }
+
+    private int getCRWidth() {
+        if (crWidth < 0) {
+            // the difference leaves out any byte order mark the encoding writes
+            crWidth = charset.canEncode() ? "\r\r".getBytes(charset).length - "\r".getBytes(charset).length : 1;
+        }
+        return crWidth;
+    }
+
+    private void restorePendingCR() {
+        if (pendingCR) {
+            chars.put('\r');
+            pendingCR = false;
+        }
+    }
+
+    /**
+     * Looks for the end of a line among the first {@code limit} pending characters.
+     *
+     * @return the length of the line including its terminator, or {@code -1}
+     */
+    @TruffleBoundary
+    public int lineLength(int limit) {
+        int end = -1;
+        if (readTranslate) {
+            int index = decoded.indexOf("\n", decodedPos);
+            end = index < 0 ? -1 : index + 1;
+        } else if (readUniversal) {
+            for (int i = decodedPos; i < decoded.length(); i++) {
+                char c = decoded.charAt(i);
+                if (c == '\n') {
+                    end = i + 1;
+                    break;
+                } else if (c == '\r') {
+                    end = i + 1 < decoded.length() && decoded.charAt(i + 1) == '\n' ? i + 2 : i + 1;
+                    break;
+                }
+            }
+        } else {
+            String terminator = (String) newline;
+            int index = decoded.indexOf(terminator, decodedPos);
+            end = index < 0 ? -1 : index + terminator.length();
+        }
+        if (end < 0 || (limit >= 0 && end - decodedPos > limit)) {
+            return -1;
+        }
+        return end - decodedPos;
+    }
+
+    /**
+     * Consumes {@code length} decoded characters.
+     */
+    @TruffleBoundary
+    public String take(int length) {
+        String result = decoded.substring(decodedPos, decodedPos + length);
+        decodedPos += length;
+        consumeSegments(length);
+        if (decodedPos == decoded.length()) {
+            decoded.setLength(0);
+            decodedPos = 0;
+        } else if (decodedPos > CHUNK_SIZE && decodedPos > decoded.length() / 2) {
+            decoded.delete(0, decodedPos);
+            decodedPos = 0;
+        }
+        return result;
+    }
+
+    private void consumeSegments(int length) {
+        segmentPos += length;
+        while (!segments.isEmpty()) {
+            Segment first = segments.peekFirst();
+            if (first.chars > segmentPos || (first.chars == segmentPos && segmentPos == 0)) {
+                // a segment without characters, e.g. a byte order mark, goes with the next one
+                break;
+            }
+            segments.removeFirst();
+            segmentBytes -= first.bytes.length;
+            segmentPos -= first.chars;
+        }
+    }
+
+    /**
+     * Forgets all decoded and undecoded read-ahead, e.g. after a seek.
+     */
+    @TruffleBoundary
+    public void resetDecoder() {
+        decoded.setLength(0);
+        decodedPos = 0;
+        pendingCR = false;
+        segments.clear();
+        segmentPos = 0;
+        segmentBytes = 0;
+        carry = new byte[0];
+        byteOrderMark = new byte[0];
+        decoderInitial = true;
+        if (pendingBytes != null) {
+            pendingBytes.limit(0);
+        }
+        decoder.reset();
+    }
+
+    /**
+     * Forgets the read-ahead before a seek to {@code position}. Away from the start of the stream,
+     * the decoder keeps the byte order it took from the byte order mark.
+     */
+    @TruffleBoundary
+    public void resetDecoder(long position) {
+        byte[] mark = byteOrderMark;
+        resetDecoder();
+        if (position > 0 && mark.length > 0) {
+            decoder.decode(ByteBuffer.wrap(mark), CharBuffer.allocate(0), false);
+            byteOrderMark = mark;
+            decoderInitial = false;
+        }
+    }
+
+    /**
+     * @return how many bytes the read-ahead of this object corresponds to
+     */
+    @TruffleBoundary
+    public long readAheadBytes() {
+        long result = segmentBytes + carry.length + pendingBytes();
+        if (segmentPos > 0 && !segments.isEmpty()) {
+            result -= consumedBytes(segments.peekFirst(), segmentPos);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the bytes of {@code segment} again until {@code count} characters, after line ending
+     * translation, have been produced.
+     *
+     * @return the number of bytes consumed for them
+     */
+    private int consumedBytes(Segment segment, int count) {
+        CharsetDecoder scratch = newDecoder(charset, action);
+        if (!segment.initial && byteOrderMark.length > 0) {
+            // put the decoder into the state the byte order mark left the real one in
+            scratch.decode(ByteBuffer.wrap(byteOrderMark), CharBuffer.allocate(0), false);
+        }
+        ByteBuffer in = ByteBuffer.wrap(segment.bytes);
+        CharBuffer out = CharBuffer.allocate(2);
+        int produced = 0;
+        boolean previousCR = false;
+        while (produced < count && in.hasRemaining()) {
+            // one character at a time, two for a surrogate pair
+            out.clear();
+            out.limit(1);
+            int position = in.position();
+            scratch.decode(in, out, false);
+            if (out.position() == 0 && in.position() == position) {
+                out.limit(2);
+                scratch.decode(in, out, false);
+                if (out.position() == 0 && in.position() == position) {
+                    break;
+                }
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                char c = out.get();
+                if (!(readTranslate && previousCR && c == '\n')) {
+                    produced++;
+                }
+                previousCR = c == '\r';
+            }
+        }
+        if (readTranslate && previousCR && in.hasRemaining()) {
+            // a \r\n that was translated to a single \n is consumed as a whole
+            int position = in.position();
+            out.clear();
+            out.limit(1);
+            scratch.decode(in, out, false);
+            if (!(out.position() == 1 && out.get(0) == '\n')) {
+                in.position(position);
+            }
+        }
+        return in.position();
+    }
+
+    // writing
+
+    /**
+     * Translates line endings and encodes {@code text}.
+     */
+    @TruffleBoundary
+    public byte[] encode(String text) throws CharacterCodingException {
+        String translated = text;
+        if (writeNewline != null && text.indexOf('\n') >= 0) {
+            translated = text.replace("\n", writeNewline);
+        }
+        ByteBuffer bytes = encoder.encode(CharBuffer.wrap(translated));
+        byte[] result = new byte[bytes.remaining()];
+        bytes.get(result);
+        return result;
+    }
+}
@@ -0,0 +1,729 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.io;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.AttributeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeDecodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.UnicodeEncodeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.nio.charset.CharacterCodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CallMethodNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CastToLongNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.CheckClosedNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FillNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.FlushNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.RaiseUnsupportedNode;
+import com.oracle.graal.python.builtins.objects.io.BufferedIONodes.WriteNode;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = PTextIOWrapper.class)
+public class TextIOWrapperBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return TextIOWrapperBuiltinsFactory.getFactories();
+    }
+
+    abstract static class TextNode extends PythonBuiltinNode {
+        @Child private CallMethodNode callNode = CallMethodNode.create();
+        @Child private CheckClosedNode checkClosedNode;
+        @Child private CastToBooleanNode castToBooleanNode;
+        @Child private RaiseUnsupportedNode raiseUnsupportedNode;
+
+        protected final Object callBuffer(PTextIOWrapper self, String method, Object... args) {
+            return callNode.execute(getBuffer(self), method, args);
+        }
+
+        protected final Object getBuffer(PTextIOWrapper self) {
+            if (self.isDetached()) {
+                throw raise(ValueError, "underlying buffer has been detached");
+            }
+            return self.getBuffer();
+        }
+
+        protected final boolean isClosed(PTextIOWrapper self) {
+            Object buffer = getBuffer(self);
+            if (self.getBuffered() != null) {
+                if (checkClosedNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    checkClosedNode = insert(CheckClosedNode.create());
+                }
+                return checkClosedNode.isClosed(self.getBuffered());
+            }
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(callNode.executeGet(buffer, "closed"));
+        }
+
+        protected final void checkClosed(PTextIOWrapper self) {
+            if (isClosed(self)) {
+                throw raise(ValueError, "I/O operation on closed file.");
+            }
+        }
+
+        protected final PException raiseUnsupported(String message) {
+            if (raiseUnsupportedNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                raiseUnsupportedNode = insert(RaiseUnsupportedNode.create());
+            }
+            throw raiseUnsupportedNode.execute(message);
+        }
+
+        protected final PException raiseDecodeError(PTextIOWrapper self, CharacterCodingException e) {
+            throw raise(UnicodeDecodeError, "'%s' codec can't decode bytes: %s", self.getEncoding(), getMessage(e));
+        }
+
+        @TruffleBoundary
+        protected static String getMessage(Exception e) {
+            return e.toString();
+        }
+    }
+
+    abstract static class ReadingNode extends TextNode {
+        @Child private FillNode fillNode;
+        @Child private FlushNode flushNode;
+        @Child private CallMethodNode readNode;
+
+        protected final void checkReadable(PTextIOWrapper self) {
+            checkClosed(self);
+            PBuffered buffered = self.getBuffered();
+            if (buffered != null) {
+                if (!buffered.isReadable()) {
+                    throw raiseUnsupported("not readable");
+                }
+                if (buffered.pendingWrite() > 0) {
+                    if (flushNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        flushNode = insert(FlushNode.create());
+                    }
+                    flushNode.execute(buffered);
+                }
+            }
+        }
+
+        /**
+         * Decodes at least one more character, unless the end of the stream has been reached.
+         *
+         * @return {@code false} at the end of the stream
+         */
+        protected final boolean readChunk(PTextIOWrapper self) {
+            try {
+                PBuffered buffered = self.getBuffered();
+                if (buffered != null) {
+                    if (fillNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        fillNode = insert(FillNode.create());
+                    }
+                    while (true) {
+                        if (buffered.available() > 0 && self.decodeBuffered(false)) {
+                            return true;
+                        }
+                        if (!fillNode.execute(buffered)) {
+                            return self.decodeBuffered(true);
+                        }
+                    }
+                }
+                if (readNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    readNode = insert(CallMethodNode.create());
+                }
+                while (true) {
+                    Object data = readNode.execute(getBuffer(self), "read1", PTextIOWrapper.CHUNK_SIZE);
+                    if (!(data instanceof PIBytesLike)) {
+                        throw raise(TypeError, "underlying read1() should have returned a bytes object, not '%p'", data);
+                    }
+                    int length = ((PSequence) data).len();
+                    if (length == 0) {
+                        return self.decodeBytes(((PIBytesLike) data).getInternalByteArray(), 0, true);
+                    }
+                    if (self.decodeBytes(((PIBytesLike) data).getInternalByteArray(), length, false)) {
+                        return true;
+                    }
+                }
+            } catch (CharacterCodingException e) {
+                throw raiseDecodeError(self, e);
+            }
+        }
+
+        /**
+         * Reads one line of at most {@code limit} characters (any length if {@code limit} is
+         * negative).
+         */
+        protected final String readline(PTextIOWrapper self, int limit) {
+            while (true) {
+                int length = self.lineLength(limit);
+                if (length >= 0) {
+                    return self.take(length);
+                }
+                if (limit >= 0 && self.pendingChars() >= limit) {
+                    return self.take(limit);
+                }
+                if (!readChunk(self)) {
+                    return self.take(self.pendingChars());
+                }
+            }
+        }
+
+        protected final int asSize(Object size, CastToLongNode castToLong) {
+            if (size instanceof PNone) {
+                return -1;
+            }
+            long value = castToLong.execute(size);
+            return value < 0 ? -1 : (int) Math.min(value, Integer.MAX_VALUE);
+        }
+    }
+
+    @Builtin(name = "read", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class ReadNode extends ReadingNode {
+        @Specialization
+        Object read(PTextIOWrapper self, Object size,
+                        @Cached("create()") CastToLongNode castToLong) {
+            checkReadable(self);
+            int n = asSize(size, castToLong);
+            while (n < 0 || self.pendingChars() < n) {
+                if (!readChunk(self)) {
+                    break;
+                }
+            }
+            return self.take(n < 0 ? self.pendingChars() : Math.min(n, self.pendingChars()));
+        }
+    }
+
+    @Builtin(name = "readline", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class ReadlineNode extends ReadingNode {
+        @Specialization
+        Object readline(PTextIOWrapper self, Object size,
+                        @Cached("create()") CastToLongNode castToLong) {
+            checkReadable(self);
+            return readline(self, asSize(size, castToLong));
+        }
+    }
+
+    @Builtin(name = "readlines", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class ReadlinesNode extends ReadingNode {
+        @Specialization
+        Object readlines(PTextIOWrapper self, Object hint,
+                        @Cached("create()") CastToLongNode castToLong) {
+            checkReadable(self);
+            int max = asSize(hint, castToLong);
+            ArrayList<Object> lines = new ArrayList<>();
+            long total = 0;
+            while (true) {
+                String line = readline(self, -1);
+                if (line.isEmpty()) {
+                    break;
+                }
+                add(lines, line);
+                total += line.length();
+                if (max > 0 && total >= max) {
+                    break;
+                }
+            }
+            return factory().createList(toArray(lines));
+        }
+
+        @TruffleBoundary
+        private static void add(ArrayList<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(ArrayList<Object> list) {
+            return list.toArray();
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends TextNode {
+        @Specialization
+        Object iter(PTextIOWrapper self) {
+            checkClosed(self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends ReadingNode {
+        @Specialization
+        Object next(PTextIOWrapper self) {
+            checkReadable(self);
+            String line = readline(self, -1);
+            if (line.isEmpty()) {
+                throw raise(StopIteration);
+            }
+            return line;
+        }
+    }
+
+    abstract static class WritingNode extends TextNode {
+        @Child private WriteNode writeNode;
+
+        protected final int write(PTextIOWrapper self, String text) {
+            checkClosed(self);
+            byte[] data;
+            try {
+                data = self.encode(text);
+            } catch (CharacterCodingException e) {
+                throw raise(UnicodeEncodeError, "'%s' codec can't encode characters: %s", self.getEncoding(), getMessage(e));
+            }
+            // like CPython, pending read-ahead is dropped, not written over
+            self.resetDecoder();
+            PBuffered buffered = self.getBuffered();
+            if (buffered != null) {
+                if (!buffered.isWritable()) {
+                    throw raiseUnsupported("not writable");
+                }
+                if (writeNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    writeNode = insert(WriteNode.create());
+                }
+                writeNode.execute(buffered, data, data.length);
+            } else {
+                callBuffer(self, "write", factory().createBytes(data));
+            }
+            if (self.isWriteThrough() || (self.isLineBuffering() && hasLineEnd(text))) {
+                callBuffer(self, "flush");
+            }
+            return text.length();
+        }
+
+        @TruffleBoundary
+        private static boolean hasLineEnd(String text) {
+            return text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        }
+
+        protected final String asString(Object text) {
+            if (text instanceof String) {
+                return (String) text;
+            } else if (text instanceof PString) {
+                return ((PString) text).getValue();
+            }
+            throw raise(TypeError, "write() argument must be str, not %p", text);
+        }
+    }
+
+    @Builtin(name = "write", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class WriteTextNode extends WritingNode {
+        @Specialization
+        int write(PTextIOWrapper self, Object text) {
+            return write(self, asString(text));
+        }
+    }
+
+    @Builtin(name = "writelines", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class WritelinesNode extends WritingNode {
+        @Specialization
+        Object writelines(PTextIOWrapper self, Object lines,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            checkClosed(self);
+            Object iterator = getIterator.executeWith(lines);
+            while (true) {
+                Object line;
+                try {
+                    line = next.execute(iterator);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    return PNone.NONE;
+                }
+                write(self, asString(line));
+            }
+        }
+    }
+
+    @Builtin(name = "flush", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class FlushTextNode extends TextNode {
+        @Specialization
+        Object flush(PTextIOWrapper self) {
+            checkClosed(self);
+            return callBuffer(self, "flush");
+        }
+    }
+
+    @Builtin(name = "close", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class CloseNode extends TextNode {
+        @Specialization
+        Object close(PTextIOWrapper self) {
+            if (isClosed(self)) {
+                return PNone.NONE;
+            }
+            try {
+                callBuffer(self, "flush");
+            } finally {
+                callBuffer(self, "close");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "closed", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ClosedNode extends TextNode {
+        @Specialization
+        boolean closed(PTextIOWrapper self) {
+            return isClosed(self);
+        }
+    }
+
+    @Builtin(name = "detach", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class DetachNode extends TextNode {
+        @Specialization
+        Object detach(PTextIOWrapper self) {
+            callBuffer(self, "flush");
+            return self.detach();
+        }
+    }
+
+    @Builtin(name = "tell", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class TellNode extends TextNode {
+        @Specialization
+        Object tell(PTextIOWrapper self,
+                        @Cached("create()") CastToLongNode castToLong) {
+            checkClosed(self);
+            callBuffer(self, "flush");
+            long position = castToLong.execute(callBuffer(self, "tell"));
+            return position - self.readAheadBytes();
+        }
+    }
+
+    @Builtin(name = "seek", minNumOfArguments = 2, maxNumOfArguments = 3)
+    @GenerateNodeFactory
+    abstract static class SeekNode extends TextNode {
+        @Specialization
+        Object seek(PTextIOWrapper self, Object cookie, Object whence,
+                        @Cached("create()") CastToLongNode castToLong,
+                        @Cached("create()") CallMethodNode callTell) {
+            checkClosed(self);
+            long how = whence instanceof PNone ? 0 : castToLong.execute(whence);
+            long offset = castToLong.execute(cookie);
+            if (how == 1) {
+                if (offset != 0) {
+                    throw raiseUnsupported("can't do nonzero cur-relative seeks");
+                }
+                return callTell.execute(self, "tell");
+            } else if (how == 2) {
+                if (offset != 0) {
+                    throw raiseUnsupported("can't do nonzero end-relative seeks");
+                }
+                callBuffer(self, "flush");
+                self.resetDecoder();
+                return callBuffer(self, "seek", 0, 2);
+            } else if (how != 0) {
+                throw raise(ValueError, "invalid whence (%d, should be 0, 1 or 2)", how);
+            } else if (offset < 0) {
+                throw raise(ValueError, "negative seek position %d", offset);
+            }
+            callBuffer(self, "flush");
+            self.resetDecoder(offset);
+            callBuffer(self, "seek", offset);
+            return offset;
+        }
+    }
+
+    @Builtin(name = "truncate", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class TruncateNode extends TextNode {
+        @Specialization
+        Object truncate(PTextIOWrapper self, Object pos) {
+            callBuffer(self, "flush");
+            if (pos instanceof PNone) {
+                return callBuffer(self, "truncate");
+            }
+            return callBuffer(self, "truncate", pos);
+        }
+    }
+
+    @Builtin(name = "fileno", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class FilenoNode extends TextNode {
+        @Specialization
+        Object fileno(PTextIOWrapper self) {
+            return callBuffer(self, "fileno");
+        }
+    }
+
+    @Builtin(name = "isatty", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class IsattyNode extends TextNode {
+        @Specialization
+        Object isatty(PTextIOWrapper self) {
+            return callBuffer(self, "isatty");
+        }
+    }
+
+    @Builtin(name = "readable", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class ReadableNode extends TextNode {
+        @Specialization
+        Object readable(PTextIOWrapper self) {
+            return callBuffer(self, "readable");
+        }
+    }
+
+    @Builtin(name = "writable", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class WritableNode extends TextNode {
+        @Specialization
+        Object writable(PTextIOWrapper self) {
+            return callBuffer(self, "writable");
+        }
+    }
+
+    @Builtin(name = "seekable", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class SeekableNode extends TextNode {
+        @Specialization
+        Object seekable(PTextIOWrapper self) {
+            return callBuffer(self, "seekable");
+        }
+    }
+
+    @Builtin(name = "encoding", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EncodingNode extends PythonBuiltinNode {
+        @Specialization
+        Object encoding(PTextIOWrapper self) {
+            return self.getEncoding();
+        }
+    }
+
+    @Builtin(name = "errors", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ErrorsNode extends PythonBuiltinNode {
+        @Specialization
+        Object errors(PTextIOWrapper self) {
+            return self.getErrors();
+        }
+    }
+
+    @Builtin(name = "newlines", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NewlinesNode extends PythonBuiltinNode {
+        @Specialization
+        Object newlines(PTextIOWrapper self) {
+            int seen = self.getSeenNewlines();
+            ArrayList<Object> kinds = new ArrayList<>(3);
+            if ((seen & PTextIOWrapper.SEEN_CR) != 0) {
+                add(kinds, "\r");
+            }
+            if ((seen & PTextIOWrapper.SEEN_LF) != 0) {
+                add(kinds, "\n");
+            }
+            if ((seen & PTextIOWrapper.SEEN_CRLF) != 0) {
+                add(kinds, "\r\n");
+            }
+            if (kinds.isEmpty()) {
+                return PNone.NONE;
+            } else if (kinds.size() == 1) {
+                return kinds.get(0);
+            }
+            return factory().createTuple(toArray(kinds));
+        }
+
+        @TruffleBoundary
+        private static void add(ArrayList<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(ArrayList<Object> list) {
+            return list.toArray();
+        }
+    }
+
+    @Builtin(name = "buffer", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class BufferNode extends PythonBuiltinNode {
+        @Specialization
+        Object buffer(PTextIOWrapper self) {
+            return self.isDetached() ? PNone.NONE : self.getBuffer();
+        }
+    }
+
+    @Builtin(name = "line_buffering", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LineBufferingNode extends PythonBuiltinNode {
+        @Specialization
+        boolean lineBuffering(PTextIOWrapper self) {
+            return self.isLineBuffering();
+        }
+    }
+
+    @Builtin(name = "name", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NameNode extends TextNode {
+        @Specialization
+        Object name(PTextIOWrapper self,
+                        @Cached("create()") CallMethodNode getName) {
+            return getName.executeGet(getBuffer(self), "name");
+        }
+    }
+
+    /**
+     * {@code open} sets the mode on the text file it returns. It is kept in a field, since
+     * attributes set on builtin objects would end up in their class.
+     */
+    @Builtin(name = "mode", minNumOfArguments = 1, maxNumOfArguments = 2, isGetter = true, isSetter = true)
+    @GenerateNodeFactory
+    abstract static class ModeNode extends PythonBuiltinNode {
+        @Specialization(guards = "isNoValue(none)")
+        Object get(PTextIOWrapper self, @SuppressWarnings("unused") PNone none) {
+            Object mode = self.getMode();
+            if (mode == null) {
+                throw raise(AttributeError, "'%p' object has no attribute 'mode'", self);
+            }
+            return mode;
+        }
+
+        @Specialization(guards = "!isNoValue(mode)")
+        Object set(PTextIOWrapper self, Object mode) {
+            self.setMode(mode);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class EnterNode extends TextNode {
+        @Specialization
+        Object enter(PTextIOWrapper self) {
+            checkClosed(self);
+            return self;
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfArguments = 1, takesVariableArguments = true)
+    @GenerateNodeFactory
+    abstract static class ExitNode extends PythonBuiltinNode {
+        @Specialization
+        Object exit(PTextIOWrapper self, @SuppressWarnings("unused") Object args,
+                        @Cached("create()") CallMethodNode callClose) {
+            return callClose.execute(self, "close");
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends TextNode {
+        @Specialization
+        Object repr(PTextIOWrapper self,
+                        @Cached("create()") CallMethodNode getName,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            StringBuilder sb = newBuilder();
+            append(sb, "<_io.TextIOWrapper");
+            if (!self.isDetached()) {
+                try {
+                    Object name = getName.executeGet(self.getBuffer(), "name");
+                    append(sb, " name=");
+                    append(sb, reprNode.executeObject(name));
+                } catch (PException e) {
+                    e.expect(AttributeError, getCore(), errorProfile);
+                }
+            }
+            if (self.getMode() != null) {
+                append(sb, " mode=");
+                append(sb, reprNode.executeObject(self.getMode()));
+            }
+            append(sb, " encoding='");
+            append(sb, self.getEncoding());
+            append(sb, "'>");
+            return toString(sb);
+        }
+
+        @TruffleBoundary
+        private static StringBuilder newBuilder() {
+            return new StringBuilder();
+        }
+
+        @TruffleBoundary
+        private static void append(StringBuilder sb, Object value) {
+            sb.append(value);
+        }
+
+        @TruffleBoundary
+        private static String toString(StringBuilder sb) {
+            return sb.toString();
+        }
+    }
+}
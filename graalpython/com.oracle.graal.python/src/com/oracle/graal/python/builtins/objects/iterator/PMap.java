@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2017, Oracle and/or its affiliates.
- * Copyright (c) 2014, Regents of the University of California
+ * Copyright (c) 2013, Regents of the University of California
  *
  * All rights reserved.
  *
@@ -25,25 +25,30 @@
  */
 package com.oracle.graal.python.builtins.objects.iterator;
 
-import com.oracle.graal.python.builtins.objects.array.PCharArray;
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 
-public final class PCharArrayIterator extends PBuiltinIterator {
+public final class PMap extends PythonBuiltinObject {
 
-    private final PCharArray array;
-    private int index;
+    private final Object function;
+    private final Object[] iterators;
 
-    public PCharArrayIterator(PythonClass clazz, PCharArray array) {
+    public PMap(PythonClass clazz, Object function, Object[] iterators) {
         super(clazz);
-        this.array = array;
+        this.function = function;
+        this.iterators = iterators;
     }
 
-    public char __nextChar__() {
-        assert hasNext();
-        return array.getCharItemNormalized(index++);
+    public Object getFunction() {
+        return function;
     }
 
-    public boolean hasNext() {
-        return index < array.len();
+    public Object[] getIterators() {
+        return iterators;
+    }
+
+    @Override
+    public String toString() {
+        return "<map object at " + hashCode() + ">";
     }
 }
@@ -0,0 +1,526 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.itertools;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.control.GetIteratorNode;
+import com.oracle.graal.python.nodes.control.GetNextNode;
+import com.oracle.graal.python.nodes.expression.BinaryArithmetic;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+@CoreFunctions(extendClasses = {PChain.class, PCount.class, PRepeat.class, PIslice.class, PStarmap.class, PCombinationsWithReplacement.class, PCompress.class, PTakewhile.class, PDropwhile.class, PFilterfalse.class,
+                PAccumulate.class, PCycle.class, PZipLongest.class, PGroupBy.class, PGrouper.class, PPermutations.class, PCombinations.class, PProduct.class})
+public class ItertoolsBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return ItertoolsBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class IterNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        public Object __iter__(PItertoolsIterator self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class NextNode extends PythonUnaryBuiltinNode {
+
+        protected static LookupAndCallBinaryNode createAdd() {
+            return BinaryArithmetic.Add.create();
+        }
+
+        protected static BinaryComparisonNode createEq() {
+            return BinaryComparisonNode.create(__EQ__, __EQ__, "==");
+        }
+
+        @Specialization
+        public Object next(PChain self,
+                        @Cached("create()") GetNextNode nextSource,
+                        @Cached("create()") GetNextNode nextActive,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            while (true) {
+                if (self.active == null) {
+                    // raises StopIteration once all iterables are consumed
+                    self.active = getIterator.executeWith(nextSource.execute(self.source));
+                }
+                try {
+                    return nextActive.execute(self.active);
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    self.active = null;
+                }
+            }
+        }
+
+        @Specialization
+        public Object next(PCount self,
+                        @Cached("createAdd()") LookupAndCallBinaryNode add) {
+            Object result = self.count;
+            self.count = add.executeObject(result, self.step);
+            return result;
+        }
+
+        @Specialization
+        public Object next(PRepeat self) {
+            if (self.remaining == 0) {
+                throw raise(StopIteration);
+            } else if (self.remaining > 0) {
+                self.remaining--;
+            }
+            return self.element;
+        }
+
+        @Specialization
+        public Object next(PIslice self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Object iterator = self.iterator;
+            if (iterator == null) {
+                throw raise(StopIteration);
+            }
+            try {
+                while (self.count < self.next) {
+                    next.execute(iterator);
+                    self.count++;
+                }
+                if (self.stop != -1 && self.count >= self.stop) {
+                    self.iterator = null;
+                    throw raise(StopIteration);
+                }
+                Object item = next.execute(iterator);
+                self.count++;
+                long oldNext = self.next;
+                self.next += self.step;
+                if (self.next < oldNext || (self.stop != -1 && self.next > self.stop)) {
+                    self.next = self.stop;
+                }
+                return item;
+            } catch (PException e) {
+                e.expectStopIteration(getCore(), errorProfile);
+                self.iterator = null;
+                throw e;
+            }
+        }
+
+        @Specialization
+        public Object next(PStarmap self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") GetNextNode nextArgument,
+                        @Cached("create()") GetIteratorNode getIterator,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Object args = next.execute(self.iterator);
+            Object[] arguments;
+            if (args instanceof PTuple) {
+                arguments = ((PTuple) args).getArray();
+            } else if (args instanceof PList) {
+                arguments = ((PList) args).getSequenceStorage().getCopyOfInternalArray();
+            } else {
+                ArrayList<Object> list = new ArrayList<>();
+                Object it = getIterator.executeWith(args);
+                while (true) {
+                    try {
+                        add(list, nextArgument.execute(it));
+                    } catch (PException e) {
+                        e.expectStopIteration(getCore(), errorProfile);
+                        break;
+                    }
+                }
+                arguments = toArray(list);
+            }
+            return callNode.execute(self.function, arguments, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        @Specialization
+        public Object next(PCompress self,
+                        @Cached("create()") GetNextNode nextData,
+                        @Cached("create()") GetNextNode nextSelector,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            while (true) {
+                Object datum = nextData.execute(self.data);
+                if (isTrue.executeWith(nextSelector.execute(self.selectors))) {
+                    return datum;
+                }
+            }
+        }
+
+        @Specialization
+        public Object next(PTakewhile self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            if (self.stopped) {
+                throw raise(StopIteration);
+            }
+            Object item = next.execute(self.iterator);
+            if (isTrue.executeWith(callNode.execute(self.predicate, new Object[]{item}, PKeyword.EMPTY_KEYWORDS))) {
+                return item;
+            }
+            self.stopped = true;
+            throw raise(StopIteration);
+        }
+
+        @Specialization
+        public Object next(PDropwhile self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue) {
+            while (true) {
+                Object item = next.execute(self.iterator);
+                if (self.started) {
+                    return item;
+                }
+                if (!isTrue.executeWith(callNode.execute(self.predicate, new Object[]{item}, PKeyword.EMPTY_KEYWORDS))) {
+                    self.started = true;
+                    return item;
+                }
+            }
+        }
+
+        @Specialization
+        public Object next(PFilterfalse self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createIfTrueNode()") CastToBooleanNode isTrue,
+                        @Cached("createBinaryProfile()") ConditionProfile noPredicateProfile) {
+            while (true) {
+                Object item = next.execute(self.iterator);
+                Object test;
+                if (noPredicateProfile.profile(self.predicate == PNone.NONE)) {
+                    test = item;
+                } else {
+                    test = callNode.execute(self.predicate, new Object[]{item}, PKeyword.EMPTY_KEYWORDS);
+                }
+                if (!isTrue.executeWith(test)) {
+                    return item;
+                }
+            }
+        }
+
+        @Specialization
+        public Object next(PAccumulate self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createAdd()") LookupAndCallBinaryNode add) {
+            if (self.initial != null) {
+                self.total = self.initial;
+                self.initial = null;
+                return self.total;
+            }
+            Object value = next.execute(self.iterator);
+            if (self.total == null) {
+                self.total = value;
+            } else if (self.function == PNone.NONE) {
+                self.total = add.executeObject(self.total, value);
+            } else {
+                self.total = callNode.execute(self.function, new Object[]{self.total, value}, PKeyword.EMPTY_KEYWORDS);
+            }
+            return self.total;
+        }
+
+        @Specialization
+        public Object next(PCycle self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            if (self.iterator != null) {
+                try {
+                    Object item = next.execute(self.iterator);
+                    add(self.saved, item);
+                    return item;
+                } catch (PException e) {
+                    e.expectStopIteration(getCore(), errorProfile);
+                    self.iterator = null;
+                }
+            }
+            int size = size(self.saved);
+            if (size == 0) {
+                throw raise(StopIteration);
+            }
+            Object item = get(self.saved, self.index);
+            self.index = (self.index + 1) % size;
+            return item;
+        }
+
+        @Specialization
+        public Object next(PZipLongest self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("createBinaryProfile()") ConditionProfile errorProfile) {
+            Object[] iterators = self.iterators;
+            if (self.numActive == 0) {
+                throw raise(StopIteration);
+            }
+            Object[] result = new Object[iterators.length];
+            for (int i = 0; i < iterators.length; i++) {
+                if (iterators[i] == null) {
+                    result[i] = self.fillValue;
+                } else {
+                    try {
+                        result[i] = next.execute(iterators[i]);
+                    } catch (PException e) {
+                        e.expectStopIteration(getCore(), errorProfile);
+                        iterators[i] = null;
+                        self.numActive--;
+                        if (self.numActive == 0) {
+                            throw e;
+                        }
+                        result[i] = self.fillValue;
+                    }
+                }
+            }
+            return factory().createTuple(result);
+        }
+
+        @Specialization
+        public Object next(PGroupBy self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createEq()") BinaryComparisonNode eq) {
+            self.currentGrouper = null;
+            // skip to the next group
+            while (self.currentKey == null || (self.targetKey != null && eq.executeBool(self.targetKey, self.currentKey))) {
+                step(self, next, callNode);
+            }
+            self.targetKey = self.currentKey;
+            PGrouper grouper = factory().createGrouper(self, self.targetKey);
+            self.currentGrouper = grouper;
+            return factory().createTuple(new Object[]{self.currentKey, grouper});
+        }
+
+        @Specialization
+        public Object next(PGrouper self,
+                        @Cached("create()") GetNextNode next,
+                        @Cached("create()") CallNode callNode,
+                        @Cached("createEq()") BinaryComparisonNode eq) {
+            PGroupBy parent = self.parent;
+            if (parent.currentGrouper != self) {
+                throw raise(StopIteration);
+            }
+            if (parent.currentValue == null) {
+                step(parent, next, callNode);
+            }
+            if (!eq.executeBool(self.targetKey, parent.currentKey)) {
+                throw raise(StopIteration);
+            }
+            Object result = parent.currentValue;
+            parent.currentValue = null;
+            return result;
+        }
+
+        private static void step(PGroupBy self, GetNextNode next, CallNode callNode) {
+            Object value = next.execute(self.iterator);
+            Object key;
+            if (self.keyFunction == PNone.NONE) {
+                key = value;
+            } else {
+                key = callNode.execute(self.keyFunction, new Object[]{value}, PKeyword.EMPTY_KEYWORDS);
+            }
+            self.currentValue = value;
+            self.currentKey = key;
+        }
+
+        @Specialization
+        public Object next(PPermutations self) {
+            if (self.stopped) {
+                throw raise(StopIteration);
+            }
+            int n = self.pool.length;
+            int r = self.r;
+            int[] indices = self.indices;
+            if (self.started) {
+                int[] cycles = self.cycles;
+                int i = r - 1;
+                for (; i >= 0; i--) {
+                    cycles[i]--;
+                    if (cycles[i] == 0) {
+                        // rotate indices[i:] to the left by one
+                        int index = indices[i];
+                        System.arraycopy(indices, i + 1, indices, i, n - i - 1);
+                        indices[n - 1] = index;
+                        cycles[i] = n - i;
+                    } else {
+                        int j = cycles[i];
+                        int index = indices[i];
+                        indices[i] = indices[n - j];
+                        indices[n - j] = index;
+                        break;
+                    }
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    throw raise(StopIteration);
+                }
+            } else {
+                self.started = true;
+            }
+            Object[] result = new Object[r];
+            for (int k = 0; k < r; k++) {
+                result[k] = self.pool[indices[k]];
+            }
+            return factory().createTuple(result);
+        }
+
+        @Specialization
+        public Object next(PCombinations self) {
+            if (self.stopped) {
+                throw raise(StopIteration);
+            }
+            int n = self.pool.length;
+            int r = self.r;
+            int[] indices = self.indices;
+            if (self.started) {
+                int i = r - 1;
+                if (self.withReplacement) {
+                    while (i >= 0 && indices[i] == n - 1) {
+                        i--;
+                    }
+                } else {
+                    while (i >= 0 && indices[i] == i + n - r) {
+                        i--;
+                    }
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    throw raise(StopIteration);
+                }
+                if (self.withReplacement) {
+                    int index = indices[i] + 1;
+                    for (int j = i; j < r; j++) {
+                        indices[j] = index;
+                    }
+                } else {
+                    indices[i]++;
+                    for (int j = i + 1; j < r; j++) {
+                        indices[j] = indices[j - 1] + 1;
+                    }
+                }
+            } else {
+                self.started = true;
+            }
+            Object[] result = new Object[r];
+            for (int k = 0; k < r; k++) {
+                result[k] = self.pool[indices[k]];
+            }
+            return factory().createTuple(result);
+        }
+
+        @Specialization
+        public Object next(PProduct self) {
+            if (self.stopped) {
+                throw raise(StopIteration);
+            }
+            Object[][] gears = self.gears;
+            int[] indices = self.indices;
+            if (self.started) {
+                int i = gears.length - 1;
+                for (; i >= 0; i--) {
+                    indices[i]++;
+                    if (indices[i] < gears[i].length) {
+                        break;
+                    }
+                    // carry over to the gear on the left
+                    indices[i] = 0;
+                }
+                if (i < 0) {
+                    self.stopped = true;
+                    throw raise(StopIteration);
+                }
+            } else {
+                self.started = true;
+            }
+            Object[] result = new Object[gears.length];
+            for (int k = 0; k < gears.length; k++) {
+                result[k] = gears[k][indices[k]];
+            }
+            return factory().createTuple(result);
+        }
+
+        @TruffleBoundary
+        private static void add(ArrayList<Object> list, Object item) {
+            list.add(item);
+        }
+
+        @TruffleBoundary
+        private static Object get(ArrayList<Object> list, int index) {
+            return list.get(index);
+        }
+
+        @TruffleBoundary
+        private static int size(ArrayList<Object> list) {
+            return list.size();
+        }
+
+        @TruffleBoundary
+        private static Object[] toArray(ArrayList<Object> list) {
+            return list.toArray();
+        }
+    }
+}
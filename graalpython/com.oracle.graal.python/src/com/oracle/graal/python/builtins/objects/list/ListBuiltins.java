@@ -35,6 +35,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.Overflow
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.graal.python.builtins.Builtin;
@@ -42,6 +43,7 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
@@ -52,11 +54,13 @@ import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.call.CallNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.control.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
@@ -75,6 +79,7 @@ import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStoreException;
 import com.oracle.graal.python.runtime.sequence.storage.SetSequenceStorageItem;
 import com.oracle.graal.python.runtime.sequence.storage.TupleSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
@@ -570,6 +575,444 @@ public class ListBuiltins extends PythonBuiltins {
         }
     }
 
+    // list.sort(*, key=None, reverse=False)
+    @Builtin(name = "sort", fixedNumOfArguments = 1, keywordArguments = {"key", "reverse"})
+    @GenerateNodeFactory
+    public abstract static class ListSortNode extends PythonBuiltinNode {
+
+        /**
+         * Runs shorter than this are sorted with a binary insertion sort before merging.
+         */
+        private static final int MIN_RUN = 32;
+
+        @Child private CastToBooleanNode castToBoolean;
+
+        public abstract Object execute(PList list, Object key, Object reverse);
+
+        public static ListSortNode create() {
+            return ListBuiltinsFactory.ListSortNodeFactory.create(null);
+        }
+
+        @Specialization(guards = {"isIntStorage(list)", "isPNone(key)"})
+        public PNone sortInt(PList list, @SuppressWarnings("unused") Object key, Object reverse) {
+            IntSequenceStorage store = (IntSequenceStorage) list.getSequenceStorage();
+            sortInts(store.getInternalIntArray(), store.length());
+            if (isReverse(reverse)) {
+                store.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isLongStorage(list)", "isPNone(key)"})
+        public PNone sortLong(PList list, @SuppressWarnings("unused") Object key, Object reverse) {
+            LongSequenceStorage store = (LongSequenceStorage) list.getSequenceStorage();
+            sortLongs(store.getInternalLongArray(), store.length());
+            if (isReverse(reverse)) {
+                store.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = {"isDoubleStorage(list)", "isPNone(key)"})
+        public PNone sortDouble(PList list, @SuppressWarnings("unused") Object key, Object reverse) {
+            DoubleSequenceStorage store = (DoubleSequenceStorage) list.getSequenceStorage();
+            // doubles are not totally ordered under '<' (NaN, -0.0 == 0.0), so we cannot use
+            // Arrays.sort and have to keep the sort stable just like for objects
+            boolean rev = isReverse(reverse);
+            if (rev) {
+                store.reverse();
+            }
+            sortDoubles(store.getInternalDoubleArray(), store.length());
+            if (rev) {
+                store.reverse();
+            }
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isPNone(key)")
+        public PNone sortGeneric(PList list, @SuppressWarnings("unused") Object key, Object reverse,
+                        @Cached("createLessThan()") BinaryComparisonNode lessThan) {
+            SequenceStorage store = list.getSequenceStorage();
+            int len = store.length();
+            Object[] values = getItems(store, len);
+            boolean rev = isReverse(reverse);
+            if (rev) {
+                reverseArray(values, len);
+            }
+            mergeSort(values, null, len, lessThan);
+            if (rev) {
+                reverseArray(values, len);
+            }
+            writeBack(list, store, values, len);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPNone(key)")
+        public PNone sortWithKey(PList list, Object key, Object reverse,
+                        @Cached("create()") CallNode keyCall,
+                        @Cached("createLessThan()") BinaryComparisonNode lessThan,
+                        @Cached("createBinaryProfile()") ConditionProfile longKeysProfile,
+                        @Cached("createBinaryProfile()") ConditionProfile doubleKeysProfile) {
+            SequenceStorage store = list.getSequenceStorage();
+            int len = store.length();
+            Object[] values = getItems(store, len);
+            Object[] keys = new Object[len];
+            for (int i = 0; i < len; i++) {
+                keys[i] = keyCall.execute(key, new Object[]{values[i]}, PKeyword.EMPTY_KEYWORDS);
+            }
+            boolean rev = isReverse(reverse);
+            if (rev) {
+                reverseArray(values, len);
+                reverseArray(keys, len);
+            }
+            long[] longKeys = asLongKeys(keys, len);
+            if (longKeysProfile.profile(longKeys != null)) {
+                sortByLongKeys(longKeys, values, len);
+            } else {
+                double[] doubleKeys = asDoubleKeys(keys, len);
+                if (doubleKeysProfile.profile(doubleKeys != null)) {
+                    sortByDoubleKeys(doubleKeys, values, len);
+                } else {
+                    mergeSort(keys, values, len, lessThan);
+                }
+            }
+            if (rev) {
+                reverseArray(values, len);
+            }
+            writeBack(list, store, values, len);
+            return PNone.NONE;
+        }
+
+        protected static BinaryComparisonNode createLessThan() {
+            return BinaryComparisonNode.create(SpecialMethodNames.__LT__, SpecialMethodNames.__GT__, "<");
+        }
+
+        private boolean isReverse(Object reverse) {
+            if (reverse instanceof PNone) {
+                return false;
+            } else if (reverse instanceof Boolean) {
+                return (boolean) reverse;
+            }
+            if (castToBoolean == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBoolean = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBoolean.executeWith(reverse);
+        }
+
+        private static Object[] getItems(SequenceStorage store, int len) {
+            if (store instanceof ObjectSequenceStorage) {
+                return ((ObjectSequenceStorage) store).getCopyOfInternalArray();
+            }
+            Object[] values = new Object[len];
+            for (int i = 0; i < len; i++) {
+                values[i] = store.getItemNormalized(i);
+            }
+            return values;
+        }
+
+        private void writeBack(PList list, SequenceStorage store, Object[] values, int len) {
+            // the comparisons and key calls may run arbitrary code
+            if (list.getSequenceStorage() != store || store.length() != len) {
+                throw raise(ValueError, "list modified during sort");
+            }
+            if (store instanceof ObjectSequenceStorage) {
+                list.setSequenceStorage(new ObjectSequenceStorage(values));
+            } else {
+                try {
+                    for (int i = 0; i < len; i++) {
+                        store.setItemNormalized(i, values[i]);
+                    }
+                } catch (SequenceStoreException e) {
+                    list.setSequenceStorage(new ObjectSequenceStorage(values));
+                }
+            }
+        }
+
+        /**
+         * Returns the keys as primitive {@code long}s, or {@code null} if any key is not an
+         * {@code int} or {@code long}.
+         */
+        private static long[] asLongKeys(Object[] keys, int len) {
+            long[] result = new long[len];
+            for (int i = 0; i < len; i++) {
+                Object key = keys[i];
+                if (key instanceof Integer) {
+                    result[i] = (int) key;
+                } else if (key instanceof Long) {
+                    result[i] = (long) key;
+                } else {
+                    return null;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the keys as primitive {@code double}s, or {@code null} if any key is not a
+         * {@code float}.
+         */
+        private static double[] asDoubleKeys(Object[] keys, int len) {
+            double[] result = new double[len];
+            for (int i = 0; i < len; i++) {
+                Object key = keys[i];
+                if (key instanceof Double) {
+                    result[i] = (double) key;
+                } else {
+                    return null;
+                }
+            }
+            return result;
+        }
+
+        private static void reverseArray(Object[] array, int len) {
+            for (int head = 0, tail = len - 1; head < tail; head++, tail--) {
+                Object tmp = array[head];
+                array[head] = array[tail];
+                array[tail] = tmp;
+            }
+        }
+
+        /**
+         * Stable bottom-up merge sort using the Python {@code <} operator on {@code keys}. If
+         * {@code values} is not {@code null}, it is permuted together with the keys. This is
+         * deliberately non-recursive so that it can be partially evaluated.
+         */
+        private static void mergeSort(Object[] keys, Object[] values, int len, BinaryComparisonNode lessThan) {
+            for (int lo = 0; lo < len; lo += MIN_RUN) {
+                int hi = Math.min(lo + MIN_RUN, len);
+                for (int i = lo + 1; i < hi; i++) {
+                    Object pivot = keys[i];
+                    int left = lo;
+                    int right = i;
+                    while (left < right) {
+                        int mid = (left + right) >>> 1;
+                        if (lessThan.executeBool(pivot, keys[mid])) {
+                            right = mid;
+                        } else {
+                            left = mid + 1;
+                        }
+                    }
+                    if (left < i) {
+                        System.arraycopy(keys, left, keys, left + 1, i - left);
+                        keys[left] = pivot;
+                        if (values != null) {
+                            Object pivotValue = values[i];
+                            System.arraycopy(values, left, values, left + 1, i - left);
+                            values[left] = pivotValue;
+                        }
+                    }
+                }
+            }
+            if (len <= MIN_RUN) {
+                return;
+            }
+            Object[] srcKeys = keys;
+            Object[] srcValues = values;
+            Object[] dstKeys = new Object[len];
+            Object[] dstValues = values != null ? new Object[len] : null;
+            for (long width = MIN_RUN; width < len; width *= 2) {
+                for (int lo = 0; lo < len; lo += (int) Math.min(2 * width, len - lo)) {
+                    int mid = (int) Math.min(lo + width, len);
+                    int hi = (int) Math.min(lo + 2 * width, len);
+                    int i = lo;
+                    int j = mid;
+                    int k = lo;
+                    if (mid < hi && !lessThan.executeBool(srcKeys[mid], srcKeys[mid - 1])) {
+                        // both runs are already in order
+                        i = hi;
+                        j = hi;
+                        System.arraycopy(srcKeys, lo, dstKeys, lo, hi - lo);
+                        if (values != null) {
+                            System.arraycopy(srcValues, lo, dstValues, lo, hi - lo);
+                        }
+                    }
+                    while (i < mid && j < hi) {
+                        int from = lessThan.executeBool(srcKeys[j], srcKeys[i]) ? j++ : i++;
+                        dstKeys[k] = srcKeys[from];
+                        if (values != null) {
+                            dstValues[k] = srcValues[from];
+                        }
+                        k++;
+                    }
+                    if (i < mid) {
+                        System.arraycopy(srcKeys, i, dstKeys, k, mid - i);
+                        if (values != null) {
+                            System.arraycopy(srcValues, i, dstValues, k, mid - i);
+                        }
+                    } else if (j < hi) {
+                        System.arraycopy(srcKeys, j, dstKeys, k, hi - j);
+                        if (values != null) {
+                            System.arraycopy(srcValues, j, dstValues, k, hi - j);
+                        }
+                    }
+                }
+                Object[] tmp = srcKeys;
+                srcKeys = dstKeys;
+                dstKeys = tmp;
+                tmp = srcValues;
+                srcValues = dstValues;
+                dstValues = tmp;
+            }
+            if (srcKeys != keys) {
+                System.arraycopy(srcKeys, 0, keys, 0, len);
+                if (values != null) {
+                    System.arraycopy(srcValues, 0, values, 0, len);
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static void sortInts(int[] array, int len) {
+            Arrays.sort(array, 0, len);
+        }
+
+        @TruffleBoundary
+        private static void sortLongs(long[] array, int len) {
+            Arrays.sort(array, 0, len);
+        }
+
+        @TruffleBoundary
+        private static void sortDoubles(double[] array, int len) {
+            sortByDoubleKeys(array, null, len);
+        }
+
+        /**
+         * Same as {@link #mergeSort} for primitive {@code long} keys.
+         */
+        @TruffleBoundary
+        private static void sortByLongKeys(long[] keys, Object[] values, int len) {
+            for (int lo = 0; lo < len; lo += MIN_RUN) {
+                int hi = Math.min(lo + MIN_RUN, len);
+                for (int i = lo + 1; i < hi; i++) {
+                    long pivot = keys[i];
+                    Object pivotValue = values != null ? values[i] : null;
+                    int j = i;
+                    for (; j > lo && pivot < keys[j - 1]; j--) {
+                        keys[j] = keys[j - 1];
+                        if (values != null) {
+                            values[j] = values[j - 1];
+                        }
+                    }
+                    keys[j] = pivot;
+                    if (values != null) {
+                        values[j] = pivotValue;
+                    }
+                }
+            }
+            if (len <= MIN_RUN) {
+                return;
+            }
+            long[] srcKeys = keys;
+            Object[] srcValues = values;
+            long[] dstKeys = new long[len];
+            Object[] dstValues = values != null ? new Object[len] : null;
+            for (long width = MIN_RUN; width < len; width *= 2) {
+                for (int lo = 0; lo < len; lo += (int) Math.min(2 * width, len - lo)) {
+                    int mid = (int) Math.min(lo + width, len);
+                    int hi = (int) Math.min(lo + 2 * width, len);
+                    int i = lo;
+                    int j = mid;
+                    int k = lo;
+                    while (i < mid && j < hi) {
+                        int from = srcKeys[j] < srcKeys[i] ? j++ : i++;
+                        dstKeys[k] = srcKeys[from];
+                        if (values != null) {
+                            dstValues[k] = srcValues[from];
+                        }
+                        k++;
+                    }
+                    int from = i < mid ? i : j;
+                    int rest = i < mid ? mid - i : hi - j;
+                    System.arraycopy(srcKeys, from, dstKeys, k, rest);
+                    if (values != null) {
+                        System.arraycopy(srcValues, from, dstValues, k, rest);
+                    }
+                }
+                long[] tmpKeys = srcKeys;
+                srcKeys = dstKeys;
+                dstKeys = tmpKeys;
+                Object[] tmpValues = srcValues;
+                srcValues = dstValues;
+                dstValues = tmpValues;
+            }
+            if (srcKeys != keys) {
+                System.arraycopy(srcKeys, 0, keys, 0, len);
+                if (values != null) {
+                    System.arraycopy(srcValues, 0, values, 0, len);
+                }
+            }
+        }
+
+        /**
+         * Same as {@link #mergeSort} for primitive {@code double} keys. Only {@code <} is used, so
+         * NaNs and signed zeros keep their relative order like in CPython.
+         */
+        @TruffleBoundary
+        private static void sortByDoubleKeys(double[] keys, Object[] values, int len) {
+            for (int lo = 0; lo < len; lo += MIN_RUN) {
+                int hi = Math.min(lo + MIN_RUN, len);
+                for (int i = lo + 1; i < hi; i++) {
+                    double pivot = keys[i];
+                    Object pivotValue = values != null ? values[i] : null;
+                    int j = i;
+                    for (; j > lo && pivot < keys[j - 1]; j--) {
+                        keys[j] = keys[j - 1];
+                        if (values != null) {
+                            values[j] = values[j - 1];
+                        }
+                    }
+                    keys[j] = pivot;
+                    if (values != null) {
+                        values[j] = pivotValue;
+                    }
+                }
+            }
+            if (len <= MIN_RUN) {
+                return;
+            }
+            double[] srcKeys = keys;
+            Object[] srcValues = values;
+            double[] dstKeys = new double[len];
+            Object[] dstValues = values != null ? new Object[len] : null;
+            for (long width = MIN_RUN; width < len; width *= 2) {
+                for (int lo = 0; lo < len; lo += (int) Math.min(2 * width, len - lo)) {
+                    int mid = (int) Math.min(lo + width, len);
+                    int hi = (int) Math.min(lo + 2 * width, len);
+                    int i = lo;
+                    int j = mid;
+                    int k = lo;
+                    while (i < mid && j < hi) {
+                        int from = srcKeys[j] < srcKeys[i] ? j++ : i++;
+                        dstKeys[k] = srcKeys[from];
+                        if (values != null) {
+                            dstValues[k] = srcValues[from];
+                        }
+                        k++;
+                    }
+                    int from = i < mid ? i : j;
+                    int rest = i < mid ? mid - i : hi - j;
+                    System.arraycopy(srcKeys, from, dstKeys, k, rest);
+                    if (values != null) {
+                        System.arraycopy(srcValues, from, dstValues, k, rest);
+                    }
+                }
+                double[] tmpKeys = srcKeys;
+                srcKeys = dstKeys;
+                dstKeys = tmpKeys;
+                Object[] tmpValues = srcValues;
+                srcValues = dstValues;
+                dstValues = tmpValues;
+            }
+            if (srcKeys != keys) {
+                System.arraycopy(srcKeys, 0, keys, 0, len);
+                if (values != null) {
+                    System.arraycopy(srcValues, 0, values, 0, len);
+                }
+            }
+        }
+    }
+
     @Builtin(name = __ITER__, fixedNumOfArguments = 1)
     @GenerateNodeFactory
     public abstract static class ListIterNode extends PythonUnaryBuiltinNode {
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.memoryview;
+
+import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.array.PCharArray;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+
+/**
+ * The memory exported by an object that supports the buffer protocol. A buffer does not own any
+ * data: it reaches through to the current backing array of its exporter on every access, so views
+ * stay valid (and zero-copy) while the exporter is alive.
+ * <p>
+ * Positions are byte offsets. Elements wider than a byte are stored in native (little-endian)
+ * order, which is what the primitive-backed buffers assume when they are reinterpreted.
+ */
+public abstract class MemoryBuffer {
+
+    private final Object owner;
+
+    protected MemoryBuffer(Object owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return a buffer over the memory of {@code object}, or {@code null} if it does not export any
+     */
+    public static MemoryBuffer forObject(Object object) {
+        if (object instanceof PBytes) {
+            return new ByteStorageBuffer((PBytes) object, true);
+        } else if (object instanceof PByteArray) {
+            return new ByteStorageBuffer((PByteArray) object, false);
+        } else if (object instanceof PArray && !(object instanceof PCharArray)) {
+            return new ArrayBuffer((PArray) object);
+        }
+        return null;
+    }
+
+    public final Object getOwner() {
+        return owner;
+    }
+
+    public abstract int getByteLength();
+
+    public abstract boolean isReadOnly();
+
+    /**
+     * @return the struct format of the exported elements
+     */
+    public abstract String getFormat();
+
+    public abstract byte getByte(int pos);
+
+    public abstract void setByte(int pos, byte value);
+
+    /**
+     * @return the backing array if the memory is a plain {@code byte[]} starting at position 0,
+     *         otherwise {@code null}
+     */
+    public byte[] getByteArray() {
+        return null;
+    }
+
+    public void read(int pos, byte[] dst, int dstPos, int length) {
+        byte[] array = getByteArray();
+        if (array != null) {
+            System.arraycopy(array, pos, dst, dstPos, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                dst[dstPos + i] = getByte(pos + i);
+            }
+        }
+    }
+
+    public void write(int pos, byte[] src, int srcPos, int length) {
+        byte[] array = getByteArray();
+        if (array != null) {
+            System.arraycopy(src, srcPos, array, pos, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                setByte(pos + i, src[srcPos + i]);
+            }
+        }
+    }
+
+    /**
+     * Reads {@code size} bytes as an unsigned little-endian number.
+     */
+    public long getLong(int pos, int size) {
+        long value = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            value = (value << 8) | (getByte(pos + i) & 0xFF);
+        }
+        return value;
+    }
+
+    public void setLong(int pos, int size, long value) {
+        long v = value;
+        for (int i = 0; i < size; i++) {
+            setByte(pos + i, (byte) v);
+            v >>>= 8;
+        }
+    }
+
+    public double getDouble(int pos) {
+        return Double.longBitsToDouble(getLong(pos, 8));
+    }
+
+    public void setDouble(int pos, double value) {
+        setLong(pos, 8, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * The memory of {@code bytes} and {@code bytearray}. The storage of a bytearray is looked up on
+     * every access since it is replaced when the bytearray grows.
+     */
+    static final class ByteStorageBuffer extends MemoryBuffer {
+        private final PSequence sequence;
+        private final boolean readOnly;
+
+        ByteStorageBuffer(PSequence sequence, boolean readOnly) {
+            super(sequence);
+            this.sequence = sequence;
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public int getByteLength() {
+            return sequence.len();
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return readOnly;
+        }
+
+        @Override
+        public String getFormat() {
+            return "B";
+        }
+
+        @Override
+        public byte[] getByteArray() {
+            SequenceStorage store = sequence.getSequenceStorage();
+            if (store instanceof ByteSequenceStorage) {
+                return ((ByteSequenceStorage) store).getInternalByteArray();
+            }
+            // an empty bytearray may not have a byte storage yet
+            assert store.length() == 0;
+            return new byte[0];
+        }
+
+        @Override
+        public byte getByte(int pos) {
+            return getByteArray()[pos];
+        }
+
+        @Override
+        public void setByte(int pos, byte value) {
+            getByteArray()[pos] = value;
+        }
+    }
+
+    /**
+     * The memory of an {@code array.array}. Items are accessed through their raw bits, so that
+     * reading an element in the format of the array does not need to assemble single bytes.
+     */
+    static final class ArrayBuffer extends MemoryBuffer {
+        private final PArray array;
+        private final int itemSize;
+
+        ArrayBuffer(PArray array) {
+            super(array);
+            this.array = array;
+            this.itemSize = array.getItemSize();
+        }
+
+        @Override
+        public int getByteLength() {
+            return array.len() * itemSize;
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return false;
+        }
+
+        @Override
+        public String getFormat() {
+            return String.valueOf(array.getTypeCode());
+        }
+
+        @Override
+        public byte getByte(int pos) {
+            return (byte) (array.getRawItem(pos / itemSize) >> ((pos % itemSize) << 3));
+        }
+
+        @Override
+        public void setByte(int pos, byte value) {
+            int idx = pos / itemSize;
+            int shift = (pos % itemSize) << 3;
+            array.setRawItem(idx, (array.getRawItem(idx) & ~(0xFFL << shift)) | ((value & 0xFFL) << shift));
+        }
+
+        @Override
+        public long getLong(int pos, int size) {
+            if (size == itemSize && pos % itemSize == 0) {
+                return array.getRawItem(pos / itemSize);
+            }
+            return super.getLong(pos, size);
+        }
+
+        @Override
+        public void setLong(int pos, int size, long value) {
+            if (size == itemSize && pos % itemSize == 0) {
+                array.setRawItem(pos / itemSize, value);
+            } else {
+                super.setLong(pos, size, value);
+            }
+        }
+    }
+}
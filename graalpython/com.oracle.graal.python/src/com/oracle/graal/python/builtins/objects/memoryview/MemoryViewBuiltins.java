@@ -0,0 +1,528 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.memoryview;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__LEN__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__SETITEM__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.NotImplementedError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.PNotImplemented;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.expression.BinaryComparisonNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.SequenceUtil.NormalizeIndexNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PMemoryView.class)
+public class MemoryViewBuiltins extends PythonBuiltins {
+
+    private static final String OUT_OF_BOUNDS = "index out of bounds on dimension 1";
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return MemoryViewBuiltinsFactory.getFactories();
+    }
+
+    abstract static class MemoryViewNode extends PythonBuiltinNode {
+
+        /**
+         * Checks that the view may be accessed, i.e., it was not released and its exporter still
+         * covers it.
+         */
+        protected final PMemoryView checkView(PMemoryView self) {
+            if (self.isReleased()) {
+                throw raise(ValueError, "operation forbidden on released memoryview object");
+            } else if (!self.isInBounds()) {
+                throw raise(IndexError, "memoryview: underlying buffer was resized");
+            }
+            return self;
+        }
+
+        /**
+         * @return a view of {@code object}, or {@code null} if it does not support the buffer
+         *         protocol
+         */
+        protected final PMemoryView asView(Object object) {
+            if (object instanceof PMemoryView) {
+                return checkView((PMemoryView) object);
+            }
+            MemoryBuffer buffer = MemoryBuffer.forObject(object);
+            return buffer == null ? null : factory().createMemoryView(buffer);
+        }
+
+        protected final Object wrap(Object item) {
+            if (item instanceof byte[]) {
+                return factory().createBytes((byte[]) item);
+            } else if (item instanceof BigInteger) {
+                return factory().createInt((BigInteger) item);
+            }
+            return item;
+        }
+
+        protected final void setItem(PMemoryView self, int idx, Object value) {
+            String format = self.getFormat();
+            char code = format.charAt(0);
+            if (code == 'c') {
+                if (!(value instanceof PBytes) || ((PBytes) value).len() != 1) {
+                    throw raise(ValueError, "memoryview: invalid value for format '%s'", format);
+                }
+                self.setByteItem(idx, ((PBytes) value).getInternalByteArray()[0]);
+            } else if (code == 'f' || code == 'd') {
+                if (value instanceof Double) {
+                    self.setDoubleItem(idx, (double) value);
+                } else if (value instanceof Integer) {
+                    self.setDoubleItem(idx, (int) value);
+                } else if (value instanceof Long) {
+                    self.setDoubleItem(idx, (long) value);
+                } else {
+                    throw raise(TypeError, "memoryview: invalid type for format '%s'", format);
+                }
+            } else if (code == '?') {
+                if (value instanceof Boolean) {
+                    self.setByteItem(idx, (byte) ((boolean) value ? 1 : 0));
+                } else if (value instanceof Integer || value instanceof Long) {
+                    self.setByteItem(idx, (byte) (((Number) value).longValue() != 0 ? 1 : 0));
+                } else {
+                    throw raise(TypeError, "memoryview: invalid type for format '%s'", format);
+                }
+            } else {
+                boolean valid;
+                if (value instanceof Integer || value instanceof Long) {
+                    valid = self.setLongItem(idx, ((Number) value).longValue(), false);
+                } else if (value instanceof Boolean) {
+                    valid = self.setLongItem(idx, (boolean) value ? 1 : 0, false);
+                } else if (value instanceof PInt) {
+                    BigInteger bigValue = ((PInt) value).getValue();
+                    valid = fitsUnsigned64(bigValue) && self.setLongItem(idx, bigValue.longValue(), true);
+                } else {
+                    throw raise(TypeError, "memoryview: invalid type for format '%s'", format);
+                }
+                if (!valid) {
+                    throw raise(ValueError, "memoryview: invalid value for format '%s'", format);
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static boolean fitsUnsigned64(BigInteger value) {
+            return value.signum() >= 0 && value.bitLength() <= 64;
+        }
+    }
+
+    abstract static class IndexedNode extends MemoryViewNode {
+        @Child private NormalizeIndexNode normalize = NormalizeIndexNode.create();
+
+        protected final int normalize(PMemoryView self, Object index) {
+            if (index instanceof Integer) {
+                return normalize.execute((int) index, self.len(), OUT_OF_BOUNDS);
+            } else if (index instanceof Long) {
+                return normalize.execute((long) index, self.len(), OUT_OF_BOUNDS);
+            } else if (index instanceof PInt) {
+                return normalize.execute((PInt) index, self.len(), OUT_OF_BOUNDS);
+            } else if (index instanceof Boolean) {
+                return normalize.execute((boolean) index ? 1 : 0, self.len(), OUT_OF_BOUNDS);
+            }
+            throw raise(TypeError, "memoryview: invalid slice key");
+        }
+
+        protected final PMemoryView slice(PMemoryView self, PSlice slice) {
+            SliceInfo info = slice.computeActualIndices(self.len());
+            return factory().createMemoryView(self.getBuffer(), self.getFormat(), self.getPosition(info.start), info.length, self.getStride() * info.step,
+                            self.isReadOnly());
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GetItemNode extends IndexedNode {
+        @Specialization
+        Object getSlice(PMemoryView self, PSlice slice) {
+            return slice(checkView(self), slice);
+        }
+
+        @Specialization(guards = "!isPSlice(index)")
+        Object getItem(PMemoryView self, Object index) {
+            checkView(self);
+            return wrap(self.getItemNormalized(normalize(self, index)));
+        }
+    }
+
+    @Builtin(name = __SETITEM__, fixedNumOfArguments = 3)
+    @GenerateNodeFactory
+    public abstract static class SetItemNode extends IndexedNode {
+        @Specialization
+        PNone setSlice(PMemoryView self, PSlice slice, Object value) {
+            checkWritable(checkView(self));
+            PMemoryView target = slice(self, slice);
+            PMemoryView source = asView(value);
+            if (source == null) {
+                throw raise(TypeError, "a bytes-like object is required, not '%p'", value);
+            } else if (!source.getFormat().equals(target.getFormat()) || source.len() != target.len()) {
+                throw raise(ValueError, "memoryview assignment: lvalue and rvalue have different structures");
+            }
+            // going through a copy keeps overlapping assignments within one buffer correct
+            target.setBytes(source.toBytes(), 0);
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "!isPSlice(index)")
+        PNone setItem(PMemoryView self, Object index, Object value) {
+            checkWritable(checkView(self));
+            setItem(self, normalize(self, index), value);
+            return PNone.NONE;
+        }
+
+        private void checkWritable(PMemoryView self) {
+            if (self.isReadOnly()) {
+                throw raise(TypeError, "cannot modify read-only memory");
+            }
+        }
+    }
+
+    @Builtin(name = __LEN__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class LenNode extends MemoryViewNode {
+        @Specialization
+        int len(PMemoryView self) {
+            return checkView(self).len();
+        }
+    }
+
+    @Builtin(name = "tobytes", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ToBytesNode extends MemoryViewNode {
+        @Specialization
+        PBytes tobytes(PMemoryView self) {
+            return factory().createBytes(checkView(self).toBytes());
+        }
+    }
+
+    @Builtin(name = "tolist", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ToListNode extends MemoryViewNode {
+        @Specialization
+        Object tolist(PMemoryView self) {
+            checkView(self);
+            Object[] items = new Object[self.len()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = wrap(self.getItemNormalized(i));
+            }
+            return factory().createList(items);
+        }
+    }
+
+    @Builtin(name = "hex", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class HexNode extends MemoryViewNode {
+        private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+        @Specialization
+        String hex(PMemoryView self) {
+            return toHex(checkView(self).toBytes());
+        }
+
+        @TruffleBoundary
+        private static String toHex(byte[] bytes) {
+            char[] result = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                result[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+                result[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+            }
+            return new String(result);
+        }
+    }
+
+    // memoryview.cast(format[, shape])
+    @Builtin(name = "cast", minNumOfArguments = 2, maxNumOfArguments = 3, keywordArguments = {"shape"})
+    @GenerateNodeFactory
+    public abstract static class CastNode extends MemoryViewNode {
+        @Specialization
+        PMemoryView cast(PMemoryView self, Object formatObj, Object shape) {
+            checkView(self);
+            String format = formatObj instanceof PString ? ((PString) formatObj).getValue() : formatObj instanceof String ? (String) formatObj : null;
+            if (format == null) {
+                throw raise(TypeError, "memoryview: format argument must be a string");
+            }
+            if (format.startsWith("@")) {
+                format = format.substring(1);
+            }
+            int itemSize = PMemoryView.getItemSize(format);
+            if (itemSize < 0) {
+                throw raise(ValueError, "memoryview: destination format must be a native single character format prefixed with an optional '@'");
+            } else if (!self.isContiguous()) {
+                throw raise(TypeError, "memoryview: casts are restricted to C-contiguous views");
+            } else if (!isByteFormat(format) && !isByteFormat(self.getFormat())) {
+                throw raise(TypeError, "memoryview: cannot cast between two non-byte formats");
+            } else if (self.getNBytes() % itemSize != 0) {
+                throw raise(TypeError, "memoryview: length is not a multiple of itemsize");
+            }
+            int length = self.getNBytes() / itemSize;
+            if (!(shape instanceof PNone)) {
+                if (!(shape instanceof PSequence) || ((PSequence) shape).len() != 1) {
+                    throw raise(NotImplementedError, "memoryview: only one-dimensional casts are supported");
+                }
+                Object dim = ((PSequence) shape).getItem(0);
+                if (!(dim instanceof Integer) || (int) dim != length) {
+                    throw raise(TypeError, "memoryview: product(shape) * itemsize != buffer size");
+                }
+            }
+            return factory().createMemoryView(self.getBuffer(), format, self.getOffset(), length, itemSize, self.isReadOnly());
+        }
+
+        private static boolean isByteFormat(String format) {
+            return format.equals("B") || format.equals("b") || format.equals("c");
+        }
+    }
+
+    @Builtin(name = "release", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReleaseNode extends MemoryViewNode {
+        @Specialization
+        PNone release(PMemoryView self) {
+            self.release();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class EnterNode extends MemoryViewNode {
+        @Specialization
+        PMemoryView enter(PMemoryView self) {
+            return checkView(self);
+        }
+    }
+
+    @Builtin(name = __EXIT__, minNumOfArguments = 1, takesVariableArguments = true)
+    @GenerateNodeFactory
+    public abstract static class ExitNode extends MemoryViewNode {
+        @Specialization
+        PNone exit(PMemoryView self, @SuppressWarnings("unused") Object args) {
+            self.release();
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "obj", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ObjNode extends MemoryViewNode {
+        @Specialization
+        Object obj(PMemoryView self) {
+            return checkView(self).getOwner();
+        }
+    }
+
+    @Builtin(name = "nbytes", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class NBytesNode extends MemoryViewNode {
+        @Specialization
+        int nbytes(PMemoryView self) {
+            return checkView(self).getNBytes();
+        }
+    }
+
+    @Builtin(name = "readonly", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ReadOnlyNode extends MemoryViewNode {
+        @Specialization
+        boolean readonly(PMemoryView self) {
+            return checkView(self).isReadOnly();
+        }
+    }
+
+    @Builtin(name = "itemsize", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ItemSizeNode extends MemoryViewNode {
+        @Specialization
+        int itemsize(PMemoryView self) {
+            return checkView(self).getItemSize();
+        }
+    }
+
+    @Builtin(name = "format", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class FormatNode extends MemoryViewNode {
+        @Specialization
+        String format(PMemoryView self) {
+            return checkView(self).getFormat();
+        }
+    }
+
+    @Builtin(name = "ndim", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class NDimNode extends MemoryViewNode {
+        @Specialization
+        int ndim(PMemoryView self) {
+            checkView(self);
+            return 1;
+        }
+    }
+
+    @Builtin(name = "shape", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ShapeNode extends MemoryViewNode {
+        @Specialization
+        Object shape(PMemoryView self) {
+            return factory().createTuple(new Object[]{checkView(self).len()});
+        }
+    }
+
+    @Builtin(name = "strides", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class StridesNode extends MemoryViewNode {
+        @Specialization
+        Object strides(PMemoryView self) {
+            return factory().createTuple(new Object[]{checkView(self).getStride()});
+        }
+    }
+
+    @Builtin(name = "suboffsets", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class SubOffsetsNode extends MemoryViewNode {
+        @Specialization
+        Object suboffsets(PMemoryView self) {
+            checkView(self);
+            return factory().createTuple(new Object[0]);
+        }
+    }
+
+    @Builtin(name = "c_contiguous", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class CContiguousNode extends MemoryViewNode {
+        @Specialization
+        boolean contiguous(PMemoryView self) {
+            return checkView(self).isContiguous();
+        }
+    }
+
+    @Builtin(name = "f_contiguous", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class FContiguousNode extends CContiguousNode {
+    }
+
+    @Builtin(name = "contiguous", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    public abstract static class ContiguousNode extends CContiguousNode {
+    }
+
+    @Builtin(name = __EQ__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class EqNode extends MemoryViewNode {
+        @Specialization
+        Object eq(PMemoryView self, Object other,
+                        @Cached("create(__EQ__, __EQ__, __EQ__)") BinaryComparisonNode eqNode) {
+            if (self == other) {
+                return true;
+            } else if (self.isReleased() || (other instanceof PMemoryView && ((PMemoryView) other).isReleased())) {
+                return false;
+            }
+            PMemoryView otherView = asView(other);
+            if (otherView == null) {
+                return PNotImplemented.NOT_IMPLEMENTED;
+            }
+            checkView(self);
+            if (self.len() != otherView.len()) {
+                return false;
+            }
+            if (self.getFormat().equals(otherView.getFormat()) && self.getItemSize() == 1) {
+                return Arrays.equals(self.toBytes(), otherView.toBytes());
+            }
+            for (int i = 0; i < self.len(); i++) {
+                if (!eqNode.executeBool(wrap(self.getItemNormalized(i)), wrap(otherView.getItemNormalized(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @Builtin(name = __HASH__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class HashNode extends MemoryViewNode {
+        @Specialization
+        Object hash(PMemoryView self,
+                        @Cached("create(__HASH__)") LookupAndCallUnaryNode hashNode) {
+            checkView(self);
+            if (!self.isReadOnly()) {
+                throw raise(ValueError, "cannot hash writable memoryview object");
+            } else if (self.getItemSize() != 1 || self.getFormat().equals("?")) {
+                throw raise(ValueError, "memoryview: hashing is restricted to formats 'B', 'b' or 'c'");
+            }
+            return hashNode.executeObject(factory().createBytes(self.toBytes()));
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends MemoryViewNode {
+        @Specialization
+        @TruffleBoundary
+        String repr(PMemoryView self) {
+            String state = self.isReleased() ? "released memory" : "memory";
+            return String.format("<%s at 0x%x>", state, System.identityHashCode(self));
+        }
+    }
+}
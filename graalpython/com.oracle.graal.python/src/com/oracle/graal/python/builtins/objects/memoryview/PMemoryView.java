@@ -38,13 +38,308 @@
  */
 package com.oracle.graal.python.builtins.objects.memoryview;
 
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A one-dimensional view of the memory of another object. Views never copy: slicing creates a
+ * view with a different offset, length and stride over the same {@link MemoryBuffer}, and
+ * {@code cast} reinterprets the same bytes with another element format.
+ * <p>
+ * The offset and the stride are in bytes. The stride may be negative for views created by slices
+ * with a negative step.
+ */
+public final class PMemoryView extends PythonBuiltinObject {
 
-public class PMemoryView extends PythonBuiltinObject {
+    public static final String SUPPORTED_FORMATS = "bBchHiIlLqQnNfd?";
 
-    public PMemoryView(PythonClass cls) {
+    private final MemoryBuffer buffer;
+    private final String format;
+    private final int itemSize;
+    private final int offset;
+    private final int length;
+    private final int stride;
+    private final boolean readOnly;
+    private boolean released;
+
+    public PMemoryView(PythonClass cls, MemoryBuffer buffer, String format, int offset, int length, int stride, boolean readOnly) {
         super(cls);
+        this.buffer = buffer;
+        this.format = format;
+        this.itemSize = getItemSize(format);
+        this.offset = offset;
+        this.length = length;
+        this.stride = stride;
+        this.readOnly = readOnly;
+        assert itemSize > 0 : format;
+    }
+
+    /**
+     * @return the size of an element of the (native, single character) struct format, or
+     *         {@code -1} if the format is not supported
+     */
+    public static int getItemSize(String format) {
+        if (format.length() != 1) {
+            return -1;
+        }
+        switch (format.charAt(0)) {
+            case 'b':
+            case 'B':
+            case 'c':
+            case '?':
+                return 1;
+            case 'h':
+            case 'H':
+                return 2;
+            case 'i':
+            case 'I':
+            case 'f':
+                return 4;
+            case 'l':
+            case 'L':
+            case 'q':
+            case 'Q':
+            case 'n':
+            case 'N':
+            case 'd':
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    public MemoryBuffer getBuffer() {
+        return buffer;
+    }
+
+    public Object getOwner() {
+        return buffer.getOwner();
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public int getItemSize() {
+        return itemSize;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int len() {
+        return length;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public int getNBytes() {
+        return length * itemSize;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    public void release() {
+        released = true;
+    }
+
+    public boolean isContiguous() {
+        return stride == itemSize || length <= 1;
+    }
+
+    /**
+     * @return the backing array if the elements are contiguous bytes in a plain {@code byte[]},
+     *         starting at {@link #getOffset()}, otherwise {@code null}
+     */
+    public byte[] getContiguousByteArray() {
+        return isContiguous() ? buffer.getByteArray() : null;
+    }
+
+    /**
+     * @return {@code false} if the exporter shrank below the extent of this view
+     */
+    public boolean isInBounds() {
+        if (length == 0) {
+            return true;
+        }
+        int last = offset + (length - 1) * stride;
+        return Math.min(offset, last) >= 0 && Math.max(offset, last) + itemSize <= buffer.getByteLength();
+    }
+
+    /**
+     * Raises the error for accessing this view if it was released or its exporter shrank below its
+     * extent.
+     */
+    public PMemoryView checkAccessible() {
+        if (released) {
+            CompilerDirectives.transferToInterpreter();
+            throw PythonLanguage.getCore().raise(ValueError, "operation forbidden on released memoryview object");
+        } else if (!isInBounds()) {
+            CompilerDirectives.transferToInterpreter();
+            throw PythonLanguage.getCore().raise(IndexError, "memoryview: underlying buffer was resized");
+        }
+        return this;
+    }
+
+    public int getPosition(int idx) {
+        return offset + idx * stride;
     }
 
+    /**
+     * @return the element at {@code idx} as an {@code int}, {@code long}, {@code double},
+     *         {@code boolean}, a {@link BigInteger} for unsigned 64-bit values that do not fit a
+     *         {@code long}, or a {@code byte[]} of length one for format {@code 'c'}
+     */
+    public Object getItemNormalized(int idx) {
+        int pos = getPosition(idx);
+        switch (format.charAt(0)) {
+            case 'B':
+                return buffer.getByte(pos) & 0xFF;
+            case 'b':
+                return (int) buffer.getByte(pos);
+            case 'c':
+                return new byte[]{buffer.getByte(pos)};
+            case '?':
+                return buffer.getByte(pos) != 0;
+            case 'h':
+                return (int) (short) buffer.getLong(pos, 2);
+            case 'H':
+                return (int) buffer.getLong(pos, 2);
+            case 'i':
+                return (int) buffer.getLong(pos, 4);
+            case 'I':
+                return buffer.getLong(pos, 4);
+            case 'f':
+                return (double) Float.intBitsToFloat((int) buffer.getLong(pos, 4));
+            case 'd':
+                return buffer.getDouble(pos);
+            case 'L':
+            case 'Q':
+            case 'N':
+                long value = buffer.getLong(pos, 8);
+                return value >= 0 ? (Object) value : unsignedToBigInteger(value);
+            default:
+                return buffer.getLong(pos, 8);
+        }
+    }
+
+    @TruffleBoundary
+    private static BigInteger unsignedToBigInteger(long value) {
+        return BigInteger.valueOf(value).add(BigInteger.ONE.shiftLeft(64));
+    }
+
+    /**
+     * Stores an integer element. For the unsigned 64-bit formats, {@code value} holds the bits of
+     * the unsigned number and {@code unsignedOverflow} tells if it is above {@code Long.MAX_VALUE}.
+     *
+     * @return {@code false} if the value is out of range for the format
+     */
+    public boolean setLongItem(int idx, long value, boolean unsignedOverflow) {
+        long min;
+        long max;
+        switch (format.charAt(0)) {
+            case 'b':
+                min = Byte.MIN_VALUE;
+                max = Byte.MAX_VALUE;
+                break;
+            case 'B':
+                min = 0;
+                max = 0xFF;
+                break;
+            case 'h':
+                min = Short.MIN_VALUE;
+                max = Short.MAX_VALUE;
+                break;
+            case 'H':
+                min = 0;
+                max = 0xFFFF;
+                break;
+            case 'i':
+                min = Integer.MIN_VALUE;
+                max = Integer.MAX_VALUE;
+                break;
+            case 'I':
+                min = 0;
+                max = 0xFFFFFFFFL;
+                break;
+            case 'L':
+            case 'Q':
+            case 'N':
+                if (!unsignedOverflow && value < 0) {
+                    return false;
+                }
+                buffer.setLong(getPosition(idx), 8, value);
+                return true;
+            case 'l':
+            case 'q':
+            case 'n':
+                if (unsignedOverflow) {
+                    return false;
+                }
+                buffer.setLong(getPosition(idx), 8, value);
+                return true;
+            default:
+                return false;
+        }
+        if (unsignedOverflow || value < min || value > max) {
+            return false;
+        }
+        buffer.setLong(getPosition(idx), itemSize, value);
+        return true;
+    }
+
+    public void setDoubleItem(int idx, double value) {
+        if (itemSize == 4) {
+            buffer.setLong(getPosition(idx), 4, Float.floatToRawIntBits((float) value));
+        } else {
+            buffer.setDouble(getPosition(idx), value);
+        }
+    }
+
+    public void setByteItem(int idx, byte value) {
+        buffer.setByte(getPosition(idx), value);
+    }
+
+    public byte[] toBytes() {
+        byte[] result = new byte[getNBytes()];
+        if (isContiguous()) {
+            buffer.read(offset, result, 0, result.length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer.read(getPosition(i), result, i * itemSize, itemSize);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Overwrites the elements of this view with {@code data}, which must hold
+     * {@link #getNBytes()} bytes in this view's format.
+     */
+    public void setBytes(byte[] data, int dataOffset) {
+        if (isContiguous()) {
+            buffer.write(offset, data, dataOffset, getNBytes());
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer.write(getPosition(i), data, dataOffset + i * itemSize, itemSize);
+            }
+        }
+    }
 }
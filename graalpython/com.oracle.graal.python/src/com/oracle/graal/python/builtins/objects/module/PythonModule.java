@@ -34,11 +34,13 @@ import static com.oracle.graal.python.nodes.SpecialAttributeNames.__PATH__;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public final class PythonModule extends PythonObject {
 
     private final String name;
     private final String file;
+    private final GlobalAssumptions globalAssumptions = new GlobalAssumptions();
 
     public PythonModule(PythonClass clazz, String name, String file) {
         super(clazz);
@@ -66,6 +68,24 @@ public final class PythonModule extends PythonObject {
         return file;
     }
 
+    public GlobalAssumptions getGlobalAssumptions() {
+        return globalAssumptions;
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setAttribute(Object name, Object value) {
+        super.setAttribute(name, value);
+        globalAssumptions.changed(name);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void deleteAttribute(String name) {
+        super.deleteAttribute(name);
+        globalAssumptions.changed(name);
+    }
+
     @Override
     public PythonObject getValidStorageFullLookup(String attributeId) {
         if (isOwnAttribute(attributeId)) {
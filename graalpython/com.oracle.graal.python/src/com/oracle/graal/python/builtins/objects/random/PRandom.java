@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.random;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A Mersenne Twister (MT19937) generator producing the same streams as CPython's
+ * {@code _random.Random} for the same seed, so that {@code getstate}/{@code setstate} tuples can
+ * be exchanged between the two. The state is plain object state; generators are not synchronized
+ * and every context owns its own default instance.
+ */
+public final class PRandom extends PythonBuiltinObject {
+
+    public static final int N = 624;
+    private static final int M = 397;
+    private static final int MATRIX_A = 0x9908b0df;
+    private static final int UPPER_MASK = 0x80000000;
+    private static final int LOWER_MASK = 0x7fffffff;
+
+    private final int[] state = new int[N];
+    private int index = N + 1;
+
+    public PRandom(PythonClass cls) {
+        super(cls);
+    }
+
+    public int[] getState() {
+        return state;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        assert index >= 0 && index <= N;
+        this.index = index;
+    }
+
+    private void initGenrand(int s) {
+        state[0] = s;
+        for (int i = 1; i < N; i++) {
+            state[i] = 1812433253 * (state[i - 1] ^ (state[i - 1] >>> 30)) + i;
+        }
+        index = N;
+    }
+
+    /**
+     * Seeds from a key of unsigned 32-bit words, least significant first, like
+     * {@code init_by_array} in CPython.
+     */
+    @TruffleBoundary
+    public void seed(int[] key) {
+        initGenrand(19650218);
+        int i = 1;
+        int j = 0;
+        for (int k = Math.max(N, key.length); k > 0; k--) {
+            state[i] = (state[i] ^ ((state[i - 1] ^ (state[i - 1] >>> 30)) * 1664525)) + key[j] + j;
+            i++;
+            j++;
+            if (i >= N) {
+                state[0] = state[N - 1];
+                i = 1;
+            }
+            if (j >= key.length) {
+                j = 0;
+            }
+        }
+        for (int k = N - 1; k > 0; k--) {
+            state[i] = (state[i] ^ ((state[i - 1] ^ (state[i - 1] >>> 30)) * 1566083941)) - i;
+            i++;
+            if (i >= N) {
+                state[0] = state[N - 1];
+                i = 1;
+            }
+        }
+        state[0] = UPPER_MASK;
+    }
+
+    /**
+     * Seeds with the absolute value of {@code seed}.
+     */
+    @TruffleBoundary
+    public void seed(BigInteger seed) {
+        BigInteger n = seed.abs();
+        int words = Math.max(1, (n.bitLength() + 31) / 32);
+        int[] key = new int[words];
+        for (int i = 0; i < words; i++) {
+            key[i] = n.shiftRight(32 * i).intValue();
+        }
+        seed(key);
+    }
+
+    /**
+     * Seeds from the operating system's entropy source, like {@code seed(None)} in CPython.
+     */
+    @TruffleBoundary
+    public void seedFromEntropy() {
+        SecureRandom entropy = new SecureRandom();
+        int[] key = new int[N];
+        for (int i = 0; i < N; i++) {
+            key[i] = entropy.nextInt();
+        }
+        seed(key);
+    }
+
+    public void seed(long seed) {
+        if (seed == Long.MIN_VALUE) {
+            seed(BigInteger.valueOf(seed));
+            return;
+        }
+        long n = Math.abs(seed);
+        int hi = (int) (n >>> 32);
+        seed(hi == 0 ? new int[]{(int) n} : new int[]{(int) n, hi});
+    }
+
+    @TruffleBoundary
+    private void twist() {
+        int y;
+        int k = 0;
+        for (; k < N - M; k++) {
+            y = (state[k] & UPPER_MASK) | (state[k + 1] & LOWER_MASK);
+            state[k] = state[k + M] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        }
+        for (; k < N - 1; k++) {
+            y = (state[k] & UPPER_MASK) | (state[k + 1] & LOWER_MASK);
+            state[k] = state[k + (M - N)] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        }
+        y = (state[N - 1] & UPPER_MASK) | (state[0] & LOWER_MASK);
+        state[N - 1] = state[M - 1] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        index = 0;
+    }
+
+    /**
+     * @return the next 32 random bits
+     */
+    public int nextInt() {
+        if (index >= N) {
+            if (index == N + 1) {
+                // never seeded, as in CPython's genrand_int32
+                initGenrand(5489);
+            }
+            twist();
+        }
+        int y = state[index++];
+        y ^= y >>> 11;
+        y ^= (y << 7) & 0x9d2c5680;
+        y ^= (y << 15) & 0xefc60000;
+        return y ^ (y >>> 18);
+    }
+
+    /**
+     * @return a double in [0, 1) with 53 random bits
+     */
+    public double nextDouble() {
+        int a = nextInt() >>> 5;
+        int b = nextInt() >>> 6;
+        return (a * 67108864.0 + b) * (1.0 / 9007199254740992.0);
+    }
+
+    /**
+     * Fills {@code count} elements of {@code dst} starting at {@code offset} with the values
+     * {@link #nextDouble()} would produce.
+     */
+    public void nextDoubles(double[] dst, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            dst[i] = nextDouble();
+        }
+    }
+
+    /**
+     * @return {@code k} random bits for {@code 0 < k <= 64}, as CPython's {@code getrandbits}
+     *         would assemble them; the result is to be interpreted as unsigned
+     */
+    public long nextBits(int k) {
+        assert k > 0 && k <= 64;
+        if (k <= 32) {
+            return (nextInt() >>> (32 - k)) & 0xFFFFFFFFL;
+        }
+        long low = nextInt() & 0xFFFFFFFFL;
+        long high = (nextInt() >>> (64 - k)) & 0xFFFFFFFFL;
+        return low | (high << 32);
+    }
+
+    /**
+     * @return a non-negative number of {@code k} random bits, for any {@code k > 0}
+     */
+    @TruffleBoundary
+    public BigInteger nextBigBits(int k) {
+        int words = (k - 1) / 32 + 1;
+        // big-endian magnitude with a leading zero byte to keep it positive
+        byte[] bytes = new byte[words * 4 + 1];
+        int remaining = k;
+        for (int i = 0; i < words; i++, remaining -= 32) {
+            int r = nextInt();
+            if (remaining < 32) {
+                r >>>= 32 - remaining;
+            }
+            int pos = bytes.length - 4 * (i + 1);
+            bytes[pos] = (byte) (r >>> 24);
+            bytes[pos + 1] = (byte) (r >>> 16);
+            bytes[pos + 2] = (byte) (r >>> 8);
+            bytes[pos + 3] = (byte) r;
+        }
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * @return a uniformly distributed value in [0, n) for {@code n > 0}, drawn by rejection like
+     *         {@code Random._randbelow}
+     */
+    public long nextBelow(long n) {
+        assert n > 0;
+        int k = 64 - Long.numberOfLeadingZeros(n);
+        long r = nextBits(k);
+        while (r >= n) {
+            r = nextBits(k);
+        }
+        return r;
+    }
+
+    @TruffleBoundary
+    public BigInteger nextBelow(BigInteger n) {
+        assert n.signum() > 0;
+        int k = n.bitLength();
+        BigInteger r = nextBigBits(k);
+        while (r.compareTo(n) >= 0) {
+            r = nextBigBits(k);
+        }
+        return r;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.random;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__HASH__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.PBaseNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PRandom.class)
+public class RandomBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return RandomBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Seeds a generator like {@code Random.seed} with version 2 does: {@code None} draws from the
+     * system entropy source, ints are used by absolute value, str and bytes-like objects are
+     * extended by their SHA-512 digest, and anything else is seeded by its hash.
+     */
+    public static final class SeedNode extends PBaseNode {
+        @Child private LookupAndCallUnaryNode hashNode;
+
+        public static SeedNode create() {
+            return new SeedNode();
+        }
+
+        public void execute(PRandom random, Object seed) {
+            if (seed == PNone.NO_VALUE || seed == PNone.NONE) {
+                random.seedFromEntropy();
+            } else if (seed instanceof Integer) {
+                random.seed((int) seed);
+            } else if (seed instanceof Long) {
+                random.seed((long) seed);
+            } else if (seed instanceof Boolean) {
+                random.seed((boolean) seed ? 1 : 0);
+            } else if (seed instanceof PInt) {
+                random.seed(((PInt) seed).getValue());
+            } else if (seed instanceof String) {
+                seedWithDigest(random, encode((String) seed));
+            } else if (seed instanceof PString) {
+                seedWithDigest(random, encode(((PString) seed).getValue()));
+            } else if (seed instanceof PBytes) {
+                PBytes bytes = (PBytes) seed;
+                seedWithDigest(random, Arrays.copyOf(bytes.getInternalByteArray(), bytes.len()));
+            } else if (seed instanceof PByteArray) {
+                PByteArray bytes = (PByteArray) seed;
+                seedWithDigest(random, Arrays.copyOf(bytes.getInternalByteArray(), bytes.len()));
+            } else {
+                if (hashNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    hashNode = insert(LookupAndCallUnaryNode.create(__HASH__));
+                }
+                Object hash = hashNode.executeObject(seed);
+                if (hash instanceof PInt || hash instanceof Integer || hash instanceof Long) {
+                    execute(random, hash);
+                } else {
+                    throw raise(TypeError, "__hash__ method should return an integer");
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static byte[] encode(String seed) {
+            return seed.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @TruffleBoundary
+        private static void seedWithDigest(PRandom random, byte[] seed) {
+            byte[] digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-512").digest(seed);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            byte[] data = Arrays.copyOf(seed, seed.length + digest.length);
+            System.arraycopy(digest, 0, data, seed.length, digest.length);
+            random.seed(new BigInteger(1, data));
+        }
+    }
+
+    /**
+     * Converts between a generator and the tuple of 624 state words and the current position that
+     * {@code _random.Random.getstate} returns.
+     */
+    public static final class StateNode extends PBaseNode {
+
+        public static StateNode create() {
+            return new StateNode();
+        }
+
+        public PTuple getState(PRandom random) {
+            int[] state = random.getState();
+            Object[] result = new Object[PRandom.N + 1];
+            for (int i = 0; i < PRandom.N; i++) {
+                result[i] = state[i] & 0xFFFFFFFFL;
+            }
+            result[PRandom.N] = random.getIndex();
+            return factory().createTuple(result);
+        }
+
+        public void setState(PRandom random, Object state) {
+            if (!(state instanceof PTuple)) {
+                throw raise(TypeError, "state vector must be a tuple");
+            }
+            Object[] items = ((PTuple) state).getArray();
+            if (items.length != PRandom.N + 1) {
+                throw raise(ValueError, "state vector is the wrong size");
+            }
+            long index = toWord(items[PRandom.N]);
+            if (index > PRandom.N) {
+                throw raise(ValueError, "invalid state");
+            }
+            int[] words = new int[PRandom.N];
+            for (int i = 0; i < PRandom.N; i++) {
+                words[i] = (int) toWord(items[i]);
+            }
+            System.arraycopy(words, 0, random.getState(), 0, PRandom.N);
+            random.setIndex((int) index);
+        }
+
+        private long toWord(Object item) {
+            long value;
+            if (item instanceof Integer) {
+                value = (int) item;
+            } else if (item instanceof Long) {
+                value = (long) item;
+            } else if (item instanceof PInt) {
+                BigInteger big = ((PInt) item).getValue();
+                if (big.bitLength() > 64) {
+                    throw raise(OverflowError, "Python int too large to convert to C unsigned long");
+                }
+                value = big.signum() < 0 ? -1 : big.longValue() & 0xFFFFFFFFL;
+            } else {
+                throw raise(TypeError, "an integer is required (got type %p)", item);
+            }
+            if (value < 0) {
+                throw raise(OverflowError, "can't convert negative value to unsigned int");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * @return {@code k >= 0} random bits as an int, using a primitive value where it fits
+     */
+    public static Object getRandomBits(PythonObjectFactory factory, PRandom random, int k) {
+        if (k == 0) {
+            return 0;
+        } else if (k < 32) {
+            return (int) random.nextBits(k);
+        } else if (k < 64) {
+            return random.nextBits(k);
+        }
+        return factory.createInt(random.nextBigBits(k));
+    }
+
+    /**
+     * @return a list of {@code n} results of {@code random()}, generated into an unboxed storage
+     */
+    public static PList getRandomDoubles(PythonObjectFactory factory, PRandom random, int n) {
+        double[] values = new double[n];
+        random.nextDoubles(values, 0, n);
+        return factory.createList(new DoubleSequenceStorage(values));
+    }
+
+    @Builtin(name = "seed", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class SeedBuiltinNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone seed(PRandom self, Object seed,
+                        @Cached("create()") SeedNode seedNode) {
+            seedNode.execute(self, seed);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "random", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class RandomNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        double random(PRandom self) {
+            return self.nextDouble();
+        }
+    }
+
+    @Builtin(name = "_randoms", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class RandomsNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PList randoms(PRandom self, int n) {
+            if (n < 0) {
+                throw raise(ValueError, "negative count");
+            }
+            return getRandomDoubles(factory(), self, n);
+        }
+
+        @Fallback
+        Object randoms(@SuppressWarnings("unused") Object self, Object n) {
+            throw raise(TypeError, "an integer is required (got type %p)", n);
+        }
+    }
+
+    @Builtin(name = "getrandbits", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class GetRandBitsNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        Object getrandbits(PRandom self, int k) {
+            if (k < 0) {
+                throw raise(ValueError, "number of bits must be non-negative");
+            }
+            return getRandomBits(factory(), self, k);
+        }
+
+        @Fallback
+        Object getrandbits(@SuppressWarnings("unused") Object self, Object k) {
+            throw raise(TypeError, "an integer is required (got type %p)", k);
+        }
+    }
+
+    @Builtin(name = "getstate", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class GetStateNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PTuple getstate(PRandom self,
+                        @Cached("create()") StateNode stateNode) {
+            return stateNode.getState(self);
+        }
+    }
+
+    @Builtin(name = "setstate", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class SetStateNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PNone setstate(PRandom self, Object state,
+                        @Cached("create()") StateNode stateNode) {
+            stateNode.setState(self, state);
+            return PNone.NONE;
+        }
+    }
+}
@@ -26,7 +26,12 @@
 package com.oracle.graal.python.builtins.objects.set;
 
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.EconomicMapStorage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.UnmodifiableStorageException;
+import com.oracle.graal.python.builtins.objects.common.LongMapStorage;
+import com.oracle.graal.python.builtins.objects.common.StringMapStorage;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 
 public final class PSet extends PBaseSet {
@@ -41,7 +46,23 @@ public final class PSet extends PBaseSet {
 
     // add
     public void add(Object o) {
-        this.set.setItem(o, PNone.NO_VALUE, HashingStorage.getSlowPathEquivalence(o));
+        try {
+            this.set.setItem(o, PNone.NO_VALUE, HashingStorage.getSlowPathEquivalence(o));
+        } catch (UnmodifiableStorageException e) {
+            this.set = generalizeStorage(this.set, o);
+            this.set.setItem(o, PNone.NO_VALUE, HashingStorage.getSlowPathEquivalence(o));
+        }
+    }
+
+    private static HashingStorage generalizeStorage(HashingStorage storage, Object key) {
+        if (storage.length() != 0) {
+            return PDict.generalizeStorage(storage, key);
+        } else if (key instanceof String) {
+            return new StringMapStorage();
+        } else if (LongMapStorage.isLongKey(key)) {
+            return new LongMapStorage();
+        }
+        return EconomicMapStorage.create(true);
     }
 
     // remove
@@ -67,9 +88,4 @@ public final class PSet extends PBaseSet {
         set.clear();
     }
 
-    @Override
-    public void setDictStorage(HashingStorage newStorage) {
-        throw new RuntimeException("set has fixed storage");
-    }
-
 }
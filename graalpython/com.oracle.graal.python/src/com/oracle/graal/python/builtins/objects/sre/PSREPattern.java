@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A compiled regular expression as returned by {@code _sre.compile}. The Python pattern is
+ * translated once into a {@link Pattern}, which is shared by all matches and scanners created
+ * from this object.
+ */
+public final class PSREPattern extends PythonBuiltinObject {
+
+    public static final int MATCH = 0;
+    public static final int FULLMATCH = 1;
+    public static final int SEARCH = 2;
+
+    private final Object source;
+    private final int flags;
+    private final int groups;
+    private final Object groupindex;
+    private final String[] indexgroup;
+    private final boolean bytes;
+    private final Pattern regex;
+
+    public PSREPattern(PythonClass clazz, Object source, int flags, int groups, Object groupindex, String[] indexgroup, boolean bytes, Pattern regex) {
+        super(clazz);
+        this.source = source;
+        this.flags = flags;
+        this.groups = groups;
+        this.groupindex = groupindex;
+        this.indexgroup = indexgroup;
+        this.bytes = bytes;
+        this.regex = regex;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    public Object getGroupindex() {
+        return groupindex;
+    }
+
+    /**
+     * @return the name of group {@code index}, or {@code null} if the group is unnamed
+     */
+    public String getGroupName(int index) {
+        return index < indexgroup.length ? indexgroup[index] : null;
+    }
+
+    /**
+     * @return the index of the group called {@code name}, or {@code -1}
+     */
+    public int getGroupIndex(String name) {
+        for (int i = 1; i < indexgroup.length; i++) {
+            if (name.equals(indexgroup[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isBytes() {
+        return bytes;
+    }
+
+    /**
+     * Creates a matcher for {@code input} restricted to {@code [pos, endpos)}. Text outside the
+     * region is visible to lookaround, but {@code ^} and {@code \A} only match at the real start
+     * of the input, as in CPython. The caller must truncate the input at {@code endpos} so that
+     * {@code $} matches there.
+     */
+    @TruffleBoundary
+    public Matcher matcher(String input, int pos, int endpos) {
+        return regex.matcher(input).region(pos, endpos).useAnchoringBounds(false).useTransparentBounds(true);
+    }
+
+    /**
+     * Runs a single {@link #MATCH}, {@link #FULLMATCH} or {@link #SEARCH} operation.
+     *
+     * @return the group offsets as computed by {@link #regs(Matcher)}, or {@code null}
+     */
+    @TruffleBoundary
+    public int[] execute(String input, int pos, int endpos, int mode) {
+        if (endpos < pos) {
+            return null;
+        }
+        Matcher matcher = matcher(input, pos, endpos);
+        boolean found;
+        switch (mode) {
+            case MATCH:
+                found = matcher.lookingAt();
+                break;
+            case FULLMATCH:
+                found = matcher.matches();
+                break;
+            default:
+                found = matcher.find();
+        }
+        return found ? regs(matcher) : null;
+    }
+
+    /**
+     * Continues a {@link Matcher#find()} loop.
+     *
+     * @return the group offsets of the next match, or {@code null}
+     */
+    @TruffleBoundary
+    public int[] findNext(Matcher matcher) {
+        return matcher.find() ? regs(matcher) : null;
+    }
+
+    /**
+     * Copies the offsets of the last match into a flat array holding start and end of each group,
+     * {@code -1} marking groups that did not participate.
+     */
+    @TruffleBoundary
+    public int[] regs(Matcher matcher) {
+        int[] regs = new int[(groups + 1) * 2];
+        for (int i = 0; i <= groups; i++) {
+            regs[i * 2] = matcher.start(i);
+            regs[i * 2 + 1] = matcher.end(i);
+        }
+        return regs;
+    }
+
+    /**
+     * Patterns match against Java strings; byte strings are decoded as Latin-1 so that every byte
+     * maps to exactly one char.
+     */
+    @TruffleBoundary
+    public static String decode(byte[] data, int length) {
+        return new String(data, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Turns a piece of the subject back into a {@code str} or {@code bytes} object.
+     */
+    @TruffleBoundary
+    public Object wrap(PythonObjectFactory factory, String input, int start, int end) {
+        String value = input.substring(start, end);
+        if (bytes) {
+            return factory.createBytes(value.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "re.compile(" + source + ")";
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import java.util.regex.Matcher;
+
+import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Scanner over a subject string, as created by {@code Pattern.scanner} and
+ * {@code Pattern.finditer}. Each successful {@code match} or {@code search} continues where the
+ * previous match ended, moving one character further after an empty match.
+ */
+public final class PSREScanner extends PythonBuiltinObject {
+
+    final PSREPattern pattern;
+    final Object string;
+    final String input;
+    final int endpos;
+    final Matcher matcher;
+    int pos;
+
+    public PSREScanner(PythonClass clazz, PSREPattern pattern, Object string, String input, int pos, int endpos) {
+        super(clazz);
+        this.pattern = pattern;
+        this.string = string;
+        this.input = input;
+        this.pos = pos;
+        this.endpos = endpos;
+        this.matcher = endpos < pos ? null : pattern.matcher(input, pos, endpos);
+    }
+
+    public PSREPattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Matches at ({@code search == false}) or searches from the current position.
+     *
+     * @return the group offsets of the match, or {@code null} if there is none
+     */
+    @TruffleBoundary
+    int[] next(boolean search) {
+        if (matcher == null || pos > endpos) {
+            return null;
+        }
+        matcher.region(pos, endpos);
+        if (!(search ? matcher.find() : matcher.lookingAt())) {
+            pos = endpos + 1;
+            return null;
+        }
+        int[] regs = pattern.regs(matcher);
+        pos = regs[0] == regs[1] ? regs[1] + 1 : regs[1];
+        return regs;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Translates Python regular expression syntax into {@link java.util.regex.Pattern} syntax. The
+ * input has already been validated by {@code sre_parse}, so only the constructs whose spelling or
+ * meaning differs between the two dialects are rewritten:
+ * <ul>
+ * <li>named groups and named backreferences become plain numbered ones,</li>
+ * <li>global inline flags are dropped (they are already part of the compile flags),</li>
+ * <li>{@code \Z}, {@code \v}, {@code \b} in classes, octal and {@code \U} escapes are spelled the
+ * Java way,</li>
+ * <li>{@code [} and {@code &} inside classes and braces that are not quantifiers are escaped,</li>
+ * <li>verbose patterns are stripped of whitespace and comments outside of classes.</li>
+ * </ul>
+ */
+public final class PythonRegexTranslator {
+    public static final int FLAG_TEMPLATE = 1;
+    public static final int FLAG_IGNORECASE = 2;
+    public static final int FLAG_LOCALE = 4;
+    public static final int FLAG_MULTILINE = 8;
+    public static final int FLAG_DOTALL = 16;
+    public static final int FLAG_UNICODE = 32;
+    public static final int FLAG_VERBOSE = 64;
+    public static final int FLAG_DEBUG = 128;
+    public static final int FLAG_ASCII = 256;
+
+    private final String pattern;
+    private final boolean verbose;
+    private final StringBuilder out;
+    private final Map<String, Integer> groupNames = new HashMap<>();
+    private int groupCount;
+    private int i;
+
+    private PythonRegexTranslator(String pattern, int flags) {
+        this.pattern = pattern;
+        this.verbose = (flags & FLAG_VERBOSE) != 0;
+        this.out = new StringBuilder(pattern.length() + 16);
+    }
+
+    /**
+     * Compile a Python pattern with the given {@code sre} flags.
+     *
+     * @param unicode whether the pattern is a {@code str} (as opposed to {@code bytes}) pattern
+     * @throws IllegalArgumentException if the pattern uses a construct that has no Java equivalent
+     */
+    public static Pattern compile(String pattern, int flags, boolean unicode) {
+        String translated = new PythonRegexTranslator(pattern, flags).translate();
+        int javaFlags = Pattern.UNIX_LINES;
+        boolean unicodeClasses = unicode && (flags & FLAG_ASCII) == 0;
+        if ((flags & FLAG_IGNORECASE) != 0) {
+            javaFlags |= Pattern.CASE_INSENSITIVE;
+            if (unicodeClasses) {
+                javaFlags |= Pattern.UNICODE_CASE;
+            }
+        }
+        if ((flags & FLAG_MULTILINE) != 0) {
+            javaFlags |= Pattern.MULTILINE;
+        }
+        if ((flags & FLAG_DOTALL) != 0) {
+            javaFlags |= Pattern.DOTALL;
+        }
+        if (unicodeClasses) {
+            javaFlags |= Pattern.UNICODE_CHARACTER_CLASS;
+        }
+        try {
+            return Pattern.compile(translated, javaFlags);
+        } catch (java.util.regex.PatternSyntaxException e) {
+            throw new IllegalArgumentException(e.getDescription());
+        }
+    }
+
+    private String translate() {
+        int n = pattern.length();
+        while (i < n) {
+            char c = pattern.charAt(i);
+            if (verbose && (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0b)) {
+                i++;
+            } else if (verbose && c == '#') {
+                while (i < n && pattern.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '\\') {
+                i++;
+                escape(false);
+            } else if (c == '[') {
+                i++;
+                characterClass();
+            } else if (c == '(') {
+                i++;
+                group();
+            } else if (c == '{') {
+                i++;
+                brace();
+            } else if (c == '}') {
+                i++;
+                out.append("\\}");
+            } else {
+                i++;
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private void characterClass() {
+        int n = pattern.length();
+        out.append('[');
+        if (i < n && pattern.charAt(i) == '^') {
+            out.append('^');
+            i++;
+        }
+        if (i < n && pattern.charAt(i) == ']') {
+            out.append("\\]");
+            i++;
+        }
+        while (i < n) {
+            char c = pattern.charAt(i++);
+            if (c == ']') {
+                out.append(']');
+                return;
+            } else if (c == '\\') {
+                escape(true);
+            } else if (c == '[' || c == '&') {
+                out.append('\\').append(c);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private void group() {
+        int n = pattern.length();
+        if (i >= n || pattern.charAt(i) != '?') {
+            groupCount++;
+            out.append('(');
+            return;
+        }
+        char kind = i + 1 < n ? pattern.charAt(i + 1) : 0;
+        if (kind == 'P' && i + 2 < n && pattern.charAt(i + 2) == '<') {
+            int close = pattern.indexOf('>', i);
+            groupNames.put(pattern.substring(i + 3, close), ++groupCount);
+            out.append('(');
+            i = close + 1;
+        } else if (kind == 'P' && i + 2 < n && pattern.charAt(i + 2) == '=') {
+            int close = pattern.indexOf(')', i);
+            Integer group = groupNames.get(pattern.substring(i + 3, close));
+            if (group == null) {
+                throw new IllegalArgumentException("unknown group name in backreference");
+            }
+            out.append("(?:\\").append(group.intValue()).append(')');
+            i = close + 1;
+        } else if (kind == '#') {
+            i = pattern.indexOf(')', i) + 1;
+        } else if (kind == '(') {
+            throw new IllegalArgumentException("conditional backreferences are not supported");
+        } else if (isFlag(kind) || kind == '-') {
+            int start = i + 1;
+            int j = start;
+            while (j < n && (isFlag(pattern.charAt(j)) || pattern.charAt(j) == '-')) {
+                j++;
+            }
+            if (j < n && pattern.charAt(j) == ')') {
+                // global flags were merged into the compile flags by sre_parse
+                i = j + 1;
+            } else {
+                out.append("(?");
+                for (int k = start; k < j; k++) {
+                    char flag = pattern.charAt(k);
+                    if (flag == 'i' || flag == 'm' || flag == 's' || flag == 'x' || flag == '-') {
+                        out.append(flag);
+                    }
+                }
+                i = j;
+            }
+        } else {
+            // (?:, (?=, (?!, (?<= and (?<! are spelled the same
+            out.append('(');
+        }
+    }
+
+    private static boolean isFlag(char c) {
+        return "aiLmsux".indexOf(c) >= 0 && c != 0;
+    }
+
+    private void brace() {
+        int n = pattern.length();
+        int j = i;
+        while (j < n && Character.isDigit(pattern.charAt(j))) {
+            j++;
+        }
+        boolean hasMin = j > i;
+        int minEnd = j;
+        boolean comma = j < n && pattern.charAt(j) == ',';
+        if (comma) {
+            j++;
+            while (j < n && Character.isDigit(pattern.charAt(j))) {
+                j++;
+            }
+        }
+        boolean hasMax = comma && j > minEnd + 1;
+        if (j < n && pattern.charAt(j) == '}' && (hasMin || hasMax)) {
+            out.append('{');
+            if (!hasMin) {
+                out.append('0');
+            }
+            out.append(pattern, i, j + 1);
+            i = j + 1;
+        } else {
+            out.append("\\{");
+        }
+    }
+
+    private void escape(boolean inClass) {
+        int n = pattern.length();
+        char c = pattern.charAt(i++);
+        switch (c) {
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                numericEscape(c, inClass);
+                break;
+            case 'x':
+                out.append("\\x").append(pattern, i, i + 2);
+                i += 2;
+                break;
+            case 'u':
+                out.append("\\u").append(pattern, i, i + 4);
+                i += 4;
+                break;
+            case 'U':
+                hexEscape(Integer.parseInt(pattern.substring(i, i + 8), 16));
+                i += 8;
+                break;
+            case 'a':
+                hexEscape(0x07);
+                break;
+            case 'v':
+                hexEscape(0x0b);
+                break;
+            case 'b':
+                if (inClass) {
+                    hexEscape(0x08);
+                } else {
+                    out.append("\\b");
+                }
+                break;
+            case 'Z':
+                out.append("\\z");
+                break;
+            case 'A':
+            case 'B':
+            case 'd':
+            case 'D':
+            case 's':
+            case 'S':
+            case 'w':
+            case 'W':
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                out.append('\\').append(c);
+                break;
+            default:
+                if (c < 128 && !Character.isLetterOrDigit(c)) {
+                    out.append('\\').append(c);
+                } else if (Character.isHighSurrogate(c) && i < n) {
+                    hexEscape(Character.toCodePoint(c, pattern.charAt(i++)));
+                } else {
+                    hexEscape(c);
+                }
+        }
+    }
+
+    private void numericEscape(char first, boolean inClass) {
+        int n = pattern.length();
+        int start = i - 1;
+        if (first == '0' || inClass) {
+            // octal escape of up to three digits
+            int end = start + 1;
+            while (end < n && end < start + 3 && isOctal(pattern.charAt(end))) {
+                end++;
+            }
+            hexEscape(Integer.parseInt(pattern.substring(start, end), 8));
+            i = end;
+        } else if (i + 1 < n && isOctal(first) && isOctal(pattern.charAt(i)) && isOctal(pattern.charAt(i + 1))) {
+            hexEscape(Integer.parseInt(pattern.substring(start, i + 2), 8));
+            i += 2;
+        } else {
+            int end = i;
+            if (end < n && Character.isDigit(pattern.charAt(end))) {
+                end++;
+            }
+            out.append("(?:\\").append(pattern, start, end).append(')');
+            i = end;
+        }
+    }
+
+    private static boolean isOctal(char c) {
+        return c >= '0' && c <= '7';
+    }
+
+    private void hexEscape(int codePoint) {
+        out.append("\\x{").append(Integer.toHexString(codePoint)).append('}');
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.sre.SREPatternBuiltins.SRENode;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PSREMatch.class)
+public class SREMatchBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return SREMatchBuiltinsFactory.getFactories();
+    }
+
+    abstract static class GroupBaseNode extends PythonBuiltinNode {
+
+        /**
+         * Resolves a group number or name.
+         */
+        protected final int groupIndex(PSREMatch self, Object group) {
+            int index = -1;
+            if (group instanceof Integer) {
+                index = (int) group;
+            } else if (group instanceof Boolean) {
+                index = PInt.intValue((boolean) group);
+            } else if (group instanceof Long) {
+                long l = (long) group;
+                index = l == (int) l ? (int) l : -1;
+            } else if (group instanceof PInt) {
+                index = ((PInt) group).getValue().bitLength() < Integer.SIZE ? ((PInt) group).intValue() : -1;
+            } else if (group instanceof String) {
+                index = self.getPattern().getGroupIndex((String) group);
+            } else if (group instanceof PString) {
+                index = self.getPattern().getGroupIndex(((PString) group).getValue());
+            }
+            if (index < 0 || index > self.getGroupCount()) {
+                throw raise(IndexError, "no such group");
+            }
+            return index;
+        }
+
+        protected final Object groupValue(PSREMatch self, int index, Object defaultValue) {
+            int start = self.getStart(index);
+            if (start < 0) {
+                return defaultValue;
+            }
+            return self.getPattern().wrap(factory(), self.getInput(), start, self.getEnd(index));
+        }
+
+        protected final int optionalGroupIndex(PSREMatch self, Object group) {
+            return group instanceof PNone ? 0 : groupIndex(self, group);
+        }
+    }
+
+    @Builtin(name = "group", minNumOfArguments = 1, takesVariableArguments = true)
+    @GenerateNodeFactory
+    abstract static class GroupNode extends GroupBaseNode {
+        @Specialization
+        Object group(PSREMatch self, PTuple args) {
+            if (args.len() == 0) {
+                return groupValue(self, 0, PNone.NONE);
+            } else if (args.len() == 1) {
+                return groupValue(self, groupIndex(self, args.getItem(0)), PNone.NONE);
+            }
+            Object[] result = new Object[args.len()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = groupValue(self, groupIndex(self, args.getItem(i)), PNone.NONE);
+            }
+            return factory().createTuple(result);
+        }
+    }
+
+    @Builtin(name = __GETITEM__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class GetItemNode extends GroupBaseNode {
+        @Specialization
+        Object getItem(PSREMatch self, Object group) {
+            return groupValue(self, groupIndex(self, group), PNone.NONE);
+        }
+    }
+
+    @Builtin(name = "groups", minNumOfArguments = 1, keywordArguments = {"default"})
+    @GenerateNodeFactory
+    abstract static class GroupsNode extends GroupBaseNode {
+        @Specialization
+        Object groups(PSREMatch self, Object defaultValue) {
+            Object value = defaultValue instanceof PNone ? PNone.NONE : defaultValue;
+            Object[] result = new Object[self.getGroupCount()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = groupValue(self, i + 1, value);
+            }
+            return factory().createTuple(result);
+        }
+    }
+
+    @Builtin(name = "groupdict", minNumOfArguments = 1, keywordArguments = {"default"})
+    @GenerateNodeFactory
+    abstract static class GroupdictNode extends GroupBaseNode {
+        @Specialization
+        Object groupdict(PSREMatch self, Object defaultValue) {
+            Object value = defaultValue instanceof PNone ? PNone.NONE : defaultValue;
+            PDict result = factory().createDict();
+            for (int i = 1; i <= self.getGroupCount(); i++) {
+                String name = self.getPattern().getGroupName(i);
+                if (name != null) {
+                    result.setItem(name, groupValue(self, i, value));
+                }
+            }
+            return result;
+        }
+    }
+
+    @Builtin(name = "start", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class StartNode extends GroupBaseNode {
+        @Specialization
+        int start(PSREMatch self, Object group) {
+            return self.getStart(optionalGroupIndex(self, group));
+        }
+    }
+
+    @Builtin(name = "end", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class EndNode extends GroupBaseNode {
+        @Specialization
+        int end(PSREMatch self, Object group) {
+            return self.getEnd(optionalGroupIndex(self, group));
+        }
+    }
+
+    @Builtin(name = "span", minNumOfArguments = 1, maxNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class SpanNode extends GroupBaseNode {
+        @Specialization
+        Object span(PSREMatch self, Object group) {
+            int index = optionalGroupIndex(self, group);
+            return factory().createTuple(new Object[]{self.getStart(index), self.getEnd(index)});
+        }
+    }
+
+    @Builtin(name = "expand", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    abstract static class ExpandNode extends SRENode {
+        @Specialization
+        Object expand(PSREMatch self, Object template,
+                        @Cached("create()") GetAttributeNode getExpand,
+                        @Cached("create()") CallNode callExpand) {
+            PSREPattern pattern = self.getPattern();
+            SRETemplate parsed = SRETemplate.parse(pattern, subject(pattern, template));
+            if (parsed == null) {
+                // let re._expand report the error
+                Object re = getContext().getSysModules().getItem("re");
+                if (re == null) {
+                    throw raise(TypeError, "invalid replacement template");
+                }
+                return callExpand.execute(getExpand.execute(re, "_expand"), new Object[]{pattern, self, template}, PKeyword.EMPTY_KEYWORDS);
+            }
+            String result = expand(parsed, self);
+            return pattern.wrap(factory(), result, 0, result.length());
+        }
+
+        @TruffleBoundary
+        private static String expand(SRETemplate template, PSREMatch match) {
+            StringBuilder sb = new StringBuilder();
+            template.expand(sb, match.getInput(), match.getRegs());
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends GroupBaseNode {
+        @Specialization
+        Object repr(PSREMatch self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            Object match = reprNode.executeObject(groupValue(self, 0, PNone.NONE));
+            return format(self.getStart(0), self.getEnd(0), match);
+        }
+
+        @TruffleBoundary
+        private static String format(int start, int end, Object match) {
+            return "<_sre.SRE_Match object; span=(" + start + ", " + end + "), match=" + match + ">";
+        }
+    }
+
+    @Builtin(name = "string", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class StringNode extends PythonBuiltinNode {
+        @Specialization
+        Object string(PSREMatch self) {
+            return self.getString();
+        }
+    }
+
+    @Builtin(name = "re", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class ReNode extends PythonBuiltinNode {
+        @Specialization
+        Object re(PSREMatch self) {
+            return self.getPattern();
+        }
+    }
+
+    @Builtin(name = "pos", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class PosNode extends PythonBuiltinNode {
+        @Specialization
+        int pos(PSREMatch self) {
+            return self.getPos();
+        }
+    }
+
+    @Builtin(name = "endpos", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EndposNode extends PythonBuiltinNode {
+        @Specialization
+        int endpos(PSREMatch self) {
+            return self.getEndpos();
+        }
+    }
+
+    @Builtin(name = "lastindex", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LastindexNode extends PythonBuiltinNode {
+        @Specialization
+        Object lastindex(PSREMatch self) {
+            int lastIndex = self.getLastIndex();
+            return lastIndex < 0 ? PNone.NONE : lastIndex;
+        }
+    }
+
+    @Builtin(name = "lastgroup", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class LastgroupNode extends PythonBuiltinNode {
+        @Specialization
+        Object lastgroup(PSREMatch self) {
+            int lastIndex = self.getLastIndex();
+            String name = lastIndex < 0 ? null : self.getPattern().getGroupName(lastIndex);
+            return name == null ? PNone.NONE : name;
+        }
+    }
+
+    @Builtin(name = "regs", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class RegsNode extends PythonBuiltinNode {
+        @Specialization
+        Object regs(PSREMatch self) {
+            Object[] regs = new Object[self.getGroupCount() + 1];
+            for (int i = 0; i < regs.length; i++) {
+                regs[i] = factory().createTuple(new Object[]{self.getStart(i), self.getEnd(i)});
+            }
+            return factory().createTuple(regs);
+        }
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PSREPattern.class)
+public class SREPatternBuiltins extends PythonBuiltins {
+
+    private static final String[] FLAG_NAMES = {"re.TEMPLATE", "re.IGNORECASE", "re.LOCALE", "re.MULTILINE", "re.DOTALL", "re.UNICODE", "re.VERBOSE", "re.DEBUG", "re.ASCII"};
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return SREPatternBuiltinsFactory.getFactories();
+    }
+
+    abstract static class SRENode extends PythonBuiltinNode {
+
+        /**
+         * Converts a subject to the string the regex engine works on, checking that it has the
+         * same kind as the pattern.
+         */
+        protected final String subject(PSREPattern pattern, Object string) {
+            if (string instanceof String || string instanceof PString) {
+                if (pattern.isBytes()) {
+                    throw raise(TypeError, "cannot use a bytes pattern on a string-like object");
+                }
+                return string instanceof String ? (String) string : ((PString) string).getValue();
+            } else if (string instanceof PIBytesLike) {
+                if (!pattern.isBytes()) {
+                    throw raise(TypeError, "cannot use a string pattern on a bytes-like object");
+                }
+                return PSREPattern.decode(((PIBytesLike) string).getInternalByteArray(), ((PSequence) string).len());
+            }
+            throw raise(TypeError, "expected string or bytes-like object");
+        }
+
+        /**
+         * Converts an optional integer argument, saturating values that do not fit into an
+         * {@code int}.
+         */
+        protected final int index(Object value, int defaultValue) {
+            if (value instanceof PNone) {
+                return defaultValue;
+            } else if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Boolean) {
+                return PInt.intValue((boolean) value);
+            } else if (value instanceof Long) {
+                long l = (long) value;
+                return l > Integer.MAX_VALUE ? Integer.MAX_VALUE : l < Integer.MIN_VALUE ? Integer.MIN_VALUE : (int) l;
+            } else if (value instanceof PInt) {
+                return saturatedInt((PInt) value);
+            }
+            throw raise(TypeError, "an integer is required (got type %p)", value);
+        }
+
+        @TruffleBoundary
+        private static int saturatedInt(PInt value) {
+            if (value.getValue().bitLength() < Integer.SIZE) {
+                return value.intValue();
+            }
+            return value.getValue().signum() > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        }
+
+        protected static int clamp(int index, int length) {
+            return index < 0 ? 0 : index > length ? length : index;
+        }
+
+        /**
+         * Cuts the subject at {@code endpos}, so that {@code $} and {@code \Z} match there.
+         */
+        @TruffleBoundary
+        protected static String truncate(String input, int endpos) {
+            return endpos < input.length() ? input.substring(0, endpos) : input;
+        }
+
+        protected final Object execute(PSREPattern self, Object string, Object pos, Object endpos, int mode) {
+            String input = subject(self, string);
+            int start = clamp(index(pos, 0), input.length());
+            int end = clamp(index(endpos, input.length()), input.length());
+            input = truncate(input, end);
+            int[] regs = self.execute(input, start, end, mode);
+            if (regs == null) {
+                return PNone.NONE;
+            }
+            return factory().createSREMatch(self, string, input, start, end, regs);
+        }
+
+        protected final PSREScanner createScanner(PSREPattern self, Object string, Object pos, Object endpos) {
+            String input = subject(self, string);
+            int start = clamp(index(pos, 0), input.length());
+            int end = clamp(index(endpos, input.length()), input.length());
+            return factory().createSREScanner(self, string, truncate(input, end), start, end);
+        }
+    }
+
+    @Builtin(name = "match", minNumOfArguments = 2, keywordArguments = {"pos", "endpos"})
+    @GenerateNodeFactory
+    abstract static class MatchNode extends SRENode {
+        @Specialization
+        Object match(PSREPattern self, Object string, Object pos, Object endpos) {
+            return execute(self, string, pos, endpos, PSREPattern.MATCH);
+        }
+    }
+
+    @Builtin(name = "fullmatch", minNumOfArguments = 2, keywordArguments = {"pos", "endpos"})
+    @GenerateNodeFactory
+    abstract static class FullmatchNode extends SRENode {
+        @Specialization
+        Object fullmatch(PSREPattern self, Object string, Object pos, Object endpos) {
+            return execute(self, string, pos, endpos, PSREPattern.FULLMATCH);
+        }
+    }
+
+    @Builtin(name = "search", minNumOfArguments = 2, keywordArguments = {"pos", "endpos"})
+    @GenerateNodeFactory
+    abstract static class SearchNode extends SRENode {
+        @Specialization
+        Object search(PSREPattern self, Object string, Object pos, Object endpos) {
+            return execute(self, string, pos, endpos, PSREPattern.SEARCH);
+        }
+    }
+
+    @Builtin(name = "scanner", minNumOfArguments = 2, keywordArguments = {"pos", "endpos"})
+    @GenerateNodeFactory
+    abstract static class ScannerNode extends SRENode {
+        @Specialization
+        Object scanner(PSREPattern self, Object string, Object pos, Object endpos) {
+            return createScanner(self, string, pos, endpos);
+        }
+    }
+
+    /**
+     * {@code finditer} returns the scanner itself, which iterates over the results of repeated
+     * {@code search} calls.
+     */
+    @Builtin(name = "finditer", minNumOfArguments = 2, keywordArguments = {"pos", "endpos"})
+    @GenerateNodeFactory
+    abstract static class FinditerNode extends SRENode {
+        @Specialization
+        Object finditer(PSREPattern self, Object string, Object pos, Object endpos) {
+            return createScanner(self, string, pos, endpos);
+        }
+    }
+
+    @Builtin(name = "findall", minNumOfArguments = 2, keywordArguments = {"pos", "endpos"})
+    @GenerateNodeFactory
+    abstract static class FindallNode extends SRENode {
+        @Specialization
+        Object findall(PSREPattern self, Object string, Object pos, Object endpos) {
+            String input = subject(self, string);
+            int start = clamp(index(pos, 0), input.length());
+            int end = clamp(index(endpos, input.length()), input.length());
+            if (end < start) {
+                return factory().createList();
+            }
+            return factory().createList(collect(self, truncate(input, end), start, end));
+        }
+
+        @TruffleBoundary
+        private Object[] collect(PSREPattern self, String input, int start, int end) {
+            ArrayList<Object> result = new ArrayList<>();
+            Matcher matcher = self.matcher(input, start, end);
+            int groups = self.getGroups();
+            while (matcher.find()) {
+                if (groups <= 1) {
+                    result.add(group(self, input, matcher, groups));
+                } else {
+                    Object[] values = new Object[groups];
+                    for (int i = 0; i < groups; i++) {
+                        values[i] = group(self, input, matcher, i + 1);
+                    }
+                    result.add(factory().createTuple(values));
+                }
+            }
+            return result.toArray();
+        }
+
+        private Object group(PSREPattern self, String input, Matcher matcher, int group) {
+            int groupStart = matcher.start(group);
+            if (groupStart < 0) {
+                return self.wrap(factory(), input, 0, 0);
+            }
+            return self.wrap(factory(), input, groupStart, matcher.end(group));
+        }
+    }
+
+    @Builtin(name = "split", minNumOfArguments = 2, keywordArguments = {"maxsplit"})
+    @GenerateNodeFactory
+    abstract static class SplitNode extends SRENode {
+        @Specialization
+        Object split(PSREPattern self, Object string, Object maxsplit) {
+            return factory().createList(collect(self, subject(self, string), index(maxsplit, 0)));
+        }
+
+        @TruffleBoundary
+        private Object[] collect(PSREPattern self, String input, int maxsplit) {
+            ArrayList<Object> result = new ArrayList<>();
+            Matcher matcher = self.matcher(input, 0, input.length());
+            int groups = self.getGroups();
+            int last = 0;
+            int n = 0;
+            while ((maxsplit <= 0 || n < maxsplit) && matcher.find()) {
+                if (matcher.start() == matcher.end()) {
+                    // empty matches do not split the string
+                    continue;
+                }
+                result.add(self.wrap(factory(), input, last, matcher.start()));
+                for (int i = 1; i <= groups; i++) {
+                    int groupStart = matcher.start(i);
+                    result.add(groupStart < 0 ? PNone.NONE : self.wrap(factory(), input, groupStart, matcher.end(i)));
+                }
+                last = matcher.end();
+                n++;
+            }
+            result.add(self.wrap(factory(), input, last, input.length()));
+            return result.toArray();
+        }
+    }
+
+    abstract static class BaseSubNode extends SRENode {
+        @Child private CallNode callNode = CallNode.create();
+        @Child private GetAttributeNode getSubx;
+
+        /**
+         * @return the replacement as a string if it is a {@code str} or bytes-like object, or
+         *         {@code null} if it is to be called with each match
+         */
+        private String template(PSREPattern self, Object repl) {
+            if (repl instanceof String || repl instanceof PString || repl instanceof PIBytesLike) {
+                return subject(self, repl);
+            }
+            return null;
+        }
+
+        /**
+         * The expansion for templates that {@link SRETemplate} does not accept is delegated to
+         * {@code re._subx}, which either raises the appropriate error or returns a filter.
+         */
+        private Object subx(PSREPattern self, Object repl) {
+            if (getSubx == null) {
+                getSubx = insert(GetAttributeNode.create());
+            }
+            Object re = getContext().getSysModules().getItem("re");
+            if (re == null) {
+                throw raise(TypeError, "invalid replacement template");
+            }
+            return callNode.execute(getSubx.execute(re, "_subx"), new Object[]{self, repl}, PKeyword.EMPTY_KEYWORDS);
+        }
+
+        /**
+         * Performs up to {@code count} replacements (all if {@code count} is zero).
+         *
+         * @return the new string and the number of replacements made
+         */
+        protected final Object[] substitute(PSREPattern self, Object repl, Object string, Object count) {
+            String input = subject(self, string);
+            int limit = index(count, 0);
+            Object filter = repl;
+            String literal = null;
+            SRETemplate template = null;
+            String templateString = template(self, repl);
+            if (templateString != null) {
+                literal = SRETemplate.asLiteral(templateString);
+                if (literal == null) {
+                    template = SRETemplate.parse(self, templateString);
+                    if (template == null) {
+                        filter = subx(self, repl);
+                        String filterString = template(self, filter);
+                        if (filterString != null) {
+                            literal = filterString;
+                        }
+                    }
+                }
+            }
+            StringBuilder sb = newStringBuilder(input.length());
+            Matcher matcher = self.matcher(input, 0, input.length());
+            int last = 0;
+            int n = 0;
+            while (limit <= 0 || n < limit) {
+                int[] regs = self.findNext(matcher);
+                if (regs == null) {
+                    break;
+                }
+                int start = regs[0];
+                int end = regs[1];
+                if (start == end && start == last && n > 0) {
+                    // ignore an empty match right after the previous match
+                    continue;
+                }
+                append(sb, input, last, start);
+                if (literal != null) {
+                    append(sb, literal, 0, literal.length());
+                } else if (template != null) {
+                    template.expand(sb, input, regs);
+                } else {
+                    PSREMatch match = factory().createSREMatch(self, string, input, 0, input.length(), regs);
+                    Object replacement = callNode.execute(filter, new Object[]{match}, PKeyword.EMPTY_KEYWORDS);
+                    if (replacement != PNone.NONE) {
+                        String replacementString = template(self, replacement);
+                        if (replacementString == null) {
+                            throw raise(TypeError, "expected %s instance, %p found", self.isBytes() ? "a bytes-like object" : "str", replacement);
+                        }
+                        append(sb, replacementString, 0, replacementString.length());
+                    }
+                }
+                last = end;
+                n++;
+            }
+            append(sb, input, last, input.length());
+            return new Object[]{self.wrap(factory(), toString(sb), 0, sb.length()), n};
+        }
+
+        @TruffleBoundary
+        private static StringBuilder newStringBuilder(int capacity) {
+            return new StringBuilder(capacity);
+        }
+
+        @TruffleBoundary
+        private static void append(StringBuilder sb, String s, int start, int end) {
+            sb.append(s, start, end);
+        }
+
+        @TruffleBoundary
+        private static String toString(StringBuilder sb) {
+            return sb.toString();
+        }
+    }
+
+    @Builtin(name = "sub", minNumOfArguments = 3, keywordArguments = {"count"})
+    @GenerateNodeFactory
+    abstract static class SubNode extends BaseSubNode {
+        @Specialization
+        Object sub(PSREPattern self, Object repl, Object string, Object count) {
+            return substitute(self, repl, string, count)[0];
+        }
+    }
+
+    @Builtin(name = "subn", minNumOfArguments = 3, keywordArguments = {"count"})
+    @GenerateNodeFactory
+    abstract static class SubnNode extends BaseSubNode {
+        @Specialization
+        Object subn(PSREPattern self, Object repl, Object string, Object count) {
+            return factory().createTuple(substitute(self, repl, string, count));
+        }
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class ReprNode extends PythonBuiltinNode {
+        @Specialization
+        Object repr(PSREPattern self,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode) {
+            return format(reprNode.executeObject(self.getSource()), self.getFlags(), self.isBytes());
+        }
+
+        @TruffleBoundary
+        private static String format(Object source, int patternFlags, boolean bytes) {
+            int flags = patternFlags;
+            if (!bytes && (flags & (PythonRegexTranslator.FLAG_LOCALE | PythonRegexTranslator.FLAG_UNICODE | PythonRegexTranslator.FLAG_ASCII)) == PythonRegexTranslator.FLAG_UNICODE) {
+                // unicode matching is the default for str patterns
+                flags &= ~PythonRegexTranslator.FLAG_UNICODE;
+            }
+            StringBuilder sb = new StringBuilder("re.compile(").append(source);
+            String sep = ", ";
+            for (int i = 0; i < FLAG_NAMES.length; i++) {
+                if ((flags & (1 << i)) != 0) {
+                    sb.append(sep).append(FLAG_NAMES[i]);
+                    sep = "|";
+                    flags &= ~(1 << i);
+                }
+            }
+            if (flags != 0) {
+                sb.append(sep).append("0x").append(Integer.toHexString(flags));
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    @Builtin(name = "pattern", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class PatternNode extends PythonBuiltinNode {
+        @Specialization
+        Object pattern(PSREPattern self) {
+            return self.getSource();
+        }
+    }
+
+    @Builtin(name = "flags", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class FlagsNode extends PythonBuiltinNode {
+        @Specialization
+        int flags(PSREPattern self) {
+            return self.getFlags();
+        }
+    }
+
+    @Builtin(name = "groups", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class GroupsNode extends PythonBuiltinNode {
+        @Specialization
+        int groups(PSREPattern self) {
+            return self.getGroups();
+        }
+    }
+
+    @Builtin(name = "groupindex", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class GroupindexNode extends PythonBuiltinNode {
+        @Specialization
+        Object groupindex(PSREPattern self) {
+            return self.getGroupindex();
+        }
+    }
+}
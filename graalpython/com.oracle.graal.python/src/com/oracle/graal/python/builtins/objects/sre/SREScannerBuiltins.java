@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ITER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__NEXT__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.StopIteration;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = PSREScanner.class)
+public class SREScannerBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return SREScannerBuiltinsFactory.getFactories();
+    }
+
+    abstract static class ScanNode extends PythonBuiltinNode {
+        protected final Object scan(PSREScanner self, boolean search) {
+            int[] regs = self.next(search);
+            if (regs == null) {
+                return null;
+            }
+            return factory().createSREMatch(self.pattern, self.string, self.input, 0, self.endpos, regs);
+        }
+    }
+
+    @Builtin(name = "match", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class MatchNode extends ScanNode {
+        @Specialization
+        Object match(PSREScanner self) {
+            Object match = scan(self, false);
+            return match == null ? PNone.NONE : match;
+        }
+    }
+
+    @Builtin(name = "search", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class SearchNode extends ScanNode {
+        @Specialization
+        Object search(PSREScanner self) {
+            Object match = scan(self, true);
+            return match == null ? PNone.NONE : match;
+        }
+    }
+
+    @Builtin(name = __ITER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class IterNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object iter(PSREScanner self) {
+            return self;
+        }
+    }
+
+    @Builtin(name = __NEXT__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    abstract static class NextNode extends ScanNode {
+        @Specialization
+        Object next(PSREScanner self) {
+            Object match = scan(self, true);
+            if (match == null) {
+                throw raise(StopIteration);
+            }
+            return match;
+        }
+    }
+
+    @Builtin(name = "pattern", fixedNumOfArguments = 1, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class PatternNode extends PythonBuiltinNode {
+        @Specialization
+        Object pattern(PSREScanner self) {
+            return self.getPattern();
+        }
+    }
+}
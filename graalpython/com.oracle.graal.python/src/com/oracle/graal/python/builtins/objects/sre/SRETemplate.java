@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.sre;
+
+import java.util.ArrayList;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A parsed replacement template for {@code sub} and {@code Match.expand}. The template is split
+ * into literal text and group references once, so that expanding it for each match is a matter of
+ * copying slices of the subject.
+ * <p>
+ * Only well-formed templates are parsed here; {@link #parse} returns {@code null} for anything it
+ * does not accept, and callers then defer to {@code re._subx} and {@code re._expand}, which
+ * produce the proper {@code re.error}.
+ */
+final class SRETemplate {
+
+    /** Literal text, or {@code null} where {@link #groups} holds a group reference. */
+    private final String[] literals;
+    private final int[] groups;
+
+    private SRETemplate(String[] literals, int[] groups) {
+        this.literals = literals;
+        this.groups = groups;
+    }
+
+    /**
+     * @return the template text if it has no backslashes (and is therefore used verbatim),
+     *         otherwise {@code null}
+     */
+    static String asLiteral(String template) {
+        return template.indexOf('\\') < 0 ? template : null;
+    }
+
+    @TruffleBoundary
+    static SRETemplate parse(PSREPattern pattern, String template) {
+        ArrayList<String> literals = new ArrayList<>();
+        ArrayList<Integer> groups = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int n = template.length();
+        int i = 0;
+        while (i < n) {
+            char c = template.charAt(i++);
+            if (c != '\\') {
+                literal.append(c);
+                continue;
+            }
+            if (i >= n) {
+                return null;
+            }
+            c = template.charAt(i++);
+            int group = -1;
+            if (c == 'g') {
+                int close = template.indexOf('>', i);
+                if (i >= n || template.charAt(i) != '<' || close < 0) {
+                    return null;
+                }
+                String name = template.substring(i + 1, close);
+                i = close + 1;
+                if (isDigits(name)) {
+                    group = name.length() > 9 ? Integer.MAX_VALUE : Integer.parseInt(name);
+                } else {
+                    group = pattern.getGroupIndex(name);
+                    if (group < 0) {
+                        return null;
+                    }
+                }
+            } else if (c == '0') {
+                int value = 0;
+                int end = Math.min(i + 2, n);
+                while (i < end && isOctal(template.charAt(i))) {
+                    value = value * 8 + template.charAt(i++) - '0';
+                }
+                literal.append((char) value);
+            } else if (c >= '1' && c <= '9') {
+                if (i + 1 < n && isOctal(c) && isOctal(template.charAt(i)) && isOctal(template.charAt(i + 1))) {
+                    int value = (c - '0') * 64 + (template.charAt(i) - '0') * 8 + template.charAt(i + 1) - '0';
+                    if (value > 0377) {
+                        return null;
+                    }
+                    literal.append((char) value);
+                    i += 2;
+                } else {
+                    group = c - '0';
+                    if (i < n && template.charAt(i) >= '0' && template.charAt(i) <= '9') {
+                        group = group * 10 + template.charAt(i++) - '0';
+                    }
+                }
+            } else {
+                int escape = simpleEscape(c);
+                if (escape >= 0) {
+                    literal.append((char) escape);
+                } else if (c < 128 && Character.isLetterOrDigit(c)) {
+                    // unknown escapes of ASCII letters are errors
+                    return null;
+                } else {
+                    literal.append('\\').append(c);
+                }
+            }
+            if (group >= 0) {
+                if (group > pattern.getGroups()) {
+                    return null;
+                }
+                if (literal.length() > 0) {
+                    literals.add(literal.toString());
+                    groups.add(-1);
+                    literal.setLength(0);
+                }
+                literals.add(null);
+                groups.add(group);
+            }
+        }
+        if (literal.length() > 0) {
+            literals.add(literal.toString());
+            groups.add(-1);
+        }
+        int[] groupArray = new int[groups.size()];
+        for (int k = 0; k < groupArray.length; k++) {
+            groupArray[k] = groups.get(k);
+        }
+        return new SRETemplate(literals.toArray(new String[0]), groupArray);
+    }
+
+    private static boolean isDigits(String s) {
+        for (int k = 0; k < s.length(); k++) {
+            if (s.charAt(k) < '0' || s.charAt(k) > '9') {
+                return false;
+            }
+        }
+        return !s.isEmpty();
+    }
+
+    private static boolean isOctal(char c) {
+        return c >= '0' && c <= '7';
+    }
+
+    private static int simpleEscape(char c) {
+        switch (c) {
+            case 'a':
+                return 0x07;
+            case 'b':
+                return 0x08;
+            case 'f':
+                return 0x0c;
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'v':
+                return 0x0b;
+            case '\\':
+                return '\\';
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Appends the expansion for a match with group offsets {@code regs} in {@code input}.
+     * Groups that did not participate in the match expand to the empty string.
+     */
+    @TruffleBoundary
+    void expand(StringBuilder sb, String input, int[] regs) {
+        for (int k = 0; k < literals.length; k++) {
+            String literal = literals[k];
+            if (literal != null) {
+                sb.append(literal);
+            } else {
+                int start = regs[groups[k] * 2];
+                if (start >= 0) {
+                    sb.append(input, start, regs[groups[k] * 2 + 1]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.str;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The text of a {@link PString} produced by concatenation, kept in a {@link StringBuilder} so that
+ * loops like {@code s += piece} append in amortized constant time instead of copying {@code s}
+ * every iteration.
+ * <p>
+ * Successive concatenations share one builder: a {@code LazyString} owns the first
+ * {@link #length} characters of it, which are never changed afterwards. Appending to a string that
+ * is no longer the longest one built on its builder (e.g. {@code t = s + 'a'; u = s + 'b'}) copies
+ * into a fresh builder. All access to the builder is synchronized, since the strings sharing it can
+ * be used from several threads.
+ */
+public final class LazyString implements CharSequence {
+
+    /** Results shorter than this are built as plain {@link String}s. */
+    public static final int MIN_LENGTH = 256;
+
+    private final StringBuilder builder;
+    private final int length;
+
+    private LazyString(StringBuilder builder, int length) {
+        this.builder = builder;
+        this.length = length;
+    }
+
+    /**
+     * @return the concatenation of {@code left} and {@code right}, as a {@link String} if it is
+     *         short, otherwise as a {@code LazyString}
+     */
+    @TruffleBoundary
+    public static CharSequence concat(CharSequence left, String right) {
+        if (left instanceof LazyString) {
+            return ((LazyString) left).append(right);
+        }
+        int length = left.length() + right.length();
+        if (length < MIN_LENGTH) {
+            return new StringBuilder(length).append(left).append(right).toString();
+        }
+        StringBuilder builder = new StringBuilder(newCapacity(length));
+        builder.append(left).append(right);
+        return new LazyString(builder, length);
+    }
+
+    private LazyString append(String right) {
+        synchronized (builder) {
+            if (builder.length() == length) {
+                builder.append(right);
+                return new LazyString(builder, builder.length());
+            }
+        }
+        int newLength = length + right.length();
+        StringBuilder copy = new StringBuilder(newCapacity(newLength));
+        appendTo(copy);
+        copy.append(right);
+        return new LazyString(copy, newLength);
+    }
+
+    private static int newCapacity(int length) {
+        return length > Integer.MAX_VALUE / 2 ? length : length * 2;
+    }
+
+    /**
+     * Appends this string to {@code sb} without creating an intermediate {@link String}.
+     */
+    @TruffleBoundary
+    public void appendTo(StringBuilder sb) {
+        synchronized (builder) {
+            sb.append(builder, 0, length);
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    @TruffleBoundary
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        synchronized (builder) {
+            return builder.charAt(index);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException(start);
+        }
+        synchronized (builder) {
+            return builder.substring(start, end);
+        }
+    }
+
+    @Override
+    @TruffleBoundary
+    public String toString() {
+        synchronized (builder) {
+            return builder.substring(0, length);
+        }
+    }
+}
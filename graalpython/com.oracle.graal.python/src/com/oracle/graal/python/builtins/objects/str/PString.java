@@ -33,14 +33,28 @@ import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 
 public final class PString extends PImmutableSequence {
 
-    private final String value;
+    /** A {@link String}, or a {@link LazyString} until it is first needed as a String. */
+    private CharSequence value;
 
-    public PString(PythonClass clazz, String value) {
+    public PString(PythonClass clazz, CharSequence value) {
         super(clazz);
         this.value = value;
     }
 
     public String getValue() {
+        CharSequence current = value;
+        if (current instanceof String) {
+            return (String) current;
+        }
+        String flat = current.toString();
+        value = flat;
+        return flat;
+    }
+
+    /**
+     * @return the text without flattening a lazy concatenation
+     */
+    public CharSequence getCharSequence() {
         return value;
     }
 
@@ -66,7 +80,7 @@ public final class PString extends PImmutableSequence {
 
     @Override
     public String toString() {
-        return value;
+        return getValue();
     }
 
     @Override
@@ -82,11 +96,11 @@ public final class PString extends PImmutableSequence {
 
     @Override
     public int hashCode() {
-        return value.hashCode();
+        return getValue().hashCode();
     }
 
     @Override
     public boolean equals(Object obj) {
-        return obj != null && obj.equals(value);
+        return obj != null && obj.equals(getValue());
     }
 }
@@ -25,6 +25,7 @@
  */
 package com.oracle.graal.python.builtins.objects.str;
 
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__FORMAT__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__STR__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError;
@@ -53,13 +54,17 @@ import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.PNotImplemented;
 import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
 import com.oracle.graal.python.nodes.attributes.LookupInheritedAttributeNode;
 import com.oracle.graal.python.nodes.builtins.JoinInternalNode;
 import com.oracle.graal.python.nodes.call.CallDispatchNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
@@ -67,7 +72,9 @@ import com.oracle.graal.python.nodes.object.GetClassNode;
 import com.oracle.graal.python.nodes.subscript.GetItemNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.formatting.InternalFormat;
 import com.oracle.graal.python.runtime.formatting.StringFormatter;
+import com.oracle.graal.python.runtime.formatting.TemplateFormatter;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
@@ -183,6 +190,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__CONTAINS__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     abstract static class ContainsNode extends PythonBinaryBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -253,6 +261,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__LT__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class LtNode extends PythonBinaryBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -269,6 +278,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__LE__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class LeNode extends PythonBinaryBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -285,6 +295,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__GT__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class GtNode extends PythonBinaryBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -301,6 +312,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = SpecialMethodNames.__GE__, fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class GeNode extends PythonBinaryBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -319,23 +331,39 @@ public final class StringBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class AddNode extends PythonBinaryBuiltinNode {
         @Specialization
-        String doSS(String self, String other) {
-            return new StringBuilder(self.length() + other.length()).append(self).append(other).toString();
+        Object doSS(String self, String other,
+                        @Cached("createBinaryProfile()") ConditionProfile shortProfile) {
+            if (shortProfile.profile(self.length() + other.length() < LazyString.MIN_LENGTH)) {
+                return new StringBuilder(self.length() + other.length()).append(self).append(other).toString();
+            }
+            return concat(self, other);
         }
 
         @Specialization
-        String doSS(PString self, String other) {
-            return self.getValue() + other;
+        Object doSS(PString self, String other) {
+            return concat(self.getCharSequence(), other);
         }
 
         @Specialization
-        String doSS(String self, PString other) {
-            return self + other.getValue();
+        Object doSS(String self, PString other) {
+            return concat(self, other.getValue());
         }
 
         @Specialization
-        String doSS(PString self, PString other) {
-            return self.getValue() + other.getValue();
+        Object doSS(PString self, PString other) {
+            return concat(self.getCharSequence(), other.getValue());
+        }
+
+        /**
+         * Long results are built lazily so that repeated concatenation does not copy the left
+         * operand every time, see {@link LazyString}.
+         */
+        private Object concat(CharSequence left, String right) {
+            CharSequence result = LazyString.concat(left, right);
+            if (result instanceof LazyString) {
+                return factory().createString((LazyString) result);
+            }
+            return result;
         }
 
         @Specialization(guards = "!isString(other)")
@@ -410,6 +438,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.endswith(suffix[, start[, end]])
     @Builtin(name = "endswith", fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class EndsWithNode extends PythonBuiltinNode {
 
         @Specialization
@@ -446,6 +475,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.rfind(str[, start[, end]])
     @Builtin(name = "rfind", minNumOfArguments = 2, maxNumOfArguments = 4)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class RFindNode extends PythonBuiltinNode {
 
         @Specialization
@@ -484,6 +514,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.find(str[, start[, end]])
     @Builtin(name = "find", minNumOfArguments = 2, maxNumOfArguments = 4)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class FindNode extends PythonBuiltinNode {
 
         @Specialization
@@ -553,6 +584,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.join(iterable)
     @Builtin(name = "join", fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class JoinNode extends PythonBuiltinNode {
 
         @Child private JoinInternalNode joinInternalNode;
@@ -572,6 +604,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.upper()
     @Builtin(name = "upper", fixedNumOfArguments = 1)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class UpperNode extends PythonBuiltinNode {
 
         @Specialization
@@ -583,6 +616,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     // static str.maketrans()
     @Builtin(name = "maketrans", fixedNumOfArguments = 2)
+    @TypeSystemReference(PythonArithmeticTypes.class)
     @GenerateNodeFactory
     public abstract static class MakeTransNode extends PythonBuiltinNode {
 
@@ -607,6 +641,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.translate()
     @Builtin(name = "translate", fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class TranslateNode extends PythonBuiltinNode {
 
         @Specialization
@@ -634,6 +669,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.lower()
     @Builtin(name = "lower", fixedNumOfArguments = 1)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class LowerNode extends PythonBuiltinNode {
 
         @Specialization
@@ -646,6 +682,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.rpartition
     @Builtin(name = "rpartition", fixedNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class RPartitionNode extends PythonBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -668,6 +705,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.split
     @Builtin(name = "split", maxNumOfArguments = 3)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class SplitNode extends PythonBuiltinNode {
 
         @SuppressWarnings("unused")
@@ -769,6 +807,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.split
     @Builtin(name = "rsplit", maxNumOfArguments = 3)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class RSplitNode extends PythonBuiltinNode {
 
         @SuppressWarnings("unused")
@@ -907,6 +946,7 @@ public final class StringBuiltins extends PythonBuiltins {
     // str.replace
     @Builtin(name = "replace", minNumOfArguments = 3, maxNumOfArguments = 4)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class ReplaceNode extends PythonBuiltinNode {
 
         @SuppressWarnings("unused")
@@ -930,6 +970,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = "strip", minNumOfArguments = 1, maxNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class StripNode extends PythonBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -946,6 +987,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = "rstrip", minNumOfArguments = 1, maxNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class RStripNode extends PythonBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -963,6 +1005,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = "lstrip", minNumOfArguments = 1, maxNumOfArguments = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class LStripNode extends PythonBuiltinNode {
         @Specialization
         @TruffleBoundary
@@ -994,6 +1037,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = "index", minNumOfArguments = 2, maxNumOfArguments = 4)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class IndexNode extends PythonBuiltinNode {
         @SuppressWarnings("unused")
         @Specialization
@@ -1032,6 +1076,7 @@ public final class StringBuiltins extends PythonBuiltins {
 
     @Builtin(name = "encode", fixedNumOfArguments = 1, keywordArguments = {"encoding", "errors"})
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class EncodeNode extends PythonBuiltinNode {
         @Specialization(guards = "isString(self)")
         Object encode(Object self, @SuppressWarnings("unused") PNone encoding, @SuppressWarnings("unused") PNone errors,
@@ -1202,6 +1247,70 @@ public final class StringBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "format", minNumOfArguments = 1, takesVariableArguments = true, takesVariableKeywords = true)
+    @GenerateNodeFactory
+    abstract static class FormatNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "self == cachedSelf", limit = "3")
+        Object formatCached(@SuppressWarnings("unused") String self, PTuple args, PKeyword[] keywords,
+                        @Cached("self") @SuppressWarnings("unused") String cachedSelf,
+                        @Cached("parse(self)") TemplateFormatter template,
+                        @Cached("create(__FORMAT__)") LookupAndCallBinaryNode formatNode,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached("create()") GetAttributeNode getAttributeNode,
+                        @Cached("create(__GETITEM__)") LookupAndCallBinaryNode getItemNode) {
+            return template.format(getCore(), args.getArray(), keywords, formatNode, strNode, reprNode, getAttributeNode, getItemNode);
+        }
+
+        @Specialization(replaces = "formatCached")
+        @TruffleBoundary
+        Object format(String self, PTuple args, PKeyword[] keywords,
+                        @Cached("create(__FORMAT__)") LookupAndCallBinaryNode formatNode,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached("create()") GetAttributeNode getAttributeNode,
+                        @Cached("create(__GETITEM__)") LookupAndCallBinaryNode getItemNode) {
+            return parse(self).format(getCore(), args.getArray(), keywords, formatNode, strNode, reprNode, getAttributeNode, getItemNode);
+        }
+
+        @Specialization
+        Object format(PString self, PTuple args, PKeyword[] keywords,
+                        @Cached("create(__FORMAT__)") LookupAndCallBinaryNode formatNode,
+                        @Cached("create(__STR__)") LookupAndCallUnaryNode strNode,
+                        @Cached("create(__REPR__)") LookupAndCallUnaryNode reprNode,
+                        @Cached("create()") GetAttributeNode getAttributeNode,
+                        @Cached("create(__GETITEM__)") LookupAndCallBinaryNode getItemNode) {
+            return format(self.getValue(), args, keywords, formatNode, strNode, reprNode, getAttributeNode, getItemNode);
+        }
+
+        protected TemplateFormatter parse(String template) {
+            return TemplateFormatter.parse(getCore(), template);
+        }
+    }
+
+    @Builtin(name = __FORMAT__, fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class DunderFormatNode extends PythonBinaryBuiltinNode {
+
+        @Specialization
+        @TruffleBoundary
+        String format(String self, String formatSpec) {
+            if (formatSpec.isEmpty()) {
+                return self;
+            }
+            StringBuilder result = new StringBuilder(self.length());
+            InternalFormat.formatText(getCore(), result, InternalFormat.fromText(getCore(), formatSpec), self);
+            return result.toString();
+        }
+
+        @Fallback
+        Object formatFail(@SuppressWarnings("unused") Object self, @SuppressWarnings("unused") Object formatSpec) {
+            throw raise(TypeError, "format_spec must be a string");
+        }
+    }
+
     @Builtin(name = "isalnum", fixedNumOfArguments = 1)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
+import static com.oracle.graal.python.nodes.SpecialMethodNames.__REPR__;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.OverflowError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.modules.ThreadModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.nodes.expression.CastToBooleanNode;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+@CoreFunctions(extendClasses = {PLock.class, PRLock.class})
+public class LockBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return LockBuiltinsFactory.getFactories();
+    }
+
+    /**
+     * Acquires the lock, giving up the global interpreter lock while waiting for it.
+     */
+    @TruffleBoundary
+    static boolean acquire(PythonContext context, AbstractPythonLock lock, boolean blocking, long timeoutNanos) {
+        if (lock.acquireNonBlocking()) {
+            return true;
+        } else if (!blocking) {
+            return false;
+        }
+        int holds = context.releaseGil();
+        try {
+            return lock.acquireBlocking(timeoutNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            context.reacquireGil(holds);
+        }
+    }
+
+    @Builtin(name = "acquire", minNumOfArguments = 1, maxNumOfArguments = 3, keywordArguments = {"blocking", "timeout"})
+    @GenerateNodeFactory
+    public abstract static class AcquireNode extends PythonBuiltinNode {
+        @Child private CastToBooleanNode castToBooleanNode;
+
+        @Specialization
+        boolean doAcquire(AbstractPythonLock self, Object blocking, Object timeout) {
+            boolean isBlocking = blocking == PNone.NO_VALUE || isTrue(blocking);
+            long timeoutNanos = -1;
+            if (timeout != PNone.NO_VALUE) {
+                double seconds = asSeconds(timeout);
+                if (!isBlocking && seconds != -1) {
+                    throw raise(ValueError, "can't specify a timeout for a non-blocking call");
+                } else if (seconds < 0 && seconds != -1) {
+                    throw raise(ValueError, "timeout value must be positive");
+                } else if (seconds > ThreadModuleBuiltins.TIMEOUT_MAX) {
+                    throw raise(OverflowError, "timeout value is too large");
+                }
+                timeoutNanos = seconds < 0 ? -1 : (long) (seconds * 1e9);
+            }
+            return acquire(getContext(), self, isBlocking, timeoutNanos);
+        }
+
+        private boolean isTrue(Object value) {
+            if (castToBooleanNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                castToBooleanNode = insert(CastToBooleanNode.createIfTrueNode());
+            }
+            return castToBooleanNode.executeWith(value);
+        }
+
+        private double asSeconds(Object timeout) {
+            if (timeout instanceof Integer) {
+                return (int) timeout;
+            } else if (timeout instanceof Long) {
+                return (long) timeout;
+            } else if (timeout instanceof Double) {
+                return (double) timeout;
+            } else if (timeout instanceof PInt) {
+                return ((PInt) timeout).doubleValue();
+            }
+            throw raise(TypeError, "timeout must be a number");
+        }
+    }
+
+    @Builtin(name = "acquire_lock", minNumOfArguments = 1, maxNumOfArguments = 3, keywordArguments = {"blocking", "timeout"})
+    @GenerateNodeFactory
+    public abstract static class AcquireLockNode extends AcquireNode {
+    }
+
+    @Builtin(name = __ENTER__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class EnterNode extends PythonBuiltinNode {
+        @Specialization
+        boolean enter(AbstractPythonLock self) {
+            return acquire(getContext(), self, true, -1);
+        }
+    }
+
+    @Builtin(name = "release", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReleaseNode extends PythonBuiltinNode {
+        @Specialization
+        PNone release(AbstractPythonLock self) {
+            if (!self.release()) {
+                throw raise(RuntimeError, "release unlocked lock");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "release_lock", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReleaseLockNode extends ReleaseNode {
+    }
+
+    @Builtin(name = __EXIT__, minNumOfArguments = 1, takesVariableArguments = true)
+    @GenerateNodeFactory
+    public abstract static class ExitNode extends PythonBuiltinNode {
+        @Specialization
+        PNone exit(AbstractPythonLock self, @SuppressWarnings("unused") Object args) {
+            if (!self.release()) {
+                throw raise(RuntimeError, "release unlocked lock");
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "locked", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class LockedNode extends PythonBuiltinNode {
+        @Specialization
+        boolean locked(AbstractPythonLock self) {
+            return self.locked();
+        }
+    }
+
+    @Builtin(name = "locked_lock", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class LockedLockNode extends LockedNode {
+    }
+
+    @Builtin(name = __REPR__, fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReprNode extends PythonBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        String repr(AbstractPythonLock self) {
+            return String.format("<%s %s object at 0x%x>", self.locked() ? "locked" : "unlocked", self.getPythonClass().getName(), self.hashCode());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A {@code _thread.lock}. Unlike a {@link java.util.concurrent.locks.Lock}, it has no owner and may
+ * be released by any thread, so it is backed by a binary semaphore.
+ */
+public final class PLock extends AbstractPythonLock {
+    private final Semaphore semaphore = new Semaphore(1);
+
+    public PLock(PythonClass cls) {
+        super(cls);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean acquireNonBlocking() {
+        return semaphore.tryAcquire();
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean acquireBlocking(long timeoutNanos) throws InterruptedException {
+        if (timeoutNanos < 0) {
+            semaphore.acquire();
+            return true;
+        }
+        return semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean release() {
+        if (semaphore.availablePermits() > 0) {
+            return false;
+        }
+        semaphore.release();
+        return true;
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean locked() {
+        return semaphore.availablePermits() == 0;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.thread;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.RuntimeError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+
+/**
+ * The methods {@code threading.Condition} uses to fully release and restore a reentrant lock.
+ */
+@CoreFunctions(extendClasses = PRLock.class)
+public class RLockBuiltins extends PythonBuiltins {
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinNode>> getNodeFactories() {
+        return RLockBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "_is_owned", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class IsOwnedNode extends PythonBuiltinNode {
+        @Specialization
+        boolean isOwned(PRLock self) {
+            return self.isOwned();
+        }
+    }
+
+    @Builtin(name = "_release_save", fixedNumOfArguments = 1)
+    @GenerateNodeFactory
+    public abstract static class ReleaseSaveNode extends PythonBuiltinNode {
+        @Specialization
+        PTuple releaseSave(PRLock self) {
+            if (!self.isOwned()) {
+                throw raise(RuntimeError, "cannot release un-acquired lock");
+            }
+            long owner = Thread.currentThread().getId();
+            int count = self.releaseAll();
+            return factory().createTuple(new Object[]{count, owner});
+        }
+    }
+
+    @Builtin(name = "_acquire_restore", fixedNumOfArguments = 2)
+    @GenerateNodeFactory
+    public abstract static class AcquireRestoreNode extends PythonBuiltinNode {
+        @Specialization
+        PNone acquireRestore(PRLock self, PTuple state) {
+            Object[] values = state.getArray();
+            int count = values.length > 0 && values[0] instanceof Integer ? (int) values[0] : 1;
+            for (int i = 0; i < count; i++) {
+                LockBuiltins.acquire(getContext(), self, true, -1);
+            }
+            return PNone.NONE;
+        }
+    }
+}
@@ -55,6 +55,7 @@ import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
+import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.PythonBuiltinClass;
@@ -291,6 +292,10 @@ public abstract class PGuards {
         return obj instanceof PTuple;
     }
 
+    public static boolean isPSlice(Object obj) {
+        return obj instanceof PSlice;
+    }
+
     public static boolean isInteger(Object obj) {
         return obj instanceof Long || obj instanceof Integer;
     }
@@ -137,6 +137,8 @@ public abstract class SpecialMethodNames {
     public static final String __ANEXT__ = "__anext__";
     public static final String __AENTER__ = "__aenter__";
     public static final String __AEXIT__ = "__aexit__";
+    public static final String __REDUCE__ = "__reduce__";
+    public static final String __COPY__ = "__copy__";
     public static final String KEYS = "keys";
     public static final String ITEMS = "items";
     public static final String VALUES = "values";
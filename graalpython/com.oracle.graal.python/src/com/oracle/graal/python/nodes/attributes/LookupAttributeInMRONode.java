@@ -41,7 +41,10 @@ package com.oracle.graal.python.nodes.attributes;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.PNode;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics;
 import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.NodeChild;
@@ -50,6 +53,8 @@ import com.oracle.truffle.api.dsl.Specialization;
 
 @NodeChildren({@NodeChild(value = "klass", type = PNode.class), @NodeChild(value = "key", type = PNode.class)})
 public abstract class LookupAttributeInMRONode extends PNode {
+    @CompilationFinal private boolean overflowRecorded;
+
     public static LookupAttributeInMRONode create() {
         return LookupAttributeInMRONodeGen.create(null, null);
     }
@@ -74,6 +79,11 @@ public abstract class LookupAttributeInMRONode extends PNode {
 
     @Specialization(replaces = "returnDirect")
     protected Object lookup(PythonClass klass, String key) {
+        if (!overflowRecorded && PythonMetrics.isEnabled()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            overflowRecorded = true;
+            PythonMetrics.record(PythonMetrics.INLINE_CACHE_OVERFLOW, LookupAttributeInMRONode.class, klass.getClass(), this);
+        }
         return klass.getAttribute(key);
     }
 
@@ -38,6 +38,7 @@
  */
 package com.oracle.graal.python.nodes.attributes;
 
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.nodes.PNode;
 import com.oracle.truffle.api.Assumption;
@@ -65,6 +66,12 @@ public abstract class WriteAttributeToObjectNode extends PNode {
         return prop == null ? null : prop.getLocation();
     }
 
+    private static void globalChanged(PythonObject object, Object key) {
+        if (object instanceof PythonModule) {
+            ((PythonModule) object).getGlobalAssumptions().changed(key);
+        }
+    }
+
     @SuppressWarnings("unused")
     @Specialization(guards = {
                     "object.getStorage().getShape() == cachedShape",
@@ -103,6 +110,7 @@ public abstract class WriteAttributeToObjectNode extends PNode {
             // cannot happen due to guard
             throw new RuntimeException("Location.canSet is inconsistent with Location.set");
         }
+        globalChanged(object, cachedKey);
         return true;
     }
 
@@ -133,6 +141,7 @@ public abstract class WriteAttributeToObjectNode extends PNode {
                 // invalidated after the assumption is checked
                 object.getStorage().updateShape();
                 newLoc.set(object.getStorage(), value, object.getStorage().getShape(), newShape);
+                globalChanged(object, cachedKey);
                 return true;
             }
             newLoc.set(object.getStorage(), value, cachedShape, newShape);
@@ -147,6 +156,7 @@ public abstract class WriteAttributeToObjectNode extends PNode {
                 throw new RuntimeException("Cannot set a property that was just generalized");
             }
         }
+        globalChanged(object, cachedKey);
         return true;
     }
 
@@ -43,6 +43,8 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 import com.oracle.graal.python.builtins.objects.array.PCharArray;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.str.LazyString;
+import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.nodes.PBaseNode;
 import com.oracle.graal.python.nodes.PGuards;
@@ -91,11 +93,11 @@ public abstract class JoinInternalNode extends PBaseNode {
 
         int lastIdx = list.len() - 1;
         for (int i = 0; i < lastIdx; i++) {
-            sb.append(checkItem(store.getItemNormalized(i), i));
+            appendItem(sb, store.getItemNormalized(i), i);
             sb.append(string);
         }
 
-        sb.append(checkItem(list.getItem(lastIdx), lastIdx));
+        appendItem(sb, list.getItem(lastIdx), lastIdx);
         return sb.toString();
     }
 
@@ -107,13 +109,14 @@ public abstract class JoinInternalNode extends PBaseNode {
 
         StringBuilder sb = new StringBuilder();
         char[] stringList = array.getSequence();
+        int last = array.len() - 1;
 
-        for (int i = 0; i < stringList.length - 1; i++) {
-            sb.append(Character.toString(stringList[i]));
+        for (int i = 0; i < last; i++) {
+            sb.append(stringList[i]);
             sb.append(string);
         }
 
-        sb.append(Character.toString(stringList[stringList.length - 1]));
+        sb.append(stringList[last]);
         return sb.toString();
     }
 
@@ -129,19 +132,28 @@ public abstract class JoinInternalNode extends PBaseNode {
             return "";
         }
         for (int i = 0; i < l - 1; i++) {
-            sb.append(checkItem(seq.getItem(i), i));
+            appendItem(sb, seq.getItem(i), i);
             sb.append(string);
         }
 
-        sb.append(seq.getItem(seq.len() - 1));
+        appendItem(sb, seq.getItem(l - 1), l - 1);
         return sb.toString();
     }
 
-    private String checkItem(Object item, int pos) {
-        if (PGuards.isString(item)) {
-            return item.toString();
+    private void appendItem(StringBuilder sb, Object item, int pos) {
+        if (item instanceof String) {
+            sb.append((String) item);
+        } else if (item instanceof PString) {
+            // lazily concatenated strings are copied without flattening them first
+            CharSequence value = ((PString) item).getCharSequence();
+            if (value instanceof LazyString) {
+                ((LazyString) value).appendTo(sb);
+            } else {
+                sb.append(value);
+            }
+        } else {
+            throw raise(TypeError, "sequence item %d: expected str instance, %p found", pos, item);
         }
-        throw raise(TypeError, "sequence item %d: expected str instance, %p found", pos, item);
     }
 
     @Specialization
@@ -154,7 +166,7 @@ public abstract class JoinInternalNode extends PBaseNode {
         Object iterator = getIterator.executeWith(iterable);
         StringBuilder str = new StringBuilder();
         try {
-            str.append(checkItem(next.execute(iterator), 0));
+            appendItem(str, next.execute(iterator), 0);
         } catch (PException e) {
             e.expectStopIteration(getCore(), errorProfile1);
             return "";
@@ -169,7 +181,7 @@ public abstract class JoinInternalNode extends PBaseNode {
                 return str.toString();
             }
             str.append(string);
-            str.append(checkItem(value, i++));
+            appendItem(str, value, i++);
         }
     }
 
@@ -32,6 +32,9 @@ import com.oracle.graal.python.builtins.objects.function.PythonCallable;
 import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -41,6 +44,7 @@ import com.oracle.truffle.api.nodes.Node;
 public abstract class CallDispatchNode extends Node {
 
     protected final String calleeName;
+    @CompilationFinal private boolean overflowRecorded;
 
     public CallDispatchNode(String calleeName) {
         this.calleeName = calleeName;
@@ -91,6 +95,11 @@ public abstract class CallDispatchNode extends Node {
     @Specialization(replaces = {"callMethod", "callBuiltinMethod", "callFunction"})
     protected Object callGeneric(PythonCallable callee, Object[] arguments, PKeyword[] keywords,
                     @Cached("create()") GenericInvokeNode invoke) {
+        if (!overflowRecorded && PythonMetrics.isEnabled()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            overflowRecorded = true;
+            PythonMetrics.record(PythonMetrics.INLINE_CACHE_OVERFLOW, CallDispatchNode.class, callee.getClass(), this);
+        }
         return invoke.execute(callee, arguments, keywords);
     }
 }
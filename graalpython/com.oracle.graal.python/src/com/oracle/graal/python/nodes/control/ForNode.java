@@ -26,6 +26,7 @@
 package com.oracle.graal.python.nodes.control;
 
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongIterator;
@@ -56,6 +57,7 @@ final class ForRepeatingNode extends PBaseNode implements RepeatingNode {
 
     @Child ForNextElementNode nextElement;
     @Child PNode body;
+    @Child ThreadSwitchNode threadSwitch = new ThreadSwitchNode();
 
     public ForRepeatingNode(PNode target, PNode body) {
         this.nextElement = ForNextElementNodeGen.create(target);
@@ -71,6 +73,7 @@ final class ForRepeatingNode extends PBaseNode implements RepeatingNode {
             throw raise(PythonErrorType.RuntimeError, "internal error: unexpected frame slot type");
         }
         body.executeVoid(frame);
+        threadSwitch.execute();
         return true;
     }
 }
@@ -123,6 +126,31 @@ abstract class ForNextElementNode extends PBaseNode {
         return true;
     }
 
+    @Specialization(guards = "iterator.isIntStorage()")
+    protected boolean doIntDequeIterator(VirtualFrame frame, PDequeIterator iterator) {
+        if (!hasNext(iterator)) {
+            return false;
+        }
+        ((WriteNode) target).doWrite(frame, iterator.nextInt());
+        return true;
+    }
+
+    @Specialization(guards = "!iterator.isIntStorage()")
+    protected boolean doDequeIterator(VirtualFrame frame, PDequeIterator iterator) {
+        if (!hasNext(iterator)) {
+            return false;
+        }
+        ((WriteNode) target).doWrite(frame, iterator.next());
+        return true;
+    }
+
+    private boolean hasNext(PDequeIterator iterator) {
+        if (iterator.isMutated()) {
+            throw raise(PythonErrorType.RuntimeError, "deque mutated during iteration");
+        }
+        return iterator.hasNext();
+    }
+
     @Specialization
     protected boolean doIterator(VirtualFrame frame, Object object,
                     @Cached("create()") GetNextNode next,
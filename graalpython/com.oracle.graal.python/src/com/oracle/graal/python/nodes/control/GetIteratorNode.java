@@ -28,15 +28,17 @@ package com.oracle.graal.python.nodes.control;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 
 import com.oracle.graal.python.builtins.objects.PNone;
-import com.oracle.graal.python.builtins.objects.array.PCharArray;
 import com.oracle.graal.python.builtins.objects.array.PDoubleArray;
 import com.oracle.graal.python.builtins.objects.array.PIntArray;
 import com.oracle.graal.python.builtins.objects.array.PLongArray;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.iterator.PBuiltinIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PItertoolsIterator;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
@@ -97,7 +99,7 @@ public abstract class GetIteratorNode extends UnaryOpNode {
         }
     }
 
-    @Specialization(guards = "iterCannotBeOverridden(value)")
+    @Specialization(guards = {"iterCannotBeOverridden(value)", "!value.isUnsigned()"})
     public PythonObject doPIntArray(PIntArray value) {
         if (PythonOptions.getOption(getContext(), PythonOptions.UnboxSequenceIteration)) {
             return factory().createIntArrayIterator(value);
@@ -106,7 +108,7 @@ public abstract class GetIteratorNode extends UnaryOpNode {
         }
     }
 
-    @Specialization(guards = "iterCannotBeOverridden(value)")
+    @Specialization(guards = {"iterCannotBeOverridden(value)", "!value.isUnsigned()"})
     public PythonObject doPLongArray(PLongArray value) {
         if (PythonOptions.getOption(getContext(), PythonOptions.UnboxSequenceIteration)) {
             return factory().createLongArrayIterator(value);
@@ -124,15 +126,6 @@ public abstract class GetIteratorNode extends UnaryOpNode {
         }
     }
 
-    @Specialization(guards = "iterCannotBeOverridden(value)")
-    public PythonObject doCharArray(PCharArray value) {
-        if (PythonOptions.getOption(getContext(), PythonOptions.UnboxSequenceIteration)) {
-            return factory().createCharArrayIterator(value);
-        } else {
-            return factory().createSequenceIterator(value);
-        }
-    }
-
     @Specialization(guards = "iterCannotBeOverridden(value)")
     public PSequenceIterator doPSequence(PSequence value) {
         return factory().createSequenceIterator(value);
@@ -148,6 +141,21 @@ public abstract class GetIteratorNode extends UnaryOpNode {
         return value;
     }
 
+    @Specialization(guards = "iterCannotBeOverridden(value)")
+    public PythonObject doPMap(PMap value) {
+        return value;
+    }
+
+    @Specialization(guards = "iterCannotBeOverridden(value)")
+    public PythonObject doPFilter(PFilter value) {
+        return value;
+    }
+
+    @Specialization(guards = "iterCannotBeOverridden(value)")
+    public PythonObject doItertools(PItertoolsIterator value) {
+        return value;
+    }
+
     @Specialization(guards = "iterCannotBeOverridden(range)")
     public PythonObject doRange(PRange range) {
         return factory().createRangeIterator(range);
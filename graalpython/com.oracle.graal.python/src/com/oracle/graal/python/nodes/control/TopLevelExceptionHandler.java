@@ -88,6 +88,9 @@ public class TopLevelExceptionHandler extends RootNode {
     @Override
     public Object execute(VirtualFrame frame) {
         Object result = null;
+        // a nested top level call, e.g. through polyglot eval, must leave the outer call's holds
+        int gilHolds = context.getGilHoldCount();
+        context.acquireGil();
         try {
             result = run(frame);
         } catch (PException e) {
@@ -100,6 +103,8 @@ public class TopLevelExceptionHandler extends RootNode {
                 }
             }
             throw e;
+        } finally {
+            context.releaseGilTo(gilHolds);
         }
         return result;
     }
@@ -124,7 +129,7 @@ public class TopLevelExceptionHandler extends RootNode {
         PythonClass type = value.getPythonClass();
         PTraceback tb = value.getTraceback(core.factory());
 
-        PythonModule sys = core.lookupBuiltinModule("sys");
+        PythonModule sys = context.lookupBuiltinModule("sys");
         sys.setAttribute(BuiltinNames.LAST_TYPE, type);
         sys.setAttribute(BuiltinNames.LAST_VALUE, value);
         sys.setAttribute(BuiltinNames.LAST_TRACEBACK, tb);
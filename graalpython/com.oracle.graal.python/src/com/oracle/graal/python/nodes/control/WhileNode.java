@@ -38,6 +38,7 @@ final class WhileRepeatingNode extends Node implements RepeatingNode {
 
     @Child CastToBooleanNode condition;
     @Child PNode body;
+    @Child ThreadSwitchNode threadSwitch = new ThreadSwitchNode();
 
     WhileRepeatingNode(CastToBooleanNode condition, PNode body) {
         this.condition = condition;
@@ -50,6 +51,7 @@ final class WhileRepeatingNode extends Node implements RepeatingNode {
             return false;
         }
         body.execute(frame);
+        threadSwitch.execute();
         return true;
     }
 }
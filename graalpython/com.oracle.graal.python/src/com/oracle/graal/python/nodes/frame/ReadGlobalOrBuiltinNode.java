@@ -29,16 +29,24 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.NameError;
 
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.common.DynamicObjectStorage.PythonObjectDictStorage;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.module.GlobalAssumptions;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.nodes.PNode;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.subscript.GetItemNode;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.api.utilities.AlwaysValidAssumption;
+import com.oracle.truffle.api.utilities.NeverValidAssumption;
 
 @NodeInfo(shortName = "read_global")
 public abstract class ReadGlobalOrBuiltinNode extends GlobalNode implements ReadNode {
@@ -62,6 +70,22 @@ public abstract class ReadGlobalOrBuiltinNode extends GlobalNode implements Read
         return WriteGlobalNode.create(attributeId, rhs);
     }
 
+    /**
+     * Folds the read to a constant while the global (and, if the global is undefined, the builtin)
+     * keeps its value. The assumptions are invalidated by every write to the module, see
+     * {@link GlobalAssumptions}.
+     */
+    @SuppressWarnings("unused")
+    @Specialization(guards = {"getGlobals(frame) == cachedGlobals", "!isNoValue(cachedValue)"}, assumptions = {"globalAssumption", "builtinAssumption"}, limit = "1")
+    protected Object readConstant(VirtualFrame frame,
+                    @Cached("getGlobals(frame)") PythonObject cachedGlobals,
+                    @Cached("getGlobalAssumption(cachedGlobals)") Assumption globalAssumption,
+                    @Cached("readStable(cachedGlobals)") Object globalValue,
+                    @Cached("getBuiltinAssumption(globalValue)") Assumption builtinAssumption,
+                    @Cached("readBuiltinIfMissing(globalValue)") Object cachedValue) {
+        return cachedValue;
+    }
+
     @Specialization(guards = "isInModule(frame)")
     protected Object readGlobal(VirtualFrame frame) {
         final Object result = readFromModuleNode.execute(PArguments.getGlobals(frame), attributeId);
@@ -103,6 +127,45 @@ public abstract class ReadGlobalOrBuiltinNode extends GlobalNode implements Read
         }
     }
 
+    protected static PythonObject getGlobals(VirtualFrame frame) {
+        return PArguments.getGlobals(frame);
+    }
+
+    private static GlobalAssumptions getGlobalAssumptions(PythonObject globals) {
+        if (globals instanceof PythonModule) {
+            return ((PythonModule) globals).getGlobalAssumptions();
+        } else if (globals instanceof PDict && ((PDict) globals).getDictStorage() instanceof PythonObjectDictStorage) {
+            return ((PythonObjectDictStorage) ((PDict) globals).getDictStorage()).getGlobalAssumptions();
+        }
+        return null;
+    }
+
+    protected Assumption getGlobalAssumption(PythonObject globals) {
+        GlobalAssumptions assumptions = getGlobalAssumptions(globals);
+        return assumptions == null ? NeverValidAssumption.INSTANCE : assumptions.getAssumption(attributeId);
+    }
+
+    protected Object readStable(PythonObject globals) {
+        if (globals instanceof PythonModule) {
+            return globals.getStorage().get(attributeId, PNone.NO_VALUE);
+        } else if (getGlobalAssumptions(globals) != null) {
+            return ((PythonObjectDictStorage) ((PDict) globals).getDictStorage()).getStore().get(attributeId, PNone.NO_VALUE);
+        }
+        return PNone.NO_VALUE;
+    }
+
+    private PythonModule getBuiltins() {
+        return getCore().isInitialized() ? getContext().getBuiltins() : getCore().lookupBuiltinModule("builtins");
+    }
+
+    protected Assumption getBuiltinAssumption(Object globalValue) {
+        return globalValue != PNone.NO_VALUE ? AlwaysValidAssumption.INSTANCE : getBuiltins().getGlobalAssumptions().getAssumption(attributeId);
+    }
+
+    protected Object readBuiltinIfMissing(Object globalValue) {
+        return globalValue != PNone.NO_VALUE ? globalValue : getBuiltins().getStorage().get(attributeId, PNone.NO_VALUE);
+    }
+
     public String getAttributeId() {
         return attributeId;
     }
@@ -38,8 +38,8 @@
  */
 package com.oracle.graal.python.nodes.generator;
 
-import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.PythonEquivalence;
-import com.oracle.graal.python.builtins.objects.common.HashingStorage.Equivalence;
+import com.oracle.graal.python.builtins.objects.common.HashingStorage.DictEntry;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageNodes.SetItemNode;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.nodes.PNode;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -49,14 +49,14 @@ import com.oracle.truffle.api.nodes.ExplodeLoop;
 public final class DictConcatNode extends PNode {
 
     @Children final PNode[] mappables;
-    @Child private Equivalence equivalenceNode;
+    @Child private SetItemNode setItemNode;
 
-    protected Equivalence getEquivalence() {
-        if (equivalenceNode == null) {
+    private SetItemNode getSetItemNode() {
+        if (setItemNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            equivalenceNode = insert(new PythonEquivalence());
+            setItemNode = insert(SetItemNode.create());
         }
-        return equivalenceNode;
+        return setItemNode;
     }
 
     private DictConcatNode(PNode... mappablesNodes) {
@@ -73,12 +73,19 @@ public final class DictConcatNode extends PNode {
                 first = expectDict(n.execute(frame));
             } else {
                 other = expectDict(n.execute(frame));
-                first.getDictStorage().addAll(other.getDictStorage(), getEquivalence());
+                addAllToFirst(first, other);
             }
         }
         return first;
     }
 
+    private void addAllToFirst(PDict first, PDict other) {
+        // go through the set item node, the storage of 'first' may need to be generalized
+        for (DictEntry entry : other.getDictStorage().entries()) {
+            getSetItemNode().execute(first, first.getDictStorage(), entry.getKey(), entry.getValue());
+        }
+    }
+
     private static PDict expectDict(Object first) {
         if (!(first instanceof PDict)) {
             CompilerDirectives.transferToInterpreter();
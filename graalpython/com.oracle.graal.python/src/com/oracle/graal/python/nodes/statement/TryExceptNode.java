@@ -27,10 +27,15 @@ package com.oracle.graal.python.nodes.statement;
 
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.nodes.PNode;
+import com.oracle.graal.python.nodes.call.PythonCallNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonThreadState;
 import com.oracle.graal.python.runtime.exception.ExceptionHandledException;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.TracebackProfile;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.NodeUtil;
 
 public class TryExceptNode extends StatementNode {
 
@@ -38,14 +43,51 @@ public class TryExceptNode extends StatementNode {
     @Children final ExceptNode[] exceptNodes;
     @Child private PNode orelse;
 
+    private final TracebackProfile tracebackProfile;
+
     public TryExceptNode(PNode body, ExceptNode[] exceptNodes, PNode orelse) {
         this.body = body;
         this.exceptNodes = exceptNodes;
         this.orelse = orelse;
+        this.tracebackProfile = ignoresTraceback(exceptNodes) ? new TracebackProfile() : null;
+    }
+
+    /**
+     * Handlers that neither bind the exception nor call or raise anything cannot observe the
+     * traceback of the exception they catch.
+     */
+    private static boolean ignoresTraceback(ExceptNode[] exceptNodes) {
+        if (exceptNodes.length == 0) {
+            return false;
+        }
+        for (ExceptNode exceptNode : exceptNodes) {
+            if (exceptNode.getExceptType() == null || exceptNode.getExceptName() != null) {
+                return false;
+            }
+            PNode handler = exceptNode.getBody();
+            if (NodeUtil.findFirstNodeInstance(handler, PythonCallNode.class) != null || NodeUtil.findFirstNodeInstance(handler, RaiseNode.class) != null) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public Object execute(VirtualFrame frame) {
+        // both checks fold in compiled code, so nothing touches the thread state on entry
+        // unless some try statement drops stacks
+        if (tracebackProfile != null) {
+            if (tracebackProfile.isActive()) {
+                return executeWithProfile(frame, tracebackProfile);
+            }
+        } else if (TracebackProfile.isAnyActive()) {
+            // the profile of an enclosing try statement must not apply to what we catch
+            return executeWithProfile(frame, null);
+        }
+        return executeBody(frame);
+    }
+
+    private Object executeBody(VirtualFrame frame) {
         try {
             body.execute(frame);
         } catch (PException ex) {
@@ -55,6 +97,30 @@ public class TryExceptNode extends StatementNode {
         return orelse.execute(frame);
     }
 
+    private Object executeWithProfile(VirtualFrame frame, TracebackProfile profile) {
+        PythonContext context = getContext();
+        if (context == null) {
+            return executeBody(frame);
+        }
+        PythonThreadState threadState = context.getThreadState();
+        TracebackProfile outerProfile = threadState.getTracebackProfile();
+        if (outerProfile == profile) {
+            return executeBody(frame);
+        }
+        try {
+            threadState.setTracebackProfile(profile);
+            try {
+                body.execute(frame);
+            } finally {
+                threadState.setTracebackProfile(outerProfile);
+            }
+        } catch (PException ex) {
+            catchException(frame, ex);
+            return PNone.NONE;
+        }
+        return orelse.execute(frame);
+    }
+
     @ExplodeLoop
     private void catchException(VirtualFrame frame, PException exception) {
         boolean wasHandled = false;
@@ -72,7 +138,10 @@ public class TryExceptNode extends StatementNode {
             }
         }
         if (!wasHandled) {
+            exception.tracebackObserved();
             throw exception;
+        } else if (tracebackProfile != null) {
+            tracebackProfile.caught(exception.getType());
         }
     }
 
@@ -29,7 +29,6 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__GETITEM__;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
 
 import com.oracle.graal.python.builtins.objects.array.PArray;
-import com.oracle.graal.python.builtins.objects.array.PCharArray;
 import com.oracle.graal.python.builtins.objects.array.PDoubleArray;
 import com.oracle.graal.python.builtins.objects.array.PIntArray;
 import com.oracle.graal.python.builtins.objects.array.PLongArray;
@@ -39,6 +38,7 @@ import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
 import com.oracle.graal.python.builtins.objects.slice.PSlice.SliceInfo;
+import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.nodes.PNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.expression.BinaryOpNode;
@@ -143,6 +143,27 @@ public abstract class GetItemNode extends BinaryOpNode implements ReadNode {
         return doString(primary, toInt(idx));
     }
 
+    @Specialization(guards = "cannotBeOverridden(primary.getPythonClass())")
+    public String doPString(PString primary, PSlice slice) {
+        return doString(primary.getValue(), slice);
+    }
+
+    @Specialization(guards = "cannotBeOverridden(primary.getPythonClass())")
+    public String doPString(PString primary, int idx) {
+        // index lazily concatenated strings without flattening them
+        CharSequence value = primary.getCharSequence();
+        int index = idx < 0 ? idx + value.length() : idx;
+        if (index < 0 || index >= value.length()) {
+            throw raise(IndexError, "string index out of range");
+        }
+        return new String(new char[]{value.charAt(index)});
+    }
+
+    @Specialization(guards = "cannotBeOverridden(primary.getPythonClass())")
+    public String doPString(PString primary, PInt idx) {
+        return doPString(primary, toInt(idx));
+    }
+
     @Specialization
     public Object doPBytes(PBytes primary, int idx) {
         return primary.getItemNormalized(normalize.forRange(idx, primary.len()));
@@ -173,22 +194,22 @@ public abstract class GetItemNode extends BinaryOpNode implements ReadNode {
         return primary.getItemNormalized(normalize.forRange(idx, primary.len()));
     }
 
-    @Specialization
+    @Specialization(guards = "!primary.isUnsigned()")
     public int doPIntArray(PIntArray primary, int idx) {
         return primary.getIntItemNormalized(normalize.forArray(idx, primary.len()));
     }
 
-    @Specialization
+    @Specialization(guards = "!primary.isUnsigned()")
     public int doPIntArray(PIntArray primary, long idx) {
         return primary.getIntItemNormalized(normalize.forArray(idx, primary.len()));
     }
 
-    @Specialization
+    @Specialization(guards = "!primary.isUnsigned()")
     public long doPLongArray(PLongArray primary, int idx) {
         return primary.getLongItemNormalized(normalize.forArray(idx, primary.len()));
     }
 
-    @Specialization
+    @Specialization(guards = "!primary.isUnsigned()")
     public long doPLongArray(PLongArray primary, long idx) {
         return primary.getLongItemNormalized(normalize.forArray(idx, primary.len()));
     }
@@ -203,16 +224,6 @@ public abstract class GetItemNode extends BinaryOpNode implements ReadNode {
         return primary.getDoubleItemNormalized(normalize.forArray(idx, primary.len()));
     }
 
-    @Specialization
-    public char doPCharArray(PCharArray primary, int idx) {
-        return primary.getCharItemNormalized(normalize.forArray(idx, primary.len()));
-    }
-
-    @Specialization
-    public char doPCharArray(PCharArray primary, long idx) {
-        return primary.getCharItemNormalized(normalize.forArray(idx, primary.len()));
-    }
-
     @Specialization
     public Object doPArray(PArray primary, long idx) {
         return primary.getItemNormalized(normalize.forArray(idx, primary.len()));
@@ -30,7 +30,6 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexErr
 
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.array.PArray;
-import com.oracle.graal.python.builtins.objects.array.PCharArray;
 import com.oracle.graal.python.builtins.objects.array.PDoubleArray;
 import com.oracle.graal.python.builtins.objects.array.PIntArray;
 import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
@@ -154,7 +153,7 @@ public abstract class SetItemNode extends StatementNode implements WriteNode {
     /**
      * Unboxed array stores.
      */
-    @Specialization
+    @Specialization(guards = "!primary.isUnsigned()")
     public Object doPArrayInt(PIntArray primary, int index, int value) {
         primary.setIntItemNormalized(normalize.forArrayAssign(index, primary.len()), value);
         return PNone.NONE;
@@ -167,8 +166,8 @@ public abstract class SetItemNode extends StatementNode implements WriteNode {
     }
 
     @Specialization
-    public Object doPArrayChar(PCharArray primary, int index, char value) {
-        primary.setCharItemNormalized(normalize.forArrayAssign(index, primary.len()), value);
+    public Object doPArray(PArray primary, int index, Object value) {
+        primary.setItemNormalized(normalize.forArrayAssign(index, primary.len()), value);
         return PNone.NONE;
     }
 
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import com.oracle.graal.python.parser.antlr.Python3Parser;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+
+/**
+ * Speculatively parses the modules a module imports while the importing thread is still busy
+ * translating and running it. When a module has been parsed, the module level {@code import} and
+ * {@code from ... import} statements in its tree are resolved against {@code sys.path} the same way
+ * the path based finder would, and the files found are lexed and parsed on a background pool. This
+ * continues transitively for the imports of those files, skipping modules that are already in
+ * {@code sys.modules}. {@link #take} hands a finished tree to the real import, but only if the source
+ * it was parsed from is exactly the source being compiled. Files are only accessed through the
+ * {@link TruffleFile}s of the importing context.
+ * <p>
+ * Only parsing happens in the background. Translation creates nodes through the core and must run on
+ * the importing thread. Parsing is the bigger part of the work, though.
+ */
+public final class ImportPrefetcher {
+    /** No further modules are prefetched while this many are waiting to be taken. */
+    private static final int MAX_PENDING = 512;
+
+    private static ForkJoinPool pool;
+
+    private final ConcurrentHashMap<String, Prefetched> prefetched = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private static final class Prefetched {
+        private final TruffleFile file;
+        private final ForkJoinTask<Prefetched> task;
+        private String code;
+        private ParserRuleContext tree;
+        private boolean started;
+        private boolean taken;
+
+        Prefetched(ImportPrefetcher prefetcher, Env env, TruffleFile file, List<String> searchPath, Set<String> builtinModules, Set<String> importedModules) {
+            this.file = file;
+            this.task = ForkJoinTask.adapt(() -> {
+                prefetcher.parse(this, env, searchPath, builtinModules, importedModules);
+                return this;
+            });
+        }
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            // the importing thread keeps one core busy with translating and running the modules
+            pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the tree prefetched for {@code path} if it was parsed from {@code code}, otherwise
+     * {@code null}. Each tree is only returned once, the entry for {@code path} is dropped either
+     * way. A prefetch that is already running is waited for, as it is further along than a parse
+     * started now would be, one that is still queued is cancelled.
+     */
+    @TruffleBoundary
+    public ParserRuleContext take(Env env, String path, String code) {
+        TruffleFile file = toFile(env, path);
+        String key = file == null ? null : getKey(file);
+        Prefetched entry = key == null ? null : prefetched.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            if (entry.taken) {
+                return null;
+            } else if (!entry.started) {
+                entry.taken = true;
+                pending.decrementAndGet();
+                return null;
+            }
+        }
+        entry.task.join();
+        synchronized (entry) {
+            if (entry.taken) {
+                return null;
+            }
+            entry.taken = true;
+            pending.decrementAndGet();
+            ParserRuleContext tree = entry.tree;
+            boolean sameCode = code.equals(entry.code);
+            entry.tree = null;
+            entry.code = null;
+            return sameCode ? tree : null;
+        }
+    }
+
+    /**
+     * Starts prefetching the imports of the module in {@code path}, given its parse tree.
+     * {@code searchPath} is a snapshot of {@code sys.path}, imports of builtin modules and of the
+     * modules in {@code importedModules}, a snapshot of the keys of {@code sys.modules}, are skipped.
+     * Even resolving the imports probes the file system, so it is done on the pool as well.
+     */
+    @TruffleBoundary
+    public void prefetchImports(Env env, ParserRuleContext tree, String path, List<String> searchPath, Set<String> builtinModules, Set<String> importedModules) {
+        if (pending.get() < MAX_PENDING) {
+            getPool().execute(() -> schedule(env, tree, path, searchPath, builtinModules, importedModules));
+        }
+    }
+
+    /**
+     * Waits until all prefetching started so far is done, e.g. for tests.
+     */
+    @TruffleBoundary
+    public static boolean awaitQuiescence(long timeout, TimeUnit unit) {
+        return getPool().awaitQuiescence(timeout, unit);
+    }
+
+    private void schedule(Env env, ParserRuleContext tree, String path, List<String> searchPath, Set<String> builtinModules, Set<String> importedModules) {
+        ArrayList<TruffleFile> files = new ArrayList<>();
+        collectImports(tree, toFile(env, path), env, searchPath, builtinModules, importedModules, files);
+        for (TruffleFile file : files) {
+            String key = getKey(file);
+            if (pending.get() >= MAX_PENDING || prefetched.containsKey(key)) {
+                continue;
+            }
+            Prefetched entry = new Prefetched(this, env, file, searchPath, builtinModules, importedModules);
+            if (prefetched.putIfAbsent(key, entry) == null) {
+                pending.incrementAndGet();
+                getPool().execute(entry.task);
+            }
+        }
+    }
+
+    private void parse(Prefetched entry, Env env, List<String> searchPath, Set<String> builtinModules, Set<String> importedModules) {
+        synchronized (entry) {
+            if (entry.taken) {
+                return;
+            }
+            entry.started = true;
+        }
+        String code;
+        ParserRuleContext tree;
+        try {
+            // source files are UTF-8, a different coding declaration just means the tree is not used
+            code = new String(entry.file.readAllBytes(), StandardCharsets.UTF_8);
+            tree = new com.oracle.graal.python.parser.antlr.Builder.Parser(code).build().file_input();
+        } catch (IOException | RuntimeException e) {
+            // the real import reports any problem
+            synchronized (entry) {
+                entry.taken = true;
+            }
+            prefetched.remove(getKey(entry.file), entry);
+            pending.decrementAndGet();
+            return;
+        }
+        synchronized (entry) {
+            entry.code = code;
+            entry.tree = tree;
+        }
+        schedule(env, tree, entry.file.getPath(), searchPath, builtinModules, importedModules);
+    }
+
+    private static TruffleFile toFile(Env env, String path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            return env.getTruffleFile(path);
+        } catch (InvalidPathException | SecurityException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static String getKey(TruffleFile file) {
+        return file.getAbsoluteFile().getPath();
+    }
+
+    /**
+     * Collects the files of the modules imported at module level, including imports nested in
+     * {@code if} and {@code try} statements, but not those in function or class bodies.
+     */
+    private static void collectImports(ParseTree node, TruffleFile path, Env env, List<String> searchPath, Set<String> builtinModules, Set<String> importedModules, List<TruffleFile> files) {
+        if (node instanceof Python3Parser.Import_nameContext) {
+            for (Python3Parser.Dotted_as_nameContext name : ((Python3Parser.Import_nameContext) node).dotted_as_names().dotted_as_name()) {
+                resolve(names(name.dotted_name()), 0, null, path, env, searchPath, builtinModules, importedModules, files);
+            }
+        } else if (node instanceof Python3Parser.Import_fromContext) {
+            Python3Parser.Import_fromContext ctx = (Python3Parser.Import_fromContext) node;
+            int level = 0;
+            for (int i = 1; i < ctx.getChildCount(); i++) {
+                String text = ctx.getChild(i).getText();
+                if (text.equals(".")) {
+                    level += 1;
+                } else if (text.equals("...")) {
+                    level += 3;
+                } else {
+                    break;
+                }
+            }
+            List<String> fromList = null;
+            if (ctx.import_as_names() != null) {
+                fromList = new ArrayList<>();
+                for (Python3Parser.Import_as_nameContext name : ctx.import_as_names().import_as_name()) {
+                    fromList.add(name.NAME(0).getText());
+                }
+            }
+            resolve(ctx.dotted_name() == null ? new String[0] : names(ctx.dotted_name()), level, fromList, path, env, searchPath, builtinModules, importedModules, files);
+        } else if (node instanceof ParserRuleContext && !(node instanceof Python3Parser.FuncdefContext) && !(node instanceof Python3Parser.ClassdefContext)) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                collectImports(node.getChild(i), path, env, searchPath, builtinModules, importedModules, files);
+            }
+        }
+    }
+
+    private static String[] names(Python3Parser.Dotted_nameContext ctx) {
+        List<TerminalNode> names = ctx.NAME();
+        String[] result = new String[names.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = names.get(i).getText();
+        }
+        return result;
+    }
+
+    /**
+     * Resolves the module {@code names} (relative to {@code path} if {@code level > 0}) and all its
+     * parent packages, as well as the names in {@code fromList} that are submodules. Absolute imports
+     * of modules that are already imported are not collected.
+     */
+    private static void resolve(String[] names, int level, List<String> fromList, TruffleFile path, Env env, List<String> searchPath, Set<String> builtinModules, Set<String> importedModules,
+                    List<TruffleFile> files) {
+        TruffleFile directory;
+        String qualifiedName = null;
+        int first = 0;
+        if (level > 0) {
+            if (path == null) {
+                return;
+            }
+            directory = path.getParent();
+            for (int i = 1; i < level && directory != null; i++) {
+                directory = directory.getParent();
+            }
+        } else {
+            if (names.length == 0 || builtinModules.contains(names[0])) {
+                return;
+            }
+            directory = null;
+            qualifiedName = names[0];
+            for (String entry : searchPath) {
+                TruffleFile found = findModule(toFile(env, entry.isEmpty() ? "." : entry), names[0]);
+                if (found != null) {
+                    addUnlessImported(found, qualifiedName, importedModules, files);
+                    directory = packageDirectory(found);
+                    break;
+                }
+            }
+            first = 1;
+        }
+        for (int i = first; i < names.length && directory != null; i++) {
+            TruffleFile found = findModule(directory, names[i]);
+            if (found == null) {
+                return;
+            }
+            qualifiedName = qualifiedName == null ? null : qualifiedName + "." + names[i];
+            addUnlessImported(found, qualifiedName, importedModules, files);
+            directory = packageDirectory(found);
+        }
+        if (fromList != null && directory != null) {
+            for (String name : fromList) {
+                TruffleFile found = findModule(directory, name);
+                if (found != null) {
+                    addUnlessImported(found, qualifiedName == null ? null : qualifiedName + "." + name, importedModules, files);
+                }
+            }
+        }
+    }
+
+    private static void addUnlessImported(TruffleFile file, String qualifiedName, Set<String> importedModules, List<TruffleFile> files) {
+        if (qualifiedName == null || !importedModules.contains(qualifiedName)) {
+            files.add(file);
+        }
+    }
+
+    private static TruffleFile packageDirectory(TruffleFile file) {
+        return "__init__.py".equals(file.getName()) ? file.getParent() : null;
+    }
+
+    private static TruffleFile findModule(TruffleFile directory, String name) {
+        if (directory == null) {
+            return null;
+        }
+        try {
+            TruffleFile init = directory.resolve(name).resolve("__init__.py");
+            if (init.isRegularFile()) {
+                return init.getAbsoluteFile();
+            }
+            TruffleFile module = directory.resolve(name + ".py");
+            if (module.isRegularFile()) {
+                return module.getAbsoluteFile();
+            }
+        } catch (InvalidPathException | SecurityException e) {
+            // not resolvable, leave it to the real import
+        }
+        return null;
+    }
+}
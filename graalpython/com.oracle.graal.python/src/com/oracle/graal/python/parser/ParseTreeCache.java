@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import com.oracle.graal.python.parser.antlr.Python3Parser;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+
+/**
+ * An on-disk cache of ANTLR parse trees, keyed by the path of the parsed file. Each entry is
+ * stamped with a format version and a hash of the grammar, and is only used if the SHA-256 of the
+ * source text still matches. Loading an entry skips lexing and parsing entirely, the tree
+ * translator then runs on the restored tree as usual.
+ *
+ * We cache parse trees rather than translated modules, because Truffle ASTs cannot be serialized.
+ * The grammar has neither labels nor actions in its parser rules, so a context is fully described
+ * by its rule, its children and its start and stop tokens.
+ *
+ * The cache is best effort: any I/O problem or mismatch just results in a regular parse. All files
+ * are accessed through the {@link TruffleFile}s of the context, so a context that is not allowed to
+ * do I/O does not get a cache.
+ */
+public final class ParseTreeCache {
+    private static final int MAGIC = 0x47505443;
+    private static final int FORMAT_VERSION = 1;
+    private static final int GRAMMAR_STAMP = Python3Parser._serializedATN.hashCode();
+    private static final String SUFFIX = ".ptc";
+
+    private static final byte RULE = 0;
+    private static final byte TERMINAL = 1;
+
+    @FunctionalInterface
+    private interface ContextFactory {
+        ParserRuleContext create(ParserRuleContext parent, int invokingState);
+    }
+
+    /**
+     * The constructors of the rule contexts of the generated parser, indexed by rule.
+     */
+    private static final ContextFactory[] CONTEXT_FACTORIES = new ContextFactory[Python3Parser.ruleNames.length];
+
+    static {
+        CONTEXT_FACTORIES[Python3Parser.RULE_single_input] = Python3Parser.Single_inputContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_file_input] = Python3Parser.File_inputContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_eval_input] = Python3Parser.Eval_inputContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_decorator] = Python3Parser.DecoratorContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_decorators] = Python3Parser.DecoratorsContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_decorated] = Python3Parser.DecoratedContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_async_funcdef] = Python3Parser.Async_funcdefContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_funcdef] = Python3Parser.FuncdefContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_parameters] = Python3Parser.ParametersContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_typedargslist] = Python3Parser.TypedargslistContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_tfpdef] = Python3Parser.TfpdefContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_defparameter] = Python3Parser.DefparameterContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_splatparameter] = Python3Parser.SplatparameterContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_kwargsparameter] = Python3Parser.KwargsparameterContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_varargslist] = Python3Parser.VarargslistContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_vfpdef] = Python3Parser.VfpdefContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_vdefparameter] = Python3Parser.VdefparameterContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_vsplatparameter] = Python3Parser.VsplatparameterContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_vkwargsparameter] = Python3Parser.VkwargsparameterContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_stmt] = Python3Parser.StmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_simple_stmt] = Python3Parser.Simple_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_small_stmt] = Python3Parser.Small_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_expr_stmt] = Python3Parser.Expr_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_normassign] = Python3Parser.NormassignContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_annassign] = Python3Parser.AnnassignContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_testlist_star_expr] = Python3Parser.Testlist_star_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_augassign] = Python3Parser.AugassignContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_del_stmt] = Python3Parser.Del_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_pass_stmt] = Python3Parser.Pass_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_flow_stmt] = Python3Parser.Flow_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_break_stmt] = Python3Parser.Break_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_continue_stmt] = Python3Parser.Continue_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_return_stmt] = Python3Parser.Return_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_yield_stmt] = Python3Parser.Yield_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_raise_stmt] = Python3Parser.Raise_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_import_stmt] = Python3Parser.Import_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_import_name] = Python3Parser.Import_nameContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_import_from] = Python3Parser.Import_fromContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_import_as_name] = Python3Parser.Import_as_nameContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_dotted_as_name] = Python3Parser.Dotted_as_nameContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_import_as_names] = Python3Parser.Import_as_namesContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_dotted_as_names] = Python3Parser.Dotted_as_namesContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_dotted_name] = Python3Parser.Dotted_nameContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_global_stmt] = Python3Parser.Global_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_nonlocal_stmt] = Python3Parser.Nonlocal_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_assert_stmt] = Python3Parser.Assert_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_compound_stmt] = Python3Parser.Compound_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_async_stmt] = Python3Parser.Async_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_if_stmt] = Python3Parser.If_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_while_stmt] = Python3Parser.While_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_for_stmt] = Python3Parser.For_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_try_stmt] = Python3Parser.Try_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_with_stmt] = Python3Parser.With_stmtContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_with_item] = Python3Parser.With_itemContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_except_clause] = Python3Parser.Except_clauseContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_suite] = Python3Parser.SuiteContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_test] = Python3Parser.TestContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_test_nocond] = Python3Parser.Test_nocondContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_lambdef] = Python3Parser.LambdefContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_lambdef_body] = Python3Parser.Lambdef_bodyContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_lambdef_nocond] = Python3Parser.Lambdef_nocondContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_lambdef_nocond_body] = Python3Parser.Lambdef_nocond_bodyContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_or_test] = Python3Parser.Or_testContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_and_test] = Python3Parser.And_testContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_not_test] = Python3Parser.Not_testContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_comparison] = Python3Parser.ComparisonContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_comp_op] = Python3Parser.Comp_opContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_star_expr] = Python3Parser.Star_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_expr] = Python3Parser.ExprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_xor_expr] = Python3Parser.Xor_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_and_expr] = Python3Parser.And_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_shift_expr] = Python3Parser.Shift_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_arith_expr] = Python3Parser.Arith_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_term] = Python3Parser.TermContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_factor] = Python3Parser.FactorContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_power] = Python3Parser.PowerContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_atom_expr] = Python3Parser.Atom_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_atom] = Python3Parser.AtomContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_testlist_comp] = Python3Parser.Testlist_compContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_trailer] = Python3Parser.TrailerContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_subscriptlist] = Python3Parser.SubscriptlistContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_subscript] = Python3Parser.SubscriptContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_sliceop] = Python3Parser.SliceopContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_exprlist] = Python3Parser.ExprlistContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_testlist] = Python3Parser.TestlistContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_dictorsetmaker] = Python3Parser.DictorsetmakerContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_dictmaker] = Python3Parser.DictmakerContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_setmaker] = Python3Parser.SetmakerContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_classdef] = Python3Parser.ClassdefContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_arglist] = Python3Parser.ArglistContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_argument] = Python3Parser.ArgumentContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_comp_iter] = Python3Parser.Comp_iterContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_comp_for] = Python3Parser.Comp_forContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_comp_if] = Python3Parser.Comp_ifContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_encoding_decl] = Python3Parser.Encoding_declContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_yield_expr] = Python3Parser.Yield_exprContext::new;
+        CONTEXT_FACTORIES[Python3Parser.RULE_yield_arg] = Python3Parser.Yield_argContext::new;
+    }
+
+    private final TruffleFile directory;
+
+    private ParseTreeCache(TruffleFile directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns a cache for the given directory or {@code null} if caching is disabled or the
+     * directory cannot be used in {@code env}.
+     */
+    @TruffleBoundary
+    public static ParseTreeCache create(Env env, String directory) {
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        try {
+            TruffleFile file = env.getTruffleFile(directory);
+            if (!file.isDirectory()) {
+                file.createDirectories();
+            }
+            return new ParseTreeCache(file);
+        } catch (IOException | InvalidPathException | SecurityException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public ParserRuleContext load(String key, String code) {
+        TruffleFile file = directory.resolve(hexDigest(key.getBytes(StandardCharsets.UTF_8)) + SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(file.newInputStream()))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readInt() != GRAMMAR_STAMP) {
+                return null;
+            }
+            byte[] sourceHash = new byte[in.readInt()];
+            in.readFully(sourceHash);
+            if (!Arrays.equals(sourceHash, digest(code.getBytes(StandardCharsets.UTF_8)))) {
+                return null;
+            }
+            return new Reader(in).readTree();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @TruffleBoundary
+    public void store(String key, String code, ParserRuleContext tree) {
+        String name = hexDigest(key.getBytes(StandardCharsets.UTF_8));
+        TruffleFile file = directory.resolve(name + SUFFIX);
+        TruffleFile tmp = null;
+        try {
+            tmp = directory.resolve(name + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(tmp.newOutputStream(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(GRAMMAR_STAMP);
+                byte[] sourceHash = digest(code.getBytes(StandardCharsets.UTF_8));
+                out.writeInt(sourceHash.length);
+                out.write(sourceHash);
+                new Writer(out).writeTree(tree);
+            }
+            tmp.move(file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+        } catch (IOException | RuntimeException e) {
+            // ignore, the next run will just parse again
+        } finally {
+            if (tmp != null) {
+                try {
+                    tmp.delete();
+                } catch (IOException | RuntimeException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static byte[] digest(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hexDigest(byte[] data) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest(data)) {
+            sb.append(String.format("%02x", b & 0xFF));
+        }
+        return sb.toString();
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final IdentityHashMap<Token, Integer> tokenIndices = new IdentityHashMap<>();
+        private final List<Token> tokens = new ArrayList<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeTree(ParserRuleContext tree) throws IOException {
+            collectTokens(tree);
+            out.writeInt(tokens.size());
+            for (Token token : tokens) {
+                out.writeInt(token.getType());
+                out.writeInt(token.getChannel());
+                out.writeInt(token.getStartIndex());
+                out.writeInt(token.getStopIndex());
+                out.writeInt(token.getLine());
+                out.writeInt(token.getCharPositionInLine());
+                String text = token.getText();
+                out.writeBoolean(text != null);
+                if (text != null) {
+                    writeString(text);
+                }
+            }
+            writeNode(tree);
+        }
+
+        private void writeString(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private int indexOf(Token token) {
+            if (token == null) {
+                return -1;
+            }
+            Integer index = tokenIndices.get(token);
+            if (index == null) {
+                index = tokens.size();
+                tokens.add(token);
+                tokenIndices.put(token, index);
+            }
+            return index;
+        }
+
+        private void collectTokens(ParseTree node) {
+            if (node instanceof ErrorNode) {
+                throw new IllegalStateException("cannot cache trees with syntax errors");
+            } else if (node instanceof TerminalNode) {
+                indexOf(((TerminalNode) node).getSymbol());
+            } else {
+                ParserRuleContext ctx = (ParserRuleContext) node;
+                indexOf(ctx.getStart());
+                indexOf(ctx.getStop());
+                for (int i = 0; i < ctx.getChildCount(); i++) {
+                    collectTokens(ctx.getChild(i));
+                }
+            }
+        }
+
+        private void writeNode(ParseTree node) throws IOException {
+            if (node instanceof TerminalNode) {
+                out.writeByte(TERMINAL);
+                out.writeInt(tokenIndices.get(((TerminalNode) node).getSymbol()));
+            } else {
+                ParserRuleContext ctx = (ParserRuleContext) node;
+                out.writeByte(RULE);
+                out.writeInt(ctx.getRuleIndex());
+                out.writeInt(ctx.invokingState);
+                out.writeInt(indexOf(ctx.getStart()));
+                out.writeInt(indexOf(ctx.getStop()));
+                out.writeInt(ctx.getChildCount());
+                for (int i = 0; i < ctx.getChildCount(); i++) {
+                    writeNode(ctx.getChild(i));
+                }
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private Token[] tokens;
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        ParserRuleContext readTree() throws IOException {
+            int count = in.readInt();
+            tokens = new Token[count];
+            for (int i = 0; i < count; i++) {
+                CommonToken token = new CommonToken(in.readInt());
+                token.setChannel(in.readInt());
+                token.setStartIndex(in.readInt());
+                token.setStopIndex(in.readInt());
+                token.setLine(in.readInt());
+                token.setCharPositionInLine(in.readInt());
+                if (in.readBoolean()) {
+                    token.setText(readString());
+                }
+                token.setTokenIndex(i);
+                tokens[i] = token;
+            }
+            if (in.readByte() != RULE) {
+                throw new IOException("corrupt parse tree cache entry");
+            }
+            return readContext(null);
+        }
+
+        private String readString() throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private Token token(int index) {
+            return index < 0 ? null : tokens[index];
+        }
+
+        private ParserRuleContext readContext(ParserRuleContext parent) throws IOException {
+            int ruleIndex = in.readInt();
+            int invokingState = in.readInt();
+            if (ruleIndex < 0 || ruleIndex >= CONTEXT_FACTORIES.length || CONTEXT_FACTORIES[ruleIndex] == null) {
+                throw new IOException("corrupt parse tree cache entry");
+            }
+            ParserRuleContext ctx = CONTEXT_FACTORIES[ruleIndex].create(parent, invokingState);
+            ctx.start = token(in.readInt());
+            ctx.stop = token(in.readInt());
+            int childCount = in.readInt();
+            for (int i = 0; i < childCount; i++) {
+                byte kind = in.readByte();
+                if (kind == TERMINAL) {
+                    ctx.addChild(new TerminalNodeImpl(tokens[in.readInt()]));
+                } else if (kind == RULE) {
+                    ctx.addChild(readContext(ctx));
+                } else {
+                    throw new IOException("corrupt parse tree cache entry");
+                }
+            }
+            return ctx;
+        }
+    }
+}
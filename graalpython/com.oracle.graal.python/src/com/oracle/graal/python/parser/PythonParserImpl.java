@@ -27,7 +27,10 @@ package com.oracle.graal.python.parser;
 
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.SyntaxError;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -39,12 +42,17 @@ import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Token;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.nodes.PNode;
 import com.oracle.graal.python.parser.antlr.Python3Parser;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParseResult;
 import com.oracle.graal.python.runtime.PythonParser;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.nodes.Node;
@@ -54,6 +62,56 @@ import com.oracle.truffle.api.source.SourceSection;
 public final class PythonParserImpl implements PythonParser {
     private static final Map<String, ParserRuleContext> cachedParseTrees = new HashMap<>();
 
+    private ImportPrefetcher prefetcher;
+
+    private synchronized ImportPrefetcher getPrefetcher(PythonCore core) {
+        if (!core.isInitialized() || !PythonOptions.getOption(core.getContext(), PythonOptions.PrefetchImports) || !core.getContext().isIOAllowed()) {
+            return null;
+        }
+        if (prefetcher == null) {
+            prefetcher = new ImportPrefetcher();
+        }
+        return prefetcher;
+    }
+
+    private static void prefetchImports(PythonCore core, ImportPrefetcher prefetcher, ParserRuleContext input, String path) {
+        ArrayList<String> searchPath = new ArrayList<>();
+        PDict sysModules = core.getContext().getSysModules();
+        HashSet<String> importedModules = new HashSet<>();
+        for (Object key : sysModules.keys()) {
+            if (key instanceof String) {
+                importedModules.add((String) key);
+            }
+        }
+        Object sys = sysModules.getItem("sys");
+        Object sysPath = sys instanceof PythonModule ? ((PythonModule) sys).getAttribute("path") : null;
+        if (sysPath instanceof PList) {
+            SequenceStorage storage = ((PList) sysPath).getSequenceStorage();
+            for (int i = 0; i < storage.length(); i++) {
+                Object entry = storage.getItemNormalized(i);
+                if (entry instanceof String) {
+                    searchPath.add((String) entry);
+                }
+            }
+        }
+        prefetcher.prefetchImports(core.getContext().getEnv(), input, path, searchPath, new HashSet<>(Arrays.asList(core.builtinModuleNames())), importedModules);
+    }
+
+    private static ParserRuleContext parseFileInput(PythonCore core, Source source, Python3Parser parser) {
+        String path = source.getPath();
+        ParseTreeCache cache = path != null ? core.getContext().getParseTreeCache() : null;
+        if (cache == null) {
+            return parser.file_input();
+        }
+        String code = source.getCharacters().toString();
+        ParserRuleContext input = cache.load(path, code);
+        if (input == null) {
+            input = parser.file_input();
+            cache.store(path, code, input);
+        }
+        return input;
+    }
+
     @TruffleBoundary
     private static ParserRuleContext preParseWithAntlr(PythonCore core, Source source) {
         String path = source.getURI().toString();
@@ -65,7 +123,7 @@ public final class PythonParserImpl implements PythonParser {
         if (!core.isInitialized()) {
             input = cachedParseTrees.get(fileDirAndName);
             if (input == null) {
-                input = parser.file_input();
+                input = parseFileInput(core, source, parser);
                 cachedParseTrees.put(fileDirAndName, input);
             }
         } else {
@@ -73,7 +131,7 @@ public final class PythonParserImpl implements PythonParser {
                 if (source.isInteractive()) {
                     input = parser.single_input();
                 } else {
-                    input = parser.file_input();
+                    input = parseFileInput(core, source, parser);
                 }
             } catch (Throwable e) {
                 try {
@@ -150,7 +208,12 @@ public final class PythonParserImpl implements PythonParser {
     @Override
     @TruffleBoundary
     public PythonParseResult parse(PythonCore core, Source source) {
-        return translateParseResult(core, source.getName(), preParseWithAntlr(core, source), source);
+        ParserRuleContext input = preParseWithAntlr(core, source);
+        ImportPrefetcher importPrefetcher = getPrefetcher(core);
+        if (importPrefetcher != null && source.getPath() != null) {
+            prefetchImports(core, importPrefetcher, input, source.getPath());
+        }
+        return translateParseResult(core, source.getName(), input, source);
     }
 
     @Override
@@ -176,12 +239,19 @@ public final class PythonParserImpl implements PythonParser {
     @Override
     @TruffleBoundary
     public PythonParseResult parseExec(PythonCore core, String expression, String filename) {
-        Python3Parser parser = new com.oracle.graal.python.parser.antlr.Builder.Parser(expression).build();
-        ParserRuleContext input;
-        try {
-            input = parser.file_input();
-        } catch (Throwable e) {
-            throw handleParserError(core, e);
+        // module files are compiled through here by the import machinery
+        ImportPrefetcher importPrefetcher = getPrefetcher(core);
+        ParserRuleContext input = importPrefetcher != null ? importPrefetcher.take(core.getContext().getEnv(), filename, expression) : null;
+        if (input == null) {
+            Python3Parser parser = new com.oracle.graal.python.parser.antlr.Builder.Parser(expression).build();
+            try {
+                input = parser.file_input();
+            } catch (Throwable e) {
+                throw handleParserError(core, e);
+            }
+        }
+        if (importPrefetcher != null) {
+            prefetchImports(core, importPrefetcher, input, filename);
         }
         Source source = Source.newBuilder(expression).name(filename).mimeType(PythonLanguage.MIME_TYPE).build();
         return translateParseResult(core, filename, input, source);
@@ -28,7 +28,15 @@ package com.oracle.graal.python.runtime;
 import static com.oracle.graal.python.nodes.BuiltinNames.__BUILTINS__;
 import static com.oracle.graal.python.nodes.BuiltinNames.__MAIN__;
 
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.graalvm.options.OptionValues;
@@ -36,10 +44,18 @@ import org.graalvm.options.OptionValues;
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.common.HashingStorage;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.io.PBuffered;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
+import com.oracle.graal.python.builtins.objects.random.PRandom;
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.parser.ParseTreeCache;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
 
 public class PythonContext {
@@ -50,24 +66,67 @@ public class PythonContext {
 
     @CompilationFinal private TruffleLanguage.Env env;
 
-    private PException currentException;
+    private final Assumption singleThreaded;
+    private final PythonThreadState mainThreadState = new PythonThreadState();
+    private final ThreadLocal<PythonThreadState> threadState = ThreadLocal.withInitial(PythonThreadState::new);
+
+    /*
+     * The global interpreter lock. It is only used once the single threaded assumption is
+     * invalidated. Threads that cannot get it within the switch interval set gilDropRequest, which
+     * makes the holder give it up at the next loop back edge.
+     */
+    private final ReentrantLock gil = new ReentrantLock(true);
+    private volatile boolean gilDropRequest;
+    private volatile long switchIntervalNanos = TimeUnit.MILLISECONDS.toNanos(5);
+    private final AtomicInteger threadCount = new AtomicInteger();
 
     private final ReentrantLock importLock = new ReentrantLock();
     @CompilationFinal private boolean isInitialized = false;
 
     @CompilationFinal private PythonModule builtinsModule;
+    // the builtin modules of this context, which are copies of the core's with a shared core
+    private Map<String, PythonModule> builtinModules;
     @CompilationFinal private PDict sysModules;
+    // only used with a shared core, which keeps the exception classes of the template
+    @CompilationFinal(dimensions = 1) private PythonClass[] errorClasses;
 
     private OutputStream out;
     private OutputStream err;
     @CompilationFinal private boolean capiWasLoaded = false;
 
     @CompilationFinal private HashingStorage.Equivalence slowPathEquivalence;
+    @CompilationFinal private boolean metricsEnabled;
+    @CompilationFinal private int maxTracebackDepth;
+
+    /*
+     * Buffered files that write straight to a file channel. Their pending data is flushed when the
+     * context is disposed, since there is no finalizer that would do it.
+     */
+    private final Set<PBuffered> channelBuffers = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /*
+     * The generator behind the module level functions of random, created on first use.
+     */
+    private PRandom random;
+
+    /*
+     * The on-disk parse tree cache, created through the files of this context for the directory
+     * it was last requested for.
+     */
+    private ParseTreeCache parseTreeCache;
+    private String parseTreeCacheDirectory;
+
+    /*
+     * Whether the environment lets this context access files, probed on first use.
+     */
+    private volatile Boolean ioAllowed;
 
     public PythonContext(PythonLanguage language, TruffleLanguage.Env env, PythonCore core) {
         this.language = language;
         this.core = core;
         this.env = env;
+        this.singleThreaded = Truffle.getRuntime().createAssumption("single threaded context");
+        this.maxTracebackDepth = readMaxTracebackDepth(env);
         if (env == null) {
             this.out = System.out;
             this.err = System.err;
@@ -101,6 +160,23 @@ public class PythonContext {
         return builtinsModule;
     }
 
+    public void setBuiltinModules(Map<String, PythonModule> builtinModules) {
+        this.builtinModules = builtinModules;
+    }
+
+    /**
+     * Like {@link PythonCore#lookupBuiltinModule}, but returns this context's instance of the
+     * module, which is not the core's own if the core is shared.
+     */
+    @TruffleBoundary
+    public PythonModule lookupBuiltinModule(String name) {
+        if (builtinModules == null) {
+            // still bootstrapping the core
+            return core.lookupBuiltinModule(name);
+        }
+        return builtinModules.get(name);
+    }
+
     public PythonModule createMainModule(String path) {
         mainModule = core.factory().createPythonModule(__MAIN__, path);
         mainModule.setAttribute(__BUILTINS__, sysModules.getItem("builtins"));
@@ -115,6 +191,37 @@ public class PythonContext {
     public void setEnv(TruffleLanguage.Env newEnv) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         env = newEnv;
+        ioAllowed = null;
+        maxTracebackDepth = readMaxTracebackDepth(newEnv);
+    }
+
+    private static int readMaxTracebackDepth(TruffleLanguage.Env env) {
+        if (env == null) {
+            return PythonOptions.MaxTracebackDepth.getDefaultValue();
+        }
+        return env.getOptions().get(PythonOptions.MaxTracebackDepth);
+    }
+
+    /**
+     * The number of frames captured for the traceback of an exception, read from the options once.
+     */
+    public int getMaxTracebackDepth() {
+        return maxTracebackDepth;
+    }
+
+    @TruffleBoundary
+    public boolean isIOAllowed() {
+        Boolean allowed = ioAllowed;
+        if (allowed == null) {
+            try {
+                env.getTruffleFile(".").exists();
+                allowed = true;
+            } catch (SecurityException e) {
+                allowed = false;
+            }
+            ioAllowed = allowed;
+        }
+        return allowed;
     }
 
     public PythonModule getMainModule() {
@@ -150,11 +257,148 @@ public class PythonContext {
     }
 
     public void setCurrentException(PException e) {
-        currentException = e;
+        getThreadState().setCurrentException(e);
     }
 
     public PException getCurrentException() {
-        return currentException;
+        return getThreadState().getCurrentException();
+    }
+
+    public PythonThreadState getThreadState() {
+        if (singleThreaded.isValid()) {
+            return mainThreadState;
+        }
+        return getThreadStateSlowPath();
+    }
+
+    @TruffleBoundary
+    private PythonThreadState getThreadStateSlowPath() {
+        return threadState.get();
+    }
+
+    /**
+     * Valid as long as no Python code in this context has started another thread.
+     */
+    public Assumption getSingleThreadedAssumption() {
+        return singleThreaded;
+    }
+
+    /**
+     * The number of threads started by {@code _thread.start_new_thread} that are still running.
+     */
+    public AtomicInteger getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Switches to multi-threaded execution before the current thread starts another one. From then
+     * on, Python code only runs while holding the global interpreter lock, which keeps mutations of
+     * sequence and hashing storages atomic with respect to other threads.
+     */
+    @TruffleBoundary
+    public void enterMultiThreaded() {
+        if (singleThreaded.isValid()) {
+            threadState.set(mainThreadState);
+            singleThreaded.invalidate();
+            language.getSingleThreadedAssumption().invalidate();
+        }
+        if (!gil.isHeldByCurrentThread()) {
+            acquireGil();
+        }
+    }
+
+    @TruffleBoundary
+    public void acquireGil() {
+        if (singleThreaded.isValid()) {
+            return;
+        }
+        // the timed tryLock respects the fairness of the lock, so a yielding thread queues up
+        // behind the threads already waiting
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (gil.tryLock(switchIntervalNanos, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+                continue;
+            }
+            gilDropRequest = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gives up the global interpreter lock entirely, e.g. around a blocking operation.
+     *
+     * @return the number of holds to pass to {@link #reacquireGil(int)}
+     */
+    @TruffleBoundary
+    public int releaseGil() {
+        int holds = gil.getHoldCount();
+        for (int i = 0; i < holds; i++) {
+            gil.unlock();
+        }
+        return holds;
+    }
+
+    /**
+     * The number of holds the current thread has on the global interpreter lock, to pass to
+     * {@link #releaseGilTo(int)} when leaving a call that may be nested in another one.
+     */
+    @TruffleBoundary
+    public int getGilHoldCount() {
+        return gil.getHoldCount();
+    }
+
+    /**
+     * Gives up the holds on the global interpreter lock that the current thread took since it had
+     * {@code holds} of them, leaving the holds of enclosing calls in place.
+     */
+    @TruffleBoundary
+    public void releaseGilTo(int holds) {
+        for (int i = gil.getHoldCount(); i > holds; i--) {
+            gil.unlock();
+        }
+    }
+
+    @TruffleBoundary
+    public void reacquireGil(int holds) {
+        if (holds > 0) {
+            acquireGil();
+            for (int i = 1; i < holds; i++) {
+                gil.lock();
+            }
+        }
+    }
+
+    /**
+     * Checked at loop back edges: if another thread asked for the global interpreter lock, hand it
+     * over and queue up behind it.
+     */
+    public void checkGilDropRequest() {
+        if (!singleThreaded.isValid() && gilDropRequest) {
+            yieldGil();
+        }
+    }
+
+    @TruffleBoundary
+    private void yieldGil() {
+        gilDropRequest = false;
+        int holds = releaseGil();
+        Thread.yield();
+        reacquireGil(holds);
+    }
+
+    public double getSwitchInterval() {
+        return switchIntervalNanos / 1e9;
+    }
+
+    public void setSwitchInterval(double seconds) {
+        switchIntervalNanos = (long) (seconds * 1e9);
     }
 
     public boolean isInitialized() {
@@ -173,6 +417,14 @@ public class PythonContext {
         isInitialized = true;
     }
 
+    public PythonClass getErrorClass(PythonErrorType type) {
+        return errorClasses[type.ordinal()];
+    }
+
+    public void setErrorClasses(PythonClass[] errorClasses) {
+        this.errorClasses = errorClasses;
+    }
+
     public boolean capiWasLoaded() {
         return this.capiWasLoaded;
     }
@@ -188,4 +440,53 @@ public class PythonContext {
         }
         return slowPathEquivalence;
     }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled() {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        metricsEnabled = true;
+    }
+
+    public PRandom getRandom() {
+        return random;
+    }
+
+    public void setRandom(PRandom random) {
+        this.random = random;
+    }
+
+    @TruffleBoundary
+    public synchronized ParseTreeCache getParseTreeCache() {
+        String directory = PythonOptions.getOption(this, PythonOptions.ParseTreeCacheDirectory);
+        if (!directory.equals(parseTreeCacheDirectory)) {
+            parseTreeCache = isIOAllowed() ? ParseTreeCache.create(env, directory) : null;
+            parseTreeCacheDirectory = directory;
+        }
+        return parseTreeCache;
+    }
+
+    @TruffleBoundary
+    public void registerBuffer(PBuffered buffered) {
+        channelBuffers.add(buffered);
+    }
+
+    @TruffleBoundary
+    public void flushBuffers() {
+        ArrayList<PBuffered> buffers;
+        synchronized (channelBuffers) {
+            buffers = new ArrayList<>(channelBuffers);
+        }
+        for (PBuffered buffered : buffers) {
+            try {
+                if (buffered.getChannel() != null && !buffered.isChannelClosed()) {
+                    buffered.flushToChannel();
+                }
+            } catch (IOException e) {
+                // the file is gone, there is nobody left to report this to
+            }
+        }
+    }
 }
@@ -73,6 +73,12 @@ public interface PythonCore {
 
     public PythonModule lookupBuiltinModule(String name);
 
+    /**
+     * Like {@link #lookupBuiltinModule}, but also runs the core file of a lazily loaded module if
+     * that has not happened yet.
+     */
+    public PythonModule importBuiltinModule(String name);
+
     public PythonBuiltinClass lookupType(PythonBuiltinClassType type);
 
     public PythonBuiltinClass lookupType(Class<? extends Object> clazz);
@@ -45,7 +45,8 @@ public final class PythonOptions {
     @Option(category = OptionCategory.DEBUG, help = "Print the java stacktrace if enabled") //
     public static final OptionKey<Boolean> WithJavaStacktrace = new OptionKey<>(false);
 
-    @Option(category = OptionCategory.DEBUG, help = "Share the core library between all contexts of an engine.") //
+    @Option(category = OptionCategory.EXPERT, help = "Initialize the core library once per engine and give every context a copy of its modules, " +
+                    "which makes creating further contexts on the same engine cheap.") //
     public static final OptionKey<Boolean> SharedCore = new OptionKey<>(false);
 
     @Option(category = OptionCategory.DEBUG, help = "") //
@@ -90,6 +91,19 @@ public final class PythonOptions {
     @Option(category = OptionCategory.USER, help = "Set the location of lib-python/3. Overrides any environment variables or Java options.") //
     public static final OptionKey<String> StdLibHome = new OptionKey<>("");
 
+    @Option(category = OptionCategory.EXPERT, help = "Directory in which parse trees of module files are cached across runs. Caching is disabled if this is empty.") //
+    public static final OptionKey<String> ParseTreeCacheDirectory = new OptionKey<>("");
+
+    @Option(category = OptionCategory.EXPERT, help = "Parse the modules a module imports on background threads while it is being translated and executed.") //
+    public static final OptionKey<Boolean> PrefetchImports = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, help = "Count storage generalizations and inline cache overflows by source location. " +
+                    "The counts are available from __graalpython__.metrics() and over JMX.") //
+    public static final OptionKey<Boolean> Metrics = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, help = "Maximum number of frames captured for the traceback of an exception.") //
+    public static final OptionKey<Integer> MaxTracebackDepth = new OptionKey<>(20);
+
     @Option(category = OptionCategory.EXPERT, help = "This option is set by the Python launcher to tell the language it can print exceptions directly") //
     public static final OptionKey<Boolean> AlwaysRunExcepthook = new OptionKey<>(false);
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import com.oracle.graal.python.builtins.objects.thread.PLock;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.TracebackProfile;
+
+/**
+ * The part of the interpreter state that is local to a single Java thread executing Python code.
+ */
+public final class PythonThreadState {
+    private PException currentException;
+
+    /*
+     * The lock returned by _thread._set_sentinel, released when the thread finishes.
+     */
+    private PLock sentinelLock;
+
+    /*
+     * The profile of the innermost try statement that is currently executing its body, if it
+     * catches exceptions without capturing their stack.
+     */
+    private TracebackProfile tracebackProfile;
+
+    public PException getCurrentException() {
+        return currentException;
+    }
+
+    public void setCurrentException(PException currentException) {
+        this.currentException = currentException;
+    }
+
+    public PLock getSentinelLock() {
+        return sentinelLock;
+    }
+
+    public void setSentinelLock(PLock sentinelLock) {
+        this.sentinelLock = sentinelLock;
+    }
+
+    public TracebackProfile getTracebackProfile() {
+        return tracebackProfile;
+    }
+
+    public void setTracebackProfile(TracebackProfile tracebackProfile) {
+        this.tracebackProfile = tracebackProfile;
+    }
+}
@@ -38,9 +38,13 @@
  */
 package com.oracle.graal.python.runtime.exception;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.exception.PBaseException;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleException;
 import com.oracle.truffle.api.TruffleStackTraceElement;
 import com.oracle.truffle.api.nodes.Node;
@@ -52,17 +56,37 @@ public final class PException extends RuntimeException implements TruffleExcepti
     private String message = null;
     private boolean isIncompleteSource;
     private boolean exit;
-    private final PBaseException pythonException;
+    private PBaseException pythonException;
+    // set while the exception object has not been created yet, see #createLazy
+    private PythonClass lazyType;
+    private PythonCore lazyCore;
+    // set if the exception was raised without capturing the stack, see TracebackProfile
+    private TracebackProfile tracebackProfile;
 
     public PException(PBaseException actual, Node node) {
         this.pythonException = actual;
         this.location = node;
     }
 
+    private PException(PythonClass type, PythonCore core, Node node) {
+        this.lazyType = type;
+        this.lazyCore = core;
+        this.location = node;
+    }
+
+    /**
+     * Creates an exception of class {@code type} without arguments whose Python exception object
+     * is only allocated if something asks for it. This is used for {@code StopIteration}, which is
+     * raised at the end of every iteration but almost always only checked by type.
+     */
+    public static PException createLazy(PythonClass type, PythonCore core, Node node) {
+        return new PException(type, core, node);
+    }
+
     @Override
     public String getMessage() {
         if (message == null) {
-            message = pythonException.toString();
+            message = getExceptionObject().toString();
         }
         return message;
     }
@@ -72,6 +96,9 @@ public final class PException extends RuntimeException implements TruffleExcepti
     }
 
     public PythonClass getType() {
+        if (pythonException == null) {
+            return lazyType;
+        }
         return pythonException.getPythonClass();
     }
 
@@ -98,9 +125,20 @@ public final class PException extends RuntimeException implements TruffleExcepti
 
     @Override
     public PBaseException getExceptionObject() {
+        if (pythonException == null) {
+            materialize();
+        }
         return pythonException;
     }
 
+    @TruffleBoundary
+    private void materialize() {
+        pythonException = lazyCore.factory().createBaseException(lazyType);
+        pythonException.setException(this);
+        lazyType = null;
+        lazyCore = null;
+    }
+
     @Override
     public boolean isInternalError() {
         return false;
@@ -108,7 +146,35 @@ public final class PException extends RuntimeException implements TruffleExcepti
 
     @Override
     public int getStackTraceElementLimit() {
-        return 20;
+        if (tracebackProfile != null) {
+            return 0;
+        }
+        PythonContext context = PythonLanguage.getContext();
+        if (context == null) {
+            return PythonOptions.MaxTracebackDepth.getDefaultValue();
+        }
+        return context.getMaxTracebackDepth();
+    }
+
+    /**
+     * Raises this exception without capturing the stack if {@code profile} (the profile of the try
+     * statement that is expected to catch it) allows it.
+     */
+    public void skipTraceback(TracebackProfile profile) {
+        if (profile.skipsTraceback(getType())) {
+            tracebackProfile = profile;
+        }
+    }
+
+    /**
+     * Must be called when the traceback of this exception might be observed. If the stack was not
+     * captured, the traceback is empty and the try statement that suppressed it stops doing so.
+     */
+    public void tracebackObserved() {
+        if (tracebackProfile != null) {
+            tracebackProfile.tracebackObserved();
+            tracebackProfile = null;
+        }
     }
 
     @Override
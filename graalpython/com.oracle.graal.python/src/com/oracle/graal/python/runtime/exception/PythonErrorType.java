@@ -32,6 +32,7 @@ public enum PythonErrorType {
     BaseException,
     BytesWarning,
     DeprecationWarning,
+    EOFError,
     Exception,
     FloatingPointError,
     IOError,
@@ -56,6 +57,7 @@ public enum PythonErrorType {
     SystemExit,
     TypeError,
     UnboundLocalError,
+    UnicodeDecodeError,
     UnicodeEncodeError,
     UnicodeError,
     UnicodeWarning,
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.exception;
+
+import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
+
+/**
+ * Profiles a try statement whose handlers do not look at the traceback of what they catch. Once
+ * the statement has caught an exception, further exceptions of that class raised while its body
+ * runs are created without capturing the stack. If the traceback of such an exception is needed
+ * after all, the profile is given up and later exceptions capture the stack again.
+ */
+public final class TracebackProfile {
+    private static final Assumption noneActivated = Truffle.getRuntime().createAssumption("no traceback profile activated");
+
+    private final Assumption unobserved = Truffle.getRuntime().createAssumption("traceback not observed");
+    @CompilationFinal private PythonClass caughtClass;
+
+    /**
+     * Whether any try statement has started to drop stacks. Until then, try statements that may
+     * look at tracebacks need not hide the profile of an enclosing statement.
+     */
+    public static boolean isAnyActive() {
+        return !noneActivated.isValid();
+    }
+
+    public boolean isActive() {
+        return unobserved.isValid() && caughtClass != null;
+    }
+
+    public boolean skipsTraceback(PythonClass type) {
+        return type == caughtClass && unobserved.isValid();
+    }
+
+    public void caught(PythonClass type) {
+        if (type != caughtClass && unobserved.isValid()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            if (caughtClass == null) {
+                caughtClass = type;
+                noneActivated.invalidate();
+            } else {
+                // more than one class is caught, do not bother
+                unobserved.invalidate();
+            }
+        }
+    }
+
+    public void tracebackObserved() {
+        unobserved.invalidate();
+    }
+}
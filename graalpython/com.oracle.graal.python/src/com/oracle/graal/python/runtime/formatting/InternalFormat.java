@@ -10,11 +10,14 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.Overflow
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
+import java.math.BigInteger;
+
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.nodes.truffle.PythonTypesUtil;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 //Copyright (c) Jython Developers
 
@@ -53,6 +56,133 @@ public class InternalFormat {
         }
     }
 
+    /**
+     * Format an integer into <code>result</code> as <code>int.__format__</code> would, applying the
+     * numeric defaults and the validation CPython performs for integer specifications. The float
+     * presentation types convert the value to a float first.
+     *
+     * @param result destination buffer
+     * @param spec parsed (but not defaulted) specification
+     * @param value to format
+     */
+    @TruffleBoundary
+    public static void formatInteger(PythonCore core, StringBuilder result, Spec spec, int value) {
+        if (isFloatType(spec.type)) {
+            formatFloat(core, result, spec, value);
+        } else {
+            IntegerFormatter f = integerFormatter(core, result, spec);
+            f.format(value);
+            f.pad();
+        }
+    }
+
+    @TruffleBoundary
+    public static void formatInteger(PythonCore core, StringBuilder result, Spec spec, long value) {
+        if (value == (int) value) {
+            formatInteger(core, result, spec, (int) value);
+        } else {
+            formatInteger(core, result, spec, BigInteger.valueOf(value));
+        }
+    }
+
+    @TruffleBoundary
+    public static void formatInteger(PythonCore core, StringBuilder result, Spec spec, BigInteger value) {
+        if (isFloatType(spec.type)) {
+            formatFloat(core, result, spec, value.doubleValue());
+        } else {
+            IntegerFormatter f = integerFormatter(core, result, spec);
+            f.format(value);
+            f.pad();
+        }
+    }
+
+    private static boolean isFloatType(char type) {
+        return "eEfFgG%".indexOf(type) >= 0;
+    }
+
+    private static IntegerFormatter integerFormatter(PythonCore core, StringBuilder result, Spec spec) {
+        IntegerFormatter f = new IntegerFormatter(core, result, spec.withDefaults(Spec.NUMERIC));
+        switch (spec.type) {
+            case 'c':
+                if (Spec.specified(spec.sign)) {
+                    throw f.signNotAllowed("integer", 'c');
+                } else if (spec.alternate) {
+                    throw f.alternateFormNotAllowed("integer", 'c');
+                }
+                // fall through
+            case 'd':
+            case 'x':
+            case 'X':
+            case 'o':
+            case 'b':
+            case 'n':
+            case Spec.NONE:
+                if (Spec.specified(spec.precision)) {
+                    throw f.precisionNotAllowed("integer");
+                }
+                return f;
+            default:
+                throw f.unknownFormat(spec.type, "int");
+        }
+    }
+
+    /**
+     * Format a float into <code>result</code> as <code>float.__format__</code> would. A
+     * specification without type and precision behaves like <code>repr</code>, as in CPython.
+     *
+     * @param result destination buffer
+     * @param spec parsed (but not defaulted) specification
+     * @param value to format
+     */
+    @TruffleBoundary
+    public static void formatFloat(PythonCore core, StringBuilder result, Spec spec, double value) {
+        Spec s = spec.withDefaults(Spec.NUMERIC);
+        switch (spec.type) {
+            case Spec.NONE:
+                if (!Spec.specified(spec.precision)) {
+                    s = new Spec(s.fill, s.align, s.sign, s.alternate, s.width, s.grouping, s.precision, 'r');
+                }
+                break;
+            case 'e':
+            case 'E':
+            case 'f':
+            case 'F':
+            case 'g':
+            case 'G':
+            case 'n':
+            case '%':
+                break;
+            default:
+                throw new FloatFormatter(core, result, s).unknownFormat(spec.type, "float");
+        }
+        FloatFormatter f = new FloatFormatter(core, result, s);
+        f.format(value);
+        f.pad();
+    }
+
+    /**
+     * Format a string into <code>result</code> as <code>str.__format__</code> would.
+     *
+     * @param result destination buffer
+     * @param spec parsed (but not defaulted) specification
+     * @param value to format
+     */
+    @TruffleBoundary
+    public static void formatText(PythonCore core, StringBuilder result, Spec spec, String value) {
+        TextFormatter f = new TextFormatter(core, result, spec.withDefaults(Spec.STRING));
+        if (spec.type != Spec.NONE && spec.type != 's') {
+            throw f.unknownFormat(spec.type, "str");
+        } else if (Spec.specified(spec.sign)) {
+            throw f.signNotAllowed("string", '\0');
+        } else if (spec.alternate) {
+            throw f.alternateFormNotAllowed("string");
+        } else if (spec.align == '=') {
+            throw f.alignmentNotAllowed('=', "string");
+        }
+        f.format(value);
+        f.pad();
+    }
+
     /**
      * A class that provides the base for implementations of type-specific formatting. In a limited
      * way, it acts like a StringBuilder to which text and one or more numbers may be appended,
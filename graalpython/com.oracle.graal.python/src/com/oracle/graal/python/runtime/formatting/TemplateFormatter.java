@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.formatting;
+
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.IndexError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.KeyError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeError;
+import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.graal.python.builtins.objects.floats.PFloat;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.nodes.attributes.GetAttributeNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
+import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
+import com.oracle.graal.python.runtime.JavaTypeConversions;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.formatting.InternalFormat.Spec;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+/**
+ * A <code>str.format</code> template, parsed once into literal chunks and replacement fields so
+ * that repeated formatting with the same template only resolves and renders the fields. Values of
+ * the builtin <code>int</code>, <code>float</code> and <code>str</code> types are rendered directly
+ * with {@link IntegerFormatter}, {@link FloatFormatter} and {@link TextFormatter}; everything else
+ * goes through its <code>__format__</code> method.
+ * <p>
+ * A template cached at a call site is a compilation constant there, so {@link #format} unrolls the
+ * loop over its fields and the lookup and <code>__format__</code> nodes it is given are compiled
+ * into the caller. Only the string building and the rendering of builtin values are behind
+ * boundaries.
+ */
+public final class TemplateFormatter {
+    private static final int MAX_RECURSION = 2;
+
+    /** The literal text before each field; the last element is the text after the last field. */
+    @CompilationFinal(dimensions = 1) private final String[] literals;
+    @CompilationFinal(dimensions = 1) private final Field[] fields;
+    /** The capacity to reserve for a result, adjusted to the largest result seen so far. */
+    private int sizeHint;
+
+    private TemplateFormatter(String[] literals, Field[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.sizeHint = literalLength + 8 * fields.length;
+    }
+
+    private static final class Field {
+        /** The positional argument index, or -1 if the field names a keyword argument. */
+        final int index;
+        final String keyword;
+        /** Attribute names and item keys to apply to the argument, in order. */
+        @CompilationFinal(dimensions = 1) final Object[] lookups;
+        @CompilationFinal(dimensions = 1) final boolean[] isAttribute;
+        /** One of <code>'r'</code>, <code>'s'</code>, <code>'a'</code>, or 0 for none. */
+        final char conversion;
+        final String spec;
+        /** The parsed template if the spec contains nested fields, otherwise <code>null</code>. */
+        final TemplateFormatter nestedSpec;
+        private Spec parsedSpec;
+
+        Field(int index, String keyword, Object[] lookups, boolean[] isAttribute, char conversion, String spec, TemplateFormatter nestedSpec) {
+            this.index = index;
+            this.keyword = keyword;
+            this.lookups = lookups;
+            this.isAttribute = isAttribute;
+            this.conversion = conversion;
+            this.spec = spec;
+            this.nestedSpec = nestedSpec;
+        }
+
+        @TruffleBoundary
+        Spec getSpec(PythonCore core) {
+            if (parsedSpec == null) {
+                parsedSpec = InternalFormat.fromText(core, spec);
+            }
+            return parsedSpec;
+        }
+    }
+
+    /**
+     * Parse a <code>str.format</code> template. All errors that depend only on the template, such
+     * as unbalanced braces or mixing automatic and manual field numbering, are raised here.
+     */
+    @TruffleBoundary
+    public static TemplateFormatter parse(PythonCore core, String template) {
+        return new Parser(core, template).parse(0, template.length(), MAX_RECURSION);
+    }
+
+    private static final class Parser {
+        private final PythonCore core;
+        private final String template;
+        private int autoIndex;
+        private boolean auto;
+        private boolean manual;
+
+        Parser(PythonCore core, String template) {
+            this.core = core;
+            this.template = template;
+        }
+
+        TemplateFormatter parse(int start, int end, int level) {
+            if (level == 0) {
+                throw core.raise(ValueError, "Max string recursion exceeded");
+            }
+            String s = template;
+            List<String> literals = new ArrayList<>();
+            List<Field> fields = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int i = start;
+            while (i < end) {
+                char c = s.charAt(i++);
+                if (c == '}') {
+                    if (i == end || s.charAt(i) != '}') {
+                        throw core.raise(ValueError, "Single '}' encountered in format string");
+                    }
+                    literal.append('}');
+                    i++;
+                } else if (c != '{') {
+                    literal.append(c);
+                } else if (i == end) {
+                    throw core.raise(ValueError, "Single '{' encountered in format string");
+                } else if (s.charAt(i) == '{') {
+                    literal.append('{');
+                    i++;
+                } else {
+                    int fieldStart = i;
+                    int nested = 1;
+                    boolean recursive = false;
+                    while (i < end) {
+                        c = s.charAt(i);
+                        if (c == '{') {
+                            recursive = true;
+                            nested++;
+                        } else if (c == '}') {
+                            if (--nested == 0) {
+                                break;
+                            }
+                        } else if (c == '[') {
+                            i++;
+                            while (i < end && s.charAt(i) != ']') {
+                                i++;
+                            }
+                            continue;
+                        }
+                        i++;
+                    }
+                    if (nested > 0) {
+                        throw core.raise(ValueError, "expected '}' before end of string");
+                    }
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    fields.add(parseField(fieldStart, i, recursive, level));
+                    i++;
+                }
+            }
+            literals.add(literal.toString());
+            return new TemplateFormatter(literals.toArray(new String[literals.size()]), fields.toArray(new Field[fields.size()]));
+        }
+
+        private Field parseField(int start, int end, boolean recursive, int level) {
+            String s = template;
+            int nameEnd = end;
+            int specStart = end;
+            char conversion = 0;
+            for (int i = start; i < end; i++) {
+                char c = s.charAt(i);
+                if (c == '[') {
+                    while (i + 1 < end && s.charAt(i + 1) != ']') {
+                        i++;
+                    }
+                } else if (c == '{') {
+                    throw core.raise(ValueError, "unexpected '{' in field name");
+                } else if (c == ':' || c == '!') {
+                    nameEnd = i;
+                    specStart = i + 1;
+                    if (c == '!') {
+                        if (specStart == end) {
+                            throw core.raise(ValueError, "end of string while looking for conversion specifier");
+                        }
+                        conversion = s.charAt(specStart++);
+                        if (conversion != 'r' && conversion != 's' && conversion != 'a') {
+                            throw core.raise(ValueError, "Unknown conversion specifier %s", conversion);
+                        }
+                        if (specStart < end) {
+                            if (s.charAt(specStart) != ':') {
+                                throw core.raise(ValueError, "expected ':' after conversion specifier");
+                            }
+                            specStart++;
+                        }
+                    }
+                    break;
+                }
+            }
+
+            // the argument itself: auto-numbered, an index, or a keyword
+            int i = start;
+            while (i < nameEnd && s.charAt(i) != '.' && s.charAt(i) != '[') {
+                i++;
+            }
+            String first = s.substring(start, i);
+            int index = -1;
+            String keyword = null;
+            if (first.isEmpty()) {
+                if (manual) {
+                    throw core.raise(ValueError, "cannot switch from manual field specification to automatic field numbering");
+                }
+                auto = true;
+                index = autoIndex++;
+            } else if (isDecimal(first)) {
+                if (auto) {
+                    throw core.raise(ValueError, "cannot switch from automatic field numbering to manual field specification");
+                }
+                manual = true;
+                try {
+                    index = Integer.parseInt(first);
+                } catch (NumberFormatException e) {
+                    throw core.raise(ValueError, "Too many decimal digits in format string");
+                }
+            } else {
+                keyword = first;
+            }
+
+            // the chain of attribute and item lookups
+            List<Object> lookups = new ArrayList<>();
+            List<Boolean> isAttribute = new ArrayList<>();
+            while (i < nameEnd) {
+                char c = s.charAt(i++);
+                int lookupStart = i;
+                if (c == '.') {
+                    while (i < nameEnd && s.charAt(i) != '.' && s.charAt(i) != '[') {
+                        i++;
+                    }
+                    if (lookupStart == i) {
+                        throw core.raise(ValueError, "Empty attribute in format string");
+                    }
+                    lookups.add(s.substring(lookupStart, i));
+                    isAttribute.add(true);
+                } else if (c == '[') {
+                    while (i < nameEnd && s.charAt(i) != ']') {
+                        i++;
+                    }
+                    if (i == nameEnd) {
+                        throw core.raise(ValueError, "Missing ']' in format string");
+                    }
+                    String key = s.substring(lookupStart, i++);
+                    if (isDecimal(key)) {
+                        try {
+                            lookups.add(Integer.parseInt(key));
+                        } catch (NumberFormatException e) {
+                            lookups.add(key);
+                        }
+                    } else {
+                        lookups.add(key);
+                    }
+                    isAttribute.add(false);
+                } else {
+                    throw core.raise(ValueError, "Only '.' or '[' may follow ']' in format field specifier");
+                }
+            }
+            boolean[] attributeFlags = new boolean[isAttribute.size()];
+            for (int k = 0; k < attributeFlags.length; k++) {
+                attributeFlags[k] = isAttribute.get(k);
+            }
+
+            // nested fields in the spec are numbered after the argument they belong to
+            TemplateFormatter nestedSpec = recursive ? parse(specStart, end, level - 1) : null;
+            return new Field(index, keyword, lookups.toArray(), attributeFlags, conversion, s.substring(specStart, end), nestedSpec);
+        }
+
+        private static boolean isDecimal(String s) {
+            if (s.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                if (!Character.isDigit(s.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Render this template with the given arguments. Callers that do not hold on to the template
+     * must call this behind a boundary.
+     */
+    public String format(PythonCore core, Object[] args, PKeyword[] keywords, LookupAndCallBinaryNode formatNode, LookupAndCallUnaryNode strNode, LookupAndCallUnaryNode reprNode,
+                    GetAttributeNode getAttributeNode, LookupAndCallBinaryNode getItemNode) {
+        StringBuilder result = new StringBuilder(sizeHint);
+        render(core, result, args, keywords, formatNode, strNode, reprNode, getAttributeNode, getItemNode);
+        return finish(result);
+    }
+
+    @TruffleBoundary
+    private String finish(StringBuilder result) {
+        if (result.length() > sizeHint) {
+            sizeHint = result.length();
+        }
+        return result.toString();
+    }
+
+    @ExplodeLoop
+    private void render(PythonCore core, StringBuilder result, Object[] args, PKeyword[] keywords, LookupAndCallBinaryNode formatNode, LookupAndCallUnaryNode strNode,
+                    LookupAndCallUnaryNode reprNode, GetAttributeNode getAttributeNode, LookupAndCallBinaryNode getItemNode) {
+        for (int i = 0; i < fields.length; i++) {
+            append(result, literals[i]);
+            Field field = fields[i];
+            Object value;
+            if (field.index >= 0) {
+                if (field.index >= args.length) {
+                    throw core.raise(IndexError, "tuple index out of range");
+                }
+                value = args[field.index];
+            } else {
+                value = getKeyword(core, keywords, field.keyword);
+            }
+            for (int k = 0; k < field.lookups.length; k++) {
+                if (field.isAttribute[k]) {
+                    value = getAttributeNode.execute(value, field.lookups[k]);
+                } else {
+                    value = getItemNode.executeObject(value, field.lookups[k]);
+                }
+            }
+            switch (field.conversion) {
+                case 'r':
+                    value = reprNode.executeObject(value);
+                    break;
+                case 's':
+                    value = strNode.executeObject(value);
+                    break;
+                case 'a':
+                    value = ascii(reprNode.executeObject(value));
+                    break;
+            }
+            if (field.nestedSpec == null) {
+                formatField(core, result, value, field.spec, field, formatNode);
+            } else {
+                StringBuilder spec = new StringBuilder();
+                field.nestedSpec.render(core, spec, args, keywords, formatNode, strNode, reprNode, getAttributeNode, getItemNode);
+                formatField(core, result, value, toString(spec), null, formatNode);
+            }
+        }
+        append(result, literals[fields.length]);
+    }
+
+    @TruffleBoundary
+    private static void append(StringBuilder result, String s) {
+        result.append(s);
+    }
+
+    @TruffleBoundary
+    private static String toString(Object value) {
+        return value.toString();
+    }
+
+    @TruffleBoundary
+    private static Object getKeyword(PythonCore core, PKeyword[] keywords, String name) {
+        for (PKeyword keyword : keywords) {
+            if (keyword.getName().equals(name)) {
+                return keyword.getValue();
+            }
+        }
+        throw core.raise(KeyError, "'%s'", name);
+    }
+
+    private static void formatField(PythonCore core, StringBuilder result, Object value, String spec, Field field, LookupAndCallBinaryNode formatNode) {
+        if (isPrimitive(value) || (!spec.isEmpty() && isBuiltinValue(value))) {
+            formatBuiltinValue(core, result, value, spec, field);
+            return;
+        }
+        Object formatted = formatNode.executeObject(value, spec);
+        if (formatted instanceof String || formatted instanceof PString) {
+            append(result, toString(formatted));
+        } else {
+            throw core.raise(TypeError, "__format__ must return a str, not %p", formatted);
+        }
+    }
+
+    private static boolean isPrimitive(Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof Boolean;
+    }
+
+    @TruffleBoundary
+    private static void formatBuiltinValue(PythonCore core, StringBuilder result, Object value, String spec, Field field) {
+        if (spec.isEmpty()) {
+            // an empty spec means str(value) for all builtin types
+            if (value instanceof Double) {
+                result.append(JavaTypeConversions.doubleToString((double) value));
+            } else if (value instanceof Boolean) {
+                result.append((boolean) value ? "True" : "False");
+            } else {
+                result.append(value);
+            }
+            return;
+        }
+        Spec parsed = field != null ? field.getSpec(core) : InternalFormat.fromText(core, spec);
+        if (value instanceof String) {
+            InternalFormat.formatText(core, result, parsed, (String) value);
+        } else if (value instanceof Integer) {
+            InternalFormat.formatInteger(core, result, parsed, (int) value);
+        } else if (value instanceof Long) {
+            InternalFormat.formatInteger(core, result, parsed, (long) value);
+        } else if (value instanceof Double) {
+            InternalFormat.formatFloat(core, result, parsed, (double) value);
+        } else if (value instanceof Boolean) {
+            InternalFormat.formatInteger(core, result, parsed, (boolean) value ? 1 : 0);
+        } else if (value instanceof PInt) {
+            InternalFormat.formatInteger(core, result, parsed, ((PInt) value).getValue());
+        } else if (value instanceof PFloat) {
+            InternalFormat.formatFloat(core, result, parsed, ((PFloat) value).getValue());
+        } else {
+            InternalFormat.formatText(core, result, parsed, ((PString) value).getValue());
+        }
+    }
+
+    private static boolean isBuiltinValue(Object value) {
+        return (value instanceof PInt || value instanceof PFloat || value instanceof PString) && ((PythonObject) value).getPythonClass().isBuiltin();
+    }
+
+    @TruffleBoundary
+    private static String ascii(Object value) {
+        String repr = value.toString();
+        StringBuilder sb = new StringBuilder(repr.length());
+        for (int i = 0; i < repr.length(); i++) {
+            char c = repr.charAt(i);
+            if (c < 128) {
+                sb.append(c);
+            } else if (c < 256) {
+                sb.append(String.format("\\x%02x", (int) c));
+            } else if (Character.isHighSurrogate(c) && i + 1 < repr.length() && Character.isLowSurrogate(repr.charAt(i + 1))) {
+                sb.append(String.format("\\U%08x", repr.codePointAt(i)));
+                i++;
+            } else {
+                sb.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -26,11 +26,15 @@
 package com.oracle.graal.python.runtime.object;
 
 import java.math.BigInteger;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
-import com.oracle.graal.python.builtins.objects.array.PCharArray;
+import com.oracle.graal.python.builtins.objects.array.PArray;
 import com.oracle.graal.python.builtins.objects.array.PDoubleArray;
 import com.oracle.graal.python.builtins.objects.array.PIntArray;
 import com.oracle.graal.python.builtins.objects.array.PLongArray;
@@ -45,6 +49,8 @@ import com.oracle.graal.python.builtins.objects.common.LocalsStorage;
 import com.oracle.graal.python.builtins.objects.complex.PComplex;
 import com.oracle.graal.python.builtins.objects.cpyobject.PythonNativeClass;
 import com.oracle.graal.python.builtins.objects.cpyobject.PythonNativeObject;
+import com.oracle.graal.python.builtins.objects.deque.PDeque;
+import com.oracle.graal.python.builtins.objects.deque.PDequeIterator;
 import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.dict.PDictView;
 import com.oracle.graal.python.builtins.objects.dict.PDictView.PDictItemsView;
@@ -59,31 +65,58 @@ import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.function.PGeneratorFunction;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
+import com.oracle.graal.python.builtins.objects.function.PPartial;
 import com.oracle.graal.python.builtins.objects.function.PythonCallable;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.getsetdescriptor.GetSetDescriptor;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.builtins.objects.iterator.PBaseSetIterator;
-import com.oracle.graal.python.builtins.objects.iterator.PCharArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PDoubleSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PFilter;
 import com.oracle.graal.python.builtins.objects.iterator.PForeignArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PIntegerSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongArrayIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PLongSequenceIterator;
+import com.oracle.graal.python.builtins.objects.iterator.PMap;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator;
+import com.oracle.graal.python.builtins.objects.io.PBufferedRandom;
+import com.oracle.graal.python.builtins.objects.io.PBufferedReader;
+import com.oracle.graal.python.builtins.objects.io.PBufferedWriter;
+import com.oracle.graal.python.builtins.objects.io.PTextIOWrapper;
 import com.oracle.graal.python.builtins.objects.iterator.PRangeIterator.PRangeReverseIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSentinelIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PSequenceIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PStringIterator;
 import com.oracle.graal.python.builtins.objects.iterator.PZip;
+import com.oracle.graal.python.builtins.objects.itertools.PAccumulate;
+import com.oracle.graal.python.builtins.objects.itertools.PChain;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinations;
+import com.oracle.graal.python.builtins.objects.itertools.PCombinationsWithReplacement;
+import com.oracle.graal.python.builtins.objects.itertools.PCompress;
+import com.oracle.graal.python.builtins.objects.itertools.PCount;
+import com.oracle.graal.python.builtins.objects.itertools.PCycle;
+import com.oracle.graal.python.builtins.objects.itertools.PDropwhile;
+import com.oracle.graal.python.builtins.objects.itertools.PFilterfalse;
+import com.oracle.graal.python.builtins.objects.itertools.PGroupBy;
+import com.oracle.graal.python.builtins.objects.itertools.PGrouper;
+import com.oracle.graal.python.builtins.objects.itertools.PIslice;
+import com.oracle.graal.python.builtins.objects.itertools.PPermutations;
+import com.oracle.graal.python.builtins.objects.itertools.PProduct;
+import com.oracle.graal.python.builtins.objects.itertools.PRepeat;
+import com.oracle.graal.python.builtins.objects.itertools.PStarmap;
+import com.oracle.graal.python.builtins.objects.itertools.PTakewhile;
+import com.oracle.graal.python.builtins.objects.itertools.PZipLongest;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.mappingproxy.PMappingproxy;
+import com.oracle.graal.python.builtins.objects.memoryview.MemoryBuffer;
+import com.oracle.graal.python.builtins.objects.memoryview.PMemoryView;
 import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
 import com.oracle.graal.python.builtins.objects.method.PMethod;
 import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.random.PRandom;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.referencetype.PReferenceType;
 import com.oracle.graal.python.builtins.objects.reversed.PSequenceReverseIterator;
@@ -92,12 +125,19 @@ import com.oracle.graal.python.builtins.objects.set.PBaseSet;
 import com.oracle.graal.python.builtins.objects.set.PFrozenSet;
 import com.oracle.graal.python.builtins.objects.set.PSet;
 import com.oracle.graal.python.builtins.objects.slice.PSlice;
+import com.oracle.graal.python.builtins.objects.sre.PSREMatch;
+import com.oracle.graal.python.builtins.objects.sre.PSREPattern;
+import com.oracle.graal.python.builtins.objects.sre.PSREScanner;
+import com.oracle.graal.python.builtins.objects.str.LazyString;
 import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.thread.PLock;
+import com.oracle.graal.python.builtins.objects.thread.PRLock;
 import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
 import com.oracle.graal.python.parser.ExecutionCellSlots;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.profiler.AllocationTracking;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
@@ -159,6 +199,7 @@ public abstract class PythonObjectFactory extends Node {
 
     @SuppressWarnings("static-method")
     public final <T> T trace(T allocatedObject) {
+        AllocationTracking.allocated(allocatedObject);
         return allocatedObject;
     }
 
@@ -222,6 +263,10 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PString(cls, string));
     }
 
+    public PString createString(LazyString string) {
+        return trace(new PString(lookupClass(PythonBuiltinClassType.PString), string));
+    }
+
     public PBytes createBytes(byte[] array) {
         return trace(new PBytes(lookupClass(PythonBuiltinClassType.PBytes), array));
     }
@@ -258,6 +303,14 @@ public abstract class PythonObjectFactory extends Node {
         return createComplex(lookupClass(PythonBuiltinClassType.PComplex), real, imag);
     }
 
+    public PRandom createRandom(PythonClass cls) {
+        return trace(new PRandom(cls));
+    }
+
+    public PRandom createRandom() {
+        return createRandom(lookupClass(PythonBuiltinClassType.PRandom));
+    }
+
     public PRange createRange(int stop) {
         return trace(new PRange(lookupClass(PythonBuiltinClassType.PRange), stop));
     }
@@ -392,6 +445,14 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PDict(cls));
     }
 
+    public PDeque createDeque(PythonClass cls) {
+        return trace(new PDeque(cls));
+    }
+
+    public PDequeIterator createDequeIterator(PDeque deque, boolean reverse) {
+        return trace(new PDequeIterator(lookupClass(PythonBuiltinClassType.PDequeIterator), deque, reverse));
+    }
+
     public PDict createDict(Map<? extends Object, ? extends Object> map) {
         return createDict(new HashMapStorage(map));
     }
@@ -405,6 +466,9 @@ public abstract class PythonObjectFactory extends Node {
     }
 
     public PDict createDictFixedStorage(PythonObject pythonObject) {
+        if (pythonObject instanceof PythonModule) {
+            return createDict(new PythonObjectDictStorage(pythonObject.getStorage(), ((PythonModule) pythonObject).getGlobalAssumptions()));
+        }
         return createDict(new PythonObjectDictStorage(pythonObject.getStorage()));
     }
 
@@ -442,6 +506,20 @@ public abstract class PythonObjectFactory extends Node {
                         frameDescriptor, globals, closure, cellSlots, numOfActiveFlags, numOfGeneratorBlockNode, numOfGeneratorForNode));
     }
 
+    public PMemoryView createMemoryView(MemoryBuffer buffer) {
+        return createMemoryView(lookupClass(PythonBuiltinClassType.PMemoryView), buffer);
+    }
+
+    public PMemoryView createMemoryView(PythonClass cls, MemoryBuffer buffer) {
+        String format = buffer.getFormat();
+        int itemSize = PMemoryView.getItemSize(format);
+        return trace(new PMemoryView(cls, buffer, format, 0, buffer.getByteLength() / itemSize, itemSize, buffer.isReadOnly()));
+    }
+
+    public PMemoryView createMemoryView(MemoryBuffer buffer, String format, int offset, int length, int stride, boolean readOnly) {
+        return trace(new PMemoryView(lookupClass(PythonBuiltinClassType.PMemoryView), buffer, format, offset, length, stride, readOnly));
+    }
+
     public PMappingproxy createMappingproxy(PythonObject self) {
         return trace(new PMappingproxy(lookupClass(PythonBuiltinClassType.PMappingproxy), self));
     }
@@ -454,6 +532,14 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PReferenceType(lookupClass(PythonBuiltinClassType.PReferenceType), object, callback));
     }
 
+    public PLock createLock() {
+        return trace(new PLock(lookupClass(PythonBuiltinClassType.PLock)));
+    }
+
+    public PRLock createRLock() {
+        return trace(new PRLock(lookupClass(PythonBuiltinClassType.PRLock)));
+    }
+
     /*
      * Frames, traces and exceptions
      */
@@ -483,20 +569,12 @@ public abstract class PythonObjectFactory extends Node {
      * Arrays
      */
 
-    public PIntArray createIntArray(PythonClass cls, int[] array) {
-        return trace(new PIntArray(cls, array));
-    }
-
-    public PDoubleArray createDoubleArray(PythonClass cls, double[] array) {
-        return trace(new PDoubleArray(cls, array));
+    public PArray createArray(PythonClass cls, char typeCode, int capacity) {
+        return trace(PArray.allocate(cls, typeCode, capacity));
     }
 
-    public PCharArray createCharArray(PythonClass cls, char[] array) {
-        return trace(new PCharArray(cls, array));
-    }
-
-    public PLongArray createLongArray(PythonClass cls, long[] array) {
-        return trace(new PLongArray(cls, array));
+    public PArray createArray(char typeCode, int capacity) {
+        return createArray(lookupClass(PythonBuiltinClassType.PArray), typeCode, capacity);
     }
 
     public PByteArray createByteArray(PythonClass cls, byte[] array) {
@@ -507,22 +585,6 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PByteArray(cls, storage));
     }
 
-    public PIntArray createIntArray(int[] array) {
-        return trace(new PIntArray(lookupClass(PythonBuiltinClassType.PIntArray), array));
-    }
-
-    public PDoubleArray createDoubleArray(double[] array) {
-        return trace(new PDoubleArray(lookupClass(PythonBuiltinClassType.PDoubleArray), array));
-    }
-
-    public PCharArray createCharArray(char[] array) {
-        return trace(new PCharArray(lookupClass(PythonBuiltinClassType.PCharArray), array));
-    }
-
-    public PLongArray createLongArray(long[] array) {
-        return trace(new PLongArray(lookupClass(PythonBuiltinClassType.PLongArray), array));
-    }
-
     public PByteArray createByteArray(byte[] array) {
         return trace(new PByteArray(lookupClass(PythonBuiltinClassType.PByteArray), array));
     }
@@ -583,10 +645,6 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PLongArrayIterator(lookupClass(PythonBuiltinClassType.PLongArrayIterator), array));
     }
 
-    public PCharArrayIterator createCharArrayIterator(PCharArray array) {
-        return trace(new PCharArrayIterator(lookupClass(PythonBuiltinClassType.PCharArrayIterator), array));
-    }
-
     public PBaseSetIterator createBaseSetIterator(PBaseSet set) {
         return trace(new PBaseSetIterator(lookupClass(PythonBuiltinClassType.PBaseSetIterator), set));
     }
@@ -615,7 +673,124 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PZip(cls, iterables));
     }
 
+    public PMap createMap(PythonClass cls, Object function, Object[] iterators) {
+        return trace(new PMap(cls, function, iterators));
+    }
+
+    public PFilter createFilter(PythonClass cls, Object function, Object iterator) {
+        return trace(new PFilter(cls, function, iterator));
+    }
+
+    public PPartial createPartial(PythonClass cls, Object function, Object[] args, PKeyword[] keywords) {
+        return trace(new PPartial(cls, function, args, keywords));
+    }
+
     public PForeignArrayIterator createForeignArrayIterator(TruffleObject iterable, int size) {
         return trace(new PForeignArrayIterator(lookupClass(PythonBuiltinClassType.PForeignArrayIterator), iterable, size));
     }
+
+    /*
+     * itertools
+     */
+
+    public PChain createChain(PythonClass cls, Object source) {
+        return trace(new PChain(cls, source));
+    }
+
+    public PCount createCount(PythonClass cls, Object start, Object step) {
+        return trace(new PCount(cls, start, step));
+    }
+
+    public PRepeat createRepeat(PythonClass cls, Object element, long times) {
+        return trace(new PRepeat(cls, element, times));
+    }
+
+    public PIslice createIslice(PythonClass cls, Object iterator, long start, long stop, long step) {
+        return trace(new PIslice(cls, iterator, start, stop, step));
+    }
+
+    public PStarmap createStarmap(PythonClass cls, Object function, Object iterator) {
+        return trace(new PStarmap(cls, function, iterator));
+    }
+
+    public PCompress createCompress(PythonClass cls, Object data, Object selectors) {
+        return trace(new PCompress(cls, data, selectors));
+    }
+
+    public PTakewhile createTakewhile(PythonClass cls, Object predicate, Object iterator) {
+        return trace(new PTakewhile(cls, predicate, iterator));
+    }
+
+    public PDropwhile createDropwhile(PythonClass cls, Object predicate, Object iterator) {
+        return trace(new PDropwhile(cls, predicate, iterator));
+    }
+
+    public PFilterfalse createFilterfalse(PythonClass cls, Object predicate, Object iterator) {
+        return trace(new PFilterfalse(cls, predicate, iterator));
+    }
+
+    public PAccumulate createAccumulate(PythonClass cls, Object iterator, Object function, Object initial) {
+        return trace(new PAccumulate(cls, iterator, function, initial));
+    }
+
+    public PCycle createCycle(PythonClass cls, Object iterator) {
+        return trace(new PCycle(cls, iterator));
+    }
+
+    public PZipLongest createZipLongest(PythonClass cls, Object[] iterators, Object fillValue) {
+        return trace(new PZipLongest(cls, iterators, fillValue));
+    }
+
+    public PGroupBy createGroupBy(PythonClass cls, Object iterator, Object keyFunction) {
+        return trace(new PGroupBy(cls, iterator, keyFunction));
+    }
+
+    public PSREPattern createSREPattern(Object source, int flags, int groups, Object groupindex, String[] indexgroup, boolean bytes, Pattern regex) {
+        return trace(new PSREPattern(lookupClass(PythonBuiltinClassType.PSREPattern), source, flags, groups, groupindex, indexgroup, bytes, regex));
+    }
+
+    public PSREMatch createSREMatch(PSREPattern pattern, Object string, String input, int pos, int endpos, int[] regs) {
+        return trace(new PSREMatch(lookupClass(PythonBuiltinClassType.PSREMatch), pattern, string, input, pos, endpos, regs));
+    }
+
+    public PSREScanner createSREScanner(PSREPattern pattern, Object string, String input, int pos, int endpos) {
+        return trace(new PSREScanner(lookupClass(PythonBuiltinClassType.PSREScanner), pattern, string, input, pos, endpos));
+    }
+
+    public PBufferedReader createBufferedReader(PythonClass cls, Object raw, SeekableByteChannel channel, int bufferSize) {
+        return trace(new PBufferedReader(cls, raw, channel, bufferSize));
+    }
+
+    public PBufferedWriter createBufferedWriter(PythonClass cls, Object raw, SeekableByteChannel channel, int bufferSize) {
+        return trace(new PBufferedWriter(cls, raw, channel, bufferSize));
+    }
+
+    public PBufferedRandom createBufferedRandom(PythonClass cls, Object raw, SeekableByteChannel channel, int bufferSize) {
+        return trace(new PBufferedRandom(cls, raw, channel, bufferSize));
+    }
+
+    public PTextIOWrapper createTextIOWrapper(PythonClass cls, Object buffer, Charset charset, String encoding, String errors, CodingErrorAction action, Object newline,
+                    boolean lineBuffering, boolean writeThrough) {
+        return trace(new PTextIOWrapper(cls, buffer, charset, encoding, errors, action, newline, lineBuffering, writeThrough));
+    }
+
+    public PGrouper createGrouper(PGroupBy parent, Object targetKey) {
+        return trace(new PGrouper(lookupClass(PythonBuiltinClassType.PGrouper), parent, targetKey));
+    }
+
+    public PPermutations createPermutations(PythonClass cls, Object[] pool, int r) {
+        return trace(new PPermutations(cls, pool, r));
+    }
+
+    public PCombinations createCombinations(PythonClass cls, Object[] pool, int r) {
+        return trace(new PCombinations(cls, pool, r));
+    }
+
+    public PCombinationsWithReplacement createCombinationsWithReplacement(PythonClass cls, Object[] pool, int r) {
+        return trace(new PCombinationsWithReplacement(cls, pool, r));
+    }
+
+    public PProduct createProduct(PythonClass cls, Object[][] gears) {
+        return trace(new PProduct(cls, gears));
+    }
 }
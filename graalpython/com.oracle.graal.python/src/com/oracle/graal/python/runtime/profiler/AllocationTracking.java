@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.profiler;
+
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+
+/**
+ * The hooks through which {@code PythonObjectFactory} and the sequence storages report to the
+ * {@link PythonAllocationProfiler}. Until a profiler is switched on for the first time, the hooks
+ * fold away entirely in compiled code.
+ * <p>
+ * There is only one active profiler per VM: switching on a profiler in one engine takes over the
+ * reports from a profiler in another.
+ */
+public final class AllocationTracking {
+    private static final Assumption neverEnabled = Truffle.getRuntime().createAssumption("Python allocation tracking never enabled");
+
+    private static volatile PythonAllocationProfiler profiler;
+
+    private AllocationTracking() {
+    }
+
+    static synchronized void enable(PythonAllocationProfiler newProfiler) {
+        neverEnabled.invalidate();
+        profiler = newProfiler;
+    }
+
+    static synchronized void disable(PythonAllocationProfiler oldProfiler) {
+        if (profiler == oldProfiler) {
+            profiler = null;
+        }
+    }
+
+    public static void allocated(Object object) {
+        if (!neverEnabled.isValid()) {
+            reportAllocation(object);
+        }
+    }
+
+    /**
+     * Called for the storages of new lists and tuples, which are specialized to the types of their
+     * initial elements.
+     */
+    public static void storageCreated(SequenceStorage storage) {
+        if (!neverEnabled.isValid()) {
+            reportStorage(storage.getClass(), null);
+        }
+    }
+
+    public static void storageGeneralized(SequenceStorage storage, Class<? extends SequenceStorage> generalized) {
+        if (!neverEnabled.isValid()) {
+            reportStorage(generalized, storage.getClass());
+        }
+    }
+
+    @TruffleBoundary
+    private static void reportAllocation(Object object) {
+        PythonAllocationProfiler current = profiler;
+        if (current != null) {
+            current.onAllocation(object);
+        }
+    }
+
+    @TruffleBoundary
+    private static void reportStorage(Class<?> storage, Class<?> generalizedFrom) {
+        PythonAllocationProfiler current = profiler;
+        if (current != null) {
+            current.onStorage(storage, generalizedFrom);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.profiler;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
+import com.oracle.graal.python.builtins.objects.ints.PInt;
+import com.oracle.graal.python.builtins.objects.object.PythonObject;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
+import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.BasicSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ObjectSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Attributes the objects created through {@code PythonObjectFactory} to the Python statements that
+ * created them. Each thread remembers the statement it is executing, and every
+ * {@code sampleRate}-th allocation of a thread is recorded for that statement, weighted by the
+ * sample rate. Storage events are sampled with a countdown of their own, so that they do not
+ * shift which allocations are recorded.
+ * <p>
+ * Besides object counts and estimated sizes per class, the profiler counts the specialized
+ * sequence storages that are created for lists and tuples, and how many of them were generalized
+ * to {@link ObjectSequenceStorage} later on. Sizes are shallow estimates for a 64-bit VM with
+ * compressed references, taken when the object is created.
+ */
+public final class PythonAllocationProfiler implements PythonProfilerInstrument.Profiler {
+    private static final String UNKNOWN_SITE = "<unknown>";
+
+    private final Env env;
+    private final int sampleRate;
+
+    // like the shadow stacks of the sampler, the state goes away with its thread
+    private volatile ThreadLocal<ThreadState> threads = new ThreadLocal<>();
+
+    private final Map<String, Site> sites = new HashMap<>();
+    private final Map<String, long[]> classes = new HashMap<>();
+    private final Map<String, Long> storagesCreated = new HashMap<>();
+    private long storagesGeneralized;
+
+    private EventBinding<?> statementBinding;
+
+    private static final class Site {
+        private final String source;
+        private final int line;
+        private final Map<String, long[]> classes = new HashMap<>();
+        private long generalizations;
+
+        Site(String source, int line) {
+            this.source = source;
+            this.line = line;
+        }
+    }
+
+    private static final class ThreadState {
+        private SourceSection statement;
+        private int allocationCountdown = 1;
+        private int storageCountdown = 1;
+    }
+
+    PythonAllocationProfiler(Env env, int sampleRate) {
+        this.env = env;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public synchronized boolean isCollecting() {
+        return statementBinding != null;
+    }
+
+    @Override
+    public synchronized void setCollecting(boolean collecting) {
+        if (collecting == isCollecting()) {
+            return;
+        }
+        if (collecting) {
+            SourceSectionFilter statements = SourceSectionFilter.newBuilder().mimeTypeIs(PythonLanguage.MIME_TYPE).tagIs(StandardTags.StatementTag.class).build();
+            statementBinding = env.getInstrumenter().attachFactory(statements, context -> new StatementEventNode(context));
+            AllocationTracking.enable(this);
+        } else {
+            AllocationTracking.disable(this);
+            statementBinding.dispose();
+            statementBinding = null;
+            threads = new ThreadLocal<>();
+        }
+    }
+
+    public synchronized void clear() {
+        sites.clear();
+        classes.clear();
+        storagesCreated.clear();
+        storagesGeneralized = 0;
+    }
+
+    /**
+     * Returns the weight of the current allocation of a thread, or 0 if it is not sampled.
+     */
+    private int sampleAllocation(ThreadState state) {
+        if (--state.allocationCountdown > 0) {
+            return 0;
+        }
+        state.allocationCountdown = sampleRate;
+        return sampleRate;
+    }
+
+    /**
+     * Returns the weight of the current storage event of a thread, or 0 if it is not sampled.
+     */
+    private int sampleStorage(ThreadState state) {
+        if (--state.storageCountdown > 0) {
+            return 0;
+        }
+        state.storageCountdown = sampleRate;
+        return sampleRate;
+    }
+
+    private Site site(ThreadState state) {
+        SourceSection statement = state.statement;
+        String source = statement != null ? statement.getSource().getName() : UNKNOWN_SITE;
+        int line = statement != null ? statement.getStartLine() : 0;
+        return sites.computeIfAbsent(source + ":" + line, k -> new Site(source, line));
+    }
+
+    private static void add(Map<String, long[]> counts, String name, long count, long bytes) {
+        long[] entry = counts.computeIfAbsent(name, k -> new long[2]);
+        entry[0] += count;
+        entry[1] += bytes;
+    }
+
+    @TruffleBoundary
+    void onAllocation(Object object) {
+        ThreadState state = lookupThreadState();
+        int weight = sampleAllocation(state);
+        if (weight == 0) {
+            return;
+        }
+        String name = className(object);
+        long bytes = (long) weight * estimateSize(object);
+        synchronized (this) {
+            add(classes, name, weight, bytes);
+            add(site(state).classes, name, weight, bytes);
+        }
+    }
+
+    @TruffleBoundary
+    void onStorage(Class<?> storage, Class<?> generalizedFrom) {
+        ThreadState state = lookupThreadState();
+        int weight = sampleStorage(state);
+        if (weight == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (generalizedFrom == null || generalizedFrom == EmptySequenceStorage.class) {
+                storagesCreated.merge(storage.getSimpleName(), (long) weight, Long::sum);
+            } else if (storage == ObjectSequenceStorage.class) {
+                storagesGeneralized += weight;
+                site(state).generalizations += weight;
+            }
+        }
+    }
+
+    private static String className(Object object) {
+        if (object instanceof PythonObject) {
+            return ((PythonObject) object).getPythonClass().getName();
+        }
+        return object.getClass().getSimpleName();
+    }
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int PYTHON_OBJECT = 32;
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static long arraySize(long length, int elementSize) {
+        return align(16 + length * elementSize);
+    }
+
+    static long estimateSize(Object object) {
+        if (object instanceof PString) {
+            return PYTHON_OBJECT + align(OBJECT_HEADER + 12) + arraySize(((PString) object).len(), 2);
+        } else if (object instanceof PInt) {
+            return PYTHON_OBJECT + align(OBJECT_HEADER + 16) + arraySize((((PInt) object).getValue().bitLength() + 31) / 32, 4);
+        } else if (object instanceof PTuple) {
+            return PYTHON_OBJECT + arraySize(((PTuple) object).getArray().length, REFERENCE);
+        } else if (object instanceof PSequence) {
+            return PYTHON_OBJECT + estimateSize(((PSequence) object).getSequenceStorage());
+        } else if (object instanceof PDict) {
+            // a hash map entry and its share of the table
+            return PYTHON_OBJECT + align(OBJECT_HEADER + 48) + ((PDict) object).size() * (align(OBJECT_HEADER + 4 * REFERENCE) + 2 * REFERENCE);
+        }
+        return PYTHON_OBJECT;
+    }
+
+    private static long estimateSize(SequenceStorage storage) {
+        if (!(storage instanceof BasicSequenceStorage)) {
+            return 0;
+        }
+        int capacity = ((BasicSequenceStorage) storage).getCapacity();
+        int elementSize;
+        if (storage instanceof IntSequenceStorage) {
+            elementSize = 4;
+        } else if (storage instanceof DoubleSequenceStorage || storage instanceof LongSequenceStorage) {
+            elementSize = 8;
+        } else if (storage instanceof ByteSequenceStorage || storage instanceof BoolSequenceStorage) {
+            elementSize = 1;
+        } else {
+            elementSize = REFERENCE;
+        }
+        return align(OBJECT_HEADER + 8) + arraySize(capacity, elementSize);
+    }
+
+    /**
+     * Writes the profile as a JSON object with the keys {@code sampleRate}, {@code classes}
+     * (ordered by decreasing bytes), {@code sites} (ordered by decreasing bytes) and
+     * {@code storages}.
+     */
+    public synchronized void writeJSON(PrintStream out) {
+        out.println(toJSON());
+        out.flush();
+    }
+
+    @Override
+    public void writeReport(PrintStream out) {
+        writeJSON(out);
+    }
+
+    public synchronized String toJSON() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"sampleRate\": ").append(sampleRate).append(",\n  \"classes\": ");
+        appendClasses(sb, classes, "  ");
+        sb.append(",\n  \"sites\": [");
+        List<Site> sortedSites = new ArrayList<>(sites.values());
+        sortedSites.sort((a, b) -> Long.compare(totalBytes(b.classes), totalBytes(a.classes)));
+        for (int i = 0; i < sortedSites.size(); i++) {
+            Site site = sortedSites.get(i);
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    {\"source\": ");
+            appendString(sb, site.source);
+            sb.append(", \"line\": ").append(site.line);
+            sb.append(", \"generalizations\": ").append(site.generalizations);
+            sb.append(", \"classes\": ");
+            appendClasses(sb, site.classes, "    ");
+            sb.append('}');
+        }
+        sb.append(sortedSites.isEmpty() ? "]" : "\n  ]");
+
+        long specialized = 0;
+        for (Entry<String, Long> entry : storagesCreated.entrySet()) {
+            if (!entry.getKey().equals(ObjectSequenceStorage.class.getSimpleName()) && !entry.getKey().equals(EmptySequenceStorage.class.getSimpleName())) {
+                specialized += entry.getValue();
+            }
+        }
+        sb.append(",\n  \"storages\": {\"created\": {");
+        int i = 0;
+        for (Entry<String, Long> entry : storagesCreated.entrySet()) {
+            sb.append(i++ == 0 ? "" : ", ");
+            appendString(sb, entry.getKey());
+            sb.append(": ").append(entry.getValue());
+        }
+        sb.append("}, \"generalizedToObject\": ").append(storagesGeneralized);
+        sb.append(", \"generalizedShare\": ").append(specialized == 0 ? 0.0 : (double) storagesGeneralized / specialized);
+        sb.append("}\n}");
+        return sb.toString();
+    }
+
+    private static long totalBytes(Map<String, long[]> counts) {
+        long total = 0;
+        for (long[] entry : counts.values()) {
+            total += entry[1];
+        }
+        return total;
+    }
+
+    private static void appendClasses(StringBuilder sb, Map<String, long[]> counts, String indent) {
+        List<Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]));
+        sb.append('[');
+        for (int i = 0; i < entries.size(); i++) {
+            Entry<String, long[]> entry = entries.get(i);
+            sb.append(i == 0 ? "\n" : ",\n").append(indent).append("  {\"class\": ");
+            appendString(sb, entry.getKey());
+            sb.append(", \"count\": ").append(entry.getValue()[0]);
+            sb.append(", \"bytes\": ").append(entry.getValue()[1]).append('}');
+        }
+        sb.append(entries.isEmpty() ? "]" : "\n" + indent + "]");
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private final class StatementEventNode extends PerThreadEventNode<ThreadState> {
+        private final SourceSection statement;
+
+        StatementEventNode(EventContext context) {
+            this.statement = context.getInstrumentedSourceSection();
+        }
+
+        @Override
+        protected ThreadState lookupState() {
+            return lookupThreadState();
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            getState().statement = statement;
+        }
+    }
+
+    @TruffleBoundary
+    private ThreadState lookupThreadState() {
+        ThreadState state = threads.get();
+        if (state == null) {
+            state = new ThreadState();
+            threads.set(state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.profiler;
+
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionValues;
+
+import com.oracle.truffle.api.Option;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+
+/**
+ * Registers the {@link PythonAllocationProfiler} with the engine. With
+ * {@code --python-allocation-profiler} it records from the start and writes its JSON report when
+ * the engine is closed.
+ */
+@Option.Group(PythonAllocationProfilerInstrument.ID)
+@TruffleInstrument.Registration(id = PythonAllocationProfilerInstrument.ID, name = "Python Allocation Profiler", version = "0.1", services = PythonAllocationProfiler.class)
+public final class PythonAllocationProfilerInstrument extends PythonProfilerInstrument<PythonAllocationProfiler> {
+    public static final String ID = "python-allocation-profiler";
+
+    @Option(name = "", category = OptionCategory.USER, help = "Attribute Python object allocations to source lines and report them as JSON.") //
+    static final OptionKey<Boolean> Enabled = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.USER, help = "Record only every n-th allocation of each thread.") //
+    static final OptionKey<Integer> SampleRate = new OptionKey<>(1);
+
+    @Option(category = OptionCategory.USER, help = "File to write the JSON report to. Standard error is used if this is empty.") //
+    static final OptionKey<String> Output = new OptionKey<>("");
+
+    public PythonAllocationProfilerInstrument() {
+        super(Enabled, Output, "allocation profile");
+    }
+
+    @Override
+    protected PythonAllocationProfiler createProfiler(Env env, OptionValues options) {
+        return new PythonAllocationProfiler(env, options.get(SampleRate));
+    }
+
+    @Override
+    protected OptionDescriptors getOptionDescriptors() {
+        return new PythonAllocationProfilerInstrumentOptionDescriptors();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.profiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Counters for the transitions that make Python code slow without failing: sequence storages that
+ * are generalized, dict storages that are switched to a more generic map, unboxed storages that
+ * could not be used and inline caches that went generic. Each count is kept per kind of event, the
+ * types involved and the source location that caused it.
+ * <p>
+ * The counters are enabled with {@code --python.Metrics} and can be read with
+ * {@code __graalpython__.metrics()} or through the {@value #MBEAN_NAME} MXBean. Until the first
+ * context enables them, recording an event folds away in compiled code. Only contexts that enabled
+ * them record events, into counters that are shared by all of these contexts in the VM.
+ */
+public final class PythonMetrics {
+    public static final String SEQUENCE_STORAGE_GENERALIZED = "sequence-storage-generalized";
+    public static final String DICT_STORAGE_SWITCHED = "dict-storage-switched";
+    public static final String UNBOXED_STORAGE_HIT = "unboxed-storage-hit";
+    public static final String UNBOXED_STORAGE_MISS = "unboxed-storage-miss";
+    public static final String INLINE_CACHE_OVERFLOW = "inline-cache-overflow";
+
+    static final String MBEAN_NAME = "com.oracle.graal.python:type=Metrics";
+    private static final String UNKNOWN_LOCATION = "<unknown>";
+    private static final String ANY_LOCATION = "<any>";
+
+    private static final Assumption neverEnabled = Truffle.getRuntime().createAssumption("Python metrics never enabled");
+    private static final ConcurrentHashMap<Key, LongAdder> counters = new ConcurrentHashMap<>();
+    private static boolean registered;
+
+    private PythonMetrics() {
+    }
+
+    public interface PythonMetricsMXBean {
+        /**
+         * @return the counters as {@code "event from -> to @ location"} to count
+         */
+        Map<String, Long> getCounts();
+
+        void reset();
+    }
+
+    private static final class Bean implements PythonMetricsMXBean {
+        @Override
+        public Map<String, Long> getCounts() {
+            Map<String, Long> result = new TreeMap<>();
+            for (Map.Entry<Key, LongAdder> entry : counters.entrySet()) {
+                Key key = entry.getKey();
+                result.put(key.event + " " + key.from + " -> " + key.to + " @ " + key.location, entry.getValue().sum());
+            }
+            return result;
+        }
+
+        @Override
+        public void reset() {
+            PythonMetrics.reset();
+        }
+    }
+
+    private static final class Key {
+        private final String event;
+        private final String from;
+        private final String to;
+        private final String location;
+
+        Key(String event, String from, String to, String location) {
+            this.event = event;
+            this.from = from;
+            this.to = to;
+            this.location = location;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return event.equals(other.event) && from.equals(other.from) && to.equals(other.to) && location.equals(other.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(event, from, to, location);
+        }
+    }
+
+    /**
+     * A recorded counter: the event, the types it went from and to, the location and the count.
+     */
+    public static final class Counter {
+        public final String event;
+        public final String from;
+        public final String to;
+        public final String location;
+        public final long count;
+
+        Counter(Key key, long count) {
+            this.event = key.event;
+            this.from = key.from;
+            this.to = key.to;
+            this.location = key.location;
+            this.count = count;
+        }
+    }
+
+    @TruffleBoundary
+    public static synchronized void enable(PythonContext context) {
+        context.setMetricsEnabled();
+        neverEnabled.invalidate();
+        if (!registered && !PythonCore.AOT) {
+            registered = true;
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(MBEAN_NAME));
+            } catch (JMException | SecurityException e) {
+                // the counters are still available from Python
+            }
+        }
+    }
+
+    /**
+     * @return whether the current context records events
+     */
+    public static boolean isEnabled() {
+        return !neverEnabled.isValid() && PythonLanguage.getContext().isMetricsEnabled();
+    }
+
+    /**
+     * Records an event. The location is taken from {@code node} if it has one, otherwise from the
+     * innermost call site on the stack that has one.
+     */
+    public static void record(String event, Class<?> from, Class<?> to, Node node) {
+        if (isEnabled()) {
+            recordBoundary(event, from.getSimpleName(), to.getSimpleName(), node);
+        }
+    }
+
+    /**
+     * Records an event that is too frequent to look for its location, counting it only by the
+     * types involved.
+     */
+    public static void recordWithoutLocation(String event, Class<?> from, Class<?> to) {
+        if (isEnabled()) {
+            recordBoundary(event, from.getSimpleName(), to.getSimpleName(), ANY_LOCATION);
+        }
+    }
+
+    @TruffleBoundary
+    private static void recordBoundary(String event, String from, String to, Node node) {
+        recordBoundary(event, from, to, location(node));
+    }
+
+    @TruffleBoundary
+    private static void recordBoundary(String event, String from, String to, String location) {
+        counters.computeIfAbsent(new Key(event, from, to, location), k -> new LongAdder()).increment();
+    }
+
+    private static String location(Node node) {
+        SourceSection section = node != null ? node.getEncapsulatingSourceSection() : null;
+        if (section == null) {
+            section = Truffle.getRuntime().iterateFrames(frame -> {
+                Node callNode = frame.getCallNode();
+                return callNode != null ? callNode.getEncapsulatingSourceSection() : null;
+            });
+        }
+        if (section == null) {
+            return UNKNOWN_LOCATION;
+        }
+        return section.getSource().getName() + ":" + section.getStartLine();
+    }
+
+    @TruffleBoundary
+    public static List<Counter> getCounters() {
+        List<Counter> result = new ArrayList<>();
+        for (Map.Entry<Key, LongAdder> entry : counters.entrySet()) {
+            result.add(new Counter(entry.getKey(), entry.getValue().sum()));
+        }
+        return result;
+    }
+
+    @TruffleBoundary
+    public static void reset() {
+        counters.clear();
+    }
+}
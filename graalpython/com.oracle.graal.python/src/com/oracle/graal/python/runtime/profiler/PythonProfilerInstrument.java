@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.profiler;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionValues;
+
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+
+/**
+ * What the instruments of the Python profilers have in common: the profiler is registered as a
+ * service, collects from the start if the instrument's enabled option is set, and in that case
+ * writes its report to the file of the output option, or standard error, when the engine is
+ * closed.
+ */
+abstract class PythonProfilerInstrument<T extends PythonProfilerInstrument.Profiler> extends TruffleInstrument {
+
+    interface Profiler {
+        void setCollecting(boolean collecting);
+
+        void writeReport(PrintStream out);
+    }
+
+    private final OptionKey<Boolean> enabled;
+    private final OptionKey<String> output;
+    private final String reportName;
+
+    private T profiler;
+
+    PythonProfilerInstrument(OptionKey<Boolean> enabled, OptionKey<String> output, String reportName) {
+        this.enabled = enabled;
+        this.output = output;
+        this.reportName = reportName;
+    }
+
+    protected abstract T createProfiler(Env env, OptionValues options);
+
+    @Override
+    protected final void onCreate(Env env) {
+        OptionValues options = env.getOptions();
+        profiler = createProfiler(env, options);
+        env.registerService(profiler);
+        if (options.get(enabled)) {
+            profiler.setCollecting(true);
+        }
+    }
+
+    @Override
+    protected final void onDispose(Env env) {
+        profiler.setCollecting(false);
+        OptionValues options = env.getOptions();
+        if (options.get(enabled)) {
+            String file = options.get(output);
+            if (file.isEmpty()) {
+                profiler.writeReport(new PrintStream(env.err()));
+            } else {
+                try (PrintStream out = new PrintStream(new FileOutputStream(file))) {
+                    profiler.writeReport(out);
+                } catch (FileNotFoundException e) {
+                    new PrintStream(env.err()).println("cannot write " + reportName + " to " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or data
+ * (collectively the "Software"), free of charge and under any and all copyright
+ * rights in the Software, and any and all patent rights owned or freely
+ * licensable by each licensor hereunder covering either (i) the unmodified
+ * Software as contributed to or provided by such licensor, or (ii) the Larger
+ * Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ *     one is included with the Software (each a "Larger Work" to which the
+ *     Software is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime.profiler;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Env;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * A sampling profiler for Python code. Instead of counting every node execution, it keeps a shadow
+ * stack per thread: entering and leaving a Python function pushes and pops a frame, and each
+ * statement only stores its line in the top frame. A timer thread periodically copies the shadow
+ * stacks of all threads that are running Python code and counts how often each distinct stack was
+ * seen. The counts are written in the collapsed format of {@code flamegraph.pl}, one line per stack
+ * with the frames from the outermost to the innermost separated by semicolons.
+ * <p>
+ * The sampler only reads the shadow stacks without synchronization, so a sample taken while a
+ * thread pushes or pops may be off by a frame. That is the usual trade-off of sampling.
+ */
+public final class PythonSampler implements PythonProfilerInstrument.Profiler {
+    private final Env env;
+    private final long period;
+
+    /*
+     * Each thread's stack lives in a thread local, so it goes away with its thread. Only the stacks
+     * of threads that are inside Python code are registered for sampling.
+     */
+    private volatile ThreadLocal<ShadowStack> threadStacks = new ThreadLocal<>();
+    private final Set<ShadowStack> activeStacks = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> counts = new HashMap<>();
+    private long samples;
+
+    private EventBinding<?> rootBinding;
+    private EventBinding<?> statementBinding;
+    private Timer timer;
+
+    PythonSampler(Env env, long period) {
+        this.env = env;
+        this.period = Math.max(1, period);
+    }
+
+    public synchronized boolean isCollecting() {
+        return timer != null;
+    }
+
+    /**
+     * Starts or stops sampling. While the sampler is stopped, Python code runs without any of its
+     * instrumentation.
+     */
+    @Override
+    public synchronized void setCollecting(boolean collecting) {
+        if (collecting == isCollecting()) {
+            return;
+        }
+        if (collecting) {
+            SourceSectionFilter roots = SourceSectionFilter.newBuilder().mimeTypeIs(PythonLanguage.MIME_TYPE).tagIs(StandardTags.RootTag.class).build();
+            SourceSectionFilter statements = SourceSectionFilter.newBuilder().mimeTypeIs(PythonLanguage.MIME_TYPE).tagIs(StandardTags.StatementTag.class).build();
+            rootBinding = env.getInstrumenter().attachFactory(roots, context -> new RootEventNode(context));
+            statementBinding = env.getInstrumenter().attachFactory(statements, context -> new StatementEventNode(context));
+            timer = new Timer("python-sampler", true);
+            timer.scheduleAtFixedRate(new TimerTask() {
+                @Override
+                public void run() {
+                    sample();
+                }
+            }, period, period);
+        } else {
+            timer.cancel();
+            timer = null;
+            rootBinding.dispose();
+            statementBinding.dispose();
+            rootBinding = null;
+            statementBinding = null;
+            // stacks that were left mid-call must not be picked up when sampling resumes
+            threadStacks = new ThreadLocal<>();
+            activeStacks.clear();
+        }
+    }
+
+    /**
+     * @return the number of threads that are currently inside Python code
+     */
+    public int getActiveThreadCount() {
+        return activeStacks.size();
+    }
+
+    public synchronized long getSampleCount() {
+        return samples;
+    }
+
+    public synchronized void clear() {
+        counts.clear();
+        samples = 0;
+    }
+
+    @Override
+    public void writeReport(PrintStream out) {
+        writeCollapsedStacks(out);
+    }
+
+    /**
+     * Writes one line per distinct stack, ordered by decreasing count.
+     */
+    public synchronized void writeCollapsedStacks(PrintStream out) {
+        List<Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        for (Entry<String, Long> entry : entries) {
+            out.print(entry.getKey());
+            out.print(' ');
+            out.println(entry.getValue());
+        }
+        out.flush();
+    }
+
+    private synchronized void sample() {
+        StringBuilder sb = new StringBuilder();
+        for (ShadowStack stack : activeStacks) {
+            sb.setLength(0);
+            if (stack.appendTo(sb)) {
+                counts.merge(sb.toString(), 1L, Long::sum);
+                samples++;
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private ShadowStack lookupStack() {
+        ShadowStack stack = threadStacks.get();
+        if (stack == null) {
+            stack = new ShadowStack(activeStacks);
+            threadStacks.set(stack);
+        }
+        return stack;
+    }
+
+    static final class ShadowStack {
+        private final Set<ShadowStack> activeStacks;
+        private String[] frames = new String[32];
+        private int[] lines = new int[32];
+        private volatile int depth;
+
+        ShadowStack(Set<ShadowStack> activeStacks) {
+            this.activeStacks = activeStacks;
+        }
+
+        @TruffleBoundary
+        void push(String frame, int line) {
+            int d = depth;
+            if (d == 0) {
+                activeStacks.add(this);
+            } else if (d == frames.length) {
+                lines = Arrays.copyOf(lines, d * 2);
+                frames = Arrays.copyOf(frames, d * 2);
+            }
+            frames[d] = frame;
+            lines[d] = line;
+            depth = d + 1;
+        }
+
+        void pop() {
+            int d = depth;
+            if (d > 0) {
+                depth = d - 1;
+                if (d == 1) {
+                    deactivate();
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private void deactivate() {
+            activeStacks.remove(this);
+        }
+
+        void setLine(int line) {
+            int d = depth;
+            if (d > 0) {
+                lines[d - 1] = line;
+            }
+        }
+
+        /**
+         * Appends the frames from the outermost to the innermost, or returns {@code false} if the
+         * thread is not running Python code.
+         */
+        boolean appendTo(StringBuilder sb) {
+            int d = depth;
+            String[] f = frames;
+            int[] l = lines;
+            d = Math.min(d, Math.min(f.length, l.length));
+            for (int i = 0; i < d; i++) {
+                if (i > 0) {
+                    sb.append(';');
+                }
+                sb.append(f[i]).append(':').append(l[i]);
+            }
+            return d > 0;
+        }
+    }
+
+    private abstract class SamplerEventNode extends PerThreadEventNode<ShadowStack> {
+        @Override
+        protected final ShadowStack lookupState() {
+            return lookupStack();
+        }
+    }
+
+    private final class RootEventNode extends SamplerEventNode {
+        private final String frame;
+        private final int line;
+
+        RootEventNode(EventContext context) {
+            SourceSection section = context.getInstrumentedSourceSection();
+            String name = context.getInstrumentedNode().getRootNode().getName();
+            this.frame = name + " (" + section.getSource().getName() + ")";
+            this.line = section.getStartLine();
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            getState().push(this.frame, line);
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            getState().pop();
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            getState().pop();
+        }
+    }
+
+    private final class StatementEventNode extends SamplerEventNode {
+        private final int line;
+
+        StatementEventNode(EventContext context) {
+            this.line = context.getInstrumentedSourceSection().getStartLine();
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            getState().setLine(line);
+        }
+    }
+}
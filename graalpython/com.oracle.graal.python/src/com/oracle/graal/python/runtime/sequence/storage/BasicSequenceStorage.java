@@ -38,6 +38,10 @@ public abstract class BasicSequenceStorage extends SequenceStorage {
         return length;
     }
 
+    public final int getCapacity() {
+        return capacity;
+    }
+
     /**
      * The capacity we should allocate for a given length.
      */
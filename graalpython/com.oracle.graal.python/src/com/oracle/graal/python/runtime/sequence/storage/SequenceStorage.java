@@ -27,6 +27,8 @@ package com.oracle.graal.python.runtime.sequence.storage;
 
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.profiler.AllocationTracking;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
@@ -91,6 +93,8 @@ public abstract class SequenceStorage {
     }
 
     protected void logGeneralization() {
+        AllocationTracking.storageGeneralized(this, ObjectSequenceStorage.class);
+        PythonMetrics.record(PythonMetrics.SEQUENCE_STORAGE_GENERALIZED, getClass(), ObjectSequenceStorage.class, null);
         // TODO(ls): this is expensive
         if (LOG_GENERALIZATION && PythonOptions.getOption(PythonLanguage.getContext(), PythonOptions.TraceSequenceStorageGeneralization)) {
             printGeneralization("ObjectSequenceStorage");
@@ -98,6 +102,8 @@ public abstract class SequenceStorage {
     }
 
     protected void logGeneralization(SequenceStorage storage) {
+        AllocationTracking.storageGeneralized(this, storage.getClass());
+        PythonMetrics.record(PythonMetrics.SEQUENCE_STORAGE_GENERALIZED, getClass(), storage.getClass(), null);
         if (LOG_GENERALIZATION && PythonOptions.getOption(PythonLanguage.getContext(), PythonOptions.TraceSequenceStorageGeneralization)) {
             printGeneralization(storage);
         }
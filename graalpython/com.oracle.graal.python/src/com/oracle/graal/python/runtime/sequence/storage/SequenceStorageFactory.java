@@ -31,6 +31,8 @@ import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.runtime.PythonOptions;
+import com.oracle.graal.python.runtime.profiler.AllocationTracking;
+import com.oracle.graal.python.runtime.profiler.PythonMetrics;
 
 public class SequenceStorageFactory {
 
@@ -43,6 +45,17 @@ public class SequenceStorageFactory {
     }
 
     public SequenceStorage createStorage(Object[] values) {
+        SequenceStorage storage = specializeStorage(values);
+        AllocationTracking.storageCreated(storage);
+        if (unboxSequenceStorage && values.length > 0) {
+            String event = storage instanceof ObjectSequenceStorage ? PythonMetrics.UNBOXED_STORAGE_MISS : PythonMetrics.UNBOXED_STORAGE_HIT;
+            // created for every list and tuple, looking for the location would dominate the cost
+            PythonMetrics.recordWithoutLocation(event, values[0].getClass(), storage.getClass());
+        }
+        return storage;
+    }
+
+    private SequenceStorage specializeStorage(Object[] values) {
         assert values != null;
         assert values.getClass() == Object[].class : "cannot use non-Object array for modifiable list";
         if (!unboxSequenceStorage) {
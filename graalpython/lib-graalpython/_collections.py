@@ -36,9 +36,6 @@
 # SOFTWARE.
 
 
-deque = list
-
-
 class defaultdict(dict):
     def __new__(self, default_factory, *args, **kwds):
         dict.__init__(self, args, kwds)
@@ -502,10 +502,7 @@ class FileIO(_RawIOBase):
     def readinto(self, rwbuffer):
         self._checkClosed()
         self._checkReadable()
-        length = len(rwbuffer)
-        buf = _os.read(self.__fd__, length)
-        rwbuffer[:] = buf
-        return len(buf)
+        return _os.readv(self.__fd__, [rwbuffer])
 
     def readall(self):
         self._checkClosed()
@@ -647,30 +644,14 @@ class StringIO(_TextIOBase):
     pass
 
 
-class BufferedReader(_BufferedIOBase):
-    pass
-
-
-class BufferedWriter(_BufferedIOBase):
-    pass
-
-
 class BufferedRWPair(_BufferedIOBase):
     pass
 
 
-class BufferedRandom(_BufferedIOBase):
-    pass
-
-
 class IncrementalNewlineDecoder(object):
     pass
 
 
-class TextIOWrapper(_TextIOBase):
-    pass
-
-
 def open(file, mode="r", buffering=-1, encoding=None, errors=None, newline=None, closefd=True, opener=None):
     if not isinstance(file, (str, int, bytes)):
         raise TypeError("invalid file: %r" % file)
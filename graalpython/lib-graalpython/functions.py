@@ -85,28 +85,6 @@ locals = make_locals_function()
 del make_locals_function
 
 
-def any(iterable):
-    for i in iterable:
-        if i:
-            return True
-    return False
-
-
-def all(iterable):
-    for i in iterable:
-        if not i:
-            return False
-    return True
-
-
-def filter(func, iterable):
-    result = []
-    for i in iterable:
-        if func(i):
-            result.append(i)
-    return tuple(result)
-
-
 def exec(source, globals=None, locals=None):
     # compile returns the source if already a code object
     return eval(compile(source, "<exec>", "exec"), globals, locals)
@@ -126,24 +104,6 @@ def __build_class__(func, name, *bases, metaclass=None, **kwargs):
     return type(name, bases, ns)
 
 
-class map(object):
-    def __init__(self, func, iterable, *args):
-        self.__func = func
-        iterators = [iter(iterable)]
-        for i in args:
-            iterators.append(iter(i))
-        self.__iterators = iterators
-
-    def __next__(self):
-        args = []
-        for it in self.__iterators:
-            args.append(next(it))
-        return self.__func(*args)
-
-    def __iter__(self):
-        return self
-
-
 def _caller_locals():
     import sys
     return sys._getframe(2).f_locals
@@ -171,14 +131,3 @@ def format(value, format_spec=''):
     See the Format Specification Mini-Language section of help('FORMATTING') for
     details."""
     return value.__format__(format_spec)
-
-
-def sorted(iterable, key=None, reverse=False):
-    """Return a new list containing all items from the iterable in ascending order.
-
-    A custom key function can be supplied to customize the sort order, and the
-    reverse flag can be set to request the result in descending order.
-    """
-    result = list(iterable)
-    result.sort(key=key, reverse=reverse)
-    return result
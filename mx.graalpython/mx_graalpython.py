@@ -213,6 +213,14 @@ def punittest(args):
     unittest(args + ['--regex', '(graal\.python)|(com\.oracle\.truffle\.tck\.tests)'])
 
 
+def python_startup_bench(args):
+    """measure context creation with and without the shared core"""
+    vm_args, bench_args = mx.extract_VM_args(args, useDoubleDash=True, defaultAllVMArgs=False)
+    vm_args += mx.get_runtime_jvm_args(['GRAALPYTHON', 'GRAALPYTHON_UNIT_TESTS'])
+    vm_args.append('com.oracle.graal.python.test.runtime.ContextStartupBenchmark')
+    mx.run_java(vm_args + bench_args, jdk=get_jdk())
+
+
 def nativebuild(args):
     mx.build(["--only", "com.oracle.graal.python.cext"])
 
@@ -568,5 +576,6 @@ mx.update_commands(_suite, {
     'delete-graalpython-if-testdownstream': [delete_self_if_testdownstream, ''],
     'python-license-headers-update': [python_license_headers_update, 'Make sure code files have copyright notices'],
     'punittest': [punittest, ''],
+    'python-startup-bench': [python_startup_bench, '[number of contexts]'],
     'nativebuild': [nativebuild, '']
 })
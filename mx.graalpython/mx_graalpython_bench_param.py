@@ -97,6 +97,7 @@ pythonMicroBenchmarks = {
     'list-comp': [],
     'list-indexing': [],
     'list-iterating': [],
+    'marshal-dumps-loads': [],
     'math-sqrt': [],
     # 'object-allocate': [],
     # 'object-layout-change': [],